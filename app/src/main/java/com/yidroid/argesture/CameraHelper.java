@@ -1,6 +1,7 @@
 // =================================================================================
 // 文件: app/src/main/java/com/yidroid/argesture/CameraHelper.java
 // 描述: [已重构] 封装所有相机底层操作的帮助类，并修复崩溃问题。
+//       FrameSource 的相机实现。
 // =================================================================================
 package com.yidroid.argesture;
 
@@ -10,72 +11,160 @@ import android.content.Context;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.ImageFormat;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.hardware.camera2.params.OutputConfiguration;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.media.Image;
 import android.media.ImageReader;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.Range;
+import android.util.Size;
 import android.view.Surface;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class CameraHelper {
-
-    public interface CameraListener {
-        void onImageAvailable(Bitmap bitmap);
-        void onCameraConfigured(String cameraId, int sensorRotation, int facing);
-        void onCameraError(String message);
-    }
+public class CameraHelper implements FrameSource {
 
     private static final String TAG = "CameraHelper";
     private final Context context;
-    private final CameraListener listener;
+    private final FrameSource.Listener listener;
     private final GestureSettings settings;
     private final YuvToRgbConverter yuvToRgbConverter;
+    private final FramePool framePool;
+    /**
+     * 四个屏幕方向各自的画面旋转角和旋转矩阵，在相机配置或画面尺寸变化时一次性算好，
+     * 屏幕旋转时只需按方向取用，不在图像线程上重新计算。
+     */
+    private final int[] rotationDegreesByScreen = new int[4];
+    private final Matrix[] rotationMatrices = {new Matrix(), new Matrix(), new Matrix(), new Matrix()};
+    private final Paint rotationPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private int rotationMatrixWidth = -1, rotationMatrixHeight = -1;
+    private int sensorRotation = 0;
 
     private final CameraManager cameraManager;
     private CameraDevice cameraDevice;
     private CameraCaptureSession captureSession;
+    private CaptureRequest.Builder requestBuilder;
     private ImageReader imageReader;
+    /**
+     * 待机模式使用的低分辨率ImageReader，仅读取Y平面做运动检测。
+     */
+    private ImageReader standbyReader;
+    private volatile boolean isStandby = false;
+    private final LumaChangeDetector standbyMotionDetector = new LumaChangeDetector(16, 12);
+    private long lastStandbyAnalysisNs = 0;
+    private boolean motionReported = false;
+    /**
+     * 静态场景检测器，参考帧始终是最近一次真正送去推理的帧，避免缓慢移动被逐帧累积忽略。
+     */
+    private final LumaChangeDetector staticSceneDetector = new LumaChangeDetector(32, 24);
+    /**
+     * 自上一次静态场景比较判定为“有变化”以来连续跳过的帧数，用于限制静态跳帧的最长时间。
+     */
+    private int staticFramesSkipped = 0;
+    /**
+     * 自上一次真正送去推理以来经过的帧数（含静态跳过和光流传播的帧），只在 deliverFrame 中清零，用于推理抽帧。
+     */
+    private int framesSinceDelivery = 0;
+    private long analyzedFrameCount = 0;
+    private long skippedFrameCount = 0;
+
+    // --- 推理抽帧与光流传播 ---
+    private LandmarkFlowTracker flowTracker;
+    private final float[] propagatedX = new float[LandmarkFlowTracker.MAX_HANDS * LandmarkFlowTracker.LANDMARKS_PER_HAND];
+    private final float[] propagatedY = new float[propagatedX.length];
+    private final float[] propagatedZ = new float[propagatedX.length];
+    private long propagatedFrameCount = 0;
+    private long fallbackInferenceCount = 0;
+    /**
+     * 会话中的预览输出配置。没有可用Surface时以延迟Surface（deferred surface）方式创建，
+     * 使得之后附加预览无需重建会话。
+     */
+    private OutputConfiguration previewOutput;
+    /**
+     * 已绑定到 {@link #previewOutput} 的预览Surface。
+     */
+    private Surface boundPreviewSurface;
+    /**
+     * 相机参数缓存，避免每次启动都遍历所有摄像头并重新查询。
+     */
+    private final Map<String, CameraCharacteristics> characteristicsCache = new HashMap<>();
+    private String cachedCameraId;
+    private CameraCharacteristics activeCharacteristics;
+    private CaptureProfile activeProfile;
+    private ExposureCapController exposureController;
+    private int timestampSource = CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE_UNKNOWN;
+    private LatencyTracker sensorLatencyTracker;
+    private int meteringFrameCounter = 0;
+    /**
+     * 手动曝光模式下每隔多少帧测量一次画面亮度。
+     */
+    private static final int METERING_INTERVAL_FRAMES = 4;
     private HandlerThread cameraThread;
     private Handler cameraHandler;
     private final AtomicBoolean isCameraOpening = new AtomicBoolean(false);
     private String activeCameraId;
+    /**
+     * 当前附加的预览Surface，为null时会话仅输出到ImageReader（无预览的纯分析模式）。
+     */
     private Surface activeSurface;
+    private long previewToggleStartNanos;
+    private volatile boolean isCameraRequested = false;
     private volatile boolean isStopping = false;
 
-    public CameraHelper(Context context, CameraListener listener) {
+    public CameraHelper(Context context, FrameSource.Listener listener, FramePool framePool) {
         this.context = context;
         this.listener = listener;
+        this.framePool = framePool;
         this.settings = GestureSettings.getInstance(context);
         this.yuvToRgbConverter = new YuvToRgbConverter(context);
         this.cameraManager = (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
     }
 
+    @Override
     public void start() {
         startCameraThread();
     }
 
+    @Override
     public void stop() {
         stopCamera();
         stopCameraThread();
     }
 
+    /**
+     * 打开摄像头并开始图像分析。
+     * @param previewSurface 可选的预览Surface；传入null时以纯分析模式运行，之后可通过 {@link #setPreviewSurface(Surface)} 附加预览。
+     */
     @SuppressLint("MissingPermission")
+    @Override
     public void startCamera(Surface previewSurface) {
         if (isCameraOpening.getAndSet(true)) return;
         isStopping = false;
+        isCameraRequested = true;
+        activeSurface = previewSurface;
 
         if (ContextCompat.checkSelfPermission(context, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
             listener.onCameraError("Camera permission not granted.");
@@ -85,25 +174,34 @@ public class CameraHelper {
 
         cameraHandler.post(() -> {
             try {
-                String selectedCameraId = findCamera(CameraCharacteristics.LENS_FACING_FRONT);
-                if (selectedCameraId == null) {
-                    selectedCameraId = findCamera(CameraCharacteristics.LENS_FACING_BACK);
+                if (cachedCameraId == null) {
+                    cachedCameraId = findCamera(CameraCharacteristics.LENS_FACING_FRONT);
+                    if (cachedCameraId == null) {
+                        cachedCameraId = findCamera(CameraCharacteristics.LENS_FACING_BACK);
+                    }
                 }
 
-                if (selectedCameraId == null) {
+                if (cachedCameraId == null) {
                     listener.onCameraError("No available camera found.");
                     isCameraOpening.set(false);
                     return;
                 }
 
-                activeCameraId = selectedCameraId;
-                CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(activeCameraId);
-                int sensorRotation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
+                activeCameraId = cachedCameraId;
+                CameraCharacteristics characteristics = getCharacteristics(activeCameraId);
+                activeCharacteristics = characteristics;
+                Integer source = characteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+                timestampSource = source != null ? source : CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE_UNKNOWN;
+                sensorRotation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
+                precomputeRotations();
                 int facing = characteristics.get(CameraCharacteristics.LENS_FACING);
 
                 listener.onCameraConfigured(activeCameraId, sensorRotation, facing);
 
-                imageReader = ImageReader.newInstance(settings.CAMERA_WIDTH, settings.CAMERA_HEIGHT, ImageFormat.YUV_420_888, 2);
+                // 分辨率在相机打开时确定，修改后下次打开相机生效
+                SettingsSnapshot config = settings.get();
+                imageReader = ImageReader.newInstance(config.CAMERA_WIDTH, config.CAMERA_HEIGHT, ImageFormat.YUV_420_888, 2);
+                flowTracker = new LandmarkFlowTracker(config.CAMERA_WIDTH / 2, config.CAMERA_HEIGHT / 2);
                 imageReader.setOnImageAvailableListener(this::onImageAvailable, cameraHandler);
 
                 cameraManager.openCamera(activeCameraId, new CameraDevice.StateCallback() {
@@ -112,8 +210,7 @@ public class CameraHelper {
                         if (isStopping) { camera.close(); return; }
                         isCameraOpening.set(false);
                         cameraDevice = camera;
-                        activeSurface = previewSurface;
-                        createCaptureSession(previewSurface);
+                        createCaptureSession();
                     }
 
                     @Override
@@ -138,12 +235,99 @@ public class CameraHelper {
         });
     }
 
+    /**
+     * 附加或移除预览Surface，不会中断图像分析。
+     * 相机设备保持打开：已绑定的Surface只需更新重复请求的输出目标，
+     * 延迟Surface通过 finalizeOutputConfigurations 绑定，仅在Surface更换时才重建会话。
+     * @param previewSurface 新的预览Surface；传入null则切换到纯分析模式。
+     */
+    @Override
+    public void setPreviewSurface(Surface previewSurface) {
+        if (cameraHandler == null) {
+            activeSurface = previewSurface;
+            return;
+        }
+        cameraHandler.post(() -> {
+            if (activeSurface == previewSurface) return;
+            activeSurface = previewSurface;
+            previewToggleStartNanos = SystemClock.elapsedRealtimeNanos();
+            if (cameraDevice == null || captureSession == null || isStandby) return; // 会话创建时会读取activeSurface
+
+            boolean hasPreview = previewSurface != null && previewSurface.isValid();
+            if (!hasPreview || previewSurface == boundPreviewSurface) {
+                updateRepeatingRequest("targets");
+            } else if (boundPreviewSurface == null && previewOutput != null) {
+                try {
+                    previewOutput.addSurface(previewSurface);
+                    captureSession.finalizeOutputConfigurations(Collections.singletonList(previewOutput));
+                    boundPreviewSurface = previewSurface;
+                    updateRepeatingRequest("deferred");
+                } catch (CameraAccessException | IllegalArgumentException | IllegalStateException e) {
+                    Log.w(TAG, "Failed to finalize deferred preview surface, recreating session", e);
+                    createCaptureSession();
+                }
+            } else {
+                createCaptureSession();
+            }
+        });
+    }
+
+    /**
+     * 返回预览Surface应使用的缓冲区尺寸，与延迟输出配置中声明的尺寸一致。
+     */
+    public Size getPreviewSize() {
+        SettingsSnapshot config = settings.get();
+        return new Size(config.CAMERA_WIDTH, config.CAMERA_HEIGHT);
+    }
+
+    /**
+     * 进入待机模式：会话只输出到一个低分辨率的Y平面读取器，以 STANDBY_ANALYSIS_FPS 的频率做帧差运动检测，
+     * 不再进行颜色转换和推理。检测到运动时回调 {@link FrameSource.Listener#onMotionDetected()}。
+     */
+    @Override
+    public void enterStandby() {
+        if (cameraHandler == null) return;
+        cameraHandler.post(() -> {
+            if (isStandby) return;
+            isStandby = true;
+            motionReported = false;
+            standbyMotionDetector.reset();
+            createCaptureSession();
+        });
+    }
+
+    /**
+     * 退出待机模式，恢复完整的图像分析（以及之前附加的预览）。
+     */
+    @Override
+    public void exitStandby() {
+        if (cameraHandler == null) return;
+        cameraHandler.post(() -> {
+            if (!isStandby) return;
+            isStandby = false;
+            staticSceneDetector.reset();
+            if (flowTracker != null) flowTracker.invalidate();
+            createCaptureSession();
+        });
+    }
+
+    @Override
+    public boolean isStandby() {
+        return isStandby;
+    }
+
     public void stopCamera() {
         isStopping = true;
+        isCameraRequested = false;
+        isStandby = false;
         try {
             if (captureSession != null) { captureSession.close(); captureSession = null; }
+            requestBuilder = null;
+            previewOutput = null;
+            boundPreviewSurface = null;
             if (cameraDevice != null) { cameraDevice.close(); cameraDevice = null; }
             if (imageReader != null) { imageReader.close(); imageReader = null; }
+            if (standbyReader != null) { standbyReader.close(); standbyReader = null; }
         } catch (Exception e) {
             Log.e(TAG, "Error closing camera resources", e);
         }
@@ -151,20 +335,245 @@ public class CameraHelper {
 
     private void onImageAvailable(ImageReader reader) {
         try (Image image = reader.acquireLatestImage()) {
+            if (image != null) {
+                recordSensorLatency(image.getTimestamp());
+                meterExposure(image);
+            }
             if (image != null && listener != null) {
-                Bitmap bitmap = yuvToRgbConverter.yuvToRgb(image);
-                listener.onImageAvailable(bitmap);
+                // 整帧使用同一份设置快照，设置页面的修改从下一帧开始生效
+                SettingsSnapshot config = settings.get();
+                if (isStaticScene(image, config)) {
+                    listener.onFrameSkipped();
+                } else if (!propagateLandmarks(image, config)) {
+                    deliverFrame(image, config);
+                }
             }
         } catch (Exception e) {
             Log.e(TAG, "Error processing image", e);
         }
     }
 
+    /**
+     * 用Y平面粗网格的SAD判断画面是否与上一次推理的帧相同。
+     * 为防止结果长期过时，连续跳过 STATIC_SCENE_MAX_SKIP_FRAMES 帧后强制推理一次。
+     */
+    private boolean isStaticScene(Image image, SettingsSnapshot config) {
+        if (config.STATIC_SCENE_THRESHOLD <= 0f) return false;
+        Image.Plane yPlane = image.getPlanes()[0];
+        float change = staticSceneDetector.compare(yPlane.getBuffer(), yPlane.getRowStride(), yPlane.getPixelStride(),
+                image.getWidth(), image.getHeight());
+        boolean skip = change < config.STATIC_SCENE_THRESHOLD && staticFramesSkipped < config.STATIC_SCENE_MAX_SKIP_FRAMES;
+        if (skip) {
+            staticFramesSkipped++;
+            framesSinceDelivery++;
+            skippedFrameCount++;
+        } else {
+            // 参考帧不在这里更新：本帧可能只做光流传播，参考帧只在 deliverFrame 中替换为真正推理的帧
+            staticFramesSkipped = 0;
+        }
+        if (++analyzedFrameCount % 240 == 0) {
+            Log.d(TAG, String.format(Locale.US, "Static scene skip rate: %.1f%% (%d/%d)",
+                    100f * skippedFrameCount / analyzedFrameCount, skippedFrameCount, analyzedFrameCount));
+        }
+        return skip;
+    }
+
+    /**
+     * @return 光流跟踪器；相机未打开时返回null。
+     */
+    @Override
+    public LandmarkFlowTracker getFlowTracker() {
+        return flowTracker;
+    }
+
+    /**
+     * 推理抽帧：每 INFERENCE_DECIMATION 帧只推理一次，其余帧用光流传播上一次的关节点。
+     * 光流置信度不足或手势姿态可能变化时立即回退到完整推理。
+     * @return 如果本帧已通过传播处理，返回 true。
+     */
+    private boolean propagateLandmarks(Image image, SettingsSnapshot config) {
+        LandmarkFlowTracker tracker = flowTracker;
+        if (tracker == null || !tracker.hasAnchor()
+                || framesSinceDelivery >= config.INFERENCE_DECIMATION - 1) {
+            return false;
+        }
+        Image.Plane yPlane = image.getPlanes()[0];
+        boolean ok = tracker.propagate(yPlane.getBuffer(), yPlane.getRowStride(), yPlane.getPixelStride(),
+                config.FLOW_MIN_CONFIDENCE, config.FLOW_POSE_CHANGE_THRESHOLD, config.FLOW_PINCH_GUARD);
+        if (!ok) {
+            fallbackInferenceCount++;
+            return false;
+        }
+        int count = tracker.getPoints(propagatedX, propagatedY, propagatedZ);
+        framesSinceDelivery++;
+        if (++propagatedFrameCount % 240 == 0) {
+            Log.d(TAG, "Propagated frames: " + propagatedFrameCount + ", early fallbacks to inference: " + fallbackInferenceCount);
+        }
+        listener.onLandmarksPropagated(propagatedX, propagatedY, propagatedZ, count, captureUptimeMs(image.getTimestamp()));
+        return true;
+    }
+
+    /**
+     * 从帧池租用缓冲区，将图像转换并旋转到屏幕方向后交给监听者。
+     * 帧池耗尽时直接丢弃当前帧，既不额外分配，也不覆盖仍在推理中的缓冲区。
+     */
+    private void deliverFrame(Image image, SettingsSnapshot config) {
+        // 方向取自本帧的设置快照，同一帧的旋转角、尺寸和版本号一定来自同一个方向
+        int screenRotation = config.SCREEN_ROTATION & 3;
+        int rotationDegrees = rotationDegreesByScreen[screenRotation];
+        boolean swapSize = rotationDegrees == 90 || rotationDegrees == 270;
+        int width = swapSize ? image.getHeight() : image.getWidth();
+        int height = swapSize ? image.getWidth() : image.getHeight();
+
+        FramePool.Frame frame = framePool.acquire(width, height);
+        if (frame == null) return;
+        framesSinceDelivery = 0;
+        if (config.STATIC_SCENE_THRESHOLD > 0f) {
+            staticSceneDetector.acceptCurrent();
+        }
+        try {
+            frame.rotationDegrees = rotationDegrees;
+            frame.screenRotation = screenRotation;
+            frame.rotationVersion = config.ROTATION_VERSION;
+            LandmarkFlowTracker tracker = flowTracker;
+            if (tracker != null && config.INFERENCE_DECIMATION > 1) {
+                // 保存该帧的亮度图，推理结果返回后以此作为光流跟踪的起点
+                if (frame.luma == null || frame.luma.length != tracker.getWidth() * tracker.getHeight()) {
+                    frame.luma = new byte[tracker.getWidth() * tracker.getHeight()];
+                }
+                Image.Plane yPlane = image.getPlanes()[0];
+                LandmarkFlowTracker.downsampleLuma(yPlane.getBuffer(), yPlane.getRowStride(), yPlane.getPixelStride(),
+                        frame.luma, tracker.getWidth(), tracker.getHeight());
+                frame.hasLuma = true;
+            }
+            Bitmap bitmap = yuvToRgbConverter.yuvToRgb(image);
+            if (bitmap.getWidth() != rotationMatrixWidth || bitmap.getHeight() != rotationMatrixHeight) {
+                precomputeRotationMatrices(bitmap.getWidth(), bitmap.getHeight());
+            }
+            frame.getCanvas().drawBitmap(bitmap, rotationMatrices[screenRotation], rotationPaint);
+            listener.onImageAvailable(frame);
+        } catch (RuntimeException e) {
+            framePool.release(frame);
+            throw e;
+        }
+    }
+
+    private void onStandbyImageAvailable(ImageReader reader) {
+        try (Image image = reader.acquireLatestImage()) {
+            if (image == null || motionReported) return;
+            // 相机以最低帧率运行，这里再按时间戳降到 STANDBY_ANALYSIS_FPS
+            long intervalNs = 1_000_000_000L / Math.max(1, settings.get().STANDBY_ANALYSIS_FPS);
+            if (image.getTimestamp() - lastStandbyAnalysisNs < intervalNs) return;
+            lastStandbyAnalysisNs = image.getTimestamp();
+
+            Image.Plane yPlane = image.getPlanes()[0];
+            float change = standbyMotionDetector.update(yPlane.getBuffer(), yPlane.getRowStride(), yPlane.getPixelStride(),
+                    image.getWidth(), image.getHeight());
+            if (change > settings.get().STANDBY_MOTION_THRESHOLD) {
+                Log.i(TAG, "Motion detected in standby (change=" + change + ")");
+                motionReported = true;
+                listener.onMotionDetected();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error processing standby image", e);
+        }
+    }
+
+    /**
+     * 选择支持的最小YUV输出尺寸（宽度不小于160）用于待机检测。
+     */
+    private Size selectStandbySize() {
+        StreamConfigurationMap map = activeCharacteristics != null
+                ? activeCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP) : null;
+        SettingsSnapshot config = settings.get();
+        Size best = new Size(config.CAMERA_WIDTH, config.CAMERA_HEIGHT);
+        if (map == null) return best;
+        Size[] sizes = map.getOutputSizes(ImageFormat.YUV_420_888);
+        if (sizes == null) return best;
+        for (Size size : sizes) {
+            if (size.getWidth() >= 160 && (long) size.getWidth() * size.getHeight() < (long) best.getWidth() * best.getHeight()) {
+                best = size;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 待机会话：只输出到低分辨率读取器，并使用设备支持的最低帧率范围。
+     */
+    private void createStandbySession() throws CameraAccessException {
+        if (standbyReader == null) {
+            Size size = selectStandbySize();
+            standbyReader = ImageReader.newInstance(size.getWidth(), size.getHeight(), ImageFormat.YUV_420_888, 2);
+            standbyReader.setOnImageAvailableListener(this::onStandbyImageAvailable, cameraHandler);
+        }
+        previewOutput = null;
+        boundPreviewSurface = null;
+        requestBuilder = null;
+
+        Surface standbySurface = standbyReader.getSurface();
+        final CaptureRequest.Builder builder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
+        builder.addTarget(standbySurface);
+        Range<Integer>[] ranges = activeCharacteristics != null
+                ? activeCharacteristics.get(CameraCharacteristics.CONTROL_AE_AVAILABLE_TARGET_FPS_RANGES) : null;
+        if (ranges != null && ranges.length > 0) {
+            Range<Integer> lowest = ranges[0];
+            for (Range<Integer> range : ranges) {
+                if (range.getUpper() < lowest.getUpper()) lowest = range;
+            }
+            builder.set(CaptureRequest.CONTROL_AE_TARGET_FPS_RANGE, lowest);
+        }
+
+        cameraDevice.createCaptureSessionByOutputConfigurations(
+                Collections.singletonList(new OutputConfiguration(standbySurface)), new CameraCaptureSession.StateCallback() {
+            @Override
+            public void onConfigured(@NonNull CameraCaptureSession session) {
+                if (cameraDevice == null) return;
+                captureSession = session;
+                try {
+                    session.setRepeatingRequest(builder.build(), null, cameraHandler);
+                    Log.d(TAG, "Standby session configured.");
+                } catch (CameraAccessException | IllegalStateException e) {
+                    listener.onCameraError("Failed to start standby capture: " + e.getMessage());
+                }
+            }
+            @Override
+            public void onConfigureFailed(@NonNull CameraCaptureSession session) {
+                listener.onCameraError("Failed to configure standby session.");
+                try { session.close(); } catch(Exception e) { /* ignore */ }
+            }
+        }, cameraHandler);
+    }
+
+    /**
+     * 计算四个屏幕方向下把传感器图像旋转到屏幕方向所需的角度。
+     */
+    private void precomputeRotations() {
+        for (int rotation = 0; rotation < rotationDegreesByScreen.length; rotation++) {
+            rotationDegreesByScreen[rotation] = (sensorRotation - RotationTransforms.toDegrees(rotation) + 360) % 360;
+        }
+        rotationMatrixWidth = rotationMatrixHeight = -1;
+    }
+
+    private void precomputeRotationMatrices(int srcWidth, int srcHeight) {
+        for (int rotation = 0; rotation < rotationMatrices.length; rotation++) {
+            int degrees = rotationDegreesByScreen[rotation];
+            boolean swapSize = degrees == 90 || degrees == 270;
+            Matrix matrix = rotationMatrices[rotation];
+            matrix.reset();
+            matrix.postTranslate(-srcWidth / 2f, -srcHeight / 2f);
+            matrix.postRotate(degrees);
+            matrix.postTranslate((swapSize ? srcHeight : srcWidth) / 2f, (swapSize ? srcWidth : srcHeight) / 2f);
+        }
+        rotationMatrixWidth = srcWidth;
+        rotationMatrixHeight = srcHeight;
+    }
+
     private final CameraManager.AvailabilityCallback cameraAvailabilityCallback = new CameraManager.AvailabilityCallback() {
         @Override
         public void onCameraAvailable(@NonNull String cameraId) {
             super.onCameraAvailable(cameraId);
-            if (activeCameraId != null && activeCameraId.equals(cameraId) && activeSurface != null && cameraHandler != null) {
+            if (activeCameraId != null && activeCameraId.equals(cameraId) && isCameraRequested && cameraDevice == null && cameraHandler != null) {
                 Log.i(TAG, "Our active camera (" + cameraId + ") became available. Re-opening...");
                 cameraHandler.post(() -> startCamera(activeSurface));
             }
@@ -184,32 +593,50 @@ public class CameraHelper {
         }
     };
 
-    private void createCaptureSession(Surface previewSurface) {
-        if (isStopping || cameraDevice == null || previewSurface == null || !previewSurface.isValid() || imageReader == null) return;
+    private void createCaptureSession() {
+        if (isStopping || cameraDevice == null || imageReader == null) return;
+        Surface previewSurface = activeSurface;
+        boolean hasPreview = previewSurface != null && previewSurface.isValid();
         try {
             // **关键修正：在创建新会话之前，确保关闭任何可能存在的旧会话**
             if (captureSession != null) {
                 captureSession.close();
                 captureSession = null;
             }
+            if (isStandby) {
+                createStandbySession();
+                return;
+            }
 
             Surface imageReaderSurface = imageReader.getSurface();
-            final CaptureRequest.Builder builder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
+            CaptureProfile profile = settings.get().CAPTURE_PROFILE;
+            final CaptureRequest.Builder builder = cameraDevice.createCaptureRequest(
+                    profile.useRecordTemplate ? CameraDevice.TEMPLATE_RECORD : CameraDevice.TEMPLATE_PREVIEW);
             builder.addTarget(imageReaderSurface);
-            builder.addTarget(previewSurface);
-            cameraDevice.createCaptureSession(Arrays.asList(imageReaderSurface, previewSurface), new CameraCaptureSession.StateCallback() {
+            applyCaptureProfile(builder, profile);
+
+            // 预览输出始终保留在会话中：有Surface时直接绑定，否则作为延迟Surface占位
+            final OutputConfiguration preview = hasPreview
+                    ? new OutputConfiguration(previewSurface)
+                    : new OutputConfiguration(getPreviewSize(), SurfaceTexture.class);
+            List<OutputConfiguration> outputs = new ArrayList<>();
+            outputs.add(new OutputConfiguration(imageReaderSurface));
+            outputs.add(preview);
+            cameraDevice.createCaptureSessionByOutputConfigurations(outputs, new CameraCaptureSession.StateCallback() {
                 @Override
                 public void onConfigured(@NonNull CameraCaptureSession session) {
                     if (cameraDevice == null) return;
                     captureSession = session;
-                    try {
-                        builder.set(CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_PICTURE);
-                        builder.set(CaptureRequest.CONTROL_AE_TARGET_FPS_RANGE, new Range<>(settings.DESIRED_CAMERA_FPS, settings.DESIRED_CAMERA_FPS));
-                        session.setRepeatingRequest(builder.build(), null, cameraHandler);
-                        Log.d(TAG, "Capture session configured and repeating request set.");
-                    } catch (CameraAccessException | IllegalStateException e) { // ** 关键修正：捕获IllegalStateException **
-                        listener.onCameraError("Failed to start camera preview: " + e.getMessage());
+                    requestBuilder = builder;
+                    previewOutput = preview;
+                    boundPreviewSurface = hasPreview ? previewSurface : null;
+                    if (activeSurface != boundPreviewSurface && activeSurface != null && activeSurface.isValid()) {
+                        // 会话配置期间预览Surface已发生变化，按最新状态重新处理
+                        Surface pending = activeSurface;
+                        activeSurface = boundPreviewSurface;
+                        setPreviewSurface(pending);
                     }
+                    updateRepeatingRequest("session");
                 }
                 @Override
                 public void onConfigureFailed(@NonNull CameraCaptureSession session) {
@@ -217,11 +644,186 @@ public class CameraHelper {
                     try { session.close(); } catch(Exception e) { /* ignore */ }
                 }
             }, cameraHandler);
-        } catch (CameraAccessException e) {
+        } catch (CameraAccessException | IllegalArgumentException e) {
             listener.onCameraError("Failed to create capture session: " + e.getMessage());
         }
     }
 
+    /**
+     * 根据当前预览状态更新重复请求的输出目标，无需重建会话。
+     * @param path 本次切换所走的路径，仅用于日志中的耗时统计。
+     */
+    private void updateRepeatingRequest(String path) {
+        if (captureSession == null || requestBuilder == null) return;
+        boolean previewEnabled = boundPreviewSurface != null && boundPreviewSurface == activeSurface && boundPreviewSurface.isValid();
+        try {
+            if (boundPreviewSurface != null) {
+                if (previewEnabled) {
+                    requestBuilder.addTarget(boundPreviewSurface);
+                } else {
+                    requestBuilder.removeTarget(boundPreviewSurface);
+                }
+            }
+            captureSession.setRepeatingRequest(requestBuilder.build(), captureCallback, cameraHandler);
+            if (previewToggleStartNanos != 0) {
+                long elapsedMs = (SystemClock.elapsedRealtimeNanos() - previewToggleStartNanos) / 1_000_000;
+                Log.d(TAG, "Preview " + (previewEnabled ? "attached" : "detached") + " via " + path + " in " + elapsedMs + " ms");
+                previewToggleStartNanos = 0;
+            } else if ("session".equals(path)) {
+                Log.d(TAG, "Capture session configured and repeating request set. Preview attached: " + previewEnabled);
+            }
+        } catch (CameraAccessException | IllegalStateException e) { // ** 关键修正：捕获IllegalStateException **
+            listener.onCameraError("Failed to start camera preview: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按配置档设置对焦、帧率、曝光上限以及降噪/锐化模式。设备不支持的选项保持模板默认值。
+     */
+    private void applyCaptureProfile(CaptureRequest.Builder builder, CaptureProfile profile) {
+        CameraCharacteristics characteristics = activeCharacteristics;
+        Range<Integer> fpsRange = selectFpsRange(characteristics, profile);
+        builder.set(CaptureRequest.CONTROL_AE_TARGET_FPS_RANGE, fpsRange);
+
+        if (!profile.fixedFocus || characteristics == null) {
+            builder.set(CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_PICTURE);
+        } else if (contains(characteristics.get(CameraCharacteristics.CONTROL_AF_AVAILABLE_MODES), CaptureRequest.CONTROL_AF_MODE_EDOF)) {
+            builder.set(CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_EDOF);
+        } else {
+            Float minFocusDistance = characteristics.get(CameraCharacteristics.LENS_INFO_MINIMUM_FOCUS_DISTANCE);
+            if (minFocusDistance != null && minFocusDistance > 0f) {
+                if (contains(characteristics.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES),
+                        CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES_MANUAL_SENSOR)) {
+                    // 对焦距离以屈光度（1/米）表示，不能超过镜头支持的最近对焦距离
+                    builder.set(CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_OFF);
+                    builder.set(CaptureRequest.LENS_FOCUS_DISTANCE, Math.min(1f / settings.get().FOCUS_DISTANCE_METERS, minFocusDistance));
+                } else {
+                    // 没有 MANUAL_SENSOR 能力时 LENS_FOCUS_DISTANCE 不保证生效，关闭自动对焦可能停在任意位置
+                    builder.set(CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_PICTURE);
+                }
+            } // 定焦镜头无需设置
+        }
+
+        if (characteristics != null) {
+            if (profile.noiseReductionMode >= 0 && contains(characteristics.get(CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES), profile.noiseReductionMode)) {
+                builder.set(CaptureRequest.NOISE_REDUCTION_MODE, profile.noiseReductionMode);
+            }
+            if (profile.edgeMode >= 0 && contains(characteristics.get(CameraCharacteristics.EDGE_AVAILABLE_EDGE_MODES), profile.edgeMode)) {
+                builder.set(CaptureRequest.EDGE_MODE, profile.edgeMode);
+            }
+        }
+
+        exposureController = null;
+        if (profile.capExposure && characteristics != null) {
+            ExposureCapController controller = new ExposureCapController(characteristics, settings.get().MAX_EXPOSURE_TIME_NS, fpsRange.getUpper());
+            if (controller.isSupported()) {
+                exposureController = controller;
+                controller.applyTo(builder);
+            }
+        }
+
+        if (activeProfile != profile || sensorLatencyTracker == null) {
+            activeProfile = profile;
+            sensorLatencyTracker = new LatencyTracker("Sensor->callback [" + profile + "]", 120);
+        }
+        Log.d(TAG, "Capture profile " + profile + ": fps=" + fpsRange + ", exposure cap=" + (exposureController != null));
+    }
+
+    /**
+     * 选择帧率范围。默认配置档使用固定的 DESIRED_CAMERA_FPS；
+     * 其余配置档在不超过 maxFps 的范围中优先选择下限最高的，下限越高则自动曝光的曝光时间越短。
+     */
+    private Range<Integer> selectFpsRange(CameraCharacteristics characteristics, CaptureProfile profile) {
+        int desiredFps = settings.get().DESIRED_CAMERA_FPS;
+        Range<Integer> fallback = new Range<>(desiredFps, desiredFps);
+        if (profile.maxFps <= 0 || characteristics == null) return fallback;
+        Range<Integer>[] ranges = characteristics.get(CameraCharacteristics.CONTROL_AE_AVAILABLE_TARGET_FPS_RANGES);
+        if (ranges == null) return fallback;
+
+        Range<Integer> best = null;
+        for (Range<Integer> range : ranges) {
+            if (range.getUpper() > profile.maxFps) continue;
+            if (best == null || range.getLower() > best.getLower()
+                    || (range.getLower().equals(best.getLower()) && range.getUpper() > best.getUpper())) {
+                best = range;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
+    private final CameraCaptureSession.CaptureCallback captureCallback = new CameraCaptureSession.CaptureCallback() {
+        @Override
+        public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
+            ExposureCapController controller = exposureController;
+            if (controller != null && controller.onCaptureResult(result)) {
+                applyExposureUpdate(controller);
+            }
+        }
+    };
+
+    /**
+     * 记录传感器曝光时刻到图像回调之间的延迟。Image的时间戳与 SENSOR_TIMESTAMP 相同。
+     */
+    private void recordSensorLatency(long sensorTimestampNs) {
+        if (sensorLatencyTracker == null) return;
+        long now = timestampSource == CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME
+                ? SystemClock.elapsedRealtimeNanos()
+                : System.nanoTime(); // UNKNOWN 时间基通常与单调时钟一致
+        sensorLatencyTracker.record(now - sensorTimestampNs);
+    }
+
+    /**
+     * 把传感器时间戳换算到 uptimeMillis 时基。传播帧以捕获时刻为时间戳，而不是光流算完的时刻，
+     * 否则之后到达的推理结果会显得比它更旧，被骨架滤波当作时间戳不递增的帧忽略。
+     */
+    private long captureUptimeMs(long sensorTimestampNs) {
+        long offsetNs = timestampSource == CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME
+                ? SystemClock.elapsedRealtimeNanos() - System.nanoTime()
+                : 0L; // UNKNOWN 时间基通常与单调时钟一致
+        return Math.min((sensorTimestampNs - offsetNs) / 1_000_000L, SystemClock.uptimeMillis());
+    }
+
+    /**
+     * 手动曝光模式下，用稀疏采样的Y平面平均亮度调整ISO。
+     */
+    private void meterExposure(Image image) {
+        ExposureCapController controller = exposureController;
+        if (controller == null || !controller.isManual()) return;
+        if (++meteringFrameCounter < METERING_INTERVAL_FRAMES) return;
+        meteringFrameCounter = 0;
+
+        Image.Plane yPlane = image.getPlanes()[0];
+        ByteBuffer yBuffer = yPlane.getBuffer();
+        int rowStride = yPlane.getRowStride();
+        int pixelStride = yPlane.getPixelStride();
+        long sum = 0;
+        int count = 0;
+        for (int y = 0; y < image.getHeight(); y += 16) {
+            int rowOffset = y * rowStride;
+            for (int x = 0; x < image.getWidth(); x += 16) {
+                sum += yBuffer.get(rowOffset + x * pixelStride) & 0xFF;
+                count++;
+            }
+        }
+        if (count > 0 && controller.onLumaMeasured((float) sum / count)) {
+            applyExposureUpdate(controller);
+        }
+    }
+
+    private void applyExposureUpdate(ExposureCapController controller) {
+        if (requestBuilder == null) return;
+        controller.applyTo(requestBuilder);
+        updateRepeatingRequest("exposure");
+    }
+
+    private static boolean contains(int[] values, int value) {
+        if (values == null) return false;
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+
     private void startCameraThread() {
         cameraThread = new HandlerThread("CameraHelperThread");
         cameraThread.start();
@@ -247,9 +849,18 @@ public class CameraHelper {
 
     private String findCamera(int facing) throws CameraAccessException {
         for (String cameraId : cameraManager.getCameraIdList()) {
-            Integer cameraFacing = cameraManager.getCameraCharacteristics(cameraId).get(CameraCharacteristics.LENS_FACING);
+            Integer cameraFacing = getCharacteristics(cameraId).get(CameraCharacteristics.LENS_FACING);
             if (cameraFacing != null && cameraFacing == facing) return cameraId;
         }
         return null;
     }
+
+    private CameraCharacteristics getCharacteristics(String cameraId) throws CameraAccessException {
+        CameraCharacteristics characteristics = characteristicsCache.get(cameraId);
+        if (characteristics == null) {
+            characteristics = cameraManager.getCameraCharacteristics(cameraId);
+            characteristicsCache.put(cameraId, characteristics);
+        }
+        return characteristics;
+    }
 }
@@ -23,7 +23,13 @@ public class CameraPreviewControl {
     private TextureView portraitPreview;
     private OverlayView overlayView;
     private TextureView activePreview;
+    private SurfaceTexture activeSurfaceTexture;
+    private Surface activeSurface;
     private final TextureView.SurfaceTextureListener listener;
+    /**
+     * 每个窗口最近一次应用的布局参数，参数没有变化的窗口不再调用 updateViewLayout。
+     */
+    private WindowManager.LayoutParams landscapeParams, portraitParams, overlayParams;
 
     public CameraPreviewControl(Context context, TextureView.SurfaceTextureListener listener) {
         this.context = context;
@@ -33,21 +39,25 @@ public class CameraPreviewControl {
     }
 
     public void show() {
+        SettingsSnapshot config = settings.get();
         if (landscapePreview == null) {
             landscapePreview = new TextureView(context);
             landscapePreview.setSurfaceTextureListener(listener);
-            windowManager.addView(landscapePreview, createLayoutParams(true));
+            landscapeParams = createLayoutParams(config, true);
+            windowManager.addView(landscapePreview, landscapeParams);
         }
 
         if (portraitPreview == null) {
             portraitPreview = new TextureView(context);
             portraitPreview.setSurfaceTextureListener(listener);
-            windowManager.addView(portraitPreview, createLayoutParams(false));
+            portraitParams = createLayoutParams(config, false);
+            windowManager.addView(portraitPreview, portraitParams);
         }
 
         if (overlayView == null) {
             overlayView = new OverlayView(context, null);
-            windowManager.addView(overlayView, createLayoutParams(isCurrentOrientationLandscape()));
+            overlayParams = createLayoutParams(config, isLandscape(config));
+            windowManager.addView(overlayView, overlayParams);
         }
 
         onConfigurationChanged(); // Call to set initial visibility
@@ -73,45 +83,109 @@ public class CameraPreviewControl {
             overlayView = null;
         }
         activePreview = null;
+        landscapeParams = portraitParams = overlayParams = null;
+        releaseActiveSurface();
     }
 
+    /**
+     * 按最新的屏幕方向一次性更新所有窗口。三个窗口的参数取自同一个设置快照；
+     * 只更新参数确实变化的窗口，隐藏的预览窗口推迟到再次可见时才更新。
+     */
     public void onConfigurationChanged() {
         if (landscapePreview == null || portraitPreview == null || overlayView == null) return;
 
-        boolean isLandscape = isCurrentOrientationLandscape();
-
-        windowManager.updateViewLayout(landscapePreview, createLayoutParams(true));
-        windowManager.updateViewLayout(portraitPreview, createLayoutParams(false));
-        windowManager.updateViewLayout(overlayView, createLayoutParams(isLandscape));
+        SettingsSnapshot config = settings.get();
+        boolean isLandscape = isLandscape(config);
 
         if (isLandscape) {
-            landscapePreview.setVisibility(View.VISIBLE);
             portraitPreview.setVisibility(View.GONE);
+            landscapeParams = applyLayout(landscapePreview, landscapeParams, createLayoutParams(config, true));
+            landscapePreview.setVisibility(View.VISIBLE);
             activePreview = landscapePreview;
         } else {
-            portraitPreview.setVisibility(View.VISIBLE);
             landscapePreview.setVisibility(View.GONE);
+            portraitParams = applyLayout(portraitPreview, portraitParams, createLayoutParams(config, false));
+            portraitPreview.setVisibility(View.VISIBLE);
             activePreview = portraitPreview;
         }
+        overlayParams = applyLayout(overlayView, overlayParams, createLayoutParams(config, isLandscape));
         overlayView.setVisibility(View.VISIBLE);
     }
 
+    /**
+     * @return 实际应用到窗口上的参数。
+     */
+    private WindowManager.LayoutParams applyLayout(View view, WindowManager.LayoutParams current,
+                                                   WindowManager.LayoutParams next) {
+        if (current != null && current.width == next.width && current.height == next.height
+                && current.alpha == next.alpha) {
+            return current;
+        }
+        windowManager.updateViewLayout(view, next);
+        return next;
+    }
+
     public OverlayView getOverlayView() {
         return overlayView;
     }
 
-    private boolean isCurrentOrientationLandscape(){
-        return settings.SCREEN_ROTATION == Surface.ROTATION_90 || settings.SCREEN_ROTATION == Surface.ROTATION_270;
+    /**
+     * 获取当前方向下处于激活状态的预览Surface。
+     * @return 预览Surface；若预览窗口尚未就绪或已隐藏则返回null。
+     */
+    public Surface getActivePreviewSurface() {
+        if (activePreview == null || activePreview.getVisibility() != View.VISIBLE || !activePreview.isAvailable()) {
+            return null;
+        }
+        SurfaceTexture surfaceTexture = activePreview.getSurfaceTexture();
+        if (surfaceTexture != activeSurfaceTexture) {
+            releaseActiveSurface();
+            // 缓冲区尺寸需与相机会话中延迟预览输出声明的尺寸一致
+            SettingsSnapshot config = settings.get();
+            surfaceTexture.setDefaultBufferSize(config.CAMERA_WIDTH, config.CAMERA_HEIGHT);
+            activeSurfaceTexture = surfaceTexture;
+            activeSurface = new Surface(surfaceTexture);
+        }
+        return activeSurface;
+    }
+
+    /**
+     * @return surfaceTexture 是否是当前交给相机的预览Surface所在的纹理。
+     */
+    public boolean isActiveSurfaceTexture(SurfaceTexture surfaceTexture) {
+        return surfaceTexture != null && surfaceTexture == activeSurfaceTexture;
+    }
+
+    /**
+     * 当SurfaceTexture被销毁时调用，释放对应的Surface。
+     */
+    public void onSurfaceTextureDestroyed(SurfaceTexture surfaceTexture) {
+        if (surfaceTexture == activeSurfaceTexture) {
+            releaseActiveSurface();
+        }
+    }
+
+    private void releaseActiveSurface() {
+        if (activeSurface != null) {
+            activeSurface.release();
+            activeSurface = null;
+        }
+        activeSurfaceTexture = null;
+    }
+
+    private static boolean isLandscape(SettingsSnapshot config) {
+        int rotation = config.SCREEN_ROTATION;
+        return rotation == Surface.ROTATION_90 || rotation == Surface.ROTATION_270;
     }
 
-    private WindowManager.LayoutParams createLayoutParams(boolean forLandscape) {
+    private static WindowManager.LayoutParams createLayoutParams(SettingsSnapshot config, boolean forLandscape) {
         int previewWidth, previewHeight;
         if (forLandscape) {
-            previewWidth = settings.PREVIEW_WINDOW_WIDTH;
-            previewHeight = settings.PREVIEW_WINDOW_HEIGHT;
+            previewWidth = config.PREVIEW_WINDOW_WIDTH;
+            previewHeight = config.PREVIEW_WINDOW_HEIGHT;
         } else {
-            previewWidth = settings.PREVIEW_WINDOW_HEIGHT;
-            previewHeight = settings.PREVIEW_WINDOW_WIDTH;
+            previewWidth = config.PREVIEW_WINDOW_HEIGHT;
+            previewHeight = config.PREVIEW_WINDOW_WIDTH;
         }
 
         WindowManager.LayoutParams params = new WindowManager.LayoutParams(
@@ -122,7 +196,7 @@ public class CameraPreviewControl {
                 PixelFormat.TRANSLUCENT
         );
         params.gravity = Gravity.CENTER;
-        params.alpha = settings.PREVIEW_WINDOW_ALPHA;
+        params.alpha = config.PREVIEW_WINDOW_ALPHA;
         return params;
     }
 }
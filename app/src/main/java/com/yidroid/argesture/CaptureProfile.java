@@ -0,0 +1,57 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/CaptureProfile.java
+// 描述: 相机采集参数配置档，用于在画质与手部追踪延迟之间取舍。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.hardware.camera2.CaptureRequest;
+
+public enum CaptureProfile {
+    /**
+     * 原有的预览参数：连续自动对焦，默认降噪和锐化，固定帧率为 DESIRED_CAMERA_FPS。
+     */
+    DEFAULT(false, false, false, -1, -1, 0),
+    /**
+     * 低延迟：EDOF或定焦于手臂距离，限制曝光时间以减少运动模糊，快速降噪和锐化。
+     */
+    LOW_LATENCY(false, true, true, CaptureRequest.NOISE_REDUCTION_MODE_FAST, CaptureRequest.EDGE_MODE_FAST, 30),
+    /**
+     * 最小处理：在低延迟的基础上关闭降噪和锐化，使用录像模板并尽量选择高帧率范围。
+     */
+    MINIMAL_PROCESSING(true, true, true, CaptureRequest.NOISE_REDUCTION_MODE_OFF, CaptureRequest.EDGE_MODE_OFF, 60);
+
+    /**
+     * 是否使用 TEMPLATE_RECORD 而不是 TEMPLATE_PREVIEW。
+     */
+    public final boolean useRecordTemplate;
+    /**
+     * 是否关闭连续自动对焦，改用EDOF或固定对焦距离。
+     */
+    public final boolean fixedFocus;
+    /**
+     * 是否限制最大曝光时间（以提高ISO为代价）。
+     */
+    public final boolean capExposure;
+    /**
+     * 期望的降噪模式，-1表示使用模板默认值。
+     */
+    public final int noiseReductionMode;
+    /**
+     * 期望的锐化模式，-1表示使用模板默认值。
+     */
+    public final int edgeMode;
+    /**
+     * 允许选择的最高帧率，0表示使用 DESIRED_CAMERA_FPS 固定帧率。
+     */
+    public final int maxFps;
+
+    CaptureProfile(boolean useRecordTemplate, boolean fixedFocus, boolean capExposure,
+                   int noiseReductionMode, int edgeMode, int maxFps) {
+        this.useRecordTemplate = useRecordTemplate;
+        this.fixedFocus = fixedFocus;
+        this.capExposure = capExposure;
+        this.noiseReductionMode = noiseReductionMode;
+        this.edgeMode = edgeMode;
+        this.maxFps = maxFps;
+    }
+}
@@ -0,0 +1,354 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/ClickableNodeIndex.java
+// 描述: 屏幕上可点击控件的空间索引。按固定大小的网格存放控件在屏幕上的边界，
+//       由无障碍事件驱动增量更新：窗口变化时全量重建，内容变化或滚动时只重建事件源子树。
+//       遍历控件树在后台线程进行，查询只访问一个网格单元，耗时与控件树大小无关。
+//       查询只接受覆盖查询点的最上层窗口中的控件，被上层窗口遮住的控件不会被点击或吸附。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.accessibilityservice.AccessibilityService;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityWindowInfo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClickableNodeIndex {
+
+    private static final String TAG = "ClickableNodeIndex";
+
+    /**
+     * 网格单元边长（像素）。
+     */
+    private static final int CELL_SIZE = 96;
+    /**
+     * 单次遍历最多访问的节点数，防止超大控件树长时间占用后台线程。
+     */
+    private static final int MAX_NODES_PER_WALK = 5000;
+    /**
+     * 查询点不在任何已记录的窗口内。
+     */
+    private static final int NO_WINDOW = -1;
+
+    /**
+     * 一个可点击控件及其在屏幕上的边界。
+     */
+    public static final class Entry {
+        public final AccessibilityNodeInfo node;
+        public final Rect bounds;
+        final int windowId;
+        final int area;
+
+        Entry(AccessibilityNodeInfo node, Rect bounds) {
+            this.node = node;
+            this.bounds = bounds;
+            this.windowId = node.getWindowId();
+            this.area = bounds.width() * bounds.height();
+        }
+    }
+
+    /**
+     * 重建时记录的窗口边界和层级。
+     */
+    private static final class WindowBounds {
+        final int windowId;
+        final int layer;
+        final Rect bounds;
+
+        WindowBounds(int windowId, int layer, Rect bounds) {
+            this.windowId = windowId;
+            this.layer = layer;
+            this.bounds = bounds;
+        }
+    }
+
+    private final AccessibilityService service;
+    private final GestureSettings settings;
+    private final HandlerThread workerThread = new HandlerThread("NodeIndexThread");
+    private final Handler workerHandler;
+    private final Runnable fullRebuildRunnable = this::rebuildAll;
+    private final LatencyTracker lookupLatency = new LatencyTracker("Node index lookup", 300);
+    private final LatencyTracker walkLatency = new LatencyTracker("Node index update", 50);
+
+    // --- 以下字段由 lock 保护 ---
+    private final Object lock = new Object();
+    private int columns;
+    private int rows;
+    private List<Entry>[] cells;
+    /**
+     * 按层级从高到低排列。
+     */
+    private final List<WindowBounds> windows = new ArrayList<>();
+    private int entryCount = 0;
+
+    // --- 后台线程使用的遍历缓冲区 ---
+    private final ArrayDeque<AccessibilityNodeInfo> walkStack = new ArrayDeque<>();
+    private final List<Entry> walkResult = new ArrayList<>();
+
+    public ClickableNodeIndex(AccessibilityService service) {
+        this.service = service;
+        this.settings = GestureSettings.getInstance(service);
+        workerThread.start();
+        workerHandler = new Handler(workerThread.getLooper());
+        synchronized (lock) {
+            resizeGridLocked();
+        }
+    }
+
+    /**
+     * 根据无障碍事件更新索引。必须在主线程调用，事件源节点在此取出后交给后台线程。
+     */
+    public void onAccessibilityEvent(AccessibilityEvent event) {
+        switch (event.getEventType()) {
+            case AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED:
+            case AccessibilityEvent.TYPE_WINDOWS_CHANGED:
+                requestFullRebuild();
+                break;
+            case AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED:
+            case AccessibilityEvent.TYPE_VIEW_SCROLLED: {
+                AccessibilityNodeInfo source = event.getSource();
+                if (source == null) {
+                    requestFullRebuild();
+                } else if (!workerHandler.hasCallbacks(fullRebuildRunnable)) {
+                    workerHandler.post(() -> rebuildSubtree(source));
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 请求全量重建，例如窗口切换或屏幕旋转后。已有未执行的全量重建时合并为一次。
+     */
+    public void requestFullRebuild() {
+        workerHandler.removeCallbacksAndMessages(null);
+        workerHandler.post(fullRebuildRunnable);
+    }
+
+    /**
+     * 查找覆盖 (x, y) 的可点击控件：只在覆盖 (x, y) 的最上层窗口中查找，取面积最小（最具体）的控件。
+     * @return 对应的条目；该窗口在 (x, y) 处没有可点击控件时返回null，由调用方回退到触摸手势。
+     */
+    public Entry findAt(int x, int y) {
+        long start = System.nanoTime();
+        Entry best = null;
+        synchronized (lock) {
+            if (x >= 0 && y >= 0) {
+                int column = x / CELL_SIZE, row = y / CELL_SIZE;
+                int windowId = topWindowAtLocked(x, y);
+                if (column < columns && row < rows && windowId != NO_WINDOW) {
+                    List<Entry> cell = cells[row * columns + column];
+                    for (int i = 0, n = cell.size(); i < n; i++) {
+                        Entry entry = cell.get(i);
+                        if (entry.windowId != windowId || !entry.bounds.contains(x, y)) continue;
+                        if (best == null || entry.area < best.area) {
+                            best = entry;
+                        }
+                    }
+                }
+            }
+        }
+        lookupLatency.record(System.nanoTime() - start);
+        return best;
+    }
+
+    /**
+     * 查找距 (x, y) 最近、且距离不超过 radius 的可点击控件，距离按点到控件边界计算，
+     * 点在控件内部时为0。只考虑覆盖 (x, y) 的最上层窗口中的控件。只访问半径覆盖的网格单元，不分配内存。
+     * @return 最近的条目；范围内没有时返回null。
+     */
+    public Entry findNearest(int x, int y, int radius) {
+        Entry best = null;
+        synchronized (lock) {
+            int windowId = topWindowAtLocked(x, y);
+            if (windowId == NO_WINDOW) return null;
+            int firstColumn = Math.max(0, (x - radius) / CELL_SIZE);
+            int lastColumn = Math.min(columns - 1, (x + radius) / CELL_SIZE);
+            int firstRow = Math.max(0, (y - radius) / CELL_SIZE);
+            int lastRow = Math.min(rows - 1, (y + radius) / CELL_SIZE);
+            long bestDistanceSq = (long) radius * radius;
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    List<Entry> cell = cells[row * columns + column];
+                    for (int i = 0, n = cell.size(); i < n; i++) {
+                        Entry entry = cell.get(i);
+                        if (entry.windowId != windowId) continue;
+                        Rect b = entry.bounds;
+                        long dx = x < b.left ? b.left - x : (x >= b.right ? x - b.right + 1 : 0);
+                        long dy = y < b.top ? b.top - y : (y >= b.bottom ? y - b.bottom + 1 : 0);
+                        long distanceSq = dx * dx + dy * dy;
+                        if (distanceSq > bestDistanceSq) continue;
+                        if (best == null || distanceSq < bestDistanceSq || entry.area < best.area) {
+                            best = entry;
+                            bestDistanceSq = distanceSq;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    public void close() {
+        workerHandler.removeCallbacksAndMessages(null);
+        workerThread.quitSafely();
+        synchronized (lock) {
+            clearLocked();
+        }
+    }
+
+    private void rebuildAll() {
+        long start = System.nanoTime();
+        walkResult.clear();
+        List<WindowBounds> windowList = new ArrayList<>();
+        for (AccessibilityWindowInfo window : service.getWindows()) {
+            // 跳过本服务自己的光标和预览悬浮窗
+            if (window.getType() == AccessibilityWindowInfo.TYPE_ACCESSIBILITY_OVERLAY) continue;
+            // 取不到控件树的窗口也要记录，它仍然遮住下层窗口
+            Rect bounds = new Rect();
+            window.getBoundsInScreen(bounds);
+            windowList.add(new WindowBounds(window.getId(), window.getLayer(), bounds));
+            AccessibilityNodeInfo root = window.getRoot();
+            if (root == null) continue;
+            collectClickable(root, walkResult);
+        }
+        windowList.sort((a, b) -> Integer.compare(b.layer, a.layer));
+        synchronized (lock) {
+            resizeGridLocked();
+            windows.clear();
+            windows.addAll(windowList);
+            for (Entry entry : walkResult) {
+                insertLocked(entry);
+            }
+        }
+        walkResult.clear();
+        walkLatency.record(System.nanoTime() - start);
+        Log.d(TAG, "Full rebuild: " + entryCount + " clickable nodes");
+    }
+
+    /**
+     * 只重建事件源子树：先移除同一窗口中位于子树边界内的条目，再重新收集子树中的可点击控件。
+     */
+    private void rebuildSubtree(AccessibilityNodeInfo source) {
+        long start = System.nanoTime();
+        if (!source.refresh()) {
+            // 节点已不存在，边界未知，只能全量重建
+            requestFullRebuild();
+            return;
+        }
+        Rect region = new Rect();
+        source.getBoundsInScreen(region);
+        int windowId = source.getWindowId();
+        walkResult.clear();
+        collectClickable(source, walkResult);
+        synchronized (lock) {
+            removeWithinLocked(windowId, region);
+            for (Entry entry : walkResult) {
+                insertLocked(entry);
+            }
+        }
+        walkResult.clear();
+        walkLatency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * @return 覆盖 (x, y) 的最上层窗口；没有时返回 NO_WINDOW。
+     */
+    private int topWindowAtLocked(int x, int y) {
+        for (int i = 0, n = windows.size(); i < n; i++) {
+            WindowBounds window = windows.get(i);
+            if (window.bounds.contains(x, y)) return window.windowId;
+        }
+        return NO_WINDOW;
+    }
+
+    private void collectClickable(AccessibilityNodeInfo root, List<Entry> out) {
+        walkStack.clear();
+        walkStack.push(root);
+        int visited = 0;
+        while (!walkStack.isEmpty() && visited < MAX_NODES_PER_WALK) {
+            AccessibilityNodeInfo node = walkStack.pop();
+            visited++;
+            if (!node.isVisibleToUser()) continue;
+            if (node.isClickable() && node.isEnabled()) {
+                Rect bounds = new Rect();
+                node.getBoundsInScreen(bounds);
+                if (!bounds.isEmpty()) out.add(new Entry(node, bounds));
+            }
+            for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                AccessibilityNodeInfo child = node.getChild(i);
+                if (child != null) walkStack.push(child);
+            }
+        }
+        if (visited >= MAX_NODES_PER_WALK) {
+            Log.w(TAG, "Node walk truncated at " + MAX_NODES_PER_WALK + " nodes");
+        }
+        walkStack.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resizeGridLocked() {
+        SettingsSnapshot config = settings.get();
+        columns = Math.max(1, (config.SCREEN_WIDTH + CELL_SIZE - 1) / CELL_SIZE);
+        rows = Math.max(1, (config.SCREEN_HEIGHT + CELL_SIZE - 1) / CELL_SIZE);
+        cells = new List[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new ArrayList<>();
+        }
+        entryCount = 0;
+    }
+
+    private void clearLocked() {
+        for (List<Entry> cell : cells) {
+            cell.clear();
+        }
+        windows.clear();
+        entryCount = 0;
+    }
+
+    private void insertLocked(Entry entry) {
+        Rect b = entry.bounds;
+        int firstColumn = Math.max(0, b.left / CELL_SIZE);
+        int lastColumn = Math.min(columns - 1, (b.right - 1) / CELL_SIZE);
+        int firstRow = Math.max(0, b.top / CELL_SIZE);
+        int lastRow = Math.min(rows - 1, (b.bottom - 1) / CELL_SIZE);
+        if (firstColumn > lastColumn || firstRow > lastRow) return;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                cells[row * columns + column].add(entry);
+            }
+        }
+        entryCount++;
+    }
+
+    private void removeWithinLocked(int windowId, Rect region) {
+        int firstColumn = Math.max(0, region.left / CELL_SIZE);
+        int lastColumn = Math.min(columns - 1, (region.right - 1) / CELL_SIZE);
+        int firstRow = Math.max(0, region.top / CELL_SIZE);
+        int lastRow = Math.min(rows - 1, (region.bottom - 1) / CELL_SIZE);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<Entry> cell = cells[row * columns + column];
+                for (int i = cell.size() - 1; i >= 0; i--) {
+                    Entry entry = cell.get(i);
+                    if (entry.windowId != windowId || !region.contains(entry.bounds)) continue;
+                    cell.remove(i);
+                    // 条目只在其左上角所在的单元计数一次
+                    if (Math.max(0, entry.bounds.left / CELL_SIZE) == column
+                            && Math.max(0, entry.bounds.top / CELL_SIZE) == row) {
+                        entryCount--;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/Clock.java
+// 描述: 手势识别使用的时间来源。默认使用 uptimeMillis，与帧时间戳同一时基；测试中注入 ManualClock，
+//       让保持时间、冷却时间和防抖按帧确定地推进，与真实耗时无关。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.os.SystemClock;
+
+public interface Clock {
+
+    Clock SYSTEM = SystemClock::uptimeMillis;
+
+    /**
+     * @return 当前时间（毫秒）。只用于计算时间差。
+     */
+    long nowMs();
+}
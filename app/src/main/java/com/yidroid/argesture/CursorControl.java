@@ -39,8 +39,9 @@ public class CursorControl {
                 PixelFormat.TRANSLUCENT
         );
         params.gravity = Gravity.TOP | Gravity.START;
-        params.x = settings.SCREEN_WIDTH / 2 - 20;
-        params.y = settings.SCREEN_HEIGHT / 2 - 20;
+        SettingsSnapshot config = settings.get();
+        params.x = config.SCREEN_WIDTH / 2 - 20;
+        params.y = config.SCREEN_HEIGHT / 2 - 20;
         cursorView.setBackground(new CursorDrawable());
         windowManager.addView(cursorView, params);
         cursorView.setVisibility(View.VISIBLE);
@@ -0,0 +1,140 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/CursorMapping.java
+// 描述: 相机画面归一化坐标到屏幕像素的仿射映射（每轴一个缩放和一个偏移）。
+//       映射只在屏幕尺寸、旋转、画面尺寸或交互区域变化时重建，每帧只做两次乘加。
+//       默认整幅画面按比例居中映射到屏幕；校准交互区域后，该区域映射到整个屏幕。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.util.Log;
+import android.view.Surface;
+
+public class CursorMapping {
+
+    private static final String TAG = "CursorMapping";
+
+    // --- 映射参数 ---
+    private float scaleX, scaleY;
+    private float offsetX, offsetY;
+    private int maxX, maxY;
+
+    // --- 构建映射时使用的输入，用于判断是否需要重建 ---
+    private SettingsSnapshot mappedSettings;
+    private int mappedImageWidth, mappedImageHeight;
+    private int mappedScreenWidth, mappedScreenHeight;
+    private boolean mappedUsesBox;
+    private float mappedBoxLeft, mappedBoxTop, mappedBoxRight, mappedBoxBottom;
+    private long rebuildCount;
+
+    /**
+     * 检查映射是否仍然有效，必要时重建。设置快照未变且画面尺寸相同时只做一次引用比较。
+     * @return 本次是否重建了映射。
+     */
+    public boolean update(SettingsSnapshot config, int imageWidth, int imageHeight) {
+        if (config == mappedSettings && imageWidth == mappedImageWidth && imageHeight == mappedImageHeight) {
+            return false;
+        }
+        mappedSettings = config;
+        boolean usesBox = usesInteractionBox(config);
+        if (imageWidth == mappedImageWidth && imageHeight == mappedImageHeight
+                && config.SCREEN_WIDTH == mappedScreenWidth && config.SCREEN_HEIGHT == mappedScreenHeight
+                && usesBox == mappedUsesBox
+                && (!usesBox || (config.INTERACTION_BOX_LEFT == mappedBoxLeft && config.INTERACTION_BOX_TOP == mappedBoxTop
+                        && config.INTERACTION_BOX_RIGHT == mappedBoxRight && config.INTERACTION_BOX_BOTTOM == mappedBoxBottom))) {
+            // 其他设置变化，映射的输入没有变
+            return false;
+        }
+        mappedImageWidth = imageWidth;
+        mappedImageHeight = imageHeight;
+        mappedScreenWidth = config.SCREEN_WIDTH;
+        mappedScreenHeight = config.SCREEN_HEIGHT;
+        mappedUsesBox = usesBox;
+        mappedBoxLeft = config.INTERACTION_BOX_LEFT;
+        mappedBoxTop = config.INTERACTION_BOX_TOP;
+        mappedBoxRight = config.INTERACTION_BOX_RIGHT;
+        mappedBoxBottom = config.INTERACTION_BOX_BOTTOM;
+        maxX = Math.max(0, config.SCREEN_WIDTH - 1);
+        maxY = Math.max(0, config.SCREEN_HEIGHT - 1);
+        if (usesBox) {
+            buildBoxMapping(config);
+        } else {
+            buildLetterboxMapping(config.SCREEN_WIDTH, config.SCREEN_HEIGHT, imageWidth, imageHeight);
+        }
+        rebuildCount++;
+        Log.d(TAG, "Mapping rebuilt (#" + rebuildCount + ", " + (usesBox ? "interaction box" : "letterbox") + "): x*"
+                + scaleX + "+" + offsetX + ", y*" + scaleY + "+" + offsetY);
+        return true;
+    }
+
+    /**
+     * 归一化X坐标映射到屏幕像素，结果限制在屏幕内。
+     */
+    public int mapX(float x) {
+        int value = (int) (offsetX + x * scaleX);
+        return value < 0 ? 0 : (value > maxX ? maxX : value);
+    }
+
+    public int mapY(float y) {
+        int value = (int) (offsetY + y * scaleY);
+        return value < 0 ? 0 : (value > maxY ? maxY : value);
+    }
+
+    /**
+     * @return 每个归一化单位对应的X方向像素数，即绝对模式下的增益。
+     */
+    public float getScaleX() {
+        return scaleX;
+    }
+
+    public float getScaleY() {
+        return scaleY;
+    }
+
+    public float getOffsetX() {
+        return offsetX;
+    }
+
+    public float getOffsetY() {
+        return offsetY;
+    }
+
+    /**
+     * 信箱模式：保持画面比例，把整幅画面尽量放大并居中放到屏幕上。
+     */
+    private void buildLetterboxMapping(int screenWidth, int screenHeight, int imageWidth, int imageHeight) {
+        float imageAspectRatio = (float) imageWidth / imageHeight;
+        float screenAspectRatio = (float) screenWidth / screenHeight;
+        float mappedWidth, mappedHeight;
+        if (imageAspectRatio > screenAspectRatio) {
+            mappedWidth = screenWidth;
+            mappedHeight = screenWidth / imageAspectRatio;
+        } else {
+            mappedHeight = screenHeight;
+            mappedWidth = screenHeight * imageAspectRatio;
+        }
+        scaleX = mappedWidth;
+        scaleY = mappedHeight;
+        offsetX = (screenWidth - mappedWidth) / 2f;
+        offsetY = (screenHeight - mappedHeight) / 2f;
+    }
+
+    /**
+     * 交互区域模式：两个轴各自独立地把交互区域拉伸到整个屏幕，与校准时手实际到达的范围一一对应。
+     * 校准范围的比例与屏幕不同时两个方向的增益不同，换来的是两个方向都只需移动校准过的距离。
+     */
+    private void buildBoxMapping(SettingsSnapshot config) {
+        scaleX = config.SCREEN_WIDTH / (config.INTERACTION_BOX_RIGHT - config.INTERACTION_BOX_LEFT);
+        scaleY = config.SCREEN_HEIGHT / (config.INTERACTION_BOX_BOTTOM - config.INTERACTION_BOX_TOP);
+        offsetX = -config.INTERACTION_BOX_LEFT * scaleX;
+        offsetY = -config.INTERACTION_BOX_TOP * scaleY;
+    }
+
+    private static boolean usesInteractionBox(SettingsSnapshot config) {
+        return config.INTERACTION_BOX_ENABLED
+                && isLandscape(config.INTERACTION_BOX_ROTATION) == isLandscape(config.SCREEN_ROTATION);
+    }
+
+    private static boolean isLandscape(int rotation) {
+        return rotation == Surface.ROTATION_90 || rotation == Surface.ROTATION_270;
+    }
+}
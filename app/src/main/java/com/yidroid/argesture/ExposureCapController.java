@@ -0,0 +1,112 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/ExposureCapController.java
+// 描述: 曝光时间上限控制器。在自动曝光给出的曝光时间超过上限时切换为手动曝光，
+//       以提高ISO为代价减少快速手部运动带来的模糊。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraMetadata;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
+import android.util.Range;
+
+public class ExposureCapController {
+
+    /**
+     * 手动曝光模式下期望的平均亮度（0-255）。
+     */
+    private static final float TARGET_LUMA = 110f;
+    /**
+     * 亮度偏离目标的容忍比例，在此范围内不调整ISO，避免频繁更新请求。
+     */
+    private static final float LUMA_TOLERANCE = 0.12f;
+
+    private final boolean supported;
+    private final long maxExposureNs;
+    private final Range<Integer> sensitivityRange;
+    private final long frameDurationNs;
+
+    private boolean manual = false;
+    private long exposureNs;
+    private int sensitivity;
+
+    /**
+     * @param characteristics 当前摄像头的参数。
+     * @param maxExposureNs 最大曝光时间（纳秒）。
+     * @param fps 当前选择的帧率上限，用于手动模式下的帧间隔。
+     */
+    public ExposureCapController(CameraCharacteristics characteristics, long maxExposureNs, int fps) {
+        this.maxExposureNs = maxExposureNs;
+        this.frameDurationNs = 1_000_000_000L / Math.max(1, fps);
+        this.sensitivityRange = characteristics.get(CameraCharacteristics.SENSOR_INFO_SENSITIVITY_RANGE);
+        this.supported = sensitivityRange != null && hasManualSensor(characteristics);
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    public boolean isManual() {
+        return manual;
+    }
+
+    /**
+     * 处理一帧的采集结果。自动曝光模式下若曝光时间超过上限，则按相同的总曝光量换算ISO并切换为手动模式。
+     * @return 如果需要更新重复请求，返回 true。
+     */
+    public boolean onCaptureResult(CaptureResult result) {
+        if (!supported || manual) return false;
+        Long aeExposure = result.get(CaptureResult.SENSOR_EXPOSURE_TIME);
+        Integer aeSensitivity = result.get(CaptureResult.SENSOR_SENSITIVITY);
+        if (aeExposure == null || aeSensitivity == null || aeExposure <= maxExposureNs) return false;
+
+        exposureNs = maxExposureNs;
+        sensitivity = sensitivityRange.clamp((int) (aeSensitivity * ((double) aeExposure / maxExposureNs)));
+        manual = true;
+        return true;
+    }
+
+    /**
+     * 手动模式下根据画面平均亮度调整ISO。ISO已降到最低但画面仍过亮时交还给自动曝光。
+     * @param meanLuma Y平面的平均亮度（0-255）。
+     * @return 如果需要更新重复请求，返回 true。
+     */
+    public boolean onLumaMeasured(float meanLuma) {
+        if (!manual || meanLuma <= 0f) return false;
+        float ratio = TARGET_LUMA / meanLuma;
+        if (Math.abs(ratio - 1f) < LUMA_TOLERANCE) return false;
+
+        int newSensitivity = sensitivityRange.clamp((int) (sensitivity * ratio));
+        if (ratio < 1f && sensitivity == sensitivityRange.getLower()) {
+            manual = false; // 场景足够亮，自动曝光不会再超过上限
+            return true;
+        }
+        if (newSensitivity == sensitivity) return false;
+        sensitivity = newSensitivity;
+        return true;
+    }
+
+    /**
+     * 将当前的曝光状态写入请求。
+     */
+    public void applyTo(CaptureRequest.Builder builder) {
+        if (manual) {
+            builder.set(CaptureRequest.CONTROL_AE_MODE, CaptureRequest.CONTROL_AE_MODE_OFF);
+            builder.set(CaptureRequest.SENSOR_EXPOSURE_TIME, exposureNs);
+            builder.set(CaptureRequest.SENSOR_SENSITIVITY, sensitivity);
+            builder.set(CaptureRequest.SENSOR_FRAME_DURATION, Math.max(frameDurationNs, exposureNs));
+        } else {
+            builder.set(CaptureRequest.CONTROL_AE_MODE, CaptureRequest.CONTROL_AE_MODE_ON);
+        }
+    }
+
+    private static boolean hasManualSensor(CameraCharacteristics characteristics) {
+        int[] capabilities = characteristics.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES);
+        if (capabilities == null) return false;
+        for (int capability : capabilities) {
+            if (capability == CameraMetadata.REQUEST_AVAILABLE_CAPABILITIES_MANUAL_SENSOR) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,220 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/FileFrameSource.java
+// 描述: FrameSource 的文件实现：以内存映射方式按固定帧率循环播放磁盘上的NV21帧序列，
+//       经过与相机路径相同的转换、旋转、帧池和推理流程，可在没有摄像头的环境
+//       （模拟器、Robolectric）中复现和测量整条流水线。
+//       播放按时间推进：处理跟不上时跳过源帧而不是变慢，与真实相机的行为一致。
+//       不做静态场景跳帧和光流传播，每一帧都送去推理。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.content.Context;
+import android.hardware.camera2.CameraCharacteristics;
+import android.util.Log;
+import android.view.Surface;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class FileFrameSource implements FrameSource {
+
+    private static final String TAG = "FileFrameSource";
+    /**
+     * 每送出多少帧输出一次统计日志。
+     */
+    private static final int REPORT_INTERVAL = 240;
+    private static final long THREAD_JOIN_TIMEOUT_MS = 500;
+
+    private final FrameSource.Listener listener;
+    private final FramePool framePool;
+    private final GestureSettings settings;
+    private final File path;
+    private final int width;
+    private final int height;
+    private final int fps;
+    private final int sensorRotation;
+
+    private Nv21FileReader reader;
+    private Thread playbackThread;
+    private volatile boolean isRunning = false;
+    private volatile boolean isStandby = false;
+    private int[] argb;
+
+    // --- 待机运动检测，与相机待机模式相同 ---
+    private final LumaChangeDetector standbyMotionDetector = new LumaChangeDetector(16, 12);
+    private boolean motionReported = false;
+
+    private long deliveredCount = 0;
+    private long skippedSourceFrames = 0;
+
+    /**
+     * @param path NV21帧序列文件。
+     * @param width 传感器方向的帧宽度。
+     * @param height 传感器方向的帧高度。
+     * @param fps 播放帧率。
+     * @param sensorRotation 帧相对设备自然方向的传感器角度。
+     */
+    public FileFrameSource(Context context, FrameSource.Listener listener, FramePool framePool,
+                           File path, int width, int height, int fps, int sensorRotation) {
+        this.listener = listener;
+        this.framePool = framePool;
+        this.settings = GestureSettings.getInstance(context);
+        this.path = path;
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.sensorRotation = sensorRotation;
+    }
+
+    @Override
+    public void start() {
+        // 播放线程在 startCamera 时创建
+    }
+
+    @Override
+    public void stop() {
+        isRunning = false;
+        Thread thread = playbackThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(THREAD_JOIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            playbackThread = null;
+        }
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to close " + path, e);
+            }
+            reader = null;
+        }
+        isStandby = false;
+    }
+
+    @Override
+    public void startCamera(Surface previewSurface) {
+        if (isRunning) return;
+        try {
+            reader = new Nv21FileReader(path, width, height);
+        } catch (IOException | IllegalArgumentException e) {
+            listener.onCameraError("Failed to open frame file: " + e.getMessage());
+            return;
+        }
+        argb = new int[width * height];
+        Log.i(TAG, "Playing " + reader.getFrameCount() + " frames (" + width + "x" + height + ") from " + path
+                + " at " + fps + " fps");
+        listener.onCameraConfigured("file:" + path.getName(), sensorRotation, CameraCharacteristics.LENS_FACING_FRONT);
+        isRunning = true;
+        playbackThread = new Thread(this::play, "FileFrameSource");
+        playbackThread.start();
+    }
+
+    @Override
+    public void setPreviewSurface(Surface previewSurface) {
+        // 录制帧不输出预览，悬浮窗仍绘制识别结果
+    }
+
+    @Override
+    public void enterStandby() {
+        if (isStandby) return;
+        standbyMotionDetector.reset();
+        motionReported = false;
+        isStandby = true;
+    }
+
+    @Override
+    public void exitStandby() {
+        isStandby = false;
+    }
+
+    @Override
+    public boolean isStandby() {
+        return isStandby;
+    }
+
+    @Override
+    public LandmarkFlowTracker getFlowTracker() {
+        return null;
+    }
+
+    /**
+     * 播放线程：按时间计算当前应播放的源帧，正常模式下转换并送出，待机模式下以 STANDBY_ANALYSIS_FPS 做运动检测。
+     */
+    private void play() {
+        long frameIntervalNanos = 1_000_000_000L / fps;
+        long startNanos = System.nanoTime();
+        long lastSourceIndex = -1;
+        long nextDueNanos = startNanos;
+        try {
+            while (isRunning) {
+                long waitNanos = nextDueNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+                }
+                long now = System.nanoTime();
+                long sourceIndex = (now - startNanos) / frameIntervalNanos;
+                if (lastSourceIndex >= 0 && sourceIndex > lastSourceIndex + 1) {
+                    skippedSourceFrames += sourceIndex - lastSourceIndex - 1;
+                }
+                lastSourceIndex = sourceIndex;
+                ByteBuffer frame = reader.frame((int) (sourceIndex % reader.getFrameCount()));
+                if (isStandby) {
+                    detectMotion(frame);
+                    long standbyIntervalNanos = 1_000_000_000L / Math.max(1, settings.get().STANDBY_ANALYSIS_FPS);
+                    nextDueNanos = now + standbyIntervalNanos;
+                } else {
+                    deliverFrame(frame);
+                    nextDueNanos = startNanos + (sourceIndex + 1) * frameIntervalNanos;
+                }
+            }
+        } catch (InterruptedException e) {
+            // stop() 中断了等待
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Playback failed", e);
+            listener.onCameraError("Frame file playback failed: " + e.getMessage());
+        }
+    }
+
+    private void deliverFrame(ByteBuffer nv21) {
+        SettingsSnapshot config = settings.get();
+        int screenRotation = config.SCREEN_ROTATION & 3;
+        int rotationDegrees = (sensorRotation - RotationTransforms.toDegrees(screenRotation) + 360) % 360;
+        boolean swapSize = rotationDegrees == 90 || rotationDegrees == 270;
+        int rotatedWidth = swapSize ? height : width;
+        int rotatedHeight = swapSize ? width : height;
+
+        FramePool.Frame frame = framePool.acquire(rotatedWidth, rotatedHeight);
+        if (frame == null) return;
+        try {
+            frame.rotationDegrees = rotationDegrees;
+            frame.screenRotation = screenRotation;
+            frame.rotationVersion = config.ROTATION_VERSION;
+            Nv21Converter.toArgb(nv21, width, height, rotationDegrees, argb);
+            frame.getBitmap().setPixels(argb, 0, rotatedWidth, 0, 0, rotatedWidth, rotatedHeight);
+            listener.onImageAvailable(frame);
+        } catch (RuntimeException e) {
+            framePool.release(frame);
+            throw e;
+        }
+        if (++deliveredCount % REPORT_INTERVAL == 0) {
+            Log.d(TAG, "Delivered " + deliveredCount + " frames, skipped source frames (late): " + skippedSourceFrames
+                    + ", pool drops: " + framePool.getDroppedCount());
+        }
+    }
+
+    private void detectMotion(ByteBuffer nv21) {
+        if (motionReported) return;
+        // NV21 的前 width*height 字节即Y平面，行跨度等于宽度
+        float change = standbyMotionDetector.update(nv21, width, 1, width, height);
+        if (change > settings.get().STANDBY_MOTION_THRESHOLD) {
+            Log.i(TAG, "Motion detected in standby (change=" + change + ")");
+            motionReported = true;
+            listener.onMotionDetected();
+        }
+    }
+}
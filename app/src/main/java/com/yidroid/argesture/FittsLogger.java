@@ -0,0 +1,128 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/FittsLogger.java
+// 描述: 按Fitts定律统计目标获取吞吐量。连续点击中，每次点击以上一次点击的位置和时间为起点，
+//       以被点击控件为目标构成一次试验：
+//       - 名义吞吐量：ID = log2(D / W + 1)，TP = ID / MT，对所有试验取平均；
+//       - 有效吞吐量（ISO 9241-9）：用终点沿运动方向偏差的标准差计算有效宽度 We = 4.133·SD，
+//         能反映光标增益过高导致的落点分散。
+//       纯Java实现，在线统计和 PointerReplay 离线重放共用。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.util.Locale;
+
+public class FittsLogger {
+
+    /**
+     * 两次点击间隔超过该值（毫秒）时不算连续的目标获取，只作为下一次试验的起点。
+     */
+    private static final long MAX_MOVEMENT_TIME_MS = 5000;
+    /**
+     * ISO 9241-9 中由终点标准差换算有效宽度的系数（对应约96%的命中率）。
+     */
+    private static final double EFFECTIVE_WIDTH_FACTOR = 4.133;
+
+    private boolean hasStart = false;
+    private float startX, startY;
+    private long startMs;
+
+    private int trialCount, hitCount;
+    private double sumNominalThroughput;
+    private double sumMovementTimeMs;
+    private double sumEffectiveDistance;
+    private double sumError, sumErrorSq;
+
+    /**
+     * 记录一次点击。
+     * @param x 点击位置X（像素）。
+     * @param y 点击位置Y（像素）。
+     * @param timestampMs 点击时间。
+     * @param left 目标控件边界；没有目标时传入空矩形（right <= left），只更新起点。
+     * @return 本次点击是否构成一次有效试验。
+     */
+    public boolean onClick(float x, float y, long timestampMs, int left, int top, int right, int bottom) {
+        boolean recorded = false;
+        if (hasStart && right > left && bottom > top) {
+            long movementTimeMs = timestampMs - startMs;
+            float centerX = (left + right) / 2f, centerY = (top + bottom) / 2f;
+            float axisX = centerX - startX, axisY = centerY - startY;
+            double distance = Math.hypot(axisX, axisY);
+            int width = Math.min(right - left, bottom - top);
+            if (movementTimeMs > 0 && movementTimeMs <= MAX_MOVEMENT_TIME_MS && distance >= width / 2.0) {
+                double seconds = movementTimeMs / 1000.0;
+                sumNominalThroughput += log2(distance / width + 1) / seconds;
+                // 终点相对目标中心沿运动方向的偏差，超过中心为正
+                double error = ((x - centerX) * axisX + (y - centerY) * axisY) / distance;
+                sumError += error;
+                sumErrorSq += error * error;
+                sumEffectiveDistance += distance + error;
+                sumMovementTimeMs += movementTimeMs;
+                if (x >= left && x < right && y >= top && y < bottom) hitCount++;
+                trialCount++;
+                recorded = true;
+            }
+        }
+        startX = x;
+        startY = y;
+        startMs = timestampMs;
+        hasStart = true;
+        return recorded;
+    }
+
+    /**
+     * 下一次点击不再与上一次点击构成试验，例如手丢失或离合后。
+     */
+    public void breakSequence() {
+        hasStart = false;
+    }
+
+    public void reset() {
+        hasStart = false;
+        trialCount = 0;
+        hitCount = 0;
+        sumNominalThroughput = 0;
+        sumMovementTimeMs = 0;
+        sumEffectiveDistance = 0;
+        sumError = 0;
+        sumErrorSq = 0;
+    }
+
+    public int getTrialCount() {
+        return trialCount;
+    }
+
+    public float getHitRate() {
+        return trialCount == 0 ? 0f : (float) hitCount / trialCount;
+    }
+
+    /**
+     * @return 各次试验名义吞吐量的平均值（比特/秒）。
+     */
+    public double getNominalThroughput() {
+        return trialCount == 0 ? 0 : sumNominalThroughput / trialCount;
+    }
+
+    /**
+     * @return 有效吞吐量（比特/秒）；试验少于两次或终点没有分散时返回0。
+     */
+    public double getEffectiveThroughput() {
+        if (trialCount < 2) return 0;
+        double mean = sumError / trialCount;
+        double variance = (sumErrorSq - trialCount * mean * mean) / (trialCount - 1);
+        if (variance <= 0) return 0;
+        double effectiveWidth = EFFECTIVE_WIDTH_FACTOR * Math.sqrt(variance);
+        double effectiveDistance = sumEffectiveDistance / trialCount;
+        double movementTimeSeconds = sumMovementTimeMs / trialCount / 1000.0;
+        return log2(effectiveDistance / effectiveWidth + 1) / movementTimeSeconds;
+    }
+
+    public String summary() {
+        return String.format(Locale.US, "Fitts: %d trials, hit rate %.1f%%, mean MT %.0f ms, TP %.2f bit/s, TPe %.2f bit/s",
+                trialCount, 100f * getHitRate(), trialCount == 0 ? 0 : sumMovementTimeMs / trialCount,
+                getNominalThroughput(), getEffectiveThroughput());
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
@@ -0,0 +1,41 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/FrameGeometry.java
+// 描述: 一帧关节点所在画面的几何信息：旋转后的画面尺寸、捕获时的屏幕方向及其版本号。
+//       随推理结果一起传递，处理时据此判断该帧是否来自旋转之前，避免用新方向的映射解释旧方向的坐标。
+// =================================================================================
+package com.yidroid.argesture;
+
+public final class FrameGeometry {
+
+    /**
+     * 旋转到屏幕方向后的画面宽度（像素）。
+     */
+    public final int width;
+    public final int height;
+    /**
+     * 捕获时的屏幕方向（Surface.ROTATION_*）。
+     */
+    public final int screenRotation;
+    /**
+     * 捕获时的 {@link SettingsSnapshot#ROTATION_VERSION}。
+     */
+    public final int rotationVersion;
+
+    public FrameGeometry(int width, int height, int screenRotation, int rotationVersion) {
+        this.width = width;
+        this.height = height;
+        this.screenRotation = screenRotation;
+        this.rotationVersion = rotationVersion;
+    }
+
+    public static FrameGeometry of(FramePool.Frame frame) {
+        return new FrameGeometry(frame.getWidth(), frame.getHeight(), frame.screenRotation, frame.rotationVersion);
+    }
+
+    /**
+     * @return 该帧是否在指定设置的屏幕方向之前捕获。
+     */
+    public boolean isStale(SettingsSnapshot config) {
+        return rotationVersion != config.ROTATION_VERSION;
+    }
+}
@@ -0,0 +1,49 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/FramePacing.java
+// 描述: 可在设置中选择的内置帧节奏策略。
+// =================================================================================
+package com.yidroid.argesture;
+
+public enum FramePacing {
+    /**
+     * 总是推理最新的帧：推理线程繁忙时，新帧替换队列中最旧的帧。延迟最低。
+     */
+    DROP_OLDEST,
+    /**
+     * 推理线程繁忙且队列已满时跳过新帧，已排队的帧按顺序推理。帧序列最连续，但排队的帧较旧。
+     */
+    SKIP_NEWEST,
+    /**
+     * 限制送去推理的帧率（VIDEO_THROTTLE_FPS），超出部分直接跳过，其余同 DROP_OLDEST。用于降低功耗和发热。
+     */
+    THROTTLE;
+
+    public PacingPolicy create(SettingsSnapshot config) {
+        switch (this) {
+            case SKIP_NEWEST:
+                return (nowMs, queued, capacity) ->
+                        queued < capacity ? PacingPolicy.Decision.ENQUEUE : PacingPolicy.Decision.REJECT;
+            case THROTTLE:
+                return new Throttle(1000L / Math.max(1, config.VIDEO_THROTTLE_FPS));
+            case DROP_OLDEST:
+            default:
+                return (nowMs, queued, capacity) -> PacingPolicy.Decision.REPLACE_OLDEST;
+        }
+    }
+
+    private static class Throttle implements PacingPolicy {
+        private final long minIntervalMs;
+        private long lastAcceptedMs = Long.MIN_VALUE / 2;
+
+        Throttle(long minIntervalMs) {
+            this.minIntervalMs = minIntervalMs;
+        }
+
+        @Override
+        public Decision onOffer(long nowMs, int queued, int capacity) {
+            if (nowMs - lastAcceptedMs < minIntervalMs) return Decision.REJECT;
+            lastAcceptedMs = nowMs;
+            return Decision.REPLACE_OLDEST;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/FramePool.java
+// 描述: 固定大小的帧缓冲环形池。每帧在转换开始时租用一个缓冲区，
+//       在推理结果返回后归还，避免异步推理期间缓冲区被下一帧覆盖。
+//       租用中的缓冲区只由推理端归还，不会因超时被强制回收；池耗尽时丢弃新帧。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.Log;
+
+public class FramePool {
+
+    private static final String TAG = "FramePool";
+    /**
+     * 每租用多少帧输出一次统计日志。
+     */
+    private static final int REPORT_INTERVAL = 240;
+
+    /**
+     * 池中的一个帧缓冲区。
+     */
+    public static class Frame {
+        private Bitmap bitmap;
+        private Canvas canvas;
+        private boolean leased;
+        /**
+         * 提交推理时使用的时间戳（毫秒），用于在结果回调中找回对应的缓冲区。
+         */
+        long timestampMs = -1;
+        /**
+         * 提交推理时的 System.nanoTime()，用于统计从提交到结果返回的延迟。
+         */
+        long submitNanos;
+        /**
+         * 该帧下采样后的亮度图（传感器方向），仅在启用光流传播时填充，用作跟踪起点。
+         */
+        byte[] luma;
+        boolean hasLuma;
+        /**
+         * 该帧从传感器方向旋转到屏幕方向的角度。
+         */
+        int rotationDegrees;
+        /**
+         * 捕获该帧时的屏幕方向（Surface.ROTATION_*）及其版本号，见 {@link SettingsSnapshot#ROTATION_VERSION}。
+         */
+        int screenRotation;
+        int rotationVersion;
+
+        public Bitmap getBitmap() {
+            return bitmap;
+        }
+
+        public Canvas getCanvas() {
+            return canvas;
+        }
+
+        public int getWidth() {
+            return bitmap.getWidth();
+        }
+
+        public int getHeight() {
+            return bitmap.getHeight();
+        }
+    }
+
+    private final Frame[] frames;
+    private int nextIndex = 0;
+    private int leasedCount = 0;
+    private long acquiredCount = 0;
+    private long droppedCount = 0;
+
+    /**
+     * @param size 池中缓冲区的数量。
+     */
+    public FramePool(int size) {
+        frames = new Frame[size];
+        for (int i = 0; i < size; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    /**
+     * 租用一个空闲缓冲区。
+     * @return 空闲的缓冲区；若池已耗尽则返回null，调用方应丢弃当前（最新的）帧。
+     */
+    public synchronized Frame acquire(int width, int height) {
+        // 推理端可能仍在读取租用中的缓冲区，池耗尽时丢弃新帧，等结果返回时经 releaseUpTo 归还
+        Frame frame = findFreeFrame();
+        if (frame == null) {
+            droppedCount++;
+            return null;
+        }
+
+        if (frame.bitmap == null || frame.bitmap.getWidth() != width || frame.bitmap.getHeight() != height) {
+            if (frame.bitmap != null && frame.bitmap.getAllocationByteCount() >= width * height * 4) {
+                // 屏幕旋转只交换宽高，复用原有像素内存，避免旋转时整池重新分配
+                frame.bitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+            } else {
+                // 仅在首次使用或分辨率变大时分配
+                frame.bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            }
+            frame.canvas = new Canvas(frame.bitmap);
+        }
+        frame.leased = true;
+        frame.timestampMs = -1;
+        frame.hasLuma = false;
+        leasedCount++;
+
+        if (++acquiredCount % REPORT_INTERVAL == 0) {
+            Log.d(TAG, "Pool occupancy " + leasedCount + "/" + frames.length
+                    + ", dropped (pool full): " + droppedCount);
+        }
+        return frame;
+    }
+
+    /**
+     * 归还一个缓冲区。
+     */
+    public synchronized void release(Frame frame) {
+        if (frame == null || !frame.leased) return;
+        frame.leased = false;
+        frame.timestampMs = -1;
+        leasedCount--;
+    }
+
+    /**
+     * 归还所有时间戳不晚于指定值的缓冲区。
+     * 推理端可能在内部丢帧而不回调，因此结果返回时一并回收更早提交的帧。
+     */
+    public synchronized void releaseUpTo(long timestampMs) {
+        for (Frame frame : frames) {
+            if (frame.leased && frame.timestampMs >= 0 && frame.timestampMs <= timestampMs) {
+                release(frame);
+            }
+        }
+    }
+
+    /**
+     * 查找以指定时间戳提交且仍在租用中的缓冲区。
+     * @return 对应的缓冲区；不存在时返回null。
+     */
+    public synchronized Frame findLeased(long timestampMs) {
+        for (Frame frame : frames) {
+            if (frame.leased && frame.timestampMs == timestampMs) return frame;
+        }
+        return null;
+    }
+
+    public synchronized void releaseAll() {
+        for (Frame frame : frames) {
+            release(frame);
+        }
+    }
+
+    /**
+     * @return 当前被租用的缓冲区数量。
+     */
+    public synchronized int getLeasedCount() {
+        return leasedCount;
+    }
+
+    /**
+     * @return 因池耗尽而被丢弃的帧数。
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private Frame findFreeFrame() {
+        for (int i = 0; i < frames.length; i++) {
+            Frame frame = frames[(nextIndex + i) % frames.length];
+            if (!frame.leased) {
+                nextIndex = (nextIndex + i + 1) % frames.length;
+                return frame;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/FrameQueue.java
+// 描述: 相机线程与同步推理线程之间的有界帧队列。相机线程非阻塞地提交帧，
+//       是否入队由 PacingPolicy 决定；推理线程阻塞地取帧。被丢弃的帧立即归还帧池。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.os.SystemClock;
+
+import java.util.ArrayDeque;
+
+public class FrameQueue {
+
+    private final FramePool framePool;
+    private final ArrayDeque<FramePool.Frame> frames = new ArrayDeque<>();
+    private int capacity;
+    private PacingPolicy policy;
+    private boolean closed = false;
+    private long offeredCount = 0;
+    private long droppedCount = 0;
+
+    public FrameQueue(FramePool framePool, int capacity, PacingPolicy policy) {
+        this.framePool = framePool;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * 更换容量和节奏策略，超出新容量的最旧帧被丢弃。
+     */
+    public synchronized void configure(int capacity, PacingPolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+        while (frames.size() > capacity) {
+            drop(frames.pollFirst());
+        }
+    }
+
+    /**
+     * 提交一帧，不阻塞。
+     * @return 帧是否入队；未入队的帧已归还帧池。
+     */
+    public synchronized boolean offer(FramePool.Frame frame) {
+        if (closed) {
+            framePool.release(frame);
+            return false;
+        }
+        offeredCount++;
+        PacingPolicy.Decision decision = policy.onOffer(SystemClock.uptimeMillis(), frames.size(), capacity);
+        if (decision == PacingPolicy.Decision.REPLACE_OLDEST) {
+            while (frames.size() >= capacity) {
+                drop(frames.pollFirst());
+            }
+        } else if (decision == PacingPolicy.Decision.REJECT || frames.size() >= capacity) {
+            drop(frame);
+            return false;
+        }
+        frames.addLast(frame);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * 取出最早入队的帧，队列为空时阻塞。
+     * @return 队列关闭后返回null。
+     */
+    public synchronized FramePool.Frame take() throws InterruptedException {
+        while (frames.isEmpty() && !closed) {
+            wait();
+        }
+        return closed ? null : frames.pollFirst();
+    }
+
+    /**
+     * 关闭队列，归还所有排队的帧并唤醒等待中的推理线程。
+     */
+    public synchronized void close() {
+        closed = true;
+        while (!frames.isEmpty()) {
+            framePool.release(frames.pollFirst());
+        }
+        notifyAll();
+    }
+
+    public synchronized long getOfferedCount() {
+        return offeredCount;
+    }
+
+    /**
+     * @return 被节奏策略丢弃的帧数。
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    private void drop(FramePool.Frame frame) {
+        framePool.release(frame);
+        droppedCount++;
+    }
+}
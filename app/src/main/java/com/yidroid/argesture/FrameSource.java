@@ -0,0 +1,72 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/FrameSource.java
+// 描述: 帧来源接口。实现者负责产生图像、转换并旋转到屏幕方向后交给监听者，
+//       下游的推理和手势处理不关心帧来自相机（CameraHelper）还是磁盘上的录制文件（FileFrameSource）。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.view.Surface;
+
+public interface FrameSource {
+
+    interface Listener {
+        /**
+         * 一帧已转换并旋转到屏幕方向。监听者负责在用完后归还该缓冲区。
+         */
+        void onImageAvailable(FramePool.Frame frame);
+        /**
+         * 画面与上一次推理的帧相比没有明显变化，已跳过转换和推理，监听者应复用上一次的结果。
+         */
+        void onFrameSkipped();
+        /**
+         * 本帧未进行推理，关节点由光流从上一次推理结果传播而来。
+         * @param x 旋转后图像中的归一化X坐标，每只手连续21个点。
+         * @param y 旋转后图像中的归一化Y坐标。
+         * @param z 相对深度。
+         * @param count 点的数量。数组仅在回调期间有效。
+         * @param timestampMs 本帧的捕获时刻，与推理结果的时间戳同一时基（uptimeMillis）。
+         */
+        void onLandmarksPropagated(float[] x, float[] y, float[] z, int count, long timestampMs);
+        void onCameraConfigured(String cameraId, int sensorRotation, int facing);
+        void onCameraError(String message);
+        /**
+         * 待机模式下检测到画面运动。
+         */
+        void onMotionDetected();
+    }
+
+    /**
+     * 准备内部线程，之后才能调用其他方法。
+     */
+    void start();
+
+    /**
+     * 停止产生帧并释放所有资源。
+     */
+    void stop();
+
+    /**
+     * 开始产生帧。
+     * @param previewSurface 可选的预览Surface；不支持预览的来源忽略该参数。
+     */
+    void startCamera(Surface previewSurface);
+
+    /**
+     * 附加或移除预览Surface；不支持预览的来源忽略该调用。
+     */
+    void setPreviewSurface(Surface previewSurface);
+
+    /**
+     * 进入待机模式：只做低频运动检测，检测到运动时回调 {@link Listener#onMotionDetected()}。
+     */
+    void enterStandby();
+
+    void exitStandby();
+
+    boolean isStandby();
+
+    /**
+     * @return 光流跟踪器；来源不支持光流传播或尚未开始时返回null。
+     */
+    LandmarkFlowTracker getFlowTracker();
+}
@@ -5,7 +5,6 @@
 package com.yidroid.argesture;
 
 import android.accessibilityservice.AccessibilityService;
-import android.accessibilityservice.GestureDescription;
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
@@ -15,57 +14,147 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.res.Configuration;
-import android.graphics.Bitmap;
-import android.graphics.Matrix;
-import android.graphics.Path;
+import android.graphics.Rect;
 import android.graphics.SurfaceTexture;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
-import android.view.Surface;
 import android.view.TextureView;
 import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 
-import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
-
+import com.google.mediapipe.tasks.components.containers.Category;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class GestureAccessibilityService extends AccessibilityService
-        implements GestureRecognizerHelper.ResultListener, GestureProcessor.GestureListener, CameraHelper.CameraListener {
+        implements InferenceBackend.Listener, GestureProcessor.GestureListener, FrameSource.Listener {
 
     private static final String TAG = "GestureService";
     private static final int NOTIFICATION_ID = 1;
     private static final String NOTIFICATION_CHANNEL_ID = "GestureServiceChannel";
     private static final String ACTION_TOGGLE_PREVIEW = "com.yidroid.argesture.TOGGLE_PREVIEW";
+    /**
+     * 开始校准交互区域，由设置页面发送。
+     */
+    public static final String ACTION_CALIBRATE_INTERACTION_BOX = "com.yidroid.argesture.CALIBRATE_INTERACTION_BOX";
+    /**
+     * 模拟推理耗时和合成手部数据的随机种子，固定以便复现。
+     */
+    private static final long STUB_LATENCY_SEED = 0x5EEDL;
 
     private GestureSettings settings;
     private CursorControl cursorControl;
     private CameraPreviewControl previewControl;
     private GestureProcessor gestureProcessor;
-    private GestureRecognizerHelper gestureRecognizerHelper;
-    private CameraHelper cameraHelper;
+    private volatile InferenceBackend inferenceBackend;
+    private FrameSource frameSource;
+    private FramePool framePool;
+    private GestureDispatcher gestureDispatcher;
+    private ScrollController scrollController;
+    private ClickableNodeIndex nodeIndex;
+
+    // --- 预测点击 ---
+    private boolean isPressPending = false;
+    private ClickableNodeIndex.Entry pressedNode;
+    /**
+     * 点击控件前校验边界用的临时矩形，只在主线程使用。
+     */
+    private final Rect nodeClickBounds = new Rect();
 
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    private int cameraSensorRotation = -1;
-    private int rotatedImageWidth, rotatedImageHeight;
+    /**
+     * 最近一次提交推理的帧的几何信息，仅在结果回调找不到对应帧时使用。
+     */
+    private volatile FrameGeometry submittedGeometry;
+    /**
+     * 屏幕旋转时合并多次配置变化，只在主线程空闲时统一更新一次悬浮窗布局。
+     */
+    private boolean isLayoutUpdatePending = false;
 
     private AtomicBoolean isGestureControlActive = new AtomicBoolean(false);
+    private final AtomicBoolean isModeSwitchPending = new AtomicBoolean(false);
     private boolean isPreviewVisible = false;
 
     private final Handler idleHandler = new Handler(Looper.getMainLooper());
     private final Runnable idleRunnable = this::handleIdleTimeout;
+    /**
+     * 最近一次检测到手的时间，由推理回调线程写入，空闲看门狗只需周期性读取，无逐帧主线程开销。
+     */
+    private volatile long lastHandSeenMs;
+
+    // --- 静态场景跳帧 ---
+    private volatile HandResult lastResult;
+    private volatile FrameGeometry lastResultGeometry;
+    private volatile boolean isResultReused = false;
+    private long reuseCheckCount = 0;
+    private long reuseMissCount = 0;
+
+    // --- 光流传播 ---
+    /**
+     * 光流跟踪起点所对应的左右手分类结果，与传播出的关节点按手的顺序一一对应。
+     */
+    private volatile List<List<Category>> anchorHandedness = Collections.emptyList();
+    /**
+     * 光流跟踪起点所在帧的几何信息，传播出的关节点处于该帧的方向。
+     */
+    private volatile FrameGeometry anchorGeometry;
+    private final float[] anchorX = new float[LandmarkFlowTracker.MAX_HANDS * LandmarkFlowTracker.LANDMARKS_PER_HAND];
+    private final float[] anchorY = new float[anchorX.length];
+    private final float[] anchorZ = new float[anchorX.length];
+    /**
+     * 传播帧从相机线程交给主线程的两个缓冲区：相机线程写 pendingPropagated，主线程交换后读取，
+     * 每帧不分配内存。主线程来不及处理时，较新的传播帧覆盖尚未处理的旧帧。由 propagatedLock 保护。
+     */
+    private final Object propagatedLock = new Object();
+    private PropagatedLandmarks pendingPropagated = new PropagatedLandmarks();
+    private PropagatedLandmarks processingPropagated = new PropagatedLandmarks();
+    private boolean isPropagatedPosted = false;
+    private final Runnable processPropagatedRunnable = this::processPropagatedLandmarks;
+
+    /**
+     * 一帧光流传播结果的副本。
+     */
+    private static final class PropagatedLandmarks {
+        final float[] x = new float[LandmarkFlowTracker.MAX_HANDS * LandmarkFlowTracker.LANDMARKS_PER_HAND];
+        final float[] y = new float[x.length];
+        final float[] z = new float[x.length];
+        int count;
+        long timestampMs;
+        List<List<Category>> handedness;
+        FrameGeometry geometry;
+    }
+
+    // --- 推理结果录制 ---
+    /**
+     * 录制MediaPipe结果的输出，未启用录制时为null。运行时切换推理方式期间新旧推理器可能同时回调，写入时加锁。
+     */
+    private volatile Writer resultRecorder;
 
     private final BroadcastReceiver previewControlReceiver = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
             if (ACTION_TOGGLE_PREVIEW.equals(intent.getAction())) {
                 togglePreviewState();
+            } else if (ACTION_CALIBRATE_INTERACTION_BOX.equals(intent.getAction())) {
+                gestureProcessor.startInteractionBoxCalibration();
             }
         }
     };
@@ -79,43 +168,158 @@ public class GestureAccessibilityService extends AccessibilityService
         cursorControl = new CursorControl(this);
         previewControl = new CameraPreviewControl(this, surfaceTextureListener);
         gestureProcessor = new GestureProcessor(this, this);
-        cameraHelper = new CameraHelper(this, this);
+        framePool = new FramePool(settings.get().FRAME_POOL_SIZE);
+        frameSource = createFrameSource();
+        gestureDispatcher = new GestureDispatcher(this);
+        scrollController = new ScrollController(this, gestureDispatcher);
+        nodeIndex = new ClickableNodeIndex(this);
+        gestureProcessor.setSnapTargets(nodeIndex);
 
-        ContextCompat.registerReceiver(this, previewControlReceiver, new IntentFilter(ACTION_TOGGLE_PREVIEW), ContextCompat.RECEIVER_EXPORTED);
+        IntentFilter controlFilter = new IntentFilter(ACTION_TOGGLE_PREVIEW);
+        controlFilter.addAction(ACTION_CALIBRATE_INTERACTION_BOX);
+        ContextCompat.registerReceiver(this, previewControlReceiver, controlFilter, ContextCompat.RECEIVER_EXPORTED);
 
         startGestureControl();
         mainHandler.post(this::togglePreviewState);
     }
 
+    /**
+     * 默认使用摄像头；启用录制帧来源且文件存在时改为播放外部文件目录下的 frames.nv21。
+     */
+    private FrameSource createFrameSource() {
+        SettingsSnapshot config = settings.get();
+        if (config.FILE_FRAME_SOURCE_ENABLED) {
+            File frames = new File(getExternalFilesDir(null), "frames.nv21");
+            if (frames.isFile()) {
+                return new FileFrameSource(this, this, framePool, frames, config.CAMERA_WIDTH, config.CAMERA_HEIGHT,
+                        config.FILE_SOURCE_FPS, config.FILE_SOURCE_SENSOR_ROTATION);
+            }
+            Log.w(TAG, "File frame source enabled but " + frames + " not found, using the camera");
+        }
+        return new CameraHelper(this, this, framePool);
+    }
+
+    /**
+     * 按设置创建推理后端。脚本和录制后端分别回放外部文件目录下的 landmark_script.txt 和 results.txt；
+     * 脚本文件不存在时回放合成手部演示脚本，录制文件不存在或文件无法解析时退回MediaPipe。
+     */
+    private InferenceBackend createInferenceBackend() {
+        SettingsSnapshot config = settings.get();
+        if (config.INFERENCE_BACKEND != InferenceBackendType.MEDIAPIPE) {
+            String name = config.INFERENCE_BACKEND == InferenceBackendType.SCRIPTED ? "landmark_script.txt" : "results.txt";
+            File file = new File(getExternalFilesDir(null), name);
+            LatencyModel latency = LatencyModel.synthetic(config.STUB_LATENCY_MS, config.STUB_LATENCY_JITTER_MS,
+                    config.STUB_SPIKE_INTERVAL, config.STUB_SPIKE_MS, STUB_LATENCY_SEED);
+            if (config.INFERENCE_BACKEND == InferenceBackendType.SCRIPTED && !file.isFile()) {
+                SyntheticHandScript script = SyntheticHandScript.demo(STUB_LATENCY_SEED, config.SYNTHETIC_NOISE,
+                        config.SYNTHETIC_DROPOUT_RATE, config.SYNTHETIC_HANDEDNESS_FLIP_RATE);
+                Log.i(TAG, "Using SCRIPTED inference backend with the synthetic demo script ("
+                        + script.getFrameCount() + " frames per cycle)");
+                return new ScriptedInferenceBackend(script, latency, framePool, this);
+            }
+            try {
+                RecordedLandmarks recording = RecordedLandmarks.read(file);
+                Log.i(TAG, "Using " + config.INFERENCE_BACKEND + " inference backend with " + recording.getFrameCount()
+                        + " frames from " + file);
+                if (config.INFERENCE_BACKEND == InferenceBackendType.RECORDED) {
+                    return new RecordedInferenceBackend(recording, framePool, this);
+                }
+                return new ScriptedInferenceBackend(recording.script(), latency, framePool, this);
+            } catch (IOException e) {
+                Log.w(TAG, config.INFERENCE_BACKEND + " inference backend unavailable, using MediaPipe", e);
+            }
+        }
+        return new GestureRecognizerHelper(this, this, framePool, config.INFERENCE_MODE);
+    }
+
+    private void openResultRecorder() {
+        File file = new File(getExternalFilesDir(null), "results.txt");
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+            writer.write("# latencyMs handCount [category index score x0 y0 z0 ... x20 y20 z20]...\n");
+            resultRecorder = writer;
+            Log.i(TAG, "Recording inference results to " + file);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to open " + file, e);
+        }
+    }
+
+    private void closeResultRecorder() {
+        Writer writer = resultRecorder;
+        if (writer == null) return;
+        resultRecorder = null;
+        synchronized (writer) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to close result recording", e);
+            }
+        }
+    }
+
+    private void recordResult(HandResult result, FramePool.Frame frame) {
+        Writer writer = resultRecorder;
+        if (writer == null || frame == null) return;
+        long latencyMs = (System.nanoTime() - frame.submitNanos) / 1_000_000;
+        synchronized (writer) {
+            try {
+                RecordedLandmarks.append(writer, result, latencyMs);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to record inference result, recording stopped", e);
+                resultRecorder = null;
+            }
+        }
+    }
+
     @Override
     public void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
         if (settings != null) {
             settings.onConfigurationChanged(newConfig);
         }
-        if (previewControl != null) {
-            previewControl.onConfigurationChanged();
+        if (previewControl != null && !isLayoutUpdatePending) {
+            // 不在配置回调中逐个更新窗口：合并到下一次主线程循环，按最新方向一次性完成
+            isLayoutUpdatePending = true;
+            mainHandler.post(this::applyPreviewLayout);
+        }
+        if (nodeIndex != null) {
+            // 屏幕尺寸变化，网格需要按新尺寸重建
+            nodeIndex.requestFullRebuild();
         }
     }
 
+    private void applyPreviewLayout() {
+        isLayoutUpdatePending = false;
+        if (previewControl == null) return;
+        previewControl.onConfigurationChanged();
+        attachPreviewSurface();
+    }
+
     private void togglePreviewState() {
         if (isPreviewVisible) {
+            // 隐藏预览时仅移除预览输出，图像分析继续运行
             previewControl.hide();
-            cameraHelper.stopCamera();
             isPreviewVisible = false;
         } else {
             previewControl.show();
             isPreviewVisible = true;
         }
+        attachPreviewSurface();
         updateNotification();
     }
 
+    /**
+     * 将当前可见的预览Surface同步给相机；预览隐藏时传入null，相机进入纯分析模式。
+     */
+    private void attachPreviewSurface() {
+        if (!isGestureControlActive.get()) return;
+        frameSource.setPreviewSurface(isPreviewVisible ? previewControl.getActivePreviewSurface() : null);
+    }
+
     private final TextureView.SurfaceTextureListener surfaceTextureListener = new TextureView.SurfaceTextureListener() {
         @Override
         public void onSurfaceTextureAvailable(@NonNull SurfaceTexture surfaceTexture, int width, int height) {
-            if (isGestureControlActive.get()) {
-                cameraHelper.startCamera(new Surface(surfaceTexture));
-            }
+            attachPreviewSurface();
         }
 
         @Override
@@ -123,7 +327,12 @@ public class GestureAccessibilityService extends AccessibilityService
 
         @Override
         public boolean onSurfaceTextureDestroyed(@NonNull SurfaceTexture surface) {
-            cameraHelper.stop();
+            // 销毁回调中 TextureView 仍可能报告可用并返回同一个纹理，重新获取会在失效的纹理上创建Surface，
+            // 因此直接让相机停止向它输出，再释放Surface；新纹理就绪后由 onSurfaceTextureAvailable 重新接入
+            if (previewControl.isActiveSurfaceTexture(surface) && isGestureControlActive.get()) {
+                frameSource.setPreviewSurface(null);
+            }
+            previewControl.onSurfaceTextureDestroyed(surface);
             return true;
         }
 
@@ -135,9 +344,15 @@ public class GestureAccessibilityService extends AccessibilityService
         if (isGestureControlActive.getAndSet(true)) return;
         Log.d(TAG, "Starting gesture control...");
 
-        gestureRecognizerHelper = new GestureRecognizerHelper(this, this);
+        inferenceBackend = createInferenceBackend();
+        if (settings.get().RESULT_RECORDING_ENABLED && inferenceBackend instanceof GestureRecognizerHelper) {
+            openResultRecorder();
+        }
         cursorControl.create();
-        cameraHelper.start();
+        frameSource.start();
+        // 相机启动不再依赖预览窗口，预览Surface就绪后再动态附加
+        frameSource.startCamera(isPreviewVisible ? previewControl.getActivePreviewSurface() : null);
+        nodeIndex.requestFullRebuild();
 
         resetIdleTimer();
         updateNotification();
@@ -148,28 +363,55 @@ public class GestureAccessibilityService extends AccessibilityService
         Log.d(TAG, "Stopping gesture control...");
 
         stopIdleTimer();
-        cameraHelper.stop();
-        if (gestureRecognizerHelper != null) {
-            gestureRecognizerHelper.close();
-            gestureRecognizerHelper = null;
+        if (settings.get().POINTER_TRACE_ENABLED) {
+            gestureProcessor.savePointerTrace(new File(getExternalFilesDir(null), "pointer_trace.csv"));
         }
+        // 先清空队列：取消滚动会放开按住的笔画，排队的点击不应在停止时再分发
+        gestureDispatcher.clear();
+        scrollController.cancel();
+        frameSource.stop();
+        if (inferenceBackend != null) {
+            inferenceBackend.close();
+            inferenceBackend = null;
+        }
+        closeResultRecorder();
         cursorControl.destroy();
         previewControl.destroy();
 
         updateNotification();
     }
 
+    /**
+     * 空闲看门狗：按固定间隔检查最近一次检测到手的时间，超时后进入待机而不是停止服务。
+     */
     private void handleIdleTimeout() {
-        if (isGestureControlActive.get()) {
-            Log.i(TAG, "Idle timeout reached. Stopping gesture control to save power.");
-            Toast.makeText(this, "因长时间未使用，手势识别已暂停", Toast.LENGTH_SHORT).show();
-            stopGestureControl();
+        if (!isGestureControlActive.get() || frameSource.isStandby()) return;
+        long idleMs = SystemClock.uptimeMillis() - lastHandSeenMs;
+        if (idleMs >= settings.get().IDLE_TIMEOUT_MS) {
+            enterStandby();
+        } else {
+            idleHandler.postDelayed(idleRunnable, settings.get().IDLE_TIMEOUT_MS - idleMs);
         }
     }
 
+    private void enterStandby() {
+        Log.i(TAG, "Idle timeout reached. Entering standby to save power.");
+        Toast.makeText(this, "因长时间未检测到手，手势识别已待机，挥手即可恢复", Toast.LENGTH_SHORT).show();
+        cursorControl.setVisibility(false);
+        frameSource.enterStandby();
+    }
+
+    private void exitStandby() {
+        if (!isGestureControlActive.get() || !frameSource.isStandby()) return;
+        Log.i(TAG, "Motion detected. Resuming gesture control.");
+        frameSource.exitStandby();
+        resetIdleTimer();
+    }
+
     private void resetIdleTimer() {
         stopIdleTimer();
-        idleHandler.postDelayed(idleRunnable, settings.IDLE_TIMEOUT_MS);
+        lastHandSeenMs = SystemClock.uptimeMillis();
+        idleHandler.postDelayed(idleRunnable, settings.get().IDLE_TIMEOUT_MS);
     }
 
     private void stopIdleTimer() {
@@ -207,48 +449,178 @@ public class GestureAccessibilityService extends AccessibilityService
     public void onDestroy() {
         super.onDestroy();
         stopGestureControl();
+        if (nodeIndex != null) {
+            nodeIndex.close();
+        }
         unregisterReceiver(previewControlReceiver);
         stopForeground(true);
     }
 
     // --- Listeners Implementation ---
     @Override
-    public void onResults(HandLandmarkerResult result) {
+    public void onResults(HandResult result, FramePool.Frame frame) {
+        recordResult(result, frame);
+        if (!result.landmarks().isEmpty()) {
+            lastHandSeenMs = SystemClock.uptimeMillis();
+        }
+        anchorFlowTracker(result, frame);
+        if (isResultReused) {
+            checkReusedResultAccuracy(lastResult, result);
+            isResultReused = false;
+        }
+        FrameGeometry geometry = frame != null ? FrameGeometry.of(frame) : submittedGeometry;
+        if (geometry == null) return;
+        lastResult = result;
+        lastResultGeometry = geometry;
         mainHandler.post(() -> {
             if (isGestureControlActive.get()) {
-                gestureProcessor.process(result, rotatedImageWidth, rotatedImageHeight);
-                if (previewControl != null && isPreviewVisible) {
-                    previewControl.getOverlayView().setResults(result, rotatedImageWidth, rotatedImageHeight, settings.ACTIVE_CAMERA_FACING);
+                gestureProcessor.process(result, geometry);
+                // 旋转之前捕获的结果不再绘制，悬浮窗已按新方向布局
+                SettingsSnapshot config = settings.get();
+                if (previewControl != null && isPreviewVisible && !geometry.isStale(config)) {
+                    previewControl.getOverlayView().setResults(result, geometry.width, geometry.height, config.ACTIVE_CAMERA_FACING);
                 }
             }
         });
     }
 
     @Override
-    public void onImageAvailable(Bitmap originalBitmap) {
-        if (!isGestureControlActive.get() || gestureRecognizerHelper == null) return;
-        resetIdleTimer();
+    public void onImageAvailable(FramePool.Frame frame) {
+        InferenceBackend backend = inferenceBackend;
+        if (!isGestureControlActive.get() || backend == null) {
+            framePool.release(frame);
+            return;
+        }
 
-        Matrix matrix = new Matrix();
-        int screenRotationDegrees = 0;
-        switch (settings.SCREEN_ROTATION) {
-            case Surface.ROTATION_90: screenRotationDegrees = 90; break;
-            case Surface.ROTATION_180: screenRotationDegrees = 180; break;
-            case Surface.ROTATION_270: screenRotationDegrees = 270; break;
+        submittedGeometry = FrameGeometry.of(frame);
+        backend.submit(frame);
+        // 推理方式只对MediaPipe后端有意义
+        if (backend instanceof GestureRecognizerHelper
+                && ((GestureRecognizerHelper) backend).getMode() != settings.get().INFERENCE_MODE
+                && !isModeSwitchPending.getAndSet(true)) {
+            mainHandler.post(this::switchInferenceMode);
         }
-        int rotationDegrees = (cameraSensorRotation - screenRotationDegrees + 360) % 360;
-        matrix.postRotate(rotationDegrees);
+    }
 
-        Bitmap rotatedBitmap = Bitmap.createBitmap(originalBitmap, 0, 0, originalBitmap.getWidth(), originalBitmap.getHeight(), matrix, true);
-        rotatedImageWidth = rotatedBitmap.getWidth();
-        rotatedImageHeight = rotatedBitmap.getHeight();
-        gestureRecognizerHelper.recognizeLiveStream(rotatedBitmap);
+    /**
+     * 运行时切换推理方式：先创建新的推理器再关闭旧的，切换期间到达的帧仍交给旧的推理器。
+     */
+    private void switchInferenceMode() {
+        isModeSwitchPending.set(false);
+        InferenceBackend current = inferenceBackend;
+        InferenceMode mode = settings.get().INFERENCE_MODE;
+        if (!isGestureControlActive.get() || !(current instanceof GestureRecognizerHelper)) return;
+        GestureRecognizerHelper previous = (GestureRecognizerHelper) current;
+        if (previous.getMode() == mode) return;
+        Log.i(TAG, "Switching inference mode " + previous.getMode() + " -> " + mode);
+        inferenceBackend = new GestureRecognizerHelper(this, this, framePool, mode);
+        previous.close();
     }
 
     @Override
     public void onCameraConfigured(String cameraId, int sensorRotation, int facing) {
-        this.cameraSensorRotation = sensorRotation;
-        this.settings.ACTIVE_CAMERA_FACING = facing;
+        settings.setActiveCameraFacing(facing);
+    }
+
+    /**
+     * 以最新的推理结果及其输入帧的亮度图作为光流跟踪的新起点。
+     */
+    private void anchorFlowTracker(HandResult result, FramePool.Frame frame) {
+        LandmarkFlowTracker tracker = frameSource.getFlowTracker();
+        if (tracker == null) return;
+        if (frame == null || !frame.hasLuma || result.landmarks().isEmpty()) {
+            tracker.invalidate();
+            return;
+        }
+        int count = 0;
+        int handCount = Math.min(result.landmarks().size(), LandmarkFlowTracker.MAX_HANDS);
+        for (int hand = 0; hand < handCount; hand++) {
+            for (NormalizedLandmark landmark : result.landmarks().get(hand)) {
+                anchorX[count] = landmark.x();
+                anchorY[count] = landmark.y();
+                anchorZ[count] = landmark.z();
+                count++;
+            }
+        }
+        anchorHandedness = result.handedness().subList(0, handCount);
+        anchorGeometry = FrameGeometry.of(frame);
+        tracker.anchor(frame.luma, frame.rotationDegrees, anchorX, anchorY, anchorZ, count);
+    }
+
+    @Override
+    public void onLandmarksPropagated(float[] x, float[] y, float[] z, int count, long timestampMs) {
+        List<List<Category>> handedness = anchorHandedness;
+        FrameGeometry geometry = anchorGeometry;
+        if (count / LandmarkFlowTracker.LANDMARKS_PER_HAND != handedness.size() || geometry == null) return;
+        synchronized (propagatedLock) {
+            PropagatedLandmarks pending = pendingPropagated;
+            System.arraycopy(x, 0, pending.x, 0, count);
+            System.arraycopy(y, 0, pending.y, 0, count);
+            System.arraycopy(z, 0, pending.z, 0, count);
+            pending.count = count;
+            pending.timestampMs = timestampMs;
+            pending.handedness = handedness;
+            pending.geometry = geometry;
+            if (isPropagatedPosted) return;
+            isPropagatedPosted = true;
+        }
+        mainHandler.post(processPropagatedRunnable);
+    }
+
+    private void processPropagatedLandmarks() {
+        PropagatedLandmarks frame;
+        synchronized (propagatedLock) {
+            frame = pendingPropagated;
+            pendingPropagated = processingPropagated;
+            processingPropagated = frame;
+            isPropagatedPosted = false;
+        }
+        if (isGestureControlActive.get()) {
+            gestureProcessor.process(frame.x, frame.y, frame.z, frame.count, frame.handedness, frame.timestampMs,
+                    frame.geometry);
+        }
+    }
+
+    @Override
+    public void onFrameSkipped() {
+        HandResult result = lastResult;
+        FrameGeometry geometry = lastResultGeometry;
+        if (result == null || geometry == null) return;
+        isResultReused = true;
+        // 画面静止，复用的关节点以当前时间为时间戳，速度估计随之归零
+        long timestampMs = SystemClock.uptimeMillis();
+        mainHandler.post(() -> {
+            if (isGestureControlActive.get()) {
+                gestureProcessor.process(result.landmarks(), result.handedness(), timestampMs, geometry);
+            }
+        });
+    }
+
+    /**
+     * 比较被复用的结果与之后真正推理的结果，统计静态场景判定的误判率。
+     */
+    private void checkReusedResultAccuracy(HandResult reused, HandResult fresh) {
+        if (reused == null) return;
+        reuseCheckCount++;
+        boolean reusedHasHand = !reused.landmarks().isEmpty();
+        boolean freshHasHand = !fresh.landmarks().isEmpty();
+        if (reusedHasHand != freshHasHand) {
+            reuseMissCount++;
+        } else if (reusedHasHand) {
+            NormalizedLandmark a = reused.landmarks().get(0).get(8);
+            NormalizedLandmark b = fresh.landmarks().get(0).get(8);
+            if (Math.hypot(a.x() - b.x(), a.y() - b.y()) > settings.get().STATIC_SCENE_ACCURACY_TOLERANCE) {
+                reuseMissCount++;
+            }
+        }
+        if (reuseCheckCount % 100 == 0) {
+            Log.d(TAG, "Static scene reuse accuracy: " + (reuseCheckCount - reuseMissCount) + "/" + reuseCheckCount);
+        }
+    }
+
+    @Override
+    public void onMotionDetected() {
+        mainHandler.post(this::exitStandby);
     }
 
     @Override
@@ -259,23 +631,70 @@ public class GestureAccessibilityService extends AccessibilityService
     @Override public void onError(String error) { Log.e(TAG, "Gesture Recognition Error: " + error); }
     @Override public void onUpdateCursor(int x, int y) { cursorControl.setVisibility(true); cursorControl.updatePosition(x, y); }
     @Override public void onPerformClick(int x, int y) {
-        if (x < 0 || y < 0 || x > settings.SCREEN_WIDTH || y > settings.SCREEN_HEIGHT) return;
-        Path clickPath = new Path();
-        clickPath.moveTo(x, y);
-        dispatchGesture(new GestureDescription.Builder().addStroke(new GestureDescription.StrokeDescription(clickPath, 0, 100)).build(), null, null);
+        SettingsSnapshot config = settings.get();
+        if (x < 0 || y < 0 || x > config.SCREEN_WIDTH || y > config.SCREEN_HEIGHT) return;
+        if (config.NODE_CLICK_ENABLED && performNodeClick(x, y)) return;
+        gestureDispatcher.tap(x, y);
+    }
+    @Override public void onScrollBegin(int x, int y) { scrollController.begin(x, y); }
+    @Override public void onScrollUpdate(int x, int y) { scrollController.update(x, y); }
+    @Override public void onScrollEnd(int x, int y, float velocityX, float velocityY) { scrollController.end(x, y, velocityX, velocityY); }
+    @Override public void onPressBegin(int x, int y) {
+        SettingsSnapshot config = settings.get();
+        if (x < 0 || y < 0 || x > config.SCREEN_WIDTH || y > config.SCREEN_HEIGHT) return;
+        // 预测按下时不注入任何触摸：提前按下的触点无论怎样取消都可能点中大控件或在滚动容器中触发惯性滑动。
+        // 这里只预先取出光标下的控件，点击仍等多帧投票确认，落点取确认时的光标位置
+        pressedNode = config.NODE_CLICK_ENABLED ? nodeIndex.findAt(x, y) : null;
+        isPressPending = true;
+    }
+    @Override public void onPressCommit(int x, int y) {
+        ClickableNodeIndex.Entry entry = isPressPending ? pressedNode : null;
+        isPressPending = false;
+        pressedNode = null;
+        // 光标在投票期间可能已离开预先取出的控件，此时按确认时的位置重新查找或回退到触摸
+        if (entry != null && x >= 0 && y >= 0 && clickNodeAt(entry, x, y)) return;
+        onPerformClick(x, y);
+    }
+    @Override public void onPressCancel() {
+        isPressPending = false;
+        pressedNode = null;
     }
-    @Override public void onPerformScroll(int x, int y, int direction) { } // Not implemented
     @Override public void onPerformHome() { performGlobalAction(GLOBAL_ACTION_HOME); }
     @Override public void onPerformBack() { performGlobalAction(GLOBAL_ACTION_BACK); }
     @Override public void onNoHandDetected() {
         cursorControl.setVisibility(false);
         if (previewControl != null && isPreviewVisible) {
-            previewControl.getOverlayView().setResults(null, 0, 0, settings.ACTIVE_CAMERA_FACING);
+            previewControl.getOverlayView().setResults(null, 0, 0, settings.get().ACTIVE_CAMERA_FACING);
         }
     }
 
+    /**
+     * 快速路径：光标下有已索引的可点击控件时直接执行点击动作。
+     * 控件已失效或拒绝动作时返回false，由调用方回退到触摸手势。
+     */
+    private boolean performNodeClick(int x, int y) {
+        ClickableNodeIndex.Entry entry = nodeIndex.findAt(x, y);
+        return entry != null && clickNodeAt(entry, x, y);
+    }
+
+    /**
+     * 索引中的边界可能已经过时（列表滚动、布局变化后事件尚未处理），点击前刷新节点，
+     * 只有控件仍然可见且当前边界仍包含 (x, y) 时才执行 ACTION_CLICK，否则返回false回退到触摸手势。
+     */
+    private boolean clickNodeAt(ClickableNodeIndex.Entry entry, int x, int y) {
+        AccessibilityNodeInfo node = entry.node;
+        if (!node.refresh() || !node.isVisibleToUser()) return false;
+        node.getBoundsInScreen(nodeClickBounds);
+        if (!nodeClickBounds.contains(x, y)) return false;
+        return node.performAction(AccessibilityNodeInfo.ACTION_CLICK);
+    }
+
     // --- System Callbacks ---
-    @Override public void onAccessibilityEvent(AccessibilityEvent event) {}
+    @Override public void onAccessibilityEvent(AccessibilityEvent event) {
+        if (nodeIndex != null && isGestureControlActive.get()) {
+            nodeIndex.onAccessibilityEvent(event);
+        }
+    }
     @Override public void onInterrupt() { Log.d(TAG, "Accessibility Service Interrupted"); }
 }
 
@@ -0,0 +1,282 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/GestureDispatcher.java
+// 描述: 统一的手势分发队列。同一时间只有一个手势在分发中，新手势不会再静默取消
+//       正在进行的手势；分发中到达的手势进入有界队列，重复的点击被合并，队列满时拒绝。
+//       延续中的笔画（willContinue）按住期间点击只排队，不插入到两段笔画之间，
+//       否则点击会取消按住的笔画，下一段 continueStroke 随之失败。
+//       跟踪每个手势的完成/取消回调，并统计从分发到完成的延迟。只能在主线程调用。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.graphics.Path;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+public class GestureDispatcher {
+
+    private static final String TAG = "GestureDispatcher";
+
+    /**
+     * 等待队列的容量（不含正在分发的手势）。
+     */
+    private static final int QUEUE_CAPACITY = 4;
+    /**
+     * 与正在分发或排队中的点击距离小于该值（像素）的新点击视为重复，直接合并。
+     */
+    private static final float COALESCE_DISTANCE_PX = 24f;
+    /**
+     * 每完成多少个手势输出一次统计日志。
+     */
+    private static final int STATS_INTERVAL = 50;
+
+    /**
+     * 队列中的一项：点击坐标，或由调用者构造好的手势及其回调。预先分配，循环复用。
+     */
+    private static final class Entry {
+        boolean isTap;
+        int x, y;
+        GestureDescription gesture;
+        AccessibilityService.GestureResultCallback callback;
+
+        void clear() {
+            gesture = null;
+            callback = null;
+        }
+    }
+
+    private final AccessibilityService service;
+    private final GestureSettings settings;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LatencyTracker completionLatency = new LatencyTracker("Gesture dispatch to completion", STATS_INTERVAL);
+
+    private final Entry[] queue = new Entry[QUEUE_CAPACITY];
+    private int queueHead = 0;
+    private int queueCount = 0;
+
+    // --- 正在分发的手势 ---
+    private final Entry inFlight = new Entry();
+    private boolean isInFlight = false;
+    private long inFlightStartNanos;
+    /**
+     * 最近分发的笔画以 willContinue 结束，系统中仍按住该触摸点，等待下一段延续。
+     */
+    private boolean isStrokeHeld = false;
+
+    // --- 点击手势复用 ---
+    /**
+     * StrokeDescription 会复制传入的路径，因此同一个 Path 可以反复重置使用。
+     */
+    private final Path tapPath = new Path();
+    private GestureDescription cachedTap;
+    private int cachedTapX = -1, cachedTapY = -1;
+    private long cachedTapDuration = -1;
+
+    private long completedCount, cancelledCount, coalescedCount, rejectedCount;
+
+    private final AccessibilityService.GestureResultCallback resultCallback = new AccessibilityService.GestureResultCallback() {
+        @Override
+        public void onCompleted(GestureDescription gestureDescription) {
+            if (!isInFlight || gestureDescription != inFlight.gesture) return;
+            completionLatency.record(System.nanoTime() - inFlightStartNanos);
+            completedCount++;
+            AccessibilityService.GestureResultCallback callback = inFlight.callback;
+            finishInFlight();
+            if (callback != null) callback.onCompleted(gestureDescription);
+            logStatsIfNeeded();
+        }
+
+        @Override
+        public void onCancelled(GestureDescription gestureDescription) {
+            if (!isInFlight || gestureDescription != inFlight.gesture) return;
+            cancelledCount++;
+            // 被取消的笔画不能再延续，排队的点击可以继续分发
+            isStrokeHeld = false;
+            AccessibilityService.GestureResultCallback callback = inFlight.callback;
+            finishInFlight();
+            if (callback != null) callback.onCancelled(gestureDescription);
+            logStatsIfNeeded();
+        }
+    };
+
+    public GestureDispatcher(AccessibilityService service) {
+        this.service = service;
+        this.settings = GestureSettings.getInstance(service);
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            queue[i] = new Entry();
+        }
+    }
+
+    /**
+     * 在 (x, y) 点击。
+     * @return 已分发、已排队或已与重复的点击合并时返回 true；队列已满时返回 false。
+     */
+    public boolean tap(int x, int y) {
+        if (!isInFlight && !isStrokeHeld) {
+            inFlight.isTap = true;
+            inFlight.x = x;
+            inFlight.y = y;
+            inFlight.callback = null;
+            return start(buildTap(x, y));
+        }
+        Entry last = queueCount > 0 ? queue[(queueHead + queueCount - 1) % QUEUE_CAPACITY] : inFlight;
+        if (last.isTap && isNear(last, x, y)) {
+            coalescedCount++;
+            return true;
+        }
+        Entry entry = enqueue();
+        if (entry == null) return false;
+        entry.isTap = true;
+        entry.x = x;
+        entry.y = y;
+        return true;
+    }
+
+    /**
+     * 分发调用者构造好的手势，例如连续滚动的延续笔画。与 dispatchGesture 语义相同，
+     * 但不会取消正在进行的手势，而是排队等待。
+     * @return 已分发或已排队时返回 true；队列已满或系统拒绝时返回 false。
+     */
+    public boolean dispatch(GestureDescription gesture, AccessibilityService.GestureResultCallback callback) {
+        if (!isInFlight) {
+            inFlight.isTap = false;
+            inFlight.callback = callback;
+            return start(gesture);
+        }
+        Entry entry = enqueue();
+        if (entry == null) return false;
+        entry.isTap = false;
+        entry.gesture = gesture;
+        entry.callback = callback;
+        return true;
+    }
+
+    /**
+     * 调用者放弃了按住的延续笔画（例如滚动被取消），不再等待下一段，排队的点击恢复分发。
+     */
+    public void releaseHeldStroke() {
+        if (!isStrokeHeld) return;
+        isStrokeHeld = false;
+        if (!isInFlight) finishInFlight();
+    }
+
+    /**
+     * 丢弃所有排队中的手势。正在分发的手势不受影响。
+     */
+    public void clear() {
+        while (queueCount > 0) {
+            queue[queueHead].clear();
+            queueHead = (queueHead + 1) % QUEUE_CAPACITY;
+            queueCount--;
+        }
+    }
+
+    private Entry enqueue() {
+        if (queueCount == QUEUE_CAPACITY) {
+            rejectedCount++;
+            Log.w(TAG, "Gesture queue full, rejecting gesture");
+            return null;
+        }
+        Entry entry = queue[(queueHead + queueCount) % QUEUE_CAPACITY];
+        queueCount++;
+        return entry;
+    }
+
+    private boolean start(GestureDescription gesture) {
+        if (!inFlight.isTap) {
+            isStrokeHeld = willContinue(gesture);
+        }
+        inFlight.gesture = gesture;
+        inFlightStartNanos = System.nanoTime();
+        isInFlight = service.dispatchGesture(gesture, resultCallback, mainHandler);
+        if (!isInFlight) {
+            Log.w(TAG, "dispatchGesture rejected by the system");
+            inFlight.clear();
+            isStrokeHeld = false;
+        }
+        return isInFlight;
+    }
+
+    /**
+     * 当前手势结束后，依次分发队列中的下一个手势；系统拒绝的项直接跳过并通知其回调。
+     * 笔画按住期间只分发排队中的延续笔画，点击留在队列中，直到笔画抬起或被放弃。
+     */
+    private void finishInFlight() {
+        isInFlight = false;
+        inFlight.clear();
+        while (queueCount > 0 && !isInFlight) {
+            if (isStrokeHeld && !moveNextStrokeToHead()) return;
+            Entry next = queue[queueHead];
+            queueHead = (queueHead + 1) % QUEUE_CAPACITY;
+            queueCount--;
+            inFlight.isTap = next.isTap;
+            inFlight.x = next.x;
+            inFlight.y = next.y;
+            inFlight.callback = next.callback;
+            GestureDescription gesture = next.isTap ? buildTap(next.x, next.y) : next.gesture;
+            next.clear();
+            AccessibilityService.GestureResultCallback callback = inFlight.callback;
+            if (!start(gesture) && callback != null) {
+                callback.onCancelled(gesture);
+            }
+        }
+    }
+
+    /**
+     * 把队列中第一个非点击项移到队首，其余项保持原有顺序。
+     * @return 队列中没有非点击项时返回 false。
+     */
+    private boolean moveNextStrokeToHead() {
+        for (int i = 0; i < queueCount; i++) {
+            Entry entry = queue[(queueHead + i) % QUEUE_CAPACITY];
+            if (entry.isTap) continue;
+            for (int j = i; j > 0; j--) {
+                queue[(queueHead + j) % QUEUE_CAPACITY] = queue[(queueHead + j - 1) % QUEUE_CAPACITY];
+            }
+            queue[queueHead] = entry;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean willContinue(GestureDescription gesture) {
+        for (int i = 0; i < gesture.getStrokeCount(); i++) {
+            if (gesture.getStroke(i).willContinue()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 构造点击手势。与上一次点击的坐标和时长都相同时直接复用上一次的手势对象。
+     */
+    private GestureDescription buildTap(int x, int y) {
+        long duration = settings.get().TAP_DURATION_MS;
+        if (cachedTap != null && x == cachedTapX && y == cachedTapY && duration == cachedTapDuration) {
+            return cachedTap;
+        }
+        tapPath.rewind();
+        tapPath.moveTo(x, y);
+        cachedTap = new GestureDescription.Builder()
+                .addStroke(new GestureDescription.StrokeDescription(tapPath, 0, duration))
+                .build();
+        cachedTapX = x;
+        cachedTapY = y;
+        cachedTapDuration = duration;
+        return cachedTap;
+    }
+
+    private static boolean isNear(Entry entry, int x, int y) {
+        float dx = entry.x - x, dy = entry.y - y;
+        return dx * dx + dy * dy <= COALESCE_DISTANCE_PX * COALESCE_DISTANCE_PX;
+    }
+
+    private void logStatsIfNeeded() {
+        long total = completedCount + cancelledCount;
+        if (total % STATS_INTERVAL == 0) {
+            Log.d(TAG, "Gestures completed: " + completedCount + ", cancelled: " + cancelledCount
+                    + ", coalesced: " + coalescedCount + ", rejected: " + rejectedCount);
+        }
+    }
+}
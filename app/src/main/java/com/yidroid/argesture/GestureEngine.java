@@ -0,0 +1,380 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/GestureEngine.java
+// 描述: 表驱动的手势状态机引擎。每个手势由姿态谓词和时间约束声明，
+//       引擎每帧按优先级在同一个循环中评估全部手势，并处理互斥关系。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GestureEngine {
+
+    /**
+     * 基于本帧手部特征的姿态判断。
+     */
+    public interface PosePredicate {
+        boolean test(HandFeatures features);
+    }
+
+    /**
+     * 手势状态变化的回调。
+     */
+    public interface GestureCallback {
+        /**
+         * 手势触发（满足保持时间和冷却时间后调用一次）。
+         */
+        void onTrigger(long nowMs);
+
+        /**
+         * 连续型手势在触发后每帧调用，直到姿态结束。
+         */
+        default void onHold(long nowMs) {}
+
+        /**
+         * 姿态结束。
+         */
+        default void onRelease(long nowMs) {}
+    }
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_ARMED = 1;
+    private static final int STATE_PRESSED = 2;
+    private static final int STATE_LATCHED = 3;
+    /**
+     * 姿态满足保持时间时仍在冷却中：本次姿态不再触发，要先松开再重新做出姿态。
+     */
+    private static final int STATE_BLOCKED = 4;
+
+    /**
+     * 一个手势的声明及其运行时状态。
+     */
+    public static final class Gesture {
+        final String name;
+        final PosePredicate armPose;
+        final long armWindowMs;
+        final PosePredicate triggerPose;
+        final PosePredicate holdPose;
+        int voteRequired;
+        int voteMask;
+        final long minHoldMs;
+        final CooldownProvider cooldown;
+        final boolean exclusive;
+        final boolean continuous;
+        final GestureCallback callback;
+
+        int state = STATE_IDLE;
+        /**
+         * 最近若干帧的姿态判断结果，最低位为本帧。
+         */
+        int voteHistory;
+        long armedAtMs;
+        long enteredAtMs;
+        /**
+         * 上次触发的时间；从未触发时为 Long.MIN_VALUE，不受冷却限制。
+         */
+        long lastFiredMs = Long.MIN_VALUE;
+
+        private Gesture(Builder builder) {
+            this.name = builder.name;
+            this.armPose = builder.armPose;
+            this.armWindowMs = builder.armWindowMs;
+            this.triggerPose = builder.triggerPose;
+            this.holdPose = builder.holdPose;
+            setVoteInternal(builder.voteRequired, builder.voteWindow);
+            this.minHoldMs = builder.minHoldMs;
+            this.cooldown = builder.cooldown;
+            this.exclusive = builder.exclusive;
+            this.continuous = builder.continuous;
+            this.callback = builder.callback;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 运行时修改多帧投票参数，例如设置热更新后。必须在调用 evaluate 的线程上调用。
+         */
+        public void setVote(int required, int window) {
+            checkVote(required, window);
+            setVoteInternal(required, window);
+        }
+
+        private void setVoteInternal(int required, int window) {
+            this.voteRequired = required;
+            this.voteMask = window == Integer.SIZE ? -1 : (1 << window) - 1;
+            this.voteHistory &= voteMask;
+        }
+    }
+
+    private static void checkVote(int required, int window) {
+        if (window < 1 || window > Integer.SIZE || required < 1 || required > window) {
+            throw new IllegalArgumentException("Invalid vote " + required + " of " + window);
+        }
+    }
+
+    /**
+     * 冷却时间来源，允许在运行时读取最新的设置值。
+     */
+    public interface CooldownProvider {
+        long getCooldownMs();
+    }
+
+    public static final class Builder {
+        private final String name;
+        private PosePredicate armPose;
+        private long armWindowMs;
+        private PosePredicate triggerPose;
+        private PosePredicate holdPose;
+        private int voteRequired = 1;
+        private int voteWindow = 1;
+        private long minHoldMs = 0;
+        private CooldownProvider cooldown = () -> 0;
+        private boolean exclusive = false;
+        private boolean continuous = false;
+        private GestureCallback callback;
+
+        public Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 设置准备姿态：必须先出现该姿态，并在 windowMs 内出现触发姿态，手势才会触发。
+         */
+        public Builder armedBy(PosePredicate pose, long windowMs) {
+            this.armPose = pose;
+            this.armWindowMs = windowMs;
+            return this;
+        }
+
+        public Builder triggeredBy(PosePredicate pose) {
+            this.triggerPose = pose;
+            return this;
+        }
+
+        /**
+         * 设置保持姿态（滞回）：手势按下后改用这个更宽松的判断，直到它不再成立才算松开，
+         * 避免姿态在阈值附近抖动时反复按下、松开。
+         */
+        public Builder heldWhile(PosePredicate pose) {
+            this.holdPose = pose;
+            return this;
+        }
+
+        /**
+         * 多帧投票：最近 window 帧中至少 required 帧满足姿态，才算姿态成立。
+         */
+        public Builder vote(int required, int window) {
+            checkVote(required, window);
+            this.voteRequired = required;
+            this.voteWindow = window;
+            return this;
+        }
+
+        /**
+         * 触发姿态需要持续保持的最短时间。
+         */
+        public Builder holdFor(long minHoldMs) {
+            this.minHoldMs = minHoldMs;
+            return this;
+        }
+
+        /**
+         * 两次触发之间的最小间隔。
+         */
+        public Builder cooldown(CooldownProvider cooldown) {
+            this.cooldown = cooldown;
+            return this;
+        }
+
+        /**
+         * 姿态保持期间独占本帧，优先级更低的手势不再评估。
+         */
+        public Builder exclusive() {
+            this.exclusive = true;
+            return this;
+        }
+
+        /**
+         * 触发后每帧回调 onHold，直到姿态结束。
+         */
+        public Builder continuous() {
+            this.continuous = true;
+            return this;
+        }
+
+        public Builder onEvent(GestureCallback callback) {
+            this.callback = callback;
+            return this;
+        }
+
+        public Gesture build() {
+            if (triggerPose == null || callback == null) {
+                throw new IllegalStateException("Gesture " + name + " requires a trigger pose and a callback");
+            }
+            return new Gesture(this);
+        }
+    }
+
+    private final List<Gesture> gestureList = new ArrayList<>();
+    private Gesture[] gestures = new Gesture[0];
+    private int lastEvaluatedMask = 0;
+    private int lastFiredMask = 0;
+
+    /**
+     * 注册一个手势。先注册的手势优先级更高。
+     */
+    public GestureEngine add(Gesture gesture) {
+        if (gestureList.size() >= Integer.SIZE) {
+            throw new IllegalStateException("Too many gestures");
+        }
+        gestureList.add(gesture);
+        gestures = gestureList.toArray(new Gesture[0]);
+        return this;
+    }
+
+    /**
+     * 按优先级评估所有手势。
+     * @return 本帧触发的手势位掩码（按注册顺序编号）。
+     */
+    public int evaluate(HandFeatures features, long nowMs) {
+        int evaluated = 0;
+        int fired = 0;
+        for (int i = 0; i < gestures.length; i++) {
+            Gesture gesture = gestures[i];
+            evaluated |= 1 << i;
+            boolean engaged = isEngaged(gesture);
+            boolean poseActive = engaged && gesture.holdPose != null
+                    ? gesture.holdPose.test(features)
+                    : gesture.triggerPose.test(features);
+            gesture.voteHistory = ((gesture.voteHistory << 1) | (poseActive ? 1 : 0)) & gesture.voteMask;
+            boolean triggerActive = Integer.bitCount(gesture.voteHistory) >= gesture.voteRequired;
+            if (step(gesture, features, triggerActive, nowMs)) {
+                fired |= 1 << i;
+            }
+            if (gesture.exclusive && isEngaged(gesture)) break;
+        }
+        lastEvaluatedMask = evaluated;
+        lastFiredMask = fired;
+        return fired;
+    }
+
+    /**
+     * 未检测到手时重置所有手势，正在保持中的连续型手势会收到 onRelease。
+     * 已触发或被冷却拦下的单次手势（如点击）保持状态和投票历史，手重新出现后要先看到姿态松开才能再次触发，
+     * 避免跟踪短暂丢失时同一次捏合被重复触发，或在冷却结束后补发。
+     */
+    public void reset(long nowMs) {
+        for (Gesture gesture : gestures) {
+            if ((gesture.state == STATE_LATCHED || gesture.state == STATE_BLOCKED) && !gesture.continuous) continue;
+            if (gesture.state == STATE_LATCHED) {
+                gesture.callback.onRelease(nowMs);
+            }
+            gesture.state = STATE_IDLE;
+            gesture.voteHistory = 0;
+        }
+        lastEvaluatedMask = 0;
+        lastFiredMask = 0;
+    }
+
+    /**
+     * @return 上一帧是否评估了该手势（没有被更高优先级的独占手势跳过）。
+     */
+    public boolean wasEvaluated(Gesture gesture) {
+        for (int i = 0; i < gestures.length; i++) {
+            if (gestures[i] == gesture) return (lastEvaluatedMask & (1 << i)) != 0;
+        }
+        return false;
+    }
+
+    /**
+     * @return 上一帧实际评估过的手势位掩码，被更高优先级的独占手势跳过的不包括在内。
+     */
+    public int getLastEvaluatedMask() {
+        return lastEvaluatedMask;
+    }
+
+    public int getLastFiredMask() {
+        return lastFiredMask;
+    }
+
+    /**
+     * 以可读形式描述上一帧的评估情况，便于调试。
+     */
+    public String describeLastEvaluation() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < gestures.length; i++) {
+            if ((lastEvaluatedMask & (1 << i)) == 0) continue;
+            if (builder.length() > 0) builder.append(", ");
+            builder.append(gestures[i].name);
+            if ((lastFiredMask & (1 << i)) != 0) builder.append('*');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 推进单个手势的状态机。
+     * @return 如果本帧触发，返回 true。
+     */
+    private boolean step(Gesture gesture, HandFeatures features, boolean triggerActive, long nowMs) {
+        switch (gesture.state) {
+            case STATE_IDLE:
+            case STATE_ARMED:
+                if (gesture.armPose != null) {
+                    if (gesture.armPose.test(features)) {
+                        gesture.state = STATE_ARMED;
+                        gesture.armedAtMs = nowMs;
+                    } else if (gesture.state == STATE_ARMED && nowMs - gesture.armedAtMs > gesture.armWindowMs) {
+                        gesture.state = STATE_IDLE;
+                    }
+                    if (gesture.state != STATE_ARMED || !triggerActive) return false;
+                } else if (!triggerActive) {
+                    return false;
+                }
+                gesture.state = STATE_PRESSED;
+                gesture.enteredAtMs = nowMs;
+                return tryFire(gesture, nowMs);
+            case STATE_PRESSED:
+                if (!triggerActive) {
+                    gesture.state = STATE_IDLE;
+                    return false;
+                }
+                return tryFire(gesture, nowMs);
+            case STATE_LATCHED:
+                if (!triggerActive) {
+                    gesture.state = STATE_IDLE;
+                    gesture.callback.onRelease(nowMs);
+                } else if (gesture.continuous) {
+                    gesture.callback.onHold(nowMs);
+                }
+                return false;
+            case STATE_BLOCKED:
+                // 没有触发过，松开时不回调 onRelease
+                if (!triggerActive) gesture.state = STATE_IDLE;
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isEngaged(Gesture gesture) {
+        return gesture.state == STATE_PRESSED || gesture.state == STATE_LATCHED || gesture.state == STATE_BLOCKED;
+    }
+
+    /**
+     * 满足保持时间和冷却时间时触发手势并锁存，直到姿态结束才允许再次触发。
+     * 满足保持时间时仍在冷却中则放弃本次姿态，不会等冷却结束后再由同一次保持触发。
+     */
+    private boolean tryFire(Gesture gesture, long nowMs) {
+        if (nowMs - gesture.enteredAtMs < gesture.minHoldMs) return false;
+        if (gesture.lastFiredMs != Long.MIN_VALUE && nowMs - gesture.lastFiredMs <= gesture.cooldown.getCooldownMs()) {
+            gesture.state = STATE_BLOCKED;
+            return false;
+        }
+        gesture.state = STATE_LATCHED;
+        gesture.lastFiredMs = nowMs;
+        gesture.callback.onTrigger(nowMs);
+        return true;
+    }
+}
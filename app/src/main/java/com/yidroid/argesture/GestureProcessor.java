@@ -6,25 +6,56 @@ package com.yidroid.argesture;
 
 import android.content.Context;
 import android.graphics.PointF;
+import android.graphics.Rect;
 import android.hardware.camera2.CameraCharacteristics;
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Log;
 import android.widget.Toast;
 
 import com.google.mediapipe.tasks.components.containers.Category;
 import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
-import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.List;
 
 public class GestureProcessor {
 
+    private static final String TAG = "GestureProcessor";
+
     public interface GestureListener {
         void onUpdateCursor(int x, int y);
         void onPerformClick(int x, int y);
-        void onPerformScroll(int x, int y, int direction);
+        /**
+         * 預測即將捏合，預先取出 (x, y) 處的點擊目標，此時不注入觸摸。
+         */
+        void onPressBegin(int x, int y);
+        /**
+         * 多幀投票確認了預測的捏合，在 (x, y) 點擊；預先取出的目標仍包含 (x, y) 時直接點擊它。
+         */
+        void onPressCommit(int x, int y);
+        /**
+         * 預測落空，丟棄預先取出的目標，不產生點擊。
+         */
+        void onPressCancel();
+        /**
+         * 進入連續滾動，(x, y) 為滾動筆畫的起點。
+         */
+        void onScrollBegin(int x, int y);
+        /**
+         * 滾動中手的最新位置，每幀調用。
+         */
+        void onScrollUpdate(int x, int y);
+        /**
+         * 退出滾動。
+         * @param velocityX 抬起時手的X方向速度（像素/秒），用於慣性滑動。
+         * @param velocityY 抬起時手的Y方向速度（像素/秒）。
+         */
+        void onScrollEnd(int x, int y, float velocityX, float velocityY);
         void onPerformHome();
         void onPerformBack();
         void onNoHandDetected();
@@ -33,60 +64,359 @@ public class GestureProcessor {
     private final Context context;
     private final GestureListener listener;
     private final GestureSettings settings;
+    /**
+     * 本幀使用的設置快照，每幀開始時取一次，整幀的所有判斷都使用同一組值。
+     */
+    private SettingsSnapshot frameSettings;
+    /**
+     * 已應用到濾波器和手勢投票參數的快照，與最新快照不同時重新應用（熱更新）。
+     */
+    private SettingsSnapshot appliedSettings;
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private Toast handSwitchToast;
     private String activeHand = "Right";
-    private boolean isPinching = false;
-    private long lastClickTime = 0;
-    private boolean isFistClosed = false;
-    private long lastHomeActionTime = 0;
 
     // --- 坐标平滑处理 ---
     /**
-     * 平滑算法使用的歷史坐標點緩衝區大小。
-     * 較大的值會更平滑，但延遲也更高。
+     * 對整隻手的21個關節點做時域濾波，光標和所有姿勢檢測都使用濾波後的坐標。
      */
-    private static final int SMOOTHING_BUFFER_SIZE = 7;
-    private final List<Float> xHistory = new ArrayList<>();
-    private final List<Float> yHistory = new ArrayList<>();
+    private final SkeletonFilter skeletonFilter;
+    private final LatencyTracker filterLatency = new LatencyTracker("Skeleton filter per frame", 300);
 
-    // --- 畫圈手勢檢測 ---
+    // --- 軌跡手勢檢測 ---
     /**
-     * 構成一個有效畫圈手勢所需的最少軌跡點數量。
+     * 食指軌跡的增量式識別器，畫圈（順/逆時針）觸發返回。
      */
-    private static final int CIRCLE_GESTURE_MIN_POINTS = 10;
+    private final StrokeRecognizer strokeRecognizer = new StrokeRecognizer();
+    private long lastBackActionTime = 0;
+
+    // --- 手部特徵 ---
     /**
-     * 畫圈手勢的最小半徑（歸一化坐標）。
-     * 用於過濾掉因手部輕微抖動產生的小圈。
+     * 每幀只提取一次的手部特徵，所有檢測器共用。
      */
-    private static final float CIRCLE_GESTURE_MIN_RADIUS = 0.05f;
+    private final HandFeatures features = new HandFeatures();
+    private final LatencyTracker detectionLatency = new LatencyTracker("Gesture detection per frame", 300);
+
+    // --- 手勢狀態機 ---
     /**
-     * 判斷畫圈手勢是否閉合的閾值。
-     * 即軌跡的起點和終點的最大允許距離。
+     * 勾指返回的準備姿態保持有效的時間窗口。
+     * 手指從伸直到勾起的過渡幀不會立即取消準備狀態。
      */
-    private static final float CIRCLE_GESTURE_COMPLETION_THRESHOLD = 0.05f;
+    private static final long BACK_HOOK_ARM_WINDOW_MS = 600;
+    private static final int ALL_FINGERS = HandFeatures.THUMB_BIT | HandFeatures.INDEX_BIT | HandFeatures.MIDDLE_BIT
+            | HandFeatures.RING_BIT | HandFeatures.PINKY_BIT;
+    private static final int HOOK_FINGERS = HandFeatures.INDEX_BIT | HandFeatures.MIDDLE_BIT | HandFeatures.RING_BIT;
+    private static final int SCROLL_FINGERS = HandFeatures.INDEX_BIT | HandFeatures.MIDDLE_BIT;
+    private static final int NON_THUMB_FINGERS = ALL_FINGERS & ~HandFeatures.THUMB_BIT;
+    private final GestureEngine gestureEngine = new GestureEngine();
     /**
-     * 存儲食指運動軌跡的列表。
+     * 手勢引擎、冷卻和防抖使用的時間來源，測試時可注入手動推進的時鐘。
      */
-    private final List<PointF> circlePath = new ArrayList<>();
-    private long lastBackActionTime = 0;
+    private Clock clock = Clock.SYSTEM;
+    /**
+     * 本幀的平滑指尖坐標和光標位置，供手勢回調使用。
+     */
+    private final PointF currentPoint = new PointF();
+    private int currentCursorX, currentCursorY;
+    /**
+     * 吸附前的光標位置，滾動和速度估計使用它，避免吸附造成的跳變。
+     */
+    private int rawCursorX, rawCursorY;
+    /**
+     * 本幀關節點對應的幀時間戳（uptimeMillis），用於速度估計。
+     */
+    private long currentTimestampMs;
+
+    // --- 連續滾動 ---
+    private final HandVelocityEstimator velocityEstimator = new HandVelocityEstimator();
+    private boolean isScrolling = false;
+
+    // --- 光標吸附 ---
+    /**
+     * 可點擊控件索引，由服務注入；為null時不吸附。
+     */
+    private ClickableNodeIndex snapTargets;
+    /**
+     * 當前吸附的控件。
+     */
+    private ClickableNodeIndex.Entry snappedTarget;
+    private final LatencyTracker snapLatency = new LatencyTracker("Cursor snapping per frame", 300);
+
+    // --- 預測點擊 ---
+    private GestureEngine.Gesture pinchClickGesture;
+    private GestureEngine.Gesture fistHomeGesture;
+    private final PinchPredictor pinchPredictor = new PinchPredictor();
+    /**
+     * 已預先取出點擊目標、等待多幀投票確認的捏合。
+     */
+    private boolean isPressPending = false;
+    private long predictedPressMs;
+    private long predictedPressCount, predictiveConfirmCount, predictiveCancelCount;
+    private final LatencyTracker predictiveLeadTime = new LatencyTracker("Predictive click lead time", 20);
+
+    // --- 坐標映射 ---
+    /**
+     * 緩存的相機畫面到屏幕的映射，只在旋轉、分辨率或交互區域變化時重建。
+     */
+    private final CursorMapping cursorMapping = new CursorMapping();
+    /**
+     * 校準交互區域的時長，期間記錄食指指尖到達的範圍，不觸發任何手勢。
+     */
+    private static final long CALIBRATION_DURATION_MS = 5000;
+    /**
+     * 校準範圍在任一方向小於此值（歸一化坐標）時視為無效。
+     */
+    private static final float CALIBRATION_MIN_EXTENT = 0.1f;
+    /**
+     * 校準範圍向外擴展的邊距，使屏幕邊緣不需要把手伸到最遠處才能到達。
+     */
+    private static final float CALIBRATION_MARGIN = 0.03f;
+    // --- 相對光標 ---
+    private final PointerBallistics pointerBallistics = new PointerBallistics();
+    private boolean isClutched = false;
+    /**
+     * 連續點擊的目標獲取吞吐量統計，每完成 FITTS_LOG_INTERVAL 次試驗輸出一次。
+     */
+    private final FittsLogger fittsLogger = new FittsLogger();
+    private static final int FITTS_LOG_INTERVAL = 10;
+    /**
+     * 指尖軌跡記錄，約10分鐘（30fps）；只在 POINTER_TRACE_ENABLED 時寫入。
+     */
+    private final PointerTrace pointerTrace = new PointerTrace(18_000);
+    // --- 屏幕方向 ---
+    /**
+     * 當前幀所在畫面的幾何信息；旋轉之前捕獲的幀在 {@link #processGestures} 中換算到當前方向。
+     */
+    private FrameGeometry frameGeometry;
+    /**
+     * 當前方向版本下從舊方向換算過來的幀數，用於觀察旋轉時流水線中積壓的幀。
+     */
+    private int remappedFrameCount = 0;
+    private volatile boolean isCalibrationRequested = false;
+    private boolean isCalibrating = false;
+    private long calibrationStartMs;
+    private float calibrationMinX, calibrationMinY, calibrationMaxX, calibrationMaxY;
 
     public GestureProcessor(Context context, GestureListener listener) {
         this.context = context;
         this.settings = GestureSettings.getInstance(context);
         this.listener = listener;
+        this.frameSettings = settings.get();
+        this.skeletonFilter = new SkeletonFilter(frameSettings.SKELETON_MIN_CUTOFF_HZ, frameSettings.SKELETON_BETA,
+                frameSettings.SKELETON_DERIVATIVE_CUTOFF_HZ);
+        setupGestures();
+        applySettings(frameSettings);
+    }
+
+    /**
+     * 把設置快照中需要預先配置的參數應用到濾波器和手勢引擎。只在處理線程上調用。
+     */
+    private void applySettings(SettingsSnapshot config) {
+        if (appliedSettings != null && appliedSettings.ROTATION_VERSION != config.ROTATION_VERSION) {
+            onRotationChanged(appliedSettings, config);
+        }
+        skeletonFilter.setParameters(config.SKELETON_MIN_CUTOFF_HZ, config.SKELETON_BETA,
+                config.SKELETON_DERIVATIVE_CUTOFF_HZ);
+        // 指尖（食指除外）決定捏合、握拳等姿勢，截止頻率稍高以減少觸發延遲；食指指尖驅動光標，保持最平滑
+        for (int tip = 4; tip <= 20; tip += 4) {
+            if (tip != 8) skeletonFilter.setJointCutoff(tip, config.SKELETON_TIP_MIN_CUTOFF_HZ);
+        }
+        pointerBallistics.configure(config.BALLISTICS_MIN_GAIN, config.BALLISTICS_MAX_GAIN,
+                config.BALLISTICS_LOW_SPEED, config.BALLISTICS_HIGH_SPEED);
+        if (config.RELATIVE_CURSOR_ENABLED && (appliedSettings == null || !appliedSettings.RELATIVE_CURSOR_ENABLED)) {
+            // 切換到相對模式時從當前光標位置繼續
+            pointerBallistics.setPosition(appliedSettings == null ? config.SCREEN_WIDTH / 2f : currentCursorX,
+                    appliedSettings == null ? config.SCREEN_HEIGHT / 2f : currentCursorY);
+            pointerBallistics.reset();
+        }
+        pinchClickGesture.setVote(config.POSE_VOTE_REQUIRED, config.POSE_VOTE_WINDOW);
+        fistHomeGesture.setVote(config.POSE_VOTE_REQUIRED, config.POSE_VOTE_WINDOW);
+        appliedSettings = config;
     }
 
-    public void process(HandLandmarkerResult result, int imageWidth, int imageHeight) {
-        if (result != null && !result.landmarks().isEmpty()) {
-            checkForHandSwitch(result);
-            List<NormalizedLandmark> landmarks = getActiveHandLandmarks(result);
-            if (landmarks != null) {
-                processGestures(landmarks, imageWidth, imageHeight);
-                return;
+    /**
+     * 屏幕方向或尺寸變化：濾波和速度估計的歷史屬於舊方向的坐標，全部丟棄；
+     * 相對模式的光標按比例換算到新屏幕，不改變其在屏幕上的相對位置。
+     */
+    private void onRotationChanged(SettingsSnapshot previous, SettingsSnapshot config) {
+        Log.d(TAG, "Rotation version " + previous.ROTATION_VERSION + " -> " + config.ROTATION_VERSION
+                + " (" + previous.SCREEN_ROTATION + " -> " + config.SCREEN_ROTATION + "), remapped frames from the version before: "
+                + remappedFrameCount);
+        remappedFrameCount = 0;
+        skeletonFilter.reset();
+        velocityEstimator.reset();
+        snappedTarget = null;
+        fittsLogger.breakSequence();
+        pointerBallistics.setPosition(pointerBallistics.getX() * config.SCREEN_WIDTH / Math.max(1, previous.SCREEN_WIDTH),
+                pointerBallistics.getY() * config.SCREEN_HEIGHT / Math.max(1, previous.SCREEN_HEIGHT));
+        pointerBallistics.reset();
+    }
+
+    /**
+     * 聲明所有手勢。註冊順序即優先級：勾指返回 > 畫圈返回 > 雙指滾動 > 三指點擊 > 握拳回桌面。
+     */
+    private void setupGestures() {
+        pinchClickGesture = new GestureEngine.Builder("pinch_click")
+                .triggeredBy(this::detectThreeFingerPinch)
+                .heldWhile(this::isPinchHeld)
+                .cooldown(() -> frameSettings.CLICK_DEBOUNCE)
+                .onEvent(this::performPinchClick)
+                .build();
+        fistHomeGesture = new GestureEngine.Builder("fist_home")
+                .triggeredBy(this::detectFist)
+                .heldWhile(this::isFistHeld)
+                .cooldown(() -> frameSettings.HOME_DEBOUNCE)
+                .onEvent(nowMs -> listener.onPerformHome())
+                .build();
+        gestureEngine
+                .add(new GestureEngine.Builder("back_hook")
+                        .armedBy(f -> f.matchesExtension(HOOK_FINGERS, ALL_FINGERS), BACK_HOOK_ARM_WINDOW_MS)
+                        .triggeredBy(f -> (f.hookedMask & HOOK_FINGERS) == HOOK_FINGERS)
+                        .exclusive()
+                        .onEvent(this::performBack)
+                        .build())
+                .add(new GestureEngine.Builder("circle_back")
+                        .triggeredBy(this::detectIndexFingerUp)
+                        .exclusive()
+                        .continuous()
+                        .onEvent(new GestureEngine.GestureCallback() {
+                            @Override public void onTrigger(long nowMs) { processCircleGesture(currentPoint); }
+                            @Override public void onHold(long nowMs) { processCircleGesture(currentPoint); }
+                            @Override public void onRelease(long nowMs) { strokeRecognizer.reset(); }
+                        })
+                        .build())
+                .add(new GestureEngine.Builder("scroll")
+                        .triggeredBy(this::detectScrollPose)
+                        .exclusive()
+                        .continuous()
+                        .onEvent(new GestureEngine.GestureCallback() {
+                            @Override public void onTrigger(long nowMs) {
+                                isScrolling = true;
+                                listener.onScrollBegin(rawCursorX, rawCursorY);
+                            }
+                            @Override public void onHold(long nowMs) { listener.onScrollUpdate(rawCursorX, rawCursorY); }
+                            @Override public void onRelease(long nowMs) { endScroll(); }
+                        })
+                        .build())
+                .add(pinchClickGesture)
+                .add(fistHomeGesture);
+    }
+
+    /**
+     * 設置光標吸附使用的可點擊控件索引。
+     */
+    public void setSnapTargets(ClickableNodeIndex index) {
+        this.snapTargets = index;
+        this.snappedTarget = null;
+    }
+
+    /**
+     * 開始校準交互區域：接下來的一段時間內記錄食指指尖移動的範圍，結束後該範圍映射到整個屏幕。
+     * 可在任意線程調用，從下一幀開始生效。
+     */
+    public void startInteractionBoxCalibration() {
+        isCalibrationRequested = true;
+        showToast("开始校准：请在5秒内用食指在舒适的范围内画出想要使用的区域");
+    }
+
+    /**
+     * 把記錄的指尖軌跡寫入文件並清空，沒有記錄時不寫。
+     */
+    public void savePointerTrace(File file) {
+        if (pointerTrace.size() == 0) return;
+        try (Writer writer = new FileWriter(file)) {
+            pointerTrace.writeTo(writer);
+            Log.d(TAG, "Pointer trace saved: " + pointerTrace.size() + " samples to " + file);
+            pointerTrace.clear();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to save pointer trace", e);
+        }
+    }
+
+    /**
+     * @return 手勢引擎，可用於查詢每幀評估了哪些手勢。
+     */
+    public GestureEngine getGestureEngine() {
+        return gestureEngine;
+    }
+
+    /**
+     * 替換時間來源。應在處理第一幀之前調用。
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void process(HandResult result, FrameGeometry geometry) {
+        if (result == null) {
+            process(Collections.emptyList(), Collections.emptyList(), clock.nowMs(), geometry);
+        } else {
+            process(result.landmarks(), result.handedness(), result.timestampMs(), geometry);
+        }
+    }
+
+    /**
+     * 處理一幀的關節點，關節點可以來自推理結果，也可以由光流傳播得到。
+     * @param hands 每隻手的21個關節點。
+     * @param handedness 每隻手對應的左右手分類結果。
+     * @param timestampMs 關節點所屬幀的時間戳（uptimeMillis）。
+     * @param geometry 關節點所在畫面的尺寸和捕獲時的屏幕方向。
+     */
+    public void process(List<List<NormalizedLandmark>> hands, List<List<Category>> handedness, long timestampMs,
+                        FrameGeometry geometry) {
+        beginFrame(timestampMs, geometry);
+        if (!hands.isEmpty() && hands.size() == handedness.size()) {
+            for (int i = 0; i < hands.size(); i++) {
+                List<NormalizedLandmark> landmarks = hands.get(i);
+                if (landmarks.isEmpty()) continue;
+                checkForHandSwitch(handedness.get(i), landmarks.get(0).x(), landmarks.get(0).y());
+            }
+            List<NormalizedLandmark> landmarks = hands.get(getActiveHandIndex(handedness, hands.size()));
+            if (landmarks.size() < HandFeatures.LANDMARK_COUNT || listener == null) return;
+            features.load(landmarks);
+            processGestures();
+            return;
+        }
+        onNoHand();
+    }
+
+    /**
+     * 處理一幀由光流傳播得到的關節點。坐標以結構數組形式傳入，直接複製到手部特徵中，不創建關節點對象。
+     * @param x 歸一化X坐標，每隻手連續21個點。
+     * @param y 歸一化Y坐標。
+     * @param z 相對深度。
+     * @param count 點的數量。
+     * @param handedness 每隻手對應的左右手分類結果。
+     * @param timestampMs 關節點所屬幀的捕獲時間（uptimeMillis）。
+     * @param geometry 關節點所在畫面的尺寸和捕獲時的屏幕方向。
+     */
+    public void process(float[] x, float[] y, float[] z, int count, List<List<Category>> handedness, long timestampMs,
+                        FrameGeometry geometry) {
+        beginFrame(timestampMs, geometry);
+        int handCount = count / HandFeatures.LANDMARK_COUNT;
+        if (handCount > 0 && handCount == handedness.size()) {
+            for (int i = 0; i < handCount; i++) {
+                int wrist = i * HandFeatures.LANDMARK_COUNT;
+                checkForHandSwitch(handedness.get(i), x[wrist], y[wrist]);
             }
+            if (listener == null) return;
+            features.load(x, y, z, getActiveHandIndex(handedness, handCount) * HandFeatures.LANDMARK_COUNT);
+            processGestures();
+            return;
         }
+        onNoHand();
+    }
+
+    private void beginFrame(long timestampMs, FrameGeometry geometry) {
+        currentTimestampMs = timestampMs;
+        frameSettings = settings.get();
+        frameGeometry = geometry;
+        if (frameSettings != appliedSettings) {
+            applySettings(frameSettings);
+        }
+    }
 
+    private void onNoHand() {
         resetGestureStates();
         if (listener != null) {
             listener.onNoHandDetected();
@@ -95,41 +425,46 @@ public class GestureProcessor {
 
     /**
      * 檢測用戶是否將手移動到屏幕邊緣，並智能切換主控手。
+     * @param handedness 這隻手的左右手分類結果。
+     * @param wristX 手腕的歸一化X坐標。
+     * @param wristY 手腕的歸一化Y坐標。
      */
-    private void checkForHandSwitch(HandLandmarkerResult result) {
-        for (int i = 0; i < result.landmarks().size(); i++) {
-            List<NormalizedLandmark> landmarks = result.landmarks().get(i);
-            List<Category> handedness = result.handedness().get(i);
-            if (landmarks.isEmpty() || handedness.isEmpty()) continue;
-
-            String currentHand = handedness.get(0).categoryName();
-            float handXPosition = landmarks.get(0).x();
+    private void checkForHandSwitch(List<Category> handedness, float wristX, float wristY) {
+        if (handedness.isEmpty()) return;
+
+        String currentHand = handedness.get(0).categoryName();
+        float handXPosition = wristX;
+        if (frameGeometry.isStale(frameSettings)) {
+            handXPosition = RotationTransforms.remapX(frameGeometry.screenRotation, frameSettings.SCREEN_ROTATION,
+                    handXPosition, wristY);
+        }
 
-            if (settings.ACTIVE_CAMERA_FACING == CameraCharacteristics.LENS_FACING_FRONT) {
-                handXPosition = 1.0f - handXPosition;
-            }
+        if (frameSettings.ACTIVE_CAMERA_FACING == CameraCharacteristics.LENS_FACING_FRONT) {
+            handXPosition = 1.0f - handXPosition;
+        }
 
-            if ("Right".equals(currentHand) && handXPosition > 0.7 && !"Left".equals(activeHand)) {
-                showToast("右手处于边缘，切换至左手控制");
-                activeHand = "Left";
-            } else if ("Left".equals(currentHand) && handXPosition < 0.3 && !"Right".equals(activeHand)) {
-                showToast("左手处于边缘，切换至右手控制");
-                activeHand = "Right";
-            }
+        if ("Right".equals(currentHand) && handXPosition > 0.7 && !"Left".equals(activeHand)) {
+            showToast("右手处于边缘，切换至左手控制");
+            activeHand = "Left";
+            skeletonFilter.reset();
+        } else if ("Left".equals(currentHand) && handXPosition < 0.3 && !"Right".equals(activeHand)) {
+            showToast("左手处于边缘，切换至右手控制");
+            activeHand = "Right";
+            skeletonFilter.reset();
         }
     }
 
     /**
-     * 從識別結果中獲取當前主控手對應的關節點列表。
+     * 獲取當前主控手在識別結果中的下標，沒有對應的手時取第一隻手。
      */
-    private List<NormalizedLandmark> getActiveHandLandmarks(HandLandmarkerResult result) {
-        for (int i = 0; i < result.landmarks().size(); i++) {
-            if (!result.handedness().get(i).isEmpty() &&
-                    activeHand.equals(result.handedness().get(i).get(0).categoryName())) {
-                return result.landmarks().get(i);
+    private int getActiveHandIndex(List<List<Category>> handedness, int handCount) {
+        for (int i = 0; i < handCount; i++) {
+            if (!handedness.get(i).isEmpty() &&
+                    activeHand.equals(handedness.get(i).get(0).categoryName())) {
+                return i;
             }
         }
-        return result.landmarks().isEmpty() ? null : result.landmarks().get(0);
+        return 0;
     }
 
     private void showToast(String message) {
@@ -143,251 +478,346 @@ public class GestureProcessor {
     }
 
     private void resetGestureStates() {
-        isPinching = false;
-        isFistClosed = false;
-        circlePath.clear();
+        gestureEngine.reset(clock.nowMs());
+        strokeRecognizer.reset();
+        pinchPredictor.reset();
+        cancelPendingPress();
+        snappedTarget = null;
+        velocityEstimator.reset();
+        skeletonFilter.reset();
+        pointerBallistics.reset();
+        fittsLogger.breakSequence();
     }
 
     /**
-     * 主手勢處理邏輯。
-     * @param landmarks 當前主控手的21個關節點。
+     * 主手勢處理邏輯。當前主控手的21個關節點已載入 features.coords。
      */
-    private void processGestures(List<NormalizedLandmark> landmarks, int imageWidth, int imageHeight) {
-        if (landmarks.size() < 21 || listener == null) return;
-
+    private void processGestures() {
         // --- 1. 坐標平滑處理 ---
-        float rawX = landmarks.get(8).x(); // 食指指尖原始X坐標
-        float rawY = landmarks.get(8).y(); // 食指指尖原始Y坐標
-
-        if (settings.ACTIVE_CAMERA_FACING == CameraCharacteristics.LENS_FACING_FRONT) {
-            rawX = 1.0f - rawX;
+        long filterStart = System.nanoTime();
+        int imageWidth = frameGeometry.width, imageHeight = frameGeometry.height;
+        if (frameGeometry.isStale(frameSettings)) {
+            // 旋轉之前捕獲的幀：用預先算好的變換換算到當前方向，不丟幀，也不用新方向的映射解釋舊坐標
+            int from = frameGeometry.screenRotation, to = frameSettings.SCREEN_ROTATION;
+            RotationTransforms.remap(from, to, features.coords, HandFeatures.X, features.coords, HandFeatures.Y,
+                    HandFeatures.LANDMARK_COUNT);
+            if (RotationTransforms.swapsAxes(from, to)) {
+                imageWidth = frameGeometry.height;
+                imageHeight = frameGeometry.width;
+            }
+            remappedFrameCount++;
         }
+        skeletonFilter.apply(features.coords, currentTimestampMs);
+        filterLatency.record(System.nanoTime() - filterStart);
 
-        PointF smoothedLandmark = getSmoothedLandmark(rawX, rawY);
-
-        // --- ** 关键修正：重构坐标映射逻辑 ** ---
-        float imageAspectRatio = (float) imageWidth / imageHeight;
-        float screenAspectRatio = (float) settings.SCREEN_WIDTH / settings.SCREEN_HEIGHT;
-        int mappedWidth, mappedHeight, offsetX = 0, offsetY = 0;
-
-        if (imageAspectRatio > screenAspectRatio) {
-            mappedWidth = settings.SCREEN_WIDTH;
-            mappedHeight = (int) (settings.SCREEN_WIDTH / imageAspectRatio);
-            offsetY = (settings.SCREEN_HEIGHT - mappedHeight) / 2;
+        float smoothedX = features.x(8); // 食指指尖濾波後的X坐標
+        float smoothedY = features.y(8);
+        if (frameSettings.ACTIVE_CAMERA_FACING == CameraCharacteristics.LENS_FACING_FRONT) {
+            smoothedX = 1.0f - smoothedX;
+        }
+        currentPoint.set(smoothedX, smoothedY);
+
+        // --- 坐標映射：映射只在旋轉、分辨率或交互區域變化時重建 ---
+        // 派生特徵（手指伸直狀態等）在光標之前計算，相對模式的離合判斷需要用到
+        long derivedStart = System.nanoTime();
+        features.computeDerived();
+        long derivedNanos = System.nanoTime() - derivedStart;
+        cursorMapping.update(frameSettings, imageWidth, imageHeight);
+        int cursorX, cursorY;
+        if (frameSettings.RELATIVE_CURSOR_ENABLED) {
+            // 張開手掌為離合：光標停住，手可以移回舒適的位置
+            isClutched = features.matchesExtension(ALL_FINGERS, ALL_FINGERS);
+            pointerBallistics.update(smoothedX, smoothedY, currentTimestampMs, isClutched,
+                    cursorMapping.getScaleX(), cursorMapping.getScaleY(),
+                    frameSettings.SCREEN_WIDTH - 1, frameSettings.SCREEN_HEIGHT - 1);
+            cursorX = (int) pointerBallistics.getX();
+            cursorY = (int) pointerBallistics.getY();
         } else {
-            mappedHeight = settings.SCREEN_HEIGHT;
-            mappedWidth = (int) (settings.SCREEN_HEIGHT * imageAspectRatio);
-            offsetX = (settings.SCREEN_WIDTH - mappedWidth) / 2;
+            isClutched = false;
+            cursorX = cursorMapping.mapX(smoothedX);
+            cursorY = cursorMapping.mapY(smoothedY);
+        }
+        if (frameSettings.POINTER_TRACE_ENABLED) {
+            pointerTrace.setMapping(frameSettings.SCREEN_WIDTH, frameSettings.SCREEN_HEIGHT, cursorMapping.getScaleX(),
+                    cursorMapping.getScaleY(), cursorMapping.getOffsetX(), cursorMapping.getOffsetY());
+            pointerTrace.record(currentTimestampMs, smoothedX, smoothedY, isClutched);
         }
 
-        int cursorX = (int) (offsetX + (smoothedLandmark.x * mappedWidth));
-        int cursorY = (int) (offsetY + (smoothedLandmark.y * mappedHeight));
-
-        listener.onUpdateCursor(cursorX, cursorY);
-
-        // --- 2. 手勢檢測 ---
-        if (detectBackHook(landmarks)) return; // 勾指返回优先
-        if (detectIndexFingerUp(landmarks)) {
-            processCircleGesture(smoothedLandmark);
-            return;
+        rawCursorX = cursorX;
+        rawCursorY = cursorY;
+        velocityEstimator.addSample(cursorX, cursorY, currentTimestampMs);
+        if (!isScrolling) {
+            snapCursor(cursorX, cursorY);
         } else {
-            circlePath.clear();
+            snappedTarget = null;
+            currentCursorX = cursorX;
+            currentCursorY = cursorY;
         }
+        listener.onUpdateCursor(currentCursorX, currentCursorY);
 
-        if (detectThreeFingerPinch(landmarks)) {
-            if (!isPinching && (System.currentTimeMillis() - lastClickTime > settings.CLICK_DEBOUNCE)) {
-                listener.onPerformClick(cursorX, cursorY);
-                isPinching = true;
-                lastClickTime = System.currentTimeMillis();
-            }
-        } else {
-            isPinching = false;
+        if (isCalibrationRequested || isCalibrating) {
+            updateCalibration(smoothedX, smoothedY);
+            return;
         }
 
-        if (detectFist(landmarks)) {
-            if (!isFistClosed && (System.currentTimeMillis() - lastHomeActionTime > settings.HOME_DEBOUNCE)) {
-                listener.onPerformHome();
-                isFistClosed = true;
-                lastHomeActionTime = System.currentTimeMillis();
-            }
-        } else {
-            isFistClosed = false;
+        // --- 2. 手勢檢測 ---
+        long detectionStart = System.nanoTime();
+        if (frameSettings.PREDICTIVE_CLICK_ENABLED) {
+            updatePinchPredictor();
+        }
+        gestureEngine.evaluate(features, clock.nowMs());
+        detectionLatency.record(derivedNanos + System.nanoTime() - detectionStart);
+        if (Log.isLoggable(TAG, Log.VERBOSE)) {
+            Log.v(TAG, "Evaluated gestures: " + gestureEngine.describeLastEvaluation());
         }
     }
 
     /**
-     * [新算法] 檢測三指捏合手勢（拇指、食指、中指）。
-     * @return 如果三個指尖距離足夠近，返回 true。
+     * 記錄校準期間指尖到達的範圍。校準開始時重置手勢狀態，結束後發布並保存新的交互區域。
      */
-    private boolean detectThreeFingerPinch(List<NormalizedLandmark> landmarks) {
-        double distThumbIndex = getDistance(landmarks.get(4), landmarks.get(8));
-        double distThumbMiddle = getDistance(landmarks.get(4), landmarks.get(12));
-        double distIndexMiddle = getDistance(landmarks.get(8), landmarks.get(12));
-
-        return distThumbIndex < settings.PINCH_THRESHOLD &&
-                distThumbMiddle < settings.PINCH_THRESHOLD &&
-                distIndexMiddle < settings.PINCH_THRESHOLD;
+    private void updateCalibration(float x, float y) {
+        if (isCalibrationRequested) {
+            isCalibrationRequested = false;
+            isCalibrating = true;
+            calibrationStartMs = currentTimestampMs;
+            calibrationMinX = calibrationMaxX = x;
+            calibrationMinY = calibrationMaxY = y;
+            // 與手丟失時相同的重置路徑：校準期間不識別手勢，預測按下也要取消
+            resetGestureStates();
+            if (isScrolling) endScroll();
+            return;
+        }
+        calibrationMinX = Math.min(calibrationMinX, x);
+        calibrationMaxX = Math.max(calibrationMaxX, x);
+        calibrationMinY = Math.min(calibrationMinY, y);
+        calibrationMaxY = Math.max(calibrationMaxY, y);
+        if (currentTimestampMs - calibrationStartMs < CALIBRATION_DURATION_MS) return;
+
+        isCalibrating = false;
+        if (calibrationMaxX - calibrationMinX < CALIBRATION_MIN_EXTENT
+                || calibrationMaxY - calibrationMinY < CALIBRATION_MIN_EXTENT) {
+            showToast("校准失败：移动范围太小，请重试");
+            return;
+        }
+        float left = Math.max(0f, calibrationMinX - CALIBRATION_MARGIN);
+        float top = Math.max(0f, calibrationMinY - CALIBRATION_MARGIN);
+        float right = Math.min(1f, calibrationMaxX + CALIBRATION_MARGIN);
+        float bottom = Math.min(1f, calibrationMaxY + CALIBRATION_MARGIN);
+        int rotation = frameSettings.SCREEN_ROTATION;
+        settings.updateAndSave(builder -> {
+            builder.INTERACTION_BOX_ENABLED = true;
+            builder.INTERACTION_BOX_LEFT = left;
+            builder.INTERACTION_BOX_TOP = top;
+            builder.INTERACTION_BOX_RIGHT = right;
+            builder.INTERACTION_BOX_BOTTOM = bottom;
+            builder.INTERACTION_BOX_ROTATION = rotation;
+        });
+        Log.d(TAG, "Interaction box calibrated: [" + left + ", " + top + ", " + right + ", " + bottom + "]");
+        showToast("校准完成");
     }
 
     /**
-     * 檢測握拳手勢。
-     * @return 如果四個手指的指尖都靠近手腕，返回 true。
+     * 預測點擊：上一幀三指點擊沒有被更高優先級的獨佔手勢跳過時，按指尖閉合速度預測捏合，
+     * 讓服務提前取出光標下的目標。點擊仍等多幀投票和冷卻確認，見 {@link #performPinchClick}。
      */
-    private boolean detectFist(List<NormalizedLandmark> landmarks) {
-        NormalizedLandmark wrist = landmarks.get(0);
-        return getDistance(landmarks.get(8), wrist) < settings.FIST_THRESHOLD &&
-                getDistance(landmarks.get(12), wrist) < settings.FIST_THRESHOLD &&
-                getDistance(landmarks.get(16), wrist) < settings.FIST_THRESHOLD &&
-                getDistance(landmarks.get(20), wrist) < settings.FIST_THRESHOLD;
+    private void updatePinchPredictor() {
+        if (!gestureEngine.wasEvaluated(pinchClickGesture)) {
+            pinchPredictor.reset();
+            cancelPendingPress();
+            return;
+        }
+        float maxDistanceSq = Math.max(features.tipDistanceSq(HandFeatures.THUMB, HandFeatures.INDEX),
+                Math.max(features.tipDistanceSq(HandFeatures.THUMB, HandFeatures.MIDDLE),
+                        features.tipDistanceSq(HandFeatures.INDEX, HandFeatures.MIDDLE)));
+        int action = pinchPredictor.update((float) Math.sqrt(maxDistanceSq), currentTimestampMs,
+                (float) frameSettings.PINCH_THRESHOLD, (float) frameSettings.PINCH_RELEASE_THRESHOLD,
+                frameSettings.PREDICTIVE_CLICK_HORIZON_MS, frameSettings.PREDICTIVE_CLICK_TIMEOUT_MS);
+        if (action == PinchPredictor.ACTION_PRESS) {
+            predictedPressCount++;
+            isPressPending = true;
+            predictedPressMs = currentTimestampMs;
+            listener.onPressBegin(currentCursorX, currentCursorY);
+        } else if (!pinchPredictor.isPressed() && !pinchPredictor.isCommitted()) {
+            // 預測超時，或捏合在投票確認前已鬆開（例如單幀的誤觸）
+            cancelPendingPress();
+        }
     }
 
-    private boolean isBackGestureReady = false;
-
     /**
-     * [新算法] 檢測食指、中指、無名指伸直後向手心勾的返回手勢。
-     * @return 如果觸發了返回手勢，返回 true。
+     * 三指點擊觸發（已通過多幀投票和冷卻）。落點取此刻的光標位置；
+     * 預測路徑已取出目標時交給 onPressCommit，由服務判斷目標是否仍在落點下。
      */
-    private boolean detectBackHook(List<NormalizedLandmark> landmarks) {
-        // 判斷手指是否伸直：指尖Y坐標 < 第二關節Y坐標
-        boolean indexStraight = landmarks.get(8).y() < landmarks.get(6).y();
-        boolean middleStraight = landmarks.get(12).y() < landmarks.get(10).y();
-        boolean ringStraight = landmarks.get(16).y() < landmarks.get(14).y();
-        // 判斷小指和拇指是否彎曲
-        boolean pinkyBent = landmarks.get(20).y() > landmarks.get(18).y();
-        boolean thumbBent = landmarks.get(4).x() > landmarks.get(3).x(); // 簡單判斷拇指是否內收
-
-        // 條件1：進入準備狀態
-        if (indexStraight && middleStraight && ringStraight && pinkyBent && thumbBent) {
-            isBackGestureReady = true;
-        }
-
-        // 條件2：從準備狀態，檢測到手指彎曲（觸發）
-        if (isBackGestureReady) {
-            // 判斷手指是否彎曲：指尖Y坐標 > 第一關節Y坐標
-            boolean indexHooked = landmarks.get(8).y() > landmarks.get(5).y();
-            boolean middleHooked = landmarks.get(12).y() > landmarks.get(9).y();
-            boolean ringHooked = landmarks.get(16).y() > landmarks.get(13).y();
-
-            if (indexHooked && middleHooked && ringHooked) {
-                if (System.currentTimeMillis() - lastBackActionTime > settings.BACK_DEBOUNCE) {
-                    listener.onPerformBack();
-                    lastBackActionTime = System.currentTimeMillis();
-                }
-                isBackGestureReady = false; // 重置狀態
-                return true; // 消耗此幀，不再檢測其他手勢
-            }
-        }
-
-        // 如果手指不再伸直，則重置準備狀態
-        if (!indexStraight || !middleStraight || !ringStraight) {
-            isBackGestureReady = false;
+    private void performPinchClick(long nowMs) {
+        if (isPressPending) {
+            isPressPending = false;
+            predictiveConfirmCount++;
+            predictiveLeadTime.record((currentTimestampMs - predictedPressMs) * 1_000_000L);
+            listener.onPressCommit(currentCursorX, currentCursorY);
+            logPredictionStats();
+        } else {
+            listener.onPerformClick(currentCursorX, currentCursorY);
         }
+        recordClick();
+    }
 
-        return false;
+    private void cancelPendingPress() {
+        if (!isPressPending) return;
+        isPressPending = false;
+        predictiveCancelCount++;
+        listener.onPressCancel();
+        logPredictionStats();
     }
 
     /**
-     * [新算法] 檢測是否為食指伸出、其餘四指彎曲的“畫圈準備”姿勢。
-     * @return 如果滿足姿勢條件，返回 true。
+     * 記錄一次點擊的目標，用於吞吐量統計和軌跡記錄。目標取吸附的控件，否則取光標下的控件。
+     * 落點取吸附前的光標位置：吸附會把落點移到目標中心，使有效寬度和吞吐量虛高。
      */
-    private boolean detectIndexFingerUp(List<NormalizedLandmark> landmarks) {
-        boolean indexStraight = landmarks.get(8).y() < landmarks.get(6).y();
-        boolean middleBent = landmarks.get(12).y() > landmarks.get(10).y();
-        boolean ringBent = landmarks.get(16).y() > landmarks.get(14).y();
-        boolean pinkyBent = landmarks.get(20).y() > landmarks.get(18).y();
-        boolean thumbBent = landmarks.get(4).x() > landmarks.get(3).x();
+    private void recordClick() {
+        ClickableNodeIndex.Entry target = snappedTarget;
+        if (target == null && snapTargets != null) {
+            target = snapTargets.findAt(currentCursorX, currentCursorY);
+        }
+        Rect b = target != null ? target.bounds : null;
+        int left = b != null ? b.left : 0, top = b != null ? b.top : 0;
+        int right = b != null ? b.right : 0, bottom = b != null ? b.bottom : 0;
+        if (fittsLogger.onClick(rawCursorX, rawCursorY, currentTimestampMs, left, top, right, bottom)
+                && fittsLogger.getTrialCount() % FITTS_LOG_INTERVAL == 0) {
+            Log.d(TAG, (frameSettings.RELATIVE_CURSOR_ENABLED ? "Relative cursor " : "Absolute cursor ") + fittsLogger.summary());
+        }
+        if (frameSettings.POINTER_TRACE_ENABLED) {
+            pointerTrace.markClick(left, top, right, bottom);
+        }
+    }
 
-        return indexStraight && middleBent && ringBent && pinkyBent && thumbBent;
+    private void logPredictionStats() {
+        Log.d(TAG, "Predictive click: pressed=" + predictedPressCount + ", confirmed=" + predictiveConfirmCount
+                + ", cancelled=" + predictiveCancelCount);
     }
 
     /**
-     * [新算法] 處理畫圈手勢的軌跡記錄和分析。
-     * @param currentPoint 當前食指指尖的平滑坐標。
+     * 光標吸附：已吸附的控件在粘滯距離內保持吸附；否則在吸附半徑內尋找最近的可點擊控件，
+     * 並將光標移到其中心。結果寫入 currentCursorX/Y。
      */
-    private void processCircleGesture(PointF currentPoint) {
-        if (System.currentTimeMillis() - lastBackActionTime < settings.BACK_DEBOUNCE) return;
-
-        circlePath.add(currentPoint);
-
-        if (circlePath.size() > CIRCLE_GESTURE_MIN_POINTS) {
-            if (isPathACircle()) {
-                listener.onPerformBack();
-                lastBackActionTime = System.currentTimeMillis();
-                circlePath.clear();
+    private void snapCursor(int cursorX, int cursorY) {
+        currentCursorX = cursorX;
+        currentCursorY = cursorY;
+        ClickableNodeIndex index = snapTargets;
+        if (!frameSettings.SNAP_ENABLED || index == null) {
+            snappedTarget = null;
+            return;
+        }
+        long start = System.nanoTime();
+        ClickableNodeIndex.Entry target = snappedTarget;
+        if (target != null) {
+            Rect b = target.bounds;
+            int stickiness = frameSettings.SNAP_STICKINESS_PX;
+            if (cursorX < b.left - stickiness || cursorX >= b.right + stickiness
+                    || cursorY < b.top - stickiness || cursorY >= b.bottom + stickiness) {
+                target = null;
             }
         }
-
-        if (circlePath.size() > 50) {
-            circlePath.remove(0);
+        if (target == null) {
+            target = index.findNearest(cursorX, cursorY, frameSettings.SNAP_RADIUS_PX);
         }
+        if (target != null && target.bounds.contains(cursorX, cursorY)
+                && (target.bounds.width() > frameSettings.SNAP_RADIUS_PX * 4 || target.bounds.height() > frameSettings.SNAP_RADIUS_PX * 4)) {
+            // 光標已在大控件內部，吸附到中心只會造成跳動
+            target = null;
+        }
+        snappedTarget = target;
+        if (target != null) {
+            currentCursorX = target.bounds.centerX();
+            currentCursorY = target.bounds.centerY();
+        }
+        snapLatency.record(System.nanoTime() - start);
     }
 
     /**
-     * [新算法] 判斷存儲的軌跡是否構成一個圓圈。
-     * @return 如果軌跡滿足圓圈的幾個基本特徵，返回 true。
+     * [新算法] 檢測三指捏合手勢（拇指、食指、中指）。
+     * @return 如果三個指尖距離足夠近，返回 true。
      */
-    private boolean isPathACircle() {
-        if (circlePath.size() < CIRCLE_GESTURE_MIN_POINTS) return false;
-
-        PointF startPoint = circlePath.get(0);
-        PointF endPoint = circlePath.get(circlePath.size() - 1);
+    private boolean detectThreeFingerPinch(HandFeatures features) {
+        return features.isPinchedWithin(frameSettings.PINCH_THRESHOLD);
+    }
 
-        float dx = startPoint.x - endPoint.x;
-        float dy = startPoint.y - endPoint.y;
-        if (Math.sqrt(dx*dx + dy*dy) > CIRCLE_GESTURE_COMPLETION_THRESHOLD) {
-            return false;
-        }
+    /**
+     * 捏合按下後的保持判斷，使用更寬鬆的鬆開閾值。
+     */
+    private boolean isPinchHeld(HandFeatures features) {
+        return features.isPinchedWithin(frameSettings.PINCH_RELEASE_THRESHOLD);
+    }
 
-        float centerX = 0, centerY = 0;
-        for (PointF p : circlePath) {
-            centerX += p.x;
-            centerY += p.y;
-        }
-        centerX /= circlePath.size();
-        centerY /= circlePath.size();
+    /**
+     * 檢測雙指滾動姿勢：食指和中指伸直，無名指和小指彎曲，且拇指沒有與食指捏合（避免與三指點擊衝突）。
+     */
+    private boolean detectScrollPose(HandFeatures features) {
+        float thresholdSq = (float) (frameSettings.PINCH_THRESHOLD * frameSettings.PINCH_THRESHOLD);
+        return features.matchesExtension(SCROLL_FINGERS, NON_THUMB_FINGERS) &&
+                features.tipDistanceSq(HandFeatures.THUMB, HandFeatures.INDEX) >= thresholdSq;
+    }
 
-        float totalRadius = 0;
-        for (PointF p : circlePath) {
-            totalRadius += Math.sqrt(Math.pow(p.x - centerX, 2) + Math.pow(p.y - centerY, 2));
-        }
-        float avgRadius = totalRadius / circlePath.size();
+    /**
+     * 結束滾動，按抬起前最後一段時間內手的速度決定是否慣性滑動。
+     * 手丟失時最新採樣已過期，速度為0，不會觸發慣性滑動。
+     */
+    private void endScroll() {
+        isScrolling = false;
+        velocityEstimator.compute(currentTimestampMs);
+        listener.onScrollEnd(rawCursorX, rawCursorY,
+                velocityEstimator.getVelocityX(), velocityEstimator.getVelocityY());
+    }
 
-        return avgRadius > CIRCLE_GESTURE_MIN_RADIUS;
+    /**
+     * 檢測握拳手勢。
+     * @return 如果四個手指的指尖都靠近手腕，返回 true。
+     */
+    private boolean detectFist(HandFeatures features) {
+        return features.isFistWithin(frameSettings.FIST_THRESHOLD);
     }
 
     /**
-     * [新算法] 對輸入的坐標進行中位數濾波，以獲得平滑的輸出。
-     * @param newX 原始的X坐標。
-     * @param newY 原始的Y坐標。
-     * @return 經過平滑處理後的坐標點。
+     * 握拳後的保持判斷，使用更寬鬆的鬆開閾值。
      */
-    private PointF getSmoothedLandmark(float newX, float newY) {
-        xHistory.add(newX);
-        yHistory.add(newY);
-        if (xHistory.size() > SMOOTHING_BUFFER_SIZE) {
-            xHistory.remove(0);
-            yHistory.remove(0);
-        }
+    private boolean isFistHeld(HandFeatures features) {
+        return features.isFistWithin(frameSettings.FIST_RELEASE_THRESHOLD);
+    }
 
-        if (xHistory.isEmpty()) {
-            return new PointF(newX, newY);
+    /**
+     * [新算法] 勾指返回：食指、中指、無名指伸直（準備）後向手心勾起（觸發）。
+     * 與畫圈返回共用同一個防抖時間。
+     */
+    private void performBack(long nowMs) {
+        if (nowMs - lastBackActionTime > frameSettings.BACK_DEBOUNCE) {
+            listener.onPerformBack();
+            lastBackActionTime = nowMs;
         }
+    }
 
-        List<Float> sortedX = new ArrayList<>(xHistory);
-        List<Float> sortedY = new ArrayList<>(yHistory);
-        Collections.sort(sortedX);
-        Collections.sort(sortedY);
-
-        float smoothedX = sortedX.get(sortedX.size() / 2);
-        float smoothedY = sortedY.get(sortedY.size() / 2);
-
-        return new PointF(smoothedX, smoothedY);
+    /**
+     * [新算法] 檢測是否為食指伸出、其餘四指彎曲的“畫圈準備”姿勢。
+     * @return 如果滿足姿勢條件，返回 true。
+     */
+    private boolean detectIndexFingerUp(HandFeatures features) {
+        return features.matchesExtension(HandFeatures.INDEX_BIT, ALL_FINGERS);
     }
 
     /**
-     * 計算兩個3D關節點之間的歐氏距離。
+     * [新算法] 處理畫圈手勢的軌跡記錄和分析。
+     * 每幀只追加一個點並做一次有上限的模板匹配；畫圈觸發返回，其他軌跡只記錄日誌。
+     * @param currentPoint 當前食指指尖的平滑坐標。
      */
-    private double getDistance(NormalizedLandmark p1, NormalizedLandmark p2) {
-        return Math.sqrt(Math.pow(p1.x() - p2.x(), 2) + Math.pow(p1.y() - p2.y(), 2) + Math.pow(p1.z() - p2.z(), 2));
+    private void processCircleGesture(PointF currentPoint) {
+        if (clock.nowMs() - lastBackActionTime < frameSettings.BACK_DEBOUNCE) return;
+
+        strokeRecognizer.addPoint(currentPoint.x, currentPoint.y);
+        StrokeRecognizer.Stroke stroke = strokeRecognizer.recognize();
+        if (stroke == StrokeRecognizer.Stroke.NONE) return;
+
+        Log.d(TAG, "Stroke recognized: " + stroke + " (" + strokeRecognizer.getLastScore() + ")");
+        if (StrokeRecognizer.isCircle(stroke)) {
+            listener.onPerformBack();
+            lastBackActionTime = clock.nowMs();
+        }
+        strokeRecognizer.reset();
     }
 }
@@ -1,11 +1,14 @@
 // =================================================================================
 // 文件: app/src/main/java/com/yidroid/argesture/GestureRecognizerHelper.java
 // 描述: MediaPipe帮助类，修正Delegate的包导入。
+//       支持两种运行方式（见 InferenceMode）：LIVE_STREAM 异步提交；VIDEO 由自有推理线程
+//       从有界帧队列取帧并同步调用 detectForVideo。两种方式输出同名的延迟和丢帧统计，便于对比。
+//       作为 InferenceBackend 的MediaPipe实现，结果包装为 HandResult 回调。
 // =================================================================================
 package com.yidroid.argesture;
 
 import android.content.Context;
-import android.graphics.Bitmap;
+import android.os.Process;
 import android.os.SystemClock;
 import android.util.Log;
 
@@ -17,50 +20,62 @@ import com.google.mediapipe.tasks.vision.core.RunningMode;
 import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarker;
 import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
 
-public class GestureRecognizerHelper {
+import java.util.Locale;
+
+public class GestureRecognizerHelper implements InferenceBackend {
     public static final String TAG = "GestureRecognizerHelper";
     private static final String HAND_LANDMARKER_TASK_FILE = "hand_landmarker.task";
-
+    /**
+     * 每返回多少个结果输出一次帧统计日志。
+     */
+    private static final int REPORT_INTERVAL = 240;
     private HandLandmarker handLandmarker;
-    private final ResultListener listener;
+    private final Listener listener;
     private final Context context;
+    private final FramePool framePool;
+    private final InferenceMode mode;
+    private final GestureSettings settings;
+    private volatile long lastTimestampMs = -1;
+
+    // --- 同步推理（VIDEO） ---
+    private FrameQueue frameQueue;
+    private Thread inferenceThread;
+    private volatile boolean isRunning = false;
+    private SettingsSnapshot queueSettings;
 
-    public GestureRecognizerHelper(Context context, ResultListener listener) {
+    // --- 两种模式共用的统计，日志名称带模式前缀 ---
+    private final LatencyTracker endToEndLatency;
+    private final LatencyTracker queueWaitLatency;
+    private final LatencyTracker detectLatency;
+    private volatile long submittedCount = 0;
+    private long resultCount = 0;
+
+    public GestureRecognizerHelper(Context context, Listener listener, FramePool framePool, InferenceMode mode) {
         this.context = context;
         this.listener = listener;
+        this.framePool = framePool;
+        this.mode = mode;
+        this.settings = GestureSettings.getInstance(context);
+        this.endToEndLatency = new LatencyTracker("[" + mode + "] submit to result", 100);
+        this.queueWaitLatency = new LatencyTracker("[" + mode + "] queue wait", 100);
+        this.detectLatency = new LatencyTracker("[" + mode + "] detectForVideo", 100);
         setupHandLandmarker();
+        if (mode == InferenceMode.VIDEO && handLandmarker != null) {
+            startInferenceThread();
+        }
+    }
+
+    public InferenceMode getMode() {
+        return mode;
     }
 
     private void setupHandLandmarker() {
         try {
-            BaseOptions baseOptions = BaseOptions.builder()
-                    .setModelAssetPath(HAND_LANDMARKER_TASK_FILE)
-                    .setDelegate(Delegate.GPU)
-                    .build();
-
-            HandLandmarker.HandLandmarkerOptions options = HandLandmarker.HandLandmarkerOptions.builder()
-                    .setBaseOptions(baseOptions)
-                    .setNumHands(2)
-                    .setRunningMode(RunningMode.LIVE_STREAM)
-                    .setResultListener(this::returnLivestreamResult)
-                    .setErrorListener(this::returnLivestreamError)
-                    .build();
-            handLandmarker = HandLandmarker.createFromOptions(context, options);
+            handLandmarker = HandLandmarker.createFromOptions(context, createOptions(Delegate.GPU));
         } catch (Exception e) {
             Log.e(TAG, "Error setting up HandLandmarker on GPU, fallback to CPU: " + e.getMessage());
             try {
-                BaseOptions baseOptions = BaseOptions.builder()
-                        .setModelAssetPath(HAND_LANDMARKER_TASK_FILE)
-                        .setDelegate(Delegate.CPU)
-                        .build();
-                HandLandmarker.HandLandmarkerOptions options = HandLandmarker.HandLandmarkerOptions.builder()
-                        .setBaseOptions(baseOptions)
-                        .setNumHands(2)
-                        .setRunningMode(RunningMode.LIVE_STREAM)
-                        .setResultListener(this::returnLivestreamResult)
-                        .setErrorListener(this::returnLivestreamError)
-                        .build();
-                handLandmarker = HandLandmarker.createFromOptions(context, options);
+                handLandmarker = HandLandmarker.createFromOptions(context, createOptions(Delegate.CPU));
             } catch (Exception ex) {
                 Log.e(TAG, "Failed to initialize even on CPU: " + ex.getMessage());
                 if (listener != null) {
@@ -70,17 +85,70 @@ public class GestureRecognizerHelper {
         }
     }
 
-    public void recognizeLiveStream(Bitmap bitmap) {
+    private HandLandmarker.HandLandmarkerOptions createOptions(Delegate delegate) {
+        BaseOptions baseOptions = BaseOptions.builder()
+                .setModelAssetPath(HAND_LANDMARKER_TASK_FILE)
+                .setDelegate(delegate)
+                .build();
+        HandLandmarker.HandLandmarkerOptions.Builder builder = HandLandmarker.HandLandmarkerOptions.builder()
+                .setBaseOptions(baseOptions)
+                .setNumHands(2);
+        if (mode == InferenceMode.VIDEO) {
+            builder.setRunningMode(RunningMode.VIDEO);
+        } else {
+            builder.setRunningMode(RunningMode.LIVE_STREAM)
+                    .setResultListener(this::returnLivestreamResult)
+                    .setErrorListener(this::returnLivestreamError);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 提交一帧。该帧的缓冲区会一直保持租用，直到对应的结果回调返回或该帧被丢弃。
+     * LIVE_STREAM 模式下直接异步提交；VIDEO 模式下放入帧队列，由节奏策略决定是否丢弃。
+     */
+    @Override
+    public void submit(FramePool.Frame frame) {
         if (handLandmarker == null) {
+            framePool.release(frame);
             return;
         }
-        MPImage mpImage = new BitmapImageBuilder(bitmap).build();
-        handLandmarker.detectAsync(mpImage, SystemClock.uptimeMillis());
+        // MediaPipe要求时间戳严格递增
+        long timestampMs = Math.max(SystemClock.uptimeMillis(), lastTimestampMs + 1);
+        lastTimestampMs = timestampMs;
+        frame.timestampMs = timestampMs;
+        frame.submitNanos = System.nanoTime();
+        submittedCount++;
+        if (mode == InferenceMode.VIDEO) {
+            SettingsSnapshot config = settings.get();
+            if (config != queueSettings) {
+                applyQueueSettings(config);
+            }
+            frameQueue.offer(frame);
+            return;
+        }
+        MPImage mpImage = new BitmapImageBuilder(frame.getBitmap()).build();
+        try {
+            handLandmarker.detectAsync(mpImage, timestampMs);
+        } catch (RuntimeException e) {
+            framePool.release(frame);
+            throw e;
+        }
     }
 
     private void returnLivestreamResult(HandLandmarkerResult result, MPImage input) {
-        if (listener != null) {
-            listener.onResults(result);
+        try {
+            FramePool.Frame frame = framePool.findLeased(result.timestampMs());
+            if (frame != null) {
+                endToEndLatency.record(System.nanoTime() - frame.submitNanos);
+            }
+            onResultDelivered(0);
+            if (listener != null) {
+                listener.onResults(HandResult.from(result), frame);
+            }
+        } finally {
+            // 结果已返回，输入帧的缓冲区可以复用
+            framePool.releaseUpTo(result.timestampMs());
         }
     }
 
@@ -90,15 +158,112 @@ public class GestureRecognizerHelper {
         }
     }
 
-    public void close() {
-        if (handLandmarker != null) {
-            handLandmarker.close();
-            handLandmarker = null;
+    private void startInferenceThread() {
+        SettingsSnapshot config = settings.get();
+        frameQueue = new FrameQueue(framePool, config.VIDEO_QUEUE_CAPACITY, config.FRAME_PACING.create(config));
+        queueSettings = config;
+        isRunning = true;
+        inferenceThread = new Thread(this::runInferenceLoop, "HandLandmarkerVideo");
+        inferenceThread.start();
+    }
+
+    private void applyQueueSettings(SettingsSnapshot config) {
+        if (queueSettings == null || config.FRAME_PACING != queueSettings.FRAME_PACING
+                || config.VIDEO_QUEUE_CAPACITY != queueSettings.VIDEO_QUEUE_CAPACITY
+                || config.VIDEO_THROTTLE_FPS != queueSettings.VIDEO_THROTTLE_FPS) {
+            frameQueue.configure(config.VIDEO_QUEUE_CAPACITY, config.FRAME_PACING.create(config));
+        }
+        queueSettings = config;
+    }
+
+    /**
+     * 推理线程：取帧、同步推理、回调结果、归还缓冲区。排队和推理耗时逐帧记录。
+     * VIDEO 模式下推理器只在该线程上使用，也由该线程在退出时关闭，避免与进行中的推理并发关闭。
+     */
+    private void runInferenceLoop() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+        HandLandmarker landmarker = handLandmarker;
+        try {
+            inferUntilClosed(landmarker);
+        } finally {
+            landmarker.close();
         }
     }
 
-    public interface ResultListener {
-        void onResults(HandLandmarkerResult result);
-        void onError(String error);
+    private void inferUntilClosed(HandLandmarker landmarker) {
+        while (isRunning) {
+            FramePool.Frame frame;
+            try {
+                frame = frameQueue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (frame == null) break;
+            try {
+                long startNanos = System.nanoTime();
+                queueWaitLatency.record(startNanos - frame.submitNanos);
+                MPImage mpImage = new BitmapImageBuilder(frame.getBitmap()).build();
+                HandLandmarkerResult result = landmarker.detectForVideo(mpImage, frame.timestampMs);
+                long endNanos = System.nanoTime();
+                detectLatency.record(endNanos - startNanos);
+                endToEndLatency.record(endNanos - frame.submitNanos);
+                onResultDelivered(frameQueue.getDroppedCount());
+                // 已关闭的实例不再输出结果，切换模式时新旧实例的结果不会交错
+                if (listener != null && result != null && isRunning) {
+                    listener.onResults(HandResult.from(result), frame);
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "detectForVideo failed", e);
+                if (listener != null) {
+                    listener.onError(e.getMessage());
+                }
+            } finally {
+                framePool.release(frame);
+            }
+        }
+    }
+
+    /**
+     * 统计结果数，并周期性输出提交、返回和丢弃的帧数。LIVE_STREAM 模式下丢弃的帧是MediaPipe内部丢掉的，
+     * 即提交了但没有结果的帧；VIDEO 模式下是节奏策略丢掉的。
+     */
+    private synchronized void onResultDelivered(long pacingDrops) {
+        resultCount++;
+        if (resultCount % REPORT_INTERVAL == 0) {
+            long dropped = mode == InferenceMode.VIDEO ? pacingDrops : submittedCount - resultCount;
+            Log.d(TAG, String.format(Locale.US, "[%s] submitted=%d, results=%d, dropped=%d (%.1f%%)",
+                    mode, submittedCount, resultCount, dropped, 100f * dropped / Math.max(1, submittedCount)));
+        }
+    }
+
+    /**
+     * 关闭推理器，不阻塞调用线程（运行时切换模式时在主线程调用）。
+     * 正在推理的帧只由推理端在推理结束后归还，这里不会强制归还仍被读取的缓冲区。
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        HandLandmarker landmarker = handLandmarker;
+        handLandmarker = null;
+        if (inferenceThread != null) {
+            // 关闭队列会归还仍在排队的帧并唤醒推理线程；推理线程归还手上的帧后自行关闭推理器
+            frameQueue.close();
+            inferenceThread = null;
+            return;
+        }
+        if (landmarker == null) return;
+        // LIVE_STREAM：close 会等待图中尚未完成的推理，放到后台线程执行。
+        // 推理器关闭后不会再有结果回调，此时才归还MediaPipe内部丢弃、没有结果的帧；
+        // 只归还本实例提交过的帧，新实例和相机线程正在使用的帧不受影响
+        long lastSubmittedMs = lastTimestampMs;
+        new Thread(() -> {
+            try {
+                landmarker.close();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error closing HandLandmarker", e);
+            } finally {
+                framePool.releaseUpTo(lastSubmittedMs);
+            }
+        }, "HandLandmarkerClose").start();
     }
 }
@@ -1,10 +1,13 @@
 // =================================================================================
 // 文件: app/src/main/java/com/yidroid/argesture/GestureSettings.java
-// 描述: [已重构] 设置管理类，添加了大量注释并修正预览尺寸逻辑。
+// 描述: [已重构] 设置管理类。所有设置值保存在不可变的 SettingsSnapshot 中，
+//       每次修改构造新快照并通过 AtomicReference 原子发布；用户可调的值持久化到
+//       SharedPreferences。各线程在处理一帧前取一次快照，整帧使用同一组一致的值。
 // =================================================================================
 package com.yidroid.argesture;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.content.res.Configuration;
 import android.graphics.Point;
 import android.provider.Settings.System;
@@ -12,129 +15,40 @@ import android.view.Display;
 import android.view.Surface;
 import android.view.WindowManager;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class GestureSettings {
 
+    private static final String PREFERENCES_NAME = "gesture_settings";
+
     private static volatile GestureSettings instance;
     private final Context context;
+    private final SharedPreferences preferences;
     private final Point displaySize = new Point();
+    private final AtomicReference<SettingsSnapshot> current = new AtomicReference<>();
 
-    // --- 系统值 ---
-    /**
-     * 当前屏幕的实际宽度（像素）。
-     * 在设备旋转时会自动更新。
-     */
-    public int SCREEN_WIDTH;
-    /**
-     * 当前屏幕的实际高度（像素）。
-     * 在设备旋转时会自动更新。
-     */
-    public int SCREEN_HEIGHT;
-    /**
-     * 当前屏幕的旋转角度。
-     * (Surface.ROTATION_0, Surface.ROTATION_90, etc.)
-     */
-    public int SCREEN_ROTATION;
     /**
-     * 从系统设置中读取的屏幕自动熄灭超时时间（毫秒）。
+     * 对快照的一次修改。发布时如果与其他线程的修改冲突会重新执行，因此必须只修改传入的 Builder。
      */
-    public long SCREEN_OFF_TIMEOUT;
-
-    // --- 摄像头 ---
-    /**
-     * 用于图像分析的摄像头画面宽度。
-     * 较低的分辨率可以提升性能。
-     */
-    public int CAMERA_WIDTH = 640;
-    /**
-     * 用于图像分析的摄像头画面高度。
-     */
-    public int CAMERA_HEIGHT = 480;
-    /**
-     * 期望的摄像头帧率(FPS)。
-     * 较低的帧率可以降低功耗和发热。
-     */
-    public int DESIRED_CAMERA_FPS = 24;
-    /**
-     * 当前正在使用的摄像头朝向。
-     * (CameraCharacteristics.LENS_FACING_FRONT or LENS_FACING_BACK)
-     */
-    public int ACTIVE_CAMERA_FACING;
-
-    // --- 预览窗口 ---
-    /**
-     * 预览悬浮窗的宽度（横屏状态下）。
-     * 在竖屏时，此值会与高度互换。
-     */
-    public int PREVIEW_WINDOW_WIDTH = 1440;
-    /**
-     * 预览悬浮窗的高度（横屏状态下）。
-     */
-    public int PREVIEW_WINDOW_HEIGHT = 1080;
-    /**
-     * 预览悬浮窗的透明度。
-     * 0.0f (完全透明) to 1.0f (完全不透明).
-     */
-    public float PREVIEW_WINDOW_ALPHA = 0.3f;
-    /**
-     * 用于判断是否启用窗口避让逻辑的最大宽度阈值。
-     */
-    public int MAX_PREVIEW_WINDOW_WIDTH = 1440;
-    /**
-     * 触发避让逻辑时，预览窗口的宽度。
-     */
-    public int AVOIDANCE_PREVIEW_WIDTH = 320;
-    /**
-     * 触发避让逻辑时，预览窗口的高度。
-     */
-    public int AVOIDANCE_PREVIEW_HEIGHT = 240;
-
-    // --- 坐标映射 ---
-    /**
-     * 根据屏幕和相机比例计算出的，手势有效区域在屏幕上的映射宽度。
-     */
-    public int MAPPED_PREVIEW_WIDTH;
-    /**
-     * 手势有效区域在屏幕上的水平偏移量，用于居中显示。
-     */
-    public int HORIZONTAL_OFFSET;
-
-    // --- 手势识别 ---
-    /**
-     * 判断为“捏合”手势时，指尖之间的最大距离阈值。
-     * 值越小，要求捏得越近。
-     */
-    public double PINCH_THRESHOLD = 0.06; // 稍微放宽三指的阈值
-    /**
-     * 判断为“握拳”手势时，指尖到手腕的最大距离阈值。
-     */
-    public double FIST_THRESHOLD = 0.2;
-    /**
-     * 无手势活动时，自动停止服务的超时时间（毫秒）。
-     */
-    public long IDLE_TIMEOUT_MS = 60 * 1000; // 1分钟
-
-    // --- 防抖 ---
-    /**
-     * 两次“点击”操作之间的最小间隔时间（毫秒），用于防止误触。
-     */
-    public long CLICK_DEBOUNCE = 1000;
-    /**
-     * 两次“返回桌面”操作之间的最小间隔时间（毫秒）。
-     */
-    public long HOME_DEBOUNCE = 1000;
-    /**
-     * 两次“返回”操作之间的最小间隔时间（毫秒）。
-     */
-    public long BACK_DEBOUNCE = 1000;
-    /**
-     * 两次“滚动”操作之间的最小间隔时间（毫秒）。
-     */
-    public long SCROLL_INTERVAL = 100;
+    public interface Editor {
+        void edit(SettingsSnapshot.Builder builder);
+    }
 
     private GestureSettings(Context context) {
         this.context = context.getApplicationContext();
-        loadSystemValues();
-        calculateDependentValues();
+        this.preferences = this.context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        SettingsSnapshot.Builder builder = new SettingsSnapshot.Builder().readFrom(preferences);
+        SettingsSnapshot initial;
+        try {
+            readSystemValues(builder);
+            initial = builder.build();
+        } catch (IllegalArgumentException e) {
+            // 保存的值已损坏或不再合法，回退到默认值
+            builder = new SettingsSnapshot.Builder();
+            readSystemValues(builder);
+            initial = builder.build();
+        }
+        current.set(initial);
     }
 
     public static GestureSettings getInstance(Context context) {
@@ -148,43 +62,81 @@ public class GestureSettings {
         return instance;
     }
 
+    /**
+     * @return 当前的设置快照。处理一帧或一个事件时应只调用一次并在整个过程中使用该快照。
+     */
+    public SettingsSnapshot get() {
+        return current.get();
+    }
+
+    /**
+     * 在当前快照的基础上修改并原子地发布新快照，不写入存储。
+     * @return 发布后的快照。
+     * @throws IllegalArgumentException 修改后的设置不合法时，此时不会发布。
+     */
+    public SettingsSnapshot update(Editor editor) {
+        while (true) {
+            SettingsSnapshot previous = current.get();
+            SettingsSnapshot.Builder builder = previous.toBuilder();
+            editor.edit(builder);
+            SettingsSnapshot next = builder.build();
+            if (current.compareAndSet(previous, next)) return next;
+        }
+    }
+
+    /**
+     * 修改、发布并持久化用户可调的设置。正在运行的流水线在处理下一帧时即使用新值。
+     */
+    public SettingsSnapshot updateAndSave(Editor editor) {
+        SettingsSnapshot next = update(editor);
+        SharedPreferences.Editor prefsEditor = preferences.edit();
+        next.toBuilder().writeTo(prefsEditor);
+        prefsEditor.apply();
+        return next;
+    }
+
+    public void setActiveCameraFacing(int facing) {
+        update(builder -> builder.ACTIVE_CAMERA_FACING = facing);
+    }
+
     public void onConfigurationChanged(Configuration newConfig) {
-        loadSystemValues();
-        calculateDependentValues();
+        update(this::readSystemValues);
     }
 
-    private void loadSystemValues() {
+    private void readSystemValues(SettingsSnapshot.Builder builder) {
         WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
         Display display = wm.getDefaultDisplay();
-        display.getRealSize(displaySize);
-        SCREEN_ROTATION = display.getRotation();
-
-        switch (SCREEN_ROTATION) {
-            case Surface.ROTATION_90:
-            case Surface.ROTATION_270:
-                SCREEN_WIDTH = Math.max(displaySize.x, displaySize.y);
-                SCREEN_HEIGHT = Math.min(displaySize.x, displaySize.y);
-                PREVIEW_WINDOW_HEIGHT = Math.min(displaySize.x, displaySize.y);
-                PREVIEW_WINDOW_WIDTH = (PREVIEW_WINDOW_HEIGHT / 9) * 16;
-                break;
-            default: // ROTATION_0, ROTATION_180
-                SCREEN_WIDTH = Math.min(displaySize.x, displaySize.y);
-                SCREEN_HEIGHT = Math.max(displaySize.x, displaySize.y);
-                PREVIEW_WINDOW_WIDTH = Math.min(displaySize.x, displaySize.y);
-                PREVIEW_WINDOW_HEIGHT = (PREVIEW_WINDOW_WIDTH / 9) * 16;
-                break;
+        synchronized (displaySize) {
+            display.getRealSize(displaySize);
+            int previousRotation = builder.SCREEN_ROTATION;
+            int previousWidth = builder.SCREEN_WIDTH, previousHeight = builder.SCREEN_HEIGHT;
+            builder.SCREEN_ROTATION = display.getRotation();
+
+            switch (builder.SCREEN_ROTATION) {
+                case Surface.ROTATION_90:
+                case Surface.ROTATION_270:
+                    builder.SCREEN_WIDTH = Math.max(displaySize.x, displaySize.y);
+                    builder.SCREEN_HEIGHT = Math.min(displaySize.x, displaySize.y);
+                    builder.PREVIEW_WINDOW_HEIGHT = Math.min(displaySize.x, displaySize.y);
+                    builder.PREVIEW_WINDOW_WIDTH = (builder.PREVIEW_WINDOW_HEIGHT / 9) * 16;
+                    break;
+                default: // ROTATION_0, ROTATION_180
+                    builder.SCREEN_WIDTH = Math.min(displaySize.x, displaySize.y);
+                    builder.SCREEN_HEIGHT = Math.max(displaySize.x, displaySize.y);
+                    builder.PREVIEW_WINDOW_WIDTH = Math.min(displaySize.x, displaySize.y);
+                    builder.PREVIEW_WINDOW_HEIGHT = (builder.PREVIEW_WINDOW_WIDTH / 9) * 16;
+                    break;
+            }
+            if (builder.SCREEN_ROTATION != previousRotation || builder.SCREEN_WIDTH != previousWidth
+                    || builder.SCREEN_HEIGHT != previousHeight) {
+                builder.ROTATION_VERSION++;
+            }
         }
 
         try {
-            SCREEN_OFF_TIMEOUT = System.getLong(context.getContentResolver(), System.SCREEN_OFF_TIMEOUT);
+            builder.SCREEN_OFF_TIMEOUT = System.getLong(context.getContentResolver(), System.SCREEN_OFF_TIMEOUT);
         } catch (Exception e) {
-            SCREEN_OFF_TIMEOUT = IDLE_TIMEOUT_MS; // Fallback
+            builder.SCREEN_OFF_TIMEOUT = builder.IDLE_TIMEOUT_MS; // Fallback
         }
     }
-
-    private void calculateDependentValues() {
-        double cameraRatio = (double) CAMERA_WIDTH / CAMERA_HEIGHT;
-        MAPPED_PREVIEW_WIDTH = (int) (SCREEN_HEIGHT * cameraRatio);
-        HORIZONTAL_OFFSET = (SCREEN_WIDTH - MAPPED_PREVIEW_WIDTH) / 2;
-    }
 }
@@ -0,0 +1,176 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/HandFeatures.java
+// 描述: 每帧一次性提取的手部特征，供所有手势检测器共享，避免重复计算。
+// =================================================================================
+package com.yidroid.argesture;
+
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+
+import java.util.List;
+
+public class HandFeatures {
+
+    public static final int LANDMARK_COUNT = 21;
+    /**
+     * {@link #coords} 中X/Y/Z三个轴的起始偏移。
+     */
+    public static final int X = 0;
+    public static final int Y = LANDMARK_COUNT;
+    public static final int Z = LANDMARK_COUNT * 2;
+
+    // --- 手指编号，用于伸直位掩码和指尖距离 ---
+    public static final int THUMB = 0;
+    public static final int INDEX = 1;
+    public static final int MIDDLE = 2;
+    public static final int RING = 3;
+    public static final int PINKY = 4;
+
+    public static final int THUMB_BIT = 1 << THUMB;
+    public static final int INDEX_BIT = 1 << INDEX;
+    public static final int MIDDLE_BIT = 1 << MIDDLE;
+    public static final int RING_BIT = 1 << RING;
+    public static final int PINKY_BIT = 1 << PINKY;
+
+    private static final int WRIST = 0;
+    private static final int[] TIPS = {4, 8, 12, 16, 20};
+
+    /**
+     * 21个关节点的坐标，以结构数组（SoA）形式连续存放：[x0..x20, y0..y20, z0..z20]。
+     * 可在 {@link #load(List)} 和 {@link #computeDerived()} 之间原地滤波。
+     */
+    public final float[] coords = new float[LANDMARK_COUNT * 3];
+
+    /**
+     * 伸直的手指位掩码。食指到小指以指尖高于PIP关节（6、10、14、18）判断；
+     * 拇指以指尖未向内收（指尖X不大于IP关节3的X）判断。
+     */
+    public int extendedMask;
+    /**
+     * 指尖低于MCP关节（2、5、9、13、17，向手心勾起）的手指位掩码。
+     */
+    public int hookedMask;
+
+    /**
+     * 从关节点列表中提取本帧的全部特征。
+     */
+    public void compute(List<NormalizedLandmark> landmarks) {
+        load(landmarks);
+        computeDerived();
+    }
+
+    /**
+     * 只把关节点坐标复制到 {@link #coords}，不计算派生特征。
+     */
+    public void load(List<NormalizedLandmark> landmarks) {
+        for (int i = 0; i < LANDMARK_COUNT; i++) {
+            NormalizedLandmark landmark = landmarks.get(i);
+            coords[X + i] = landmark.x();
+            coords[Y + i] = landmark.y();
+            coords[Z + i] = landmark.z();
+        }
+    }
+
+    /**
+     * 从结构数组形式的坐标中复制一只手的21个点，不计算派生特征。
+     * @param offset 这只手第一个点在数组中的下标。
+     */
+    public void load(float[] x, float[] y, float[] z, int offset) {
+        System.arraycopy(x, offset, coords, X, LANDMARK_COUNT);
+        System.arraycopy(y, offset, coords, Y, LANDMARK_COUNT);
+        System.arraycopy(z, offset, coords, Z, LANDMARK_COUNT);
+    }
+
+    public float x(int landmark) {
+        return coords[X + landmark];
+    }
+
+    public float y(int landmark) {
+        return coords[Y + landmark];
+    }
+
+    /**
+     * 根据 {@link #coords} 中的坐标计算伸直和勾起掩码。指尖距离由检测器按需计算，
+     * 每帧只算用到的几对，判定不成立时短路。
+     */
+    public void computeDerived() {
+        final float[] c = coords;
+        // 展开成固定下标，每帧只做十次比较
+        extendedMask = (c[X + 4] <= c[X + 3] ? THUMB_BIT : 0)
+                | (c[Y + 8] < c[Y + 6] ? INDEX_BIT : 0)
+                | (c[Y + 12] < c[Y + 10] ? MIDDLE_BIT : 0)
+                | (c[Y + 16] < c[Y + 14] ? RING_BIT : 0)
+                | (c[Y + 20] < c[Y + 18] ? PINKY_BIT : 0);
+        hookedMask = (c[Y + 4] > c[Y + 2] ? THUMB_BIT : 0)
+                | (c[Y + 8] > c[Y + 5] ? INDEX_BIT : 0)
+                | (c[Y + 12] > c[Y + 9] ? MIDDLE_BIT : 0)
+                | (c[Y + 16] > c[Y + 13] ? RING_BIT : 0)
+                | (c[Y + 20] > c[Y + 17] ? PINKY_BIT : 0);
+    }
+
+    /**
+     * 手掌尺度：手腕到中指MCP关节的距离，可用于与手和镜头距离无关的阈值。
+     * 目前没有检测器每帧使用，因此按需计算，不放在 {@link #computeDerived()} 中。
+     */
+    public float palmScale() {
+        float px = coords[X + 9] - coords[X + WRIST], py = coords[Y + 9] - coords[Y + WRIST];
+        float pz = coords[Z + 9] - coords[Z + WRIST];
+        return (float) Math.sqrt(px * px + py * py + pz * pz);
+    }
+
+    /**
+     * 手掌朝向：手腕指向中指MCP关节的方向角（弧度，图像坐标系），按需计算。
+     */
+    public float orientation() {
+        return (float) Math.atan2(coords[Y + 9] - coords[Y + WRIST], coords[X + 9] - coords[X + WRIST]);
+    }
+
+    /**
+     * @return 两个手指指尖之间距离的平方。
+     */
+    public float tipDistanceSq(int fingerA, int fingerB) {
+        return distanceSq(TIPS[fingerA], TIPS[fingerB]);
+    }
+
+    /**
+     * @return 指尖到手腕距离的平方。
+     */
+    public float tipToWristSq(int finger) {
+        return distanceSq(TIPS[finger], WRIST);
+    }
+
+    private float distanceSq(int a, int b) {
+        final float[] c = coords;
+        float dx = c[X + a] - c[X + b], dy = c[Y + a] - c[Y + b], dz = c[Z + a] - c[Z + b];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * @return 拇指、食指、中指指尖两两之间的距离是否都小于 threshold（三指捏合）。
+     */
+    public boolean isPinchedWithin(double threshold) {
+        float thresholdSq = (float) (threshold * threshold);
+        return tipDistanceSq(THUMB, INDEX) < thresholdSq &&
+                tipDistanceSq(THUMB, MIDDLE) < thresholdSq &&
+                tipDistanceSq(INDEX, MIDDLE) < thresholdSq;
+    }
+
+    /**
+     * @return 食指到小指的指尖到手腕的距离是否都小于 threshold（握拳）。
+     */
+    public boolean isFistWithin(double threshold) {
+        float thresholdSq = (float) (threshold * threshold);
+        return tipToWristSq(INDEX) < thresholdSq &&
+                tipToWristSq(MIDDLE) < thresholdSq &&
+                tipToWristSq(RING) < thresholdSq &&
+                tipToWristSq(PINKY) < thresholdSq;
+    }
+
+    /**
+     * @param required 必须伸直的手指位掩码。
+     * @param mask 参与判断的手指位掩码，其余手指必须弯曲。
+     * @return 伸直状态是否与要求完全一致。
+     */
+    public boolean matchesExtension(int required, int mask) {
+        return (extendedMask & mask) == required;
+    }
+}
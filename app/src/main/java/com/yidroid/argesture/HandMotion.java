@@ -0,0 +1,52 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/HandMotion.java
+// 描述: 合成手部数据中整只手的运动轨迹，给出相对起点的位移（归一化画面坐标）。
+// =================================================================================
+package com.yidroid.argesture;
+
+public enum HandMotion {
+    HOLD,
+    /**
+     * 以起点为圆的最上方，画面中顺时针画一整圈。
+     */
+    CIRCLE_CW,
+    CIRCLE_CCW,
+    SWIPE_LEFT,
+    SWIPE_RIGHT,
+    SWIPE_UP,
+    SWIPE_DOWN;
+
+    /**
+     * @param t 轨迹进度，0到1。
+     * @param amplitude 圆的半径或滑动的距离。
+     * @param out 写入X和Y方向的位移。
+     */
+    public void offset(float t, float amplitude, float[] out) {
+        float dx = 0f, dy = 0f;
+        switch (this) {
+            case CIRCLE_CW:
+            case CIRCLE_CCW: {
+                double angle = 2 * Math.PI * t * (this == CIRCLE_CW ? 1 : -1);
+                dx = (float) (amplitude * Math.sin(angle));
+                dy = (float) (amplitude * (1 - Math.cos(angle)));
+                break;
+            }
+            case SWIPE_LEFT: dx = -amplitude * ease(t); break;
+            case SWIPE_RIGHT: dx = amplitude * ease(t); break;
+            case SWIPE_UP: dy = -amplitude * ease(t); break;
+            case SWIPE_DOWN: dy = amplitude * ease(t); break;
+            case HOLD:
+            default:
+                break;
+        }
+        out[0] = dx;
+        out[1] = dy;
+    }
+
+    /**
+     * 两端慢、中间快，接近真实滑动的速度曲线。
+     */
+    private static float ease(float t) {
+        return t * t * (3 - 2 * t);
+    }
+}
@@ -0,0 +1,195 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/HandPose.java
+// 描述: 以关节角描述的手部姿态（不可变），并通过正向运动学求出21个关节点。
+//       坐标以手掌长度（手腕到中指MCP）为单位，手腕为原点，+Y指向手指，拇指在-X一侧，
+//       -Z朝向镜头；手指弯曲时向镜头方向卷向手心，拇指弯曲时在画面内向手心内收。
+//       姿态之间可按关节角插值，得到自然的过渡帧。纯Java实现，可在桌面JVM上使用。
+// =================================================================================
+package com.yidroid.argesture;
+
+public final class HandPose {
+
+    public static final int LANDMARK_COUNT = 21;
+
+    // --- 手部骨架，单位为手掌长度 ---
+    private static final float[] THUMB_BASE = {-0.25f, 0.25f};
+    private static final float THUMB_DIRECTION = -0.9f;
+    private static final float[] THUMB_LENGTHS = {0.35f, 0.3f, 0.25f};
+    /**
+     * 食指到小指MCP关节的位置。中指MCP到手腕的距离为1，即 HandFeatures.palmScale() 对应的长度。
+     */
+    private static final float[][] FINGER_BASES = {{-0.22f, 0.95f}, {0f, 1f}, {0.2f, 0.93f}, {0.38f, 0.82f}};
+    /**
+     * 手指伸直时的方向（弧度，相对+Y，正值偏向小指一侧），按 spread 缩放。
+     */
+    private static final float[] FINGER_DIRECTIONS = {-0.08f, 0f, 0.08f, 0.18f};
+    private static final float[][] FINGER_LENGTHS = {
+            {0.42f, 0.24f, 0.2f}, {0.46f, 0.28f, 0.21f}, {0.42f, 0.27f, 0.2f}, {0.33f, 0.2f, 0.18f}};
+
+    private static final float STRAIGHT = 0f;
+    private static final float[] EXTENDED = {STRAIGHT, STRAIGHT, STRAIGHT};
+    private static final float[] CURLED = {1.55f, 1.75f, 1.2f};
+    private static final float[] THUMB_OPEN = {0f, 0f, 0f};
+    private static final float[] THUMB_TUCKED = {0.3f, 0.4f, 0.5f};
+
+    public static final HandPose OPEN_PALM = new HandPose(THUMB_OPEN,
+            new float[][]{EXTENDED, EXTENDED, EXTENDED, EXTENDED}, 1f, 0f);
+    public static final HandPose INDEX_UP = new HandPose(THUMB_TUCKED,
+            new float[][]{EXTENDED, CURLED, CURLED, CURLED}, 1f, 0f);
+    /**
+     * 食指和中指伸直，即双指滚动姿态。
+     */
+    public static final HandPose TWO_UP = new HandPose(THUMB_TUCKED,
+            new float[][]{EXTENDED, EXTENDED, CURLED, CURLED}, 1f, 0f);
+    /**
+     * 食指、中指、无名指伸直，即勾指返回的准备姿态。
+     */
+    public static final HandPose THREE_UP = new HandPose(THUMB_TUCKED,
+            new float[][]{EXTENDED, EXTENDED, EXTENDED, CURLED}, 0.6f, 0f);
+    /**
+     * 拇指、食指、中指指尖捏合。
+     */
+    public static final HandPose THREE_FINGER_PINCH = new HandPose(new float[]{0.5f, 0.35f, 0.2f},
+            new float[][]{{0.7f, 0.7f, 0.35f}, {0.7f, 0.8f, 0.35f}, CURLED, CURLED}, 0.6f, 0.9f);
+    public static final HandPose FIST = new HandPose(THUMB_TUCKED,
+            new float[][]{CURLED, CURLED, CURLED, CURLED}, 1f, 0f);
+    /**
+     * 食指、中指、无名指向手心勾起，指尖低于MCP关节。
+     */
+    public static final HandPose HOOK = new HandPose(THUMB_TUCKED,
+            new float[][]{{1.05f, 1.75f, 1.05f}, {1.05f, 1.75f, 1.05f}, {1.05f, 1.75f, 1.05f}, CURLED}, 0.6f, 0f);
+
+    /**
+     * 拇指CMC、MCP、IP三个关节的内收角（弧度）。
+     */
+    private final float[] thumbFlex;
+    /**
+     * 食指到小指MCP、PIP、DIP关节的弯曲角（弧度）。
+     */
+    private final float[][] fingerFlex;
+    private final float spread;
+    private final float pinch;
+
+    /**
+     * @param thumbFlex 拇指三个关节的内收角（弧度）。
+     * @param fingerFlex 食指到小指各自MCP、PIP、DIP关节的弯曲角（弧度）。
+     * @param spread 手指张开程度，1为自然张开，0为并拢。
+     * @param pinch 拇指、食指、中指指尖向三者中心收拢的程度，0到1。
+     */
+    public HandPose(float[] thumbFlex, float[][] fingerFlex, float spread, float pinch) {
+        if (thumbFlex.length != 3 || fingerFlex.length != 4) {
+            throw new IllegalArgumentException("Expected 3 thumb joints and 4 fingers");
+        }
+        this.thumbFlex = thumbFlex.clone();
+        this.fingerFlex = new float[4][];
+        for (int finger = 0; finger < 4; finger++) {
+            if (fingerFlex[finger].length != 3) {
+                throw new IllegalArgumentException("Expected 3 joints for finger " + finger);
+            }
+            this.fingerFlex[finger] = fingerFlex[finger].clone();
+        }
+        this.spread = spread;
+        this.pinch = Math.max(0f, Math.min(1f, pinch));
+    }
+
+    /**
+     * 按关节角线性插值。
+     * @param t 0返回 from，1返回 to。
+     */
+    public static HandPose interpolate(HandPose from, HandPose to, float t) {
+        if (t <= 0f) return from;
+        if (t >= 1f) return to;
+        float[] thumb = new float[3];
+        float[][] fingers = new float[4][3];
+        for (int joint = 0; joint < 3; joint++) {
+            thumb[joint] = lerp(from.thumbFlex[joint], to.thumbFlex[joint], t);
+            for (int finger = 0; finger < 4; finger++) {
+                fingers[finger][joint] = lerp(from.fingerFlex[finger][joint], to.fingerFlex[finger][joint], t);
+            }
+        }
+        return new HandPose(thumb, fingers, lerp(from.spread, to.spread, t), lerp(from.pinch, to.pinch, t));
+    }
+
+    /**
+     * 正向运动学：求出21个关节点在手部坐标系中的位置。
+     * @param out 长度至少为63，按 [x0, y0, z0, x1, y1, z1, ...] 写入。
+     */
+    public void solve(float[] out) {
+        set(out, 0, 0f, 0f, 0f);
+
+        // 拇指：CMC(1) -> MCP(2) -> IP(3) -> TIP(4)，在画面内逐节向手心内收
+        float x = THUMB_BASE[0], y = THUMB_BASE[1], z = 0f;
+        set(out, 1, x, y, z);
+        float direction = THUMB_DIRECTION;
+        for (int joint = 0; joint < 3; joint++) {
+            direction += thumbFlex[joint];
+            float length = THUMB_LENGTHS[joint];
+            x += length * (float) Math.sin(direction);
+            y += length * (float) Math.cos(direction);
+            z -= length * 0.5f * (float) Math.sin(direction - THUMB_DIRECTION);
+            set(out, 2 + joint, x, y, z);
+        }
+
+        // 食指到小指：MCP -> PIP -> DIP -> TIP，弯曲时在手指方向与-Z构成的平面内卷向手心
+        for (int finger = 0; finger < 4; finger++) {
+            int mcp = 5 + finger * 4;
+            x = FINGER_BASES[finger][0];
+            y = FINGER_BASES[finger][1];
+            z = 0f;
+            set(out, mcp, x, y, z);
+            float angle = FINGER_DIRECTIONS[finger] * spread;
+            float dirX = (float) Math.sin(angle), dirY = (float) Math.cos(angle);
+            float flex = 0f;
+            for (int joint = 0; joint < 3; joint++) {
+                flex += fingerFlex[finger][joint];
+                float length = FINGER_LENGTHS[finger][joint];
+                float along = length * (float) Math.cos(flex);
+                x += along * dirX;
+                y += along * dirY;
+                z -= length * (float) Math.sin(flex);
+                set(out, mcp + 1 + joint, x, y, z);
+            }
+        }
+
+        if (pinch > 0f) {
+            applyPinch(out);
+        }
+    }
+
+    /**
+     * 把拇指、食指、中指的指尖向三者中心收拢，远端关节随之移动一半，近似捏合时的手指形态。
+     */
+    private void applyPinch(float[] out) {
+        int[] tips = {4, 8, 12};
+        float cx = 0f, cy = 0f, cz = 0f;
+        for (int tip : tips) {
+            cx += out[tip * 3];
+            cy += out[tip * 3 + 1];
+            cz += out[tip * 3 + 2];
+        }
+        cx /= tips.length;
+        cy /= tips.length;
+        cz /= tips.length;
+        for (int tip : tips) {
+            moveToward(out, tip, cx, cy, cz, pinch);
+            moveToward(out, tip - 1, cx, cy, cz, pinch * 0.5f);
+        }
+    }
+
+    private static void moveToward(float[] out, int landmark, float x, float y, float z, float t) {
+        int i = landmark * 3;
+        out[i] = lerp(out[i], x, t);
+        out[i + 1] = lerp(out[i + 1], y, t);
+        out[i + 2] = lerp(out[i + 2], z, t);
+    }
+
+    private static void set(float[] out, int landmark, float x, float y, float z) {
+        out[landmark * 3] = x;
+        out[landmark * 3 + 1] = y;
+        out[landmark * 3 + 2] = z;
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+}
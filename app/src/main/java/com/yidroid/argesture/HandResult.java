@@ -0,0 +1,66 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/HandResult.java
+// 描述: 一帧关节点推理结果（不可变），与具体推理后端无关。
+//       MediaPipe 的 HandLandmarkerResult 无法在外部构造，脚本和录制后端需要自行产生结果，
+//       因此流水线内部统一使用本类型；MediaPipe 结果经 from() 包装，不复制关节点。
+// =================================================================================
+package com.yidroid.argesture;
+
+import com.google.mediapipe.tasks.components.containers.Category;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class HandResult {
+
+    private final List<List<NormalizedLandmark>> landmarks;
+    private final List<List<Category>> handedness;
+    private final long timestampMs;
+
+    /**
+     * @param landmarks 每只手的21个关节点。
+     * @param handedness 每只手对应的左右手分类结果，与 landmarks 按手的顺序一一对应。
+     * @param timestampMs 输入帧的时间戳（uptimeMillis）。
+     */
+    public HandResult(List<List<NormalizedLandmark>> landmarks, List<List<Category>> handedness, long timestampMs) {
+        if (landmarks.size() != handedness.size()) {
+            throw new IllegalArgumentException("Landmarks and handedness differ in hand count: "
+                    + landmarks.size() + " vs " + handedness.size());
+        }
+        this.landmarks = Collections.unmodifiableList(landmarks);
+        this.handedness = Collections.unmodifiableList(handedness);
+        this.timestampMs = timestampMs;
+    }
+
+    public static HandResult from(HandLandmarkerResult result) {
+        return new HandResult(result.landmarks(), result.handedness(), result.timestampMs());
+    }
+
+    /**
+     * @return 没有检测到手的结果。
+     */
+    public static HandResult empty(long timestampMs) {
+        return new HandResult(Collections.emptyList(), Collections.emptyList(), timestampMs);
+    }
+
+    /**
+     * @return 关节点相同、时间戳不同的结果，用于把脚本或录制的结果对应到新提交的帧。
+     */
+    public HandResult withTimestamp(long timestampMs) {
+        return timestampMs == this.timestampMs ? this : new HandResult(landmarks, handedness, timestampMs);
+    }
+
+    public List<List<NormalizedLandmark>> landmarks() {
+        return landmarks;
+    }
+
+    public List<List<Category>> handedness() {
+        return handedness;
+    }
+
+    public long timestampMs() {
+        return timestampMs;
+    }
+}
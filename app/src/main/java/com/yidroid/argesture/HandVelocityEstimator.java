@@ -0,0 +1,112 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/HandVelocityEstimator.java
+// 描述: 基于关节点时间戳的手部速度估计器。保留最近一小段时间内的采样，
+//       用最小二乘直线拟合求速度，不受回调到达主线程时的调度抖动影响。不分配内存。
+// =================================================================================
+package com.yidroid.argesture;
+
+public class HandVelocityEstimator {
+
+    /**
+     * 最多保留的采样数。
+     */
+    private static final int CAPACITY = 10;
+    /**
+     * 参与拟合的时间窗口（毫秒），更早的采样被忽略。
+     */
+    private static final long HORIZON_MS = 100;
+    /**
+     * 最新采样距今超过该时间（毫秒）视为手已停止，速度为0。
+     */
+    private static final long STALE_MS = 40;
+
+    private final float[] xs = new float[CAPACITY];
+    private final float[] ys = new float[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+    private int head = 0;
+    private int count = 0;
+
+    private float velocityX;
+    private float velocityY;
+
+    /**
+     * 追加一个采样。时间戳不递增的采样（例如复用的结果）会被忽略。
+     * @param x 屏幕X坐标（像素）。
+     * @param y 屏幕Y坐标（像素）。
+     * @param timestampMs 关节点对应的帧时间戳。
+     */
+    public void addSample(float x, float y, long timestampMs) {
+        if (count > 0 && timestampMs <= times[(head + count - 1) % CAPACITY]) return;
+        int index;
+        if (count == CAPACITY) {
+            index = head;
+            head = (head + 1) % CAPACITY;
+        } else {
+            index = (head + count) % CAPACITY;
+            count++;
+        }
+        xs[index] = x;
+        ys[index] = y;
+        times[index] = timestampMs;
+    }
+
+    /**
+     * 以最新采样为基准，拟合时间窗口内的采样求速度。
+     * @param nowMs 当前时间，与采样时间戳同一时基。
+     * @return 是否有足够的采样得到有效速度；否则速度为0。
+     */
+    public boolean compute(long nowMs) {
+        velocityX = 0f;
+        velocityY = 0f;
+        if (count < 2) return false;
+        int newest = (head + count - 1) % CAPACITY;
+        long newestTime = times[newest];
+        if (nowMs - newestTime > STALE_MS) return false;
+
+        // 以最新采样为原点，时间单位为秒
+        float sumT = 0f, sumX = 0f, sumY = 0f, sumTT = 0f, sumTX = 0f, sumTY = 0f;
+        int n = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            int index = (head + i) % CAPACITY;
+            long age = newestTime - times[index];
+            if (age > HORIZON_MS) break;
+            float t = -age / 1000f;
+            float x = xs[index] - xs[newest];
+            float y = ys[index] - ys[newest];
+            sumT += t;
+            sumX += x;
+            sumY += y;
+            sumTT += t * t;
+            sumTX += t * x;
+            sumTY += t * y;
+            n++;
+        }
+        if (n < 2) return false;
+        float denominator = n * sumTT - sumT * sumT;
+        if (denominator <= 0f) return false;
+        velocityX = (n * sumTX - sumT * sumX) / denominator;
+        velocityY = (n * sumTY - sumT * sumY) / denominator;
+        return true;
+    }
+
+    /**
+     * @return 上一次 {@link #compute(long)} 得到的X方向速度（像素/秒）。
+     */
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * @return 上一次 {@link #compute(long)} 得到的Y方向速度（像素/秒）。
+     */
+    public float getVelocityY() {
+        return velocityY;
+    }
+
+    public void reset() {
+        head = 0;
+        count = 0;
+        velocityX = 0f;
+        velocityY = 0f;
+    }
+}
@@ -0,0 +1,30 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/InferenceBackend.java
+// 描述: 关节点推理后端的抽象。服务只通过本接口提交帧和接收结果，
+//       实现包括 MediaPipe（GestureRecognizerHelper）、按脚本回放的确定性桩（ScriptedInferenceBackend）
+//       和回放录制结果的后端（RecordedInferenceBackend），后两者不需要模型和GPU，可用于压力测试。
+// =================================================================================
+package com.yidroid.argesture;
+
+public interface InferenceBackend {
+
+    /**
+     * 提交一帧，不阻塞。实现负责设置帧的 timestampMs（严格递增）和 submitNanos，
+     * 并在结果回调返回或该帧被丢弃后把它归还帧池。
+     */
+    void submit(FramePool.Frame frame);
+
+    /**
+     * 停止推理并归还本后端持有的帧。关闭后提交的帧会被直接归还。
+     */
+    void close();
+
+    interface Listener {
+        /**
+         * 在后端的回调线程上调用。
+         * @param frame 产生该结果的输入帧，仅在回调期间有效；找不到时为null。
+         */
+        void onResults(HandResult result, FramePool.Frame frame);
+        void onError(String error);
+    }
+}
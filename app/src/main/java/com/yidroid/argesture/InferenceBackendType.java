@@ -0,0 +1,21 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/InferenceBackendType.java
+// 描述: 可在设置中选择的关节点推理后端。
+// =================================================================================
+package com.yidroid.argesture;
+
+public enum InferenceBackendType {
+    /**
+     * MediaPipe HandLandmarker，运行方式见 INFERENCE_MODE。
+     */
+    MEDIAPIPE,
+    /**
+     * 回放外部文件目录下 landmark_script.txt 中的关节点，文件不存在时回放内置的合成手部演示脚本；
+     * 推理耗时按 STUB_* 设置模拟。
+     */
+    SCRIPTED,
+    /**
+     * 回放外部文件目录下 results.txt 中录制的结果和推理耗时。
+     */
+    RECORDED
+}
@@ -0,0 +1,17 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/InferenceMode.java
+// 描述: HandLandmarker 的运行方式。
+// =================================================================================
+package com.yidroid.argesture;
+
+public enum InferenceMode {
+    /**
+     * MediaPipe LIVE_STREAM：异步提交，由MediaPipe在内部线程回调结果，繁忙时可能在内部丢帧。
+     */
+    LIVE_STREAM,
+    /**
+     * MediaPipe VIDEO：自有推理线程从有界帧队列取帧并同步调用 detectForVideo，
+     * 丢帧由可替换的节奏策略决定，每帧的排队和推理耗时都可测量。
+     */
+    VIDEO
+}
@@ -0,0 +1,352 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/LandmarkFlowTracker.java
+// 描述: 基于稀疏金字塔Lucas-Kanade光流的关节点传播器。
+//       在两次推理之间，用Y平面上每个关节点周围的小窗口估计位移，
+//       把上一次推理得到的21个关节点推进到当前帧。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.nio.ByteBuffer;
+
+public class LandmarkFlowTracker {
+
+    public static final int LANDMARKS_PER_HAND = 21;
+    public static final int MAX_HANDS = 2;
+    private static final int MAX_POINTS = LANDMARKS_PER_HAND * MAX_HANDS;
+
+    private static final int PYRAMID_LEVELS = 2;
+    /**
+     * LK窗口半径，窗口大小为 (2r+1)x(2r+1)。
+     */
+    private static final int WINDOW_RADIUS = 3;
+    private static final int MAX_ITERATIONS = 5;
+    private static final float CONVERGENCE_EPSILON = 0.03f;
+    /**
+     * 梯度矩阵的最小特征值（按窗口像素数归一化），低于此值说明窗口纹理不足，位移不可信。
+     */
+    private static final float MIN_EIGENVALUE = 4f;
+    /**
+     * 跟踪后窗口内的最大平均亮度残差，超过此值视为跟踪失败（遮挡或形变）。
+     */
+    private static final float MAX_RESIDUAL = 18f;
+    private static final int[] FINGERTIPS = {4, 8, 12, 16, 20};
+
+    private final int width;
+    private final int height;
+    private final int[] levelWidths = new int[PYRAMID_LEVELS];
+    private final int[] levelHeights = new int[PYRAMID_LEVELS];
+    private byte[][] previousPyramid;
+    private byte[][] currentPyramid;
+
+    /**
+     * 关节点在第0层金字塔（传感器方向）中的像素坐标。
+     */
+    private final float[] pointX = new float[MAX_POINTS];
+    private final float[] pointY = new float[MAX_POINTS];
+    private final float[] pointZ = new float[MAX_POINTS];
+    private final float[] anchorX = new float[MAX_POINTS];
+    private final float[] anchorY = new float[MAX_POINTS];
+    private final float[] flowX = new float[MAX_POINTS];
+    private final float[] flowY = new float[MAX_POINTS];
+    private final boolean[] tracked = new boolean[MAX_POINTS];
+    private int pointCount = 0;
+    private int rotationDegrees = 0;
+    private boolean hasAnchor = false;
+    private float lastConfidence = 0f;
+
+    /**
+     * @param width 跟踪使用的亮度图宽度（通常为相机分辨率的一半）。
+     * @param height 跟踪使用的亮度图高度。
+     */
+    public LandmarkFlowTracker(int width, int height) {
+        this.width = width;
+        this.height = height;
+        previousPyramid = new byte[PYRAMID_LEVELS][];
+        currentPyramid = new byte[PYRAMID_LEVELS][];
+        int w = width, h = height;
+        for (int level = 0; level < PYRAMID_LEVELS; level++) {
+            levelWidths[level] = w;
+            levelHeights[level] = h;
+            previousPyramid[level] = new byte[w * h];
+            currentPyramid[level] = new byte[w * h];
+            w /= 2;
+            h /= 2;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 将Y平面按2x2均值下采样到指定尺寸的亮度图中。
+     */
+    public static void downsampleLuma(ByteBuffer yBuffer, int rowStride, int pixelStride, byte[] dst, int dstWidth, int dstHeight) {
+        for (int y = 0; y < dstHeight; y++) {
+            int row0 = (y * 2) * rowStride;
+            int row1 = row0 + rowStride;
+            int dstRow = y * dstWidth;
+            for (int x = 0; x < dstWidth; x++) {
+                int col = x * 2 * pixelStride;
+                int sum = (yBuffer.get(row0 + col) & 0xFF) + (yBuffer.get(row0 + col + pixelStride) & 0xFF)
+                        + (yBuffer.get(row1 + col) & 0xFF) + (yBuffer.get(row1 + col + pixelStride) & 0xFF);
+                dst[dstRow + x] = (byte) (sum >> 2);
+            }
+        }
+    }
+
+    /**
+     * 以一次推理结果作为新的跟踪起点。
+     * @param luma 该结果对应帧的亮度图（传感器方向，尺寸与构造参数一致）。
+     * @param rotationDegrees 该帧从传感器方向旋转到屏幕方向的角度。
+     * @param x 旋转后图像中的归一化X坐标，每只手连续21个点。
+     * @param y 旋转后图像中的归一化Y坐标。
+     * @param z 关节点的相对深度，传播时保持不变。
+     * @param count 点的数量，必须是21的倍数。
+     */
+    public synchronized void anchor(byte[] luma, int rotationDegrees, float[] x, float[] y, float[] z, int count) {
+        this.rotationDegrees = rotationDegrees;
+        this.pointCount = Math.min(count, MAX_POINTS);
+        System.arraycopy(luma, 0, previousPyramid[0], 0, width * height);
+        buildUpperLevels(previousPyramid);
+        for (int i = 0; i < pointCount; i++) {
+            toSensorPixels(x[i], y[i], i);
+            pointZ[i] = z[i];
+            anchorX[i] = pointX[i];
+            anchorY[i] = pointY[i];
+        }
+        hasAnchor = pointCount > 0;
+    }
+
+    public synchronized void invalidate() {
+        hasAnchor = false;
+        pointCount = 0;
+    }
+
+    public synchronized boolean hasAnchor() {
+        return hasAnchor;
+    }
+
+    /**
+     * 把当前所有关节点传播到新的一帧。
+     * @param minConfidence 成功跟踪的点所占的最低比例。
+     * @param poseChangeThreshold 指尖相对手腕的位移（像素距离除以图像长边）超过此值时，认为手势姿态可能发生变化。
+     * @param pinchGuard 拇指与食指指尖的距离（像素距离除以图像长边，与 poseChangeThreshold 同单位）小于此值时，认为即将触发捏合。
+     * @return 如果传播结果可信，返回 true；否则调用方应立即进行完整推理。
+     */
+    public synchronized boolean propagate(ByteBuffer yBuffer, int rowStride, int pixelStride,
+                                          float minConfidence, float poseChangeThreshold, float pinchGuard) {
+        if (!hasAnchor) return false;
+        downsampleLuma(yBuffer, rowStride, pixelStride, currentPyramid[0], width, height);
+        buildUpperLevels(currentPyramid);
+
+        int trackedCount = 0;
+        float sumFlowX = 0f, sumFlowY = 0f;
+        for (int i = 0; i < pointCount; i++) {
+            tracked[i] = trackPoint(i);
+            if (tracked[i]) {
+                trackedCount++;
+                sumFlowX += flowX[i];
+                sumFlowY += flowY[i];
+            }
+        }
+        lastConfidence = pointCount > 0 ? (float) trackedCount / pointCount : 0f;
+
+        // 跟踪失败的点按成功点的平均位移移动，使整只手保持一致
+        float meanFlowX = trackedCount > 0 ? sumFlowX / trackedCount : 0f;
+        float meanFlowY = trackedCount > 0 ? sumFlowY / trackedCount : 0f;
+        for (int i = 0; i < pointCount; i++) {
+            pointX[i] += tracked[i] ? flowX[i] : meanFlowX;
+            pointY[i] += tracked[i] ? flowY[i] : meanFlowY;
+        }
+
+        byte[][] swap = previousPyramid;
+        previousPyramid = currentPyramid;
+        currentPyramid = swap;
+
+        if (lastConfidence < minConfidence) {
+            hasAnchor = false;
+            return false;
+        }
+        if (isPoseChangeLikely(poseChangeThreshold, pinchGuard)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return 最近一次传播中成功跟踪的点所占比例。
+     */
+    public synchronized float getLastConfidence() {
+        return lastConfidence;
+    }
+
+    /**
+     * 输出当前关节点在旋转后图像中的归一化坐标。
+     * @return 点的数量。
+     */
+    public synchronized int getPoints(float[] outX, float[] outY, float[] outZ) {
+        for (int i = 0; i < pointCount; i++) {
+            float sx = pointX[i] / width;
+            float sy = pointY[i] / height;
+            switch (rotationDegrees) {
+                case 90: outX[i] = 1f - sy; outY[i] = sx; break;
+                case 180: outX[i] = 1f - sx; outY[i] = 1f - sy; break;
+                case 270: outX[i] = sy; outY[i] = 1f - sx; break;
+                default: outX[i] = sx; outY[i] = sy; break;
+            }
+            outZ[i] = pointZ[i];
+        }
+        return pointCount;
+    }
+
+    private void toSensorPixels(float rx, float ry, int index) {
+        float sx, sy;
+        switch (rotationDegrees) {
+            case 90: sx = ry; sy = 1f - rx; break;
+            case 180: sx = 1f - rx; sy = 1f - ry; break;
+            case 270: sx = 1f - ry; sy = rx; break;
+            default: sx = rx; sy = ry; break;
+        }
+        pointX[index] = sx * width;
+        pointY[index] = sy * height;
+    }
+
+    /**
+     * 指尖相对手腕的位移过大（非刚体运动），或拇指与食指接近捏合阈值时，传播结果无法可靠反映手势变化。
+     */
+    private boolean isPoseChangeLikely(float poseChangeThreshold, float pinchGuard) {
+        float scale = Math.max(width, height);
+        for (int hand = 0; hand + LANDMARKS_PER_HAND <= pointCount; hand += LANDMARKS_PER_HAND) {
+            float wristDx = pointX[hand] - anchorX[hand];
+            float wristDy = pointY[hand] - anchorY[hand];
+            for (int tip : FINGERTIPS) {
+                int i = hand + tip;
+                float relDx = (pointX[i] - anchorX[i]) - wristDx;
+                float relDy = (pointY[i] - anchorY[i]) - wristDy;
+                if (Math.hypot(relDx, relDy) / scale > poseChangeThreshold) return true;
+            }
+            float pinchDistance = (float) Math.hypot(pointX[hand + 4] - pointX[hand + 8], pointY[hand + 4] - pointY[hand + 8]) / scale;
+            if (pinchDistance < pinchGuard) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 对单个点执行由粗到细的金字塔LK迭代。
+     * @return 如果窗口纹理足够且残差较小，返回 true，位移写入 flowX/flowY。
+     */
+    private boolean trackPoint(int index) {
+        float gx = 0f, gy = 0f;
+        float minEigen = 0f;
+        for (int level = PYRAMID_LEVELS - 1; level >= 0; level--) {
+            byte[] prev = previousPyramid[level];
+            byte[] curr = currentPyramid[level];
+            int w = levelWidths[level];
+            int h = levelHeights[level];
+            float scale = 1f / (1 << level);
+            float px = pointX[index] * scale;
+            float py = pointY[index] * scale;
+            if (px < WINDOW_RADIUS + 1 || py < WINDOW_RADIUS + 1 || px >= w - WINDOW_RADIUS - 2 || py >= h - WINDOW_RADIUS - 2) {
+                return false;
+            }
+
+            float gxx = 0f, gxy = 0f, gyy = 0f;
+            for (int wy = -WINDOW_RADIUS; wy <= WINDOW_RADIUS; wy++) {
+                for (int wx = -WINDOW_RADIUS; wx <= WINDOW_RADIUS; wx++) {
+                    float ix = (sample(prev, w, px + wx + 1, py + wy) - sample(prev, w, px + wx - 1, py + wy)) * 0.5f;
+                    float iy = (sample(prev, w, px + wx, py + wy + 1) - sample(prev, w, px + wx, py + wy - 1)) * 0.5f;
+                    gxx += ix * ix;
+                    gxy += ix * iy;
+                    gyy += iy * iy;
+                }
+            }
+            float det = gxx * gyy - gxy * gxy;
+            if (det < 1e-3f) return false;
+            int windowArea = (2 * WINDOW_RADIUS + 1) * (2 * WINDOW_RADIUS + 1);
+            minEigen = (gxx + gyy - (float) Math.sqrt((gxx - gyy) * (gxx - gyy) + 4f * gxy * gxy)) / (2f * windowArea);
+
+            for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+                float bx = 0f, by = 0f;
+                for (int wy = -WINDOW_RADIUS; wy <= WINDOW_RADIUS; wy++) {
+                    for (int wx = -WINDOW_RADIUS; wx <= WINDOW_RADIUS; wx++) {
+                        float ix = (sample(prev, w, px + wx + 1, py + wy) - sample(prev, w, px + wx - 1, py + wy)) * 0.5f;
+                        float iy = (sample(prev, w, px + wx, py + wy + 1) - sample(prev, w, px + wx, py + wy - 1)) * 0.5f;
+                        float diff = sample(prev, w, px + wx, py + wy) - sampleClamped(curr, w, h, px + wx + gx, py + wy + gy);
+                        bx += diff * ix;
+                        by += diff * iy;
+                    }
+                }
+                float vx = (gyy * bx - gxy * by) / det;
+                float vy = (gxx * by - gxy * bx) / det;
+                gx += vx;
+                gy += vy;
+                if (vx * vx + vy * vy < CONVERGENCE_EPSILON * CONVERGENCE_EPSILON) break;
+            }
+            if (level > 0) {
+                gx *= 2f;
+                gy *= 2f;
+            }
+        }
+        if (minEigen < MIN_EIGENVALUE) return false;
+
+        float residual = 0f;
+        float px = pointX[index], py = pointY[index];
+        for (int wy = -WINDOW_RADIUS; wy <= WINDOW_RADIUS; wy++) {
+            for (int wx = -WINDOW_RADIUS; wx <= WINDOW_RADIUS; wx++) {
+                residual += Math.abs(sample(previousPyramid[0], width, px + wx, py + wy)
+                        - sampleClamped(currentPyramid[0], width, height, px + wx + gx, py + wy + gy));
+            }
+        }
+        residual /= (2 * WINDOW_RADIUS + 1) * (2 * WINDOW_RADIUS + 1);
+        if (residual > MAX_RESIDUAL) return false;
+
+        flowX[index] = gx;
+        flowY[index] = gy;
+        return true;
+    }
+
+    private void buildUpperLevels(byte[][] pyramid) {
+        for (int level = 1; level < PYRAMID_LEVELS; level++) {
+            byte[] src = pyramid[level - 1];
+            byte[] dst = pyramid[level];
+            int srcWidth = levelWidths[level - 1];
+            int w = levelWidths[level];
+            int h = levelHeights[level];
+            for (int y = 0; y < h; y++) {
+                int row0 = y * 2 * srcWidth;
+                int row1 = row0 + srcWidth;
+                for (int x = 0; x < w; x++) {
+                    int col = x * 2;
+                    int sum = (src[row0 + col] & 0xFF) + (src[row0 + col + 1] & 0xFF)
+                            + (src[row1 + col] & 0xFF) + (src[row1 + col + 1] & 0xFF);
+                    dst[y * w + x] = (byte) (sum >> 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * 双线性插值采样，调用方保证坐标在图像内部。
+     */
+    private static float sample(byte[] image, int w, float x, float y) {
+        int x0 = (int) x;
+        int y0 = (int) y;
+        float fx = x - x0;
+        float fy = y - y0;
+        int i = y0 * w + x0;
+        float top = (image[i] & 0xFF) * (1f - fx) + (image[i + 1] & 0xFF) * fx;
+        float bottom = (image[i + w] & 0xFF) * (1f - fx) + (image[i + w + 1] & 0xFF) * fx;
+        return top * (1f - fy) + bottom * fy;
+    }
+
+    private static float sampleClamped(byte[] image, int w, int h, float x, float y) {
+        if (x < 0f) x = 0f; else if (x > w - 2) x = w - 2;
+        if (y < 0f) y = 0f; else if (y > h - 2) y = h - 2;
+        return sample(image, w, x, y);
+    }
+}
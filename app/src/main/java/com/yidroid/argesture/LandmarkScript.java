@@ -0,0 +1,15 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/LandmarkScript.java
+// 描述: 脚本推理后端的结果来源：按提交顺序逐帧给出关节点，与帧内容无关。
+//       只要提交的帧数相同，产生的结果序列就相同，便于复现。
+// =================================================================================
+package com.yidroid.argesture;
+
+public interface LandmarkScript {
+
+    /**
+     * 在提交线程上按帧顺序调用。
+     * @param timestampMs 输入帧的时间戳，返回的结果应带有该时间戳。
+     */
+    HandResult next(long timestampMs);
+}
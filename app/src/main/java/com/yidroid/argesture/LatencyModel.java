@@ -0,0 +1,38 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/LatencyModel.java
+// 描述: 脚本推理后端模拟的单帧推理耗时。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.util.Random;
+
+public interface LatencyModel {
+
+    /**
+     * 在提交线程上按帧顺序调用。
+     * @return 下一帧的推理耗时（毫秒），不小于0。
+     */
+    long nextLatencyMs();
+
+    /**
+     * 基础耗时加均匀抖动，并每隔固定帧数注入一次延迟尖峰。随机数使用固定种子，序列可复现。
+     * @param baseMs 基础耗时。
+     * @param jitterMs 抖动幅度，实际耗时在 baseMs ± jitterMs 之间。
+     * @param spikeInterval 每多少帧注入一次尖峰，0表示不注入。
+     * @param spikeMs 尖峰帧额外增加的耗时。
+     */
+    static LatencyModel synthetic(long baseMs, long jitterMs, int spikeInterval, long spikeMs, long seed) {
+        Random random = new Random(seed);
+        long[] count = {0};
+        return () -> {
+            long latency = baseMs;
+            if (jitterMs > 0) {
+                latency += (long) ((random.nextDouble() * 2 - 1) * jitterMs);
+            }
+            if (spikeInterval > 0 && ++count[0] % spikeInterval == 0) {
+                latency += spikeMs;
+            }
+            return Math.max(0, latency);
+        };
+    }
+}
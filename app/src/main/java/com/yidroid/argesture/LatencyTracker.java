@@ -0,0 +1,47 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/LatencyTracker.java
+// 描述: 轻量的耗时统计工具，按固定样本数周期性输出平均值和最大值。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.util.Log;
+
+import java.util.Locale;
+
+public class LatencyTracker {
+
+    private static final String TAG = "LatencyTracker";
+
+    private final String name;
+    private final int reportInterval;
+    private long sampleCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * @param name 统计项名称，会出现在日志中。
+     * @param reportInterval 每累计多少个样本输出一次日志。
+     */
+    public LatencyTracker(String name, int reportInterval) {
+        this.name = name;
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * 记录一个耗时样本。
+     * @param nanos 耗时（纳秒）。
+     */
+    public synchronized void record(long nanos) {
+        if (nanos < 0) return;
+        sampleCount++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+        if (sampleCount >= reportInterval) {
+            Log.d(TAG, String.format(Locale.US, "%s: avg=%.3f ms, max=%.3f ms, n=%d",
+                    name, totalNanos / 1e6 / sampleCount, maxNanos / 1e6, sampleCount));
+            sampleCount = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+    }
+}
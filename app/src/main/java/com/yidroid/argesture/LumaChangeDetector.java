@@ -0,0 +1,104 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/LumaChangeDetector.java
+// 描述: 基于Y平面粗网格的画面变化检测器。每个网格单元取稀疏采样的平均亮度，
+//       与上一帧比较平均绝对差（SAD）。整个过程不分配内存。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.nio.ByteBuffer;
+
+public class LumaChangeDetector {
+
+    /**
+     * 每个网格单元内每个方向上的采样点数。
+     */
+    private static final int SAMPLES_PER_CELL = 4;
+
+    private final int gridColumns;
+    private final int gridRows;
+    private final int[] previousCells;
+    private final int[] currentCells;
+    private boolean hasPrevious = false;
+
+    /**
+     * @param gridColumns 网格列数。
+     * @param gridRows 网格行数。
+     */
+    public LumaChangeDetector(int gridColumns, int gridRows) {
+        this.gridColumns = gridColumns;
+        this.gridRows = gridRows;
+        this.previousCells = new int[gridColumns * gridRows];
+        this.currentCells = new int[gridColumns * gridRows];
+    }
+
+    /**
+     * 计算当前帧与上一帧之间的变化量，并将当前帧作为新的参考帧。
+     * @param yBuffer Y平面数据。
+     * @param rowStride Y平面的行跨度。
+     * @param pixelStride Y平面的像素跨度。
+     * @param width 图像宽度。
+     * @param height 图像高度。
+     * @return 网格单元平均亮度的平均绝对差（0-255）；第一帧没有参考，返回0。
+     */
+    public float update(ByteBuffer yBuffer, int rowStride, int pixelStride, int width, int height) {
+        sampleCells(yBuffer, rowStride, pixelStride, width, height, currentCells);
+        float change = hasPrevious ? meanAbsoluteDifference(currentCells, previousCells) : 0f;
+        System.arraycopy(currentCells, 0, previousCells, 0, currentCells.length);
+        hasPrevious = true;
+        return change;
+    }
+
+    /**
+     * 计算当前帧与参考帧之间的变化量，但不更新参考帧。
+     * 需要时调用 {@link #acceptCurrent()} 将该帧设为新的参考帧。
+     * @return 网格单元平均亮度的平均绝对差（0-255）；尚无参考帧时返回 Float.MAX_VALUE。
+     */
+    public float compare(ByteBuffer yBuffer, int rowStride, int pixelStride, int width, int height) {
+        sampleCells(yBuffer, rowStride, pixelStride, width, height, currentCells);
+        return hasPrevious ? meanAbsoluteDifference(currentCells, previousCells) : Float.MAX_VALUE;
+    }
+
+    /**
+     * 将最近一次 {@link #compare} 采样的帧设为参考帧。
+     */
+    public void acceptCurrent() {
+        System.arraycopy(currentCells, 0, previousCells, 0, currentCells.length);
+        hasPrevious = true;
+    }
+
+    /**
+     * 丢弃参考帧，下一次调用 {@link #update} 将重新建立参考。
+     */
+    public void reset() {
+        hasPrevious = false;
+    }
+
+    private void sampleCells(ByteBuffer yBuffer, int rowStride, int pixelStride, int width, int height, int[] cells) {
+        int cellWidth = width / gridColumns;
+        int cellHeight = height / gridRows;
+        int stepX = Math.max(1, cellWidth / SAMPLES_PER_CELL);
+        int stepY = Math.max(1, cellHeight / SAMPLES_PER_CELL);
+        for (int row = 0; row < gridRows; row++) {
+            int top = row * cellHeight + stepY / 2;
+            for (int col = 0; col < gridColumns; col++) {
+                int left = col * cellWidth + stepX / 2;
+                int sum = 0;
+                for (int sy = 0; sy < SAMPLES_PER_CELL; sy++) {
+                    int rowOffset = (top + sy * stepY) * rowStride;
+                    for (int sx = 0; sx < SAMPLES_PER_CELL; sx++) {
+                        sum += yBuffer.get(rowOffset + (left + sx * stepX) * pixelStride) & 0xFF;
+                    }
+                }
+                cells[row * gridColumns + col] = sum / (SAMPLES_PER_CELL * SAMPLES_PER_CELL);
+            }
+        }
+    }
+
+    private static float meanAbsoluteDifference(int[] a, int[] b) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += Math.abs(a[i] - b[i]);
+        }
+        return (float) sum / a.length;
+    }
+}
@@ -0,0 +1,54 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/Nv21Converter.java
+// 描述: NV21到ARGB的转换，同时把画面旋转到屏幕方向。与相机路径的 YuvToRgbConverter 加旋转矩阵
+//       结果一致（BT.601 有限范围），但不依赖 RenderScript 和 Bitmap，可在桌面JVM上运行。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.nio.ByteBuffer;
+
+public final class Nv21Converter {
+
+    private Nv21Converter() {
+    }
+
+    /**
+     * @param nv21 一帧NV21数据，从当前位置开始读取，不改变缓冲区的位置。
+     * @param width 传感器方向的画面宽度。
+     * @param height 传感器方向的画面高度。
+     * @param rotationDegrees 顺时针旋转角度（0、90、180、270）。
+     * @param out 输出的ARGB像素，旋转后按行存放；旋转90或270度时行宽为 height。
+     */
+    public static void toArgb(ByteBuffer nv21, int width, int height, int rotationDegrees, int[] out) {
+        int base = nv21.position();
+        int uvBase = base + width * height;
+        int rotatedWidth = rotationDegrees == 90 || rotationDegrees == 270 ? height : width;
+        for (int y = 0; y < height; y++) {
+            int yRow = base + y * width;
+            int uvRow = uvBase + (y >> 1) * width;
+            for (int x = 0; x < width; x++) {
+                int luma = (nv21.get(yRow + x) & 0xFF) - 16;
+                int uvIndex = uvRow + (x & ~1);
+                int v = (nv21.get(uvIndex) & 0xFF) - 128;
+                int u = (nv21.get(uvIndex + 1) & 0xFF) - 128;
+                int c = 1192 * Math.max(luma, 0);
+                int r = clamp((c + 1634 * v) >> 10);
+                int g = clamp((c - 833 * v - 400 * u) >> 10);
+                int b = clamp((c + 2066 * u) >> 10);
+
+                int dx, dy;
+                switch (rotationDegrees) {
+                    case 90: dx = height - 1 - y; dy = x; break;
+                    case 180: dx = width - 1 - x; dy = height - 1 - y; break;
+                    case 270: dx = y; dy = width - 1 - x; break;
+                    default: dx = x; dy = y; break;
+                }
+                out[dy * rotatedWidth + dx] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+}
@@ -0,0 +1,100 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/Nv21FileReader.java
+// 描述: 以内存映射方式读取磁盘上连续存放的NV21帧序列（无文件头，每帧 width*height*3/2 字节）。
+//       读取帧不复制数据，只返回映射区域的切片。纯Java实现，可在桌面JVM上使用。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class Nv21FileReader implements Closeable {
+
+    private final int width;
+    private final int height;
+    private final int frameSize;
+    private final int frameCount;
+    private final int framesPerChunk;
+    private final RandomAccessFile file;
+    /**
+     * 单个映射区域不能超过2GB，大文件按整数帧分段映射。
+     */
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * @throws IOException 文件无法打开，或长度不足一帧。
+     */
+    public Nv21FileReader(File path, int width, int height) throws IOException {
+        this(path, width, height, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxChunkBytes 单个映射区域的最大字节数，测试用较小的值覆盖分段映射。
+     */
+    Nv21FileReader(File path, int width, int height, int maxChunkBytes) throws IOException {
+        if (width <= 0 || height <= 0 || (width & 1) != 0 || (height & 1) != 0) {
+            throw new IllegalArgumentException("NV21 frame size must be positive and even: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.frameSize = width * height * 3 / 2;
+        this.file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            long frames = channel.size() / frameSize;
+            if (frames == 0) {
+                throw new IOException("File shorter than one " + width + "x" + height + " NV21 frame: " + path);
+            }
+            this.frameCount = (int) Math.min(frames, Integer.MAX_VALUE);
+            this.framesPerChunk = maxChunkBytes / frameSize;
+            if (framesPerChunk == 0) {
+                throw new IllegalArgumentException("Chunk of " + maxChunkBytes + " bytes cannot hold one frame");
+            }
+            this.chunks = new MappedByteBuffer[(frameCount + framesPerChunk - 1) / framesPerChunk];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i * framesPerChunk * frameSize;
+                long length = (long) Math.min(framesPerChunk, frameCount - i * framesPerChunk) * frameSize;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return 第 index 帧的只读切片：前 width*height 字节为Y平面，之后为交错的VU平面。
+     */
+    public ByteBuffer frame(int index) {
+        if (index < 0 || index >= frameCount) {
+            throw new IndexOutOfBoundsException("Frame " + index + " of " + frameCount);
+        }
+        ByteBuffer chunk = chunks[index / framesPerChunk].duplicate();
+        int offset = (index % framesPerChunk) * frameSize;
+        chunk.position(offset);
+        chunk.limit(offset + frameSize);
+        return chunk.slice();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -17,14 +17,13 @@ import androidx.annotation.Nullable;
 import com.google.mediapipe.tasks.components.containers.Connection;
 import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
 import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarker;
-import com.google.mediapipe.tasks.vision.handlandmarker.HandLandmarkerResult;
 
 import java.util.List;
 import java.util.Set;
 
 public class OverlayView extends View {
 
-    private HandLandmarkerResult results;
+    private HandResult results;
     private final Paint pointPaint;
     private final Paint linePaint;
     private int imageWidth;
@@ -44,7 +43,7 @@ public class OverlayView extends View {
         linePaint.setStrokeWidth(4f);
     }
 
-    public void setResults(HandLandmarkerResult results, int imageWidth, int imageHeight, int cameraFacing) {
+    public void setResults(HandResult results, int imageWidth, int imageHeight, int cameraFacing) {
         this.results = results;
         this.imageWidth = imageWidth;
         this.imageHeight = imageHeight;
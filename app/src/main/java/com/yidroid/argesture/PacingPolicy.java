@@ -0,0 +1,31 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/PacingPolicy.java
+// 描述: 同步推理模式下的帧节奏策略：新帧到达时决定放入队列、丢弃新帧还是替换最旧的帧。
+//       由 FrameQueue 在相机线程上调用，实现不应阻塞。
+// =================================================================================
+package com.yidroid.argesture;
+
+public interface PacingPolicy {
+
+    enum Decision {
+        /**
+         * 放入队列；队列已满时按 REJECT 处理。
+         */
+        ENQUEUE,
+        /**
+         * 丢弃新到达的帧。
+         */
+        REJECT,
+        /**
+         * 队列已满时丢弃最旧的帧，再放入新帧。
+         */
+        REPLACE_OLDEST
+    }
+
+    /**
+     * @param nowMs 当前时间（uptimeMillis）。
+     * @param queued 队列中等待推理的帧数。
+     * @param capacity 队列容量。
+     */
+    Decision onOffer(long nowMs, int queued, int capacity);
+}
@@ -0,0 +1,160 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/PinchPredictor.java
+// 描述: 捏合闭合预测。跟踪三指指尖之间最大距离的闭合速度和趋势，预测即将捏合时
+//       预先取出点击目标，使多帧投票确认后的点击不必再查找控件；预测落空时丢弃目标。
+//       预测本身从不点击，点击仍由投票和冷却决定。不分配内存。
+// =================================================================================
+package com.yidroid.argesture;
+
+public class PinchPredictor {
+
+    public static final int ACTION_NONE = 0;
+    /**
+     * 预测即将捏合：选定点击目标。
+     */
+    public static final int ACTION_PRESS = 1;
+    /**
+     * 距离到达捏合阈值，等待多帧投票确认。
+     */
+    public static final int ACTION_COMMIT = 2;
+    /**
+     * 预测落空：丢弃目标，不产生点击。
+     */
+    public static final int ACTION_CANCEL = 3;
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_PRESSED = 1;
+    private static final int STATE_COMMITTED = 2;
+
+    /**
+     * 拟合闭合速度使用的采样数，也是判断单调闭合趋势的帧数。
+     */
+    private static final int HISTORY = 4;
+    /**
+     * 只在距离小于捏合阈值的该倍数时才做预测，远处的快速移动不算闭合。
+     */
+    private static final float PREDICT_RANGE = 1.8f;
+    /**
+     * 最低闭合速度（归一化坐标/秒），低于此值不预测。
+     */
+    private static final float MIN_CLOSING_SPEED = 0.15f;
+
+    private final float[] distances = new float[HISTORY];
+    private final long[] times = new long[HISTORY];
+    private int head = 0;
+    private int count = 0;
+
+    private int state = STATE_IDLE;
+    private long pressedAtMs;
+
+    /**
+     * 输入一帧的指尖距离。
+     * @param distance 三指指尖两两距离中的最大值（归一化坐标）。
+     * @param timestampMs 该帧的时间戳。
+     * @param threshold 捏合阈值。
+     * @param releaseThreshold 松开阈值。
+     * @param horizonMs 预测在该时间内到达阈值时才按下。
+     * @param timeoutMs 按下后超过该时间仍未捏合则取消。
+     * @return 本帧需要执行的动作。
+     */
+    public int update(float distance, long timestampMs, float threshold, float releaseThreshold,
+                      long horizonMs, long timeoutMs) {
+        if (count > 0 && timestampMs <= times[(head + count - 1) % HISTORY]) return ACTION_NONE;
+        push(distance, timestampMs);
+
+        switch (state) {
+            case STATE_IDLE:
+                if (distance < threshold || distance > threshold * PREDICT_RANGE || count < HISTORY) {
+                    return ACTION_NONE;
+                }
+                float speed = closingSpeed();
+                if (speed < MIN_CLOSING_SPEED || !isMonotonicallyClosing()) return ACTION_NONE;
+                float timeToCloseMs = (distance - threshold) / speed * 1000f;
+                if (timeToCloseMs > horizonMs) return ACTION_NONE;
+                state = STATE_PRESSED;
+                pressedAtMs = timestampMs;
+                return ACTION_PRESS;
+            case STATE_PRESSED:
+                if (distance < threshold) {
+                    state = STATE_COMMITTED;
+                    return ACTION_COMMIT;
+                }
+                if (timestampMs - pressedAtMs > timeoutMs || closingSpeed() < 0f) {
+                    state = STATE_IDLE;
+                    return ACTION_CANCEL;
+                }
+                return ACTION_NONE;
+            case STATE_COMMITTED:
+                if (distance > releaseThreshold) state = STATE_IDLE;
+                return ACTION_NONE;
+            default:
+                return ACTION_NONE;
+        }
+    }
+
+    /**
+     * @return 是否处于预测按下、尚未完成的状态。
+     */
+    public boolean isPressed() {
+        return state == STATE_PRESSED;
+    }
+
+    /**
+     * @return 预测的捏合是否已到达阈值，尚未松开。
+     */
+    public boolean isCommitted() {
+        return state == STATE_COMMITTED;
+    }
+
+    /**
+     * 清空历史。调用前处于按下状态时返回 true，调用方需要取消按下。
+     */
+    public boolean reset() {
+        boolean wasPressed = state == STATE_PRESSED;
+        state = STATE_IDLE;
+        head = 0;
+        count = 0;
+        return wasPressed;
+    }
+
+    private void push(float distance, long timestampMs) {
+        int index;
+        if (count == HISTORY) {
+            index = head;
+            head = (head + 1) % HISTORY;
+        } else {
+            index = (head + count) % HISTORY;
+            count++;
+        }
+        distances[index] = distance;
+        times[index] = timestampMs;
+    }
+
+    /**
+     * 最小二乘拟合距离随时间的斜率，返回其相反数（闭合为正）。
+     */
+    private float closingSpeed() {
+        if (count < 2) return 0f;
+        long origin = times[head];
+        float sumT = 0f, sumD = 0f, sumTT = 0f, sumTD = 0f;
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) % HISTORY;
+            float t = (times[index] - origin) / 1000f;
+            float d = distances[index];
+            sumT += t;
+            sumD += d;
+            sumTT += t * t;
+            sumTD += t * d;
+        }
+        float denominator = count * sumTT - sumT * sumT;
+        if (denominator <= 0f) return 0f;
+        return -(count * sumTD - sumT * sumD) / denominator;
+    }
+
+    private boolean isMonotonicallyClosing() {
+        for (int i = 1; i < count; i++) {
+            if (distances[(head + i) % HISTORY] >= distances[(head + i - 1) % HISTORY]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/PointerBallistics.java
+// 描述: 相对光标模式的指针加速（类似桌面鼠标的 ballistics）。按关节点时间戳计算指尖速度，
+//       增益随速度在最小值和最大值之间平滑过渡：慢速移动精细定位，快速移动用很小的手臂
+//       位移跨越整个屏幕。离合（张开手掌）期间光标不动，松开后从手的新位置继续，不跳变。
+//       纯Java实现，可在 PointerReplay 中离线重放。
+// =================================================================================
+package com.yidroid.argesture;
+
+public class PointerBallistics {
+
+    /**
+     * 相邻两个采样的间隔超过该值（毫秒）时视为手重新出现，不移动光标，只更新参考点。
+     */
+    private static final long MAX_SAMPLE_GAP_MS = 150;
+
+    private float minGain = 0.6f;
+    private float maxGain = 3.0f;
+    private float lowSpeed = 0.05f;
+    private float highSpeed = 0.8f;
+
+    private boolean hasReference = false;
+    private float lastX, lastY;
+    private long lastTimestampMs;
+
+    private float cursorX, cursorY;
+    private float lastSpeed, lastGain;
+
+    /**
+     * 设置加速曲线。
+     * @param minGain 速度不高于 lowSpeed 时的增益。
+     * @param maxGain 速度不低于 highSpeed 时的增益。
+     * @param lowSpeed 低速阈值（归一化坐标/秒）。
+     * @param highSpeed 高速阈值（归一化坐标/秒），须大于 lowSpeed。
+     */
+    public void configure(float minGain, float maxGain, float lowSpeed, float highSpeed) {
+        this.minGain = minGain;
+        this.maxGain = maxGain;
+        this.lowSpeed = lowSpeed;
+        this.highSpeed = highSpeed;
+    }
+
+    /**
+     * 把光标放到 (x, y)（像素），例如切换到相对模式时从当前光标位置开始。
+     */
+    public void setPosition(float x, float y) {
+        cursorX = x;
+        cursorY = y;
+    }
+
+    /**
+     * 丢弃参考点，下一个采样只作为新的参考点。手丢失时调用，光标位置保持不变。
+     */
+    public void reset() {
+        hasReference = false;
+        lastSpeed = 0f;
+    }
+
+    /**
+     * 输入一帧指尖位置并移动光标。
+     * @param x 指尖X坐标（归一化，已镜像）。
+     * @param y 指尖Y坐标（归一化）。
+     * @param timestampMs 关节点所属帧的时间戳。
+     * @param clutched 是否处于离合状态。
+     * @param unitScaleX 增益为1时每个归一化单位对应的像素数，与绝对模式的映射一致。
+     * @param unitScaleY 同上，Y方向。
+     * @param maxX 光标X坐标上限（像素）。
+     * @param maxY 光标Y坐标上限（像素）。
+     */
+    public void update(float x, float y, long timestampMs, boolean clutched,
+                       float unitScaleX, float unitScaleY, float maxX, float maxY) {
+        if (hasReference && timestampMs <= lastTimestampMs) return;
+        boolean continuous = hasReference && timestampMs - lastTimestampMs <= MAX_SAMPLE_GAP_MS;
+        float dx = x - lastX, dy = y - lastY;
+        float dt = (timestampMs - lastTimestampMs) / 1000f;
+        hasReference = true;
+        lastX = x;
+        lastY = y;
+        lastTimestampMs = timestampMs;
+        if (!continuous || clutched) {
+            lastSpeed = 0f;
+            return;
+        }
+        lastSpeed = (float) Math.sqrt(dx * dx + dy * dy) / dt;
+        lastGain = gainFor(lastSpeed);
+        cursorX = clamp(cursorX + dx * lastGain * unitScaleX, maxX);
+        cursorY = clamp(cursorY + dy * lastGain * unitScaleY, maxY);
+    }
+
+    /**
+     * 加速曲线：速度在 [lowSpeed, highSpeed] 内时用 smoothstep 在两个增益之间过渡，两端斜率为0，
+     * 速度在阈值附近波动时增益不会突变。
+     */
+    public float gainFor(float speed) {
+        float t = (speed - lowSpeed) / (highSpeed - lowSpeed);
+        if (t <= 0f) return minGain;
+        if (t >= 1f) return maxGain;
+        return minGain + (maxGain - minGain) * t * t * (3f - 2f * t);
+    }
+
+    public float getX() {
+        return cursorX;
+    }
+
+    public float getY() {
+        return cursorY;
+    }
+
+    /**
+     * @return 最近一帧的指尖速度（归一化坐标/秒）。
+     */
+    public float getLastSpeed() {
+        return lastSpeed;
+    }
+
+    public float getLastGain() {
+        return lastGain;
+    }
+
+    private static float clamp(float value, float max) {
+        return value < 0f ? 0f : (value > max ? max : value);
+    }
+}
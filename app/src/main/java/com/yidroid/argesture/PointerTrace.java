@@ -0,0 +1,156 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/PointerTrace.java
+// 描述: 指尖轨迹记录：每帧的时间戳、归一化指尖坐标和离合状态，以及每次点击的目标边界，
+//       连同录制时的绝对映射参数一起保存为CSV，供 PointerReplay 离线重放。
+//       预先分配固定容量，写满后停止记录。所有方法可在不同线程调用。
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Locale;
+
+public class PointerTrace {
+
+    public static final int FLAG_CLUTCH = 1;
+    public static final int FLAG_CLICK = 2;
+
+    private static final String HEADER = "timestamp_ms,x,y,flags,left,top,right,bottom";
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final float[] xs, ys;
+    private final int[] flags;
+    /**
+     * 每个采样4个值：点击目标的 left, top, right, bottom；非点击采样为0。
+     */
+    private final int[] targets;
+    private int size = 0;
+
+    // --- 录制时的绝对映射：屏幕像素 = 偏移 + 归一化坐标 × 缩放 ---
+    private int screenWidth, screenHeight;
+    private float scaleX, scaleY, offsetX, offsetY;
+
+    public PointerTrace(int capacity) {
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.xs = new float[capacity];
+        this.ys = new float[capacity];
+        this.flags = new int[capacity];
+        this.targets = new int[capacity * 4];
+    }
+
+    public synchronized void setMapping(int screenWidth, int screenHeight, float scaleX, float scaleY,
+                                        float offsetX, float offsetY) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     * 记录一帧。
+     * @return 已写满时返回 false。
+     */
+    public synchronized boolean record(long timestampMs, float x, float y, boolean clutched) {
+        if (size == capacity) return false;
+        timestamps[size] = timestampMs;
+        xs[size] = x;
+        ys[size] = y;
+        flags[size] = clutched ? FLAG_CLUTCH : 0;
+        int t = size * 4;
+        targets[t] = targets[t + 1] = targets[t + 2] = targets[t + 3] = 0;
+        size++;
+        return true;
+    }
+
+    /**
+     * 把最近一帧标记为点击，并记录点击目标的边界（没有目标时传入全0）。
+     */
+    public synchronized void markClick(int left, int top, int right, int bottom) {
+        if (size == 0) return;
+        int index = size - 1;
+        flags[index] |= FLAG_CLICK;
+        int t = index * 4;
+        targets[t] = left;
+        targets[t + 1] = top;
+        targets[t + 2] = right;
+        targets[t + 3] = bottom;
+    }
+
+    public synchronized void clear() {
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getTimestamp(int i) { return timestamps[i]; }
+    public synchronized float getX(int i) { return xs[i]; }
+    public synchronized float getY(int i) { return ys[i]; }
+    public synchronized int getFlags(int i) { return flags[i]; }
+    public synchronized int getTarget(int i, int edge) { return targets[i * 4 + edge]; }
+    public synchronized int getScreenWidth() { return screenWidth; }
+    public synchronized int getScreenHeight() { return screenHeight; }
+    public synchronized float getScaleX() { return scaleX; }
+    public synchronized float getScaleY() { return scaleY; }
+    public synchronized float getOffsetX() { return offsetX; }
+    public synchronized float getOffsetY() { return offsetY; }
+
+    public synchronized void writeTo(Writer writer) throws IOException {
+        writer.write(String.format(Locale.US, "# screen=%d,%d scale=%f,%f offset=%f,%f\n",
+                screenWidth, screenHeight, scaleX, scaleY, offsetX, offsetY));
+        writer.write(HEADER);
+        writer.write('\n');
+        for (int i = 0; i < size; i++) {
+            int t = i * 4;
+            writer.write(String.format(Locale.US, "%d,%.5f,%.5f,%d,%d,%d,%d,%d\n", timestamps[i], xs[i], ys[i], flags[i],
+                    targets[t], targets[t + 1], targets[t + 2], targets[t + 3]));
+        }
+        writer.flush();
+    }
+
+    /**
+     * 读取 {@link #writeTo(Writer)} 写出的CSV。
+     * @throws IOException 格式不正确时。
+     */
+    public static PointerTrace read(Reader reader, int capacity) throws IOException {
+        PointerTrace trace = new PointerTrace(capacity);
+        BufferedReader in = new BufferedReader(reader);
+        String line;
+        try {
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("# ")) {
+                    for (String part : line.substring(2).split(" ")) {
+                        String[] kv = part.split("=");
+                        String[] v = kv[1].split(",");
+                        switch (kv[0]) {
+                            case "screen": trace.screenWidth = Integer.parseInt(v[0]); trace.screenHeight = Integer.parseInt(v[1]); break;
+                            case "scale": trace.scaleX = Float.parseFloat(v[0]); trace.scaleY = Float.parseFloat(v[1]); break;
+                            case "offset": trace.offsetX = Float.parseFloat(v[0]); trace.offsetY = Float.parseFloat(v[1]); break;
+                            default: break;
+                        }
+                    }
+                    continue;
+                }
+                if (line.isEmpty() || line.equals(HEADER)) continue;
+                String[] f = line.split(",");
+                if (!trace.record(Long.parseLong(f[0]), Float.parseFloat(f[1]), Float.parseFloat(f[2]),
+                        (Integer.parseInt(f[3]) & FLAG_CLUTCH) != 0)) {
+                    break;
+                }
+                if ((Integer.parseInt(f[3]) & FLAG_CLICK) != 0) {
+                    trace.markClick(Integer.parseInt(f[4]), Integer.parseInt(f[5]), Integer.parseInt(f[6]), Integer.parseInt(f[7]));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed pointer trace", e);
+        }
+        return trace;
+    }
+}
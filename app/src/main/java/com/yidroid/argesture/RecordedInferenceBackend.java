@@ -0,0 +1,13 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/RecordedInferenceBackend.java
+// 描述: 回放录制结果的推理后端：结果和每帧推理耗时都取自录制文件（见 RecordedLandmarks），
+//       可在没有模型的环境中按真机的耗时分布复现一段交互。
+// =================================================================================
+package com.yidroid.argesture;
+
+public class RecordedInferenceBackend extends ScriptedInferenceBackend {
+
+    public RecordedInferenceBackend(RecordedLandmarks recording, FramePool framePool, Listener listener) {
+        super("RECORDED", recording.script(), recording.latencies(), framePool, listener);
+    }
+}
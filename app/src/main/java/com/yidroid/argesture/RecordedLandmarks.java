@@ -0,0 +1,148 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/RecordedLandmarks.java
+// 描述: 录制的推理结果序列，文本格式，每行一帧，以空白分隔：
+//         耗时毫秒 手数 [分类名 分类索引 分数 x0 y0 z0 ... x20 y20 z20]...
+//       以 # 开头的行为注释。可由服务在使用MediaPipe时录制，也可手工编写作为关节点脚本。
+//       回放时循环播放，结果和耗时各自按帧顺序取用。纯Java实现，可在桌面JVM上使用。
+// =================================================================================
+package com.yidroid.argesture;
+
+import com.google.mediapipe.tasks.components.containers.Category;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecordedLandmarks {
+
+    public static final int LANDMARKS_PER_HAND = 21;
+
+    private final List<HandResult> results;
+    private final long[] latenciesMs;
+
+    private RecordedLandmarks(List<HandResult> results, long[] latenciesMs) {
+        this.results = results;
+        this.latenciesMs = latenciesMs;
+    }
+
+    /**
+     * @throws IOException 文件无法读取、格式错误或不包含任何帧。
+     */
+    public static RecordedLandmarks read(File path) throws IOException {
+        List<HandResult> results = new ArrayList<>();
+        List<Long> latencies = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                try {
+                    String[] tokens = line.split("\\s+");
+                    latencies.add(Long.parseLong(tokens[0]));
+                    results.add(parseHands(tokens));
+                } catch (RuntimeException e) {
+                    throw new IOException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        if (results.isEmpty()) {
+            throw new IOException("No frames in " + path);
+        }
+        long[] latenciesMs = new long[latencies.size()];
+        for (int i = 0; i < latenciesMs.length; i++) {
+            latenciesMs[i] = latencies.get(i);
+        }
+        return new RecordedLandmarks(results, latenciesMs);
+    }
+
+    private static HandResult parseHands(String[] tokens) {
+        int handCount = Integer.parseInt(tokens[1]);
+        int perHand = 3 + LANDMARKS_PER_HAND * 3;
+        if (handCount < 0 || tokens.length != 2 + handCount * perHand) {
+            throw new IllegalArgumentException("Expected " + handCount + " hands of " + perHand + " fields");
+        }
+        List<List<NormalizedLandmark>> landmarks = new ArrayList<>(handCount);
+        List<List<Category>> handedness = new ArrayList<>(handCount);
+        int t = 2;
+        for (int hand = 0; hand < handCount; hand++) {
+            String name = tokens[t++];
+            int index = Integer.parseInt(tokens[t++]);
+            float score = Float.parseFloat(tokens[t++]);
+            List<Category> categories = new ArrayList<>(1);
+            categories.add(Category.create(score, index, name, name));
+            handedness.add(categories);
+            List<NormalizedLandmark> points = new ArrayList<>(LANDMARKS_PER_HAND);
+            for (int i = 0; i < LANDMARKS_PER_HAND; i++) {
+                points.add(NormalizedLandmark.create(Float.parseFloat(tokens[t]), Float.parseFloat(tokens[t + 1]),
+                        Float.parseFloat(tokens[t + 2])));
+                t += 3;
+            }
+            landmarks.add(points);
+        }
+        return new HandResult(landmarks, handedness, 0);
+    }
+
+    /**
+     * 以 read() 可解析的格式追加一帧。关节点不足21个的手不写入。
+     */
+    public static void append(Writer writer, HandResult result, long latencyMs) throws IOException {
+        StringBuilder line = new StringBuilder(1024);
+        int handCount = 0;
+        for (List<NormalizedLandmark> hand : result.landmarks()) {
+            if (hand.size() >= LANDMARKS_PER_HAND) handCount++;
+        }
+        line.append(latencyMs).append(' ').append(handCount);
+        for (int hand = 0; hand < result.landmarks().size(); hand++) {
+            List<NormalizedLandmark> points = result.landmarks().get(hand);
+            if (points.size() < LANDMARKS_PER_HAND) continue;
+            List<Category> categories = result.handedness().get(hand);
+            Category category = categories.isEmpty() ? Category.create(0f, -1, "Unknown", "Unknown") : categories.get(0);
+            line.append(' ').append(category.categoryName()).append(' ').append(category.index())
+                    .append(' ').append(category.score());
+            for (int i = 0; i < LANDMARKS_PER_HAND; i++) {
+                NormalizedLandmark point = points.get(i);
+                line.append(' ').append(point.x()).append(' ').append(point.y()).append(' ').append(point.z());
+            }
+        }
+        line.append('\n');
+        writer.write(line.toString());
+    }
+
+    public int getFrameCount() {
+        return results.size();
+    }
+
+    /**
+     * @return 循环播放录制结果的脚本，每次调用返回独立的播放位置。
+     */
+    public LandmarkScript script() {
+        int[] next = {0};
+        return timestampMs -> {
+            HandResult result = results.get(next[0]);
+            next[0] = (next[0] + 1) % results.size();
+            return result.withTimestamp(timestampMs);
+        };
+    }
+
+    /**
+     * @return 循环播放录制耗时的模型，每次调用返回独立的播放位置。
+     */
+    public LatencyModel latencies() {
+        int[] next = {0};
+        return () -> {
+            long latency = latenciesMs[next[0]];
+            next[0] = (next[0] + 1) % latenciesMs.length;
+            return Math.max(0, latency);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/RotationTransforms.java
+// 描述: 四个屏幕方向（Surface.ROTATION_0..270）之间的归一化坐标变换，类加载时一次性算好。
+//       某方向下旋转到屏幕方向的画面，与另一方向下的画面只差若干个90度，
+//       因此旋转前捕获、旋转后才处理的帧可以直接换算到当前方向，既不丢帧也不混用两个方向的坐标。
+// =================================================================================
+package com.yidroid.argesture;
+
+public final class RotationTransforms {
+
+    private static final int ROTATION_COUNT = 4;
+    /**
+     * 每对 (from, to) 一组仿射系数 {a, b, c, d, e, f}：x' = a·x + b·y + c，y' = d·x + e·y + f。
+     */
+    private static final float[][] TRANSFORMS = new float[ROTATION_COUNT * ROTATION_COUNT][];
+
+    static {
+        // 顺时针旋转 k 个90度后的归一化坐标（与 LandmarkFlowTracker 的约定一致）
+        float[][] quarterTurns = {
+                {1, 0, 0, 0, 1, 0},   // (x, y)
+                {0, -1, 1, 1, 0, 0},  // (1 - y, x)
+                {-1, 0, 1, 0, -1, 1}, // (1 - x, 1 - y)
+                {0, 1, 0, -1, 0, 1},  // (y, 1 - x)
+        };
+        for (int from = 0; from < ROTATION_COUNT; from++) {
+            for (int to = 0; to < ROTATION_COUNT; to++) {
+                // 画面旋转角 = 传感器方向 - 屏幕方向，两个方向的画面相差 (from - to) 个顺时针90度，与传感器方向无关
+                TRANSFORMS[from * ROTATION_COUNT + to] = quarterTurns[(from - to + ROTATION_COUNT) % ROTATION_COUNT];
+            }
+        }
+    }
+
+    private RotationTransforms() {
+    }
+
+    /**
+     * @return 屏幕方向对应的角度。
+     */
+    public static int toDegrees(int surfaceRotation) {
+        return (surfaceRotation & 3) * 90;
+    }
+
+    /**
+     * @return 两个方向的画面宽高是否互换。
+     */
+    public static boolean swapsAxes(int fromRotation, int toRotation) {
+        return ((fromRotation - toRotation) & 1) != 0;
+    }
+
+    /**
+     * 把 from 方向画面中的归一化坐标原地换算到 to 方向的画面。
+     * @param x X坐标数组。
+     * @param xOffset X坐标的起始下标。
+     * @param y Y坐标数组，可以与 x 是同一个数组（结构数组布局）。
+     * @param yOffset Y坐标的起始下标。
+     * @param count 点的数量。
+     */
+    public static void remap(int fromRotation, int toRotation, float[] x, int xOffset, float[] y, int yOffset, int count) {
+        if (fromRotation == toRotation) return;
+        float[] t = TRANSFORMS[(fromRotation & 3) * ROTATION_COUNT + (toRotation & 3)];
+        for (int i = 0; i < count; i++) {
+            float px = x[xOffset + i], py = y[yOffset + i];
+            x[xOffset + i] = t[0] * px + t[1] * py + t[2];
+            y[yOffset + i] = t[3] * px + t[4] * py + t[5];
+        }
+    }
+
+    /**
+     * 换算单个点的X坐标。
+     */
+    public static float remapX(int fromRotation, int toRotation, float x, float y) {
+        float[] t = TRANSFORMS[(fromRotation & 3) * ROTATION_COUNT + (toRotation & 3)];
+        return t[0] * x + t[1] * y + t[2];
+    }
+
+    /**
+     * 换算单个点的Y坐标。
+     */
+    public static float remapY(int fromRotation, int toRotation, float x, float y) {
+        float[] t = TRANSFORMS[(fromRotation & 3) * ROTATION_COUNT + (toRotation & 3)];
+        return t[3] * x + t[4] * y + t[5];
+    }
+}
@@ -0,0 +1,172 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/ScriptedInferenceBackend.java
+// 描述: 确定性的桩推理后端：不读取帧内容，按 LandmarkScript 逐帧给出结果，
+//       并按 LatencyModel 模拟推理耗时后在自有线程上回调。用于在没有模型和GPU的情况下，
+//       以高帧率或注入延迟尖峰的方式压测手势识别和事件分发流水线。
+//       模拟的推理器串行工作：上一帧未完成时新帧排队；与MediaPipe LIVE_STREAM一样，
+//       排队已满时丢弃新帧。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ScriptedInferenceBackend implements InferenceBackend {
+
+    private static final String TAG = "ScriptedInference";
+    private static final int REPORT_INTERVAL = 240;
+    /**
+     * 正在推理和排队等待的帧数上限，超出时丢弃新帧。
+     */
+    private static final int MAX_IN_FLIGHT = 2;
+
+    private final String name;
+    private final LandmarkScript script;
+    private final LatencyModel latencyModel;
+    private final FramePool framePool;
+    private final Listener listener;
+    private final ScheduledExecutorService executor;
+    private final LatencyTracker endToEndLatency;
+
+    private volatile boolean isClosed = false;
+    /**
+     * 已调度、尚未开始执行的回调，关闭时据此取消并归还其持有的帧。
+     */
+    private final List<Delivery> pending = new ArrayList<>(MAX_IN_FLIGHT);
+    private volatile long lastTimestampMs = -1;
+    /**
+     * 模拟的推理器空闲下来的时刻（System.nanoTime）。
+     */
+    private long busyUntilNanos = 0;
+    private int inFlight = 0;
+    private long submittedCount = 0;
+    private long droppedCount = 0;
+    private long resultCount = 0;
+
+    public ScriptedInferenceBackend(LandmarkScript script, LatencyModel latencyModel, FramePool framePool,
+                                    Listener listener) {
+        this("SCRIPTED", script, latencyModel, framePool, listener);
+    }
+
+    protected ScriptedInferenceBackend(String name, LandmarkScript script, LatencyModel latencyModel,
+                                       FramePool framePool, Listener listener) {
+        this.name = name;
+        this.script = script;
+        this.latencyModel = latencyModel;
+        this.framePool = framePool;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "ScriptedInference"));
+        this.endToEndLatency = new LatencyTracker("[" + name + "] submit to result", 100);
+    }
+
+    @Override
+    public void submit(FramePool.Frame frame) {
+        long timestampMs = Math.max(SystemClock.uptimeMillis(), lastTimestampMs + 1);
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (isClosed) {
+                framePool.release(frame);
+                return;
+            }
+            submittedCount++;
+            if (inFlight >= MAX_IN_FLIGHT) {
+                droppedCount++;
+                framePool.release(frame);
+                return;
+            }
+            inFlight++;
+        }
+        lastTimestampMs = timestampMs;
+        frame.timestampMs = timestampMs;
+        frame.submitNanos = now;
+        // 脚本和耗时都在提交线程上按帧顺序取得，与回调线程的调度无关
+        HandResult result = script.next(timestampMs).withTimestamp(timestampMs);
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyModel.nextLatencyMs());
+        busyUntilNanos = Math.max(now, busyUntilNanos) + latencyNanos;
+        Delivery delivery = new Delivery(result, frame);
+        synchronized (this) {
+            // 与 close() 互斥：关闭后不再调度，已调度的回调都在 pending 中
+            if (isClosed) {
+                framePool.release(frame);
+                return;
+            }
+            pending.add(delivery);
+            delivery.future = executor.schedule(delivery, busyUntilNanos - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 一次已调度的结果回调。开始执行后由自己归还帧；未开始执行就被取消的，由 close() 归还。
+     */
+    private final class Delivery implements Runnable {
+        final HandResult result;
+        final FramePool.Frame frame;
+        ScheduledFuture<?> future;
+
+        Delivery(HandResult result, FramePool.Frame frame) {
+            this.result = result;
+            this.frame = frame;
+        }
+
+        @Override
+        public void run() {
+            synchronized (ScriptedInferenceBackend.this) {
+                pending.remove(this);
+            }
+            deliver(result, frame);
+        }
+    }
+
+    private void deliver(HandResult result, FramePool.Frame frame) {
+        try {
+            if (isClosed) return;
+            endToEndLatency.record(System.nanoTime() - frame.submitNanos);
+            listener.onResults(result, frame);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Result delivery failed", e);
+            listener.onError(e.getMessage());
+        } finally {
+            framePool.release(frame);
+            onResultDelivered();
+        }
+    }
+
+    private synchronized void onResultDelivered() {
+        inFlight--;
+        resultCount++;
+        if (resultCount % REPORT_INTERVAL == 0) {
+            Log.d(TAG, String.format(Locale.US, "[%s] submitted=%d, results=%d, dropped=%d (%.1f%%)",
+                    name, submittedCount, resultCount, droppedCount, 100f * droppedCount / Math.max(1, submittedCount)));
+        }
+    }
+
+    /**
+     * 关闭后端，不阻塞调用线程。只归还取消成功（从未开始执行）的回调持有的帧；
+     * 正在执行的回调不再输出结果，并在结束时自行归还帧。
+     */
+    @Override
+    public void close() {
+        List<Delivery> cancelled = new ArrayList<>(MAX_IN_FLIGHT);
+        synchronized (this) {
+            isClosed = true;
+            for (Delivery delivery : pending) {
+                if (delivery.future.cancel(false)) {
+                    cancelled.add(delivery);
+                }
+            }
+            pending.clear();
+        }
+        executor.shutdown();
+        for (Delivery delivery : cancelled) {
+            framePool.release(delivery.frame);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/ScrollController.java
+// 描述: 连续滚动控制。整个滚动过程只保持一个按下的触摸笔画，按手部更新用
+//       StrokeDescription.continueStroke 逐段延续，抬起时按手速决定是否惯性滑动。
+//       同一时间最多只有一段笔画在分发中，期间到达的位置合并为最新的一个。
+//       笔画按住期间 GestureDispatcher 暂缓分发点击，避免点击打断延续。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.content.Context;
+import android.graphics.Path;
+import android.os.SystemClock;
+import android.util.Log;
+
+public class ScrollController {
+
+    private static final String TAG = "ScrollController";
+
+    /**
+     * 每段延续笔画的最短时长（毫秒）。
+     */
+    private static final long MIN_SEGMENT_MS = 16;
+    /**
+     * 惯性滑动时最后一段笔画的时长（毫秒），抬起速度即手的速度。
+     */
+    private static final long FLING_DURATION_MS = 30;
+    /**
+     * 不需要惯性滑动时，抬起前保持静止的时长（毫秒），使目标应用测得的抬起速度为0。
+     */
+    private static final long SETTLE_DURATION_MS = 60;
+
+    private final GestureDispatcher dispatcher;
+    private final GestureSettings settings;
+
+    private GestureDescription.StrokeDescription currentStroke;
+    /**
+     * 最近一次分发的手势。新手势会取消仍在进行的旧手势，旧手势的回调需要忽略。
+     */
+    private GestureDescription inFlightGesture;
+    private boolean isScrolling = false;
+    private boolean isSegmentInFlight = false;
+    private float lastX, lastY;
+    private long lastSegmentUptimeMs;
+
+    private boolean hasPendingTarget = false;
+    private float pendingX, pendingY;
+    private boolean isEndRequested = false;
+    private float endVelocityX, endVelocityY;
+
+    private final AccessibilityService.GestureResultCallback segmentCallback = new AccessibilityService.GestureResultCallback() {
+        @Override
+        public void onCompleted(GestureDescription gestureDescription) {
+            if (gestureDescription != inFlightGesture) return;
+            isSegmentInFlight = false;
+            dispatchNext();
+        }
+
+        @Override
+        public void onCancelled(GestureDescription gestureDescription) {
+            if (gestureDescription != inFlightGesture) return;
+            isSegmentInFlight = false;
+            Log.d(TAG, "Scroll stroke cancelled");
+            // 笔画已被系统中断，不能再延续；仍在滚动时从当前位置重新按下
+            currentStroke = null;
+            if (isEndRequested || !isScrolling) {
+                finish();
+            } else {
+                startStroke(hasPendingTarget ? pendingX : lastX, hasPendingTarget ? pendingY : lastY);
+            }
+        }
+    };
+
+    public ScrollController(Context context, GestureDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.settings = GestureSettings.getInstance(context);
+    }
+
+    /**
+     * 在 (x, y) 按下，开始一次连续滚动。必须在主线程调用。
+     */
+    public void begin(int x, int y) {
+        if (isScrolling) return;
+        isScrolling = true;
+        isEndRequested = false;
+        hasPendingTarget = false;
+        startStroke(clampX(x), clampY(y));
+    }
+
+    /**
+     * 更新手的最新位置。上一段笔画仍在分发时只记录位置，完成后再延续。
+     */
+    public void update(int x, int y) {
+        if (!isScrolling || isEndRequested) return;
+        pendingX = clampX(x);
+        pendingY = clampY(y);
+        hasPendingTarget = true;
+        if (!isSegmentInFlight) dispatchNext();
+    }
+
+    /**
+     * 结束滚动。手速超过阈值时以该速度抬起，触发目标应用的惯性滑动；否则静止后抬起。
+     */
+    public void end(int x, int y, float velocityX, float velocityY) {
+        if (!isScrolling || isEndRequested) return;
+        isEndRequested = true;
+        endVelocityX = velocityX;
+        endVelocityY = velocityY;
+        if (!isSegmentInFlight) dispatchNext();
+    }
+
+    /**
+     * 放弃当前滚动状态，不再分发后续笔画。
+     */
+    public void cancel() {
+        finish();
+    }
+
+    private void startStroke(float x, float y) {
+        Path path = new Path();
+        path.moveTo(x, y);
+        lastX = x;
+        lastY = y;
+        hasPendingTarget = false;
+        currentStroke = new GestureDescription.StrokeDescription(path, 0, MIN_SEGMENT_MS, true);
+        dispatch(currentStroke);
+    }
+
+    private void dispatchNext() {
+        if (currentStroke == null) return;
+        if (isEndRequested) {
+            dispatchEnd();
+        } else if (hasPendingTarget) {
+            dispatchSegment();
+        }
+    }
+
+    /**
+     * 从上一段的终点延续到最新位置，时长取两次更新之间的实际间隔，保持移动速度与手一致。
+     */
+    private void dispatchSegment() {
+        long now = SystemClock.uptimeMillis();
+        long duration = Math.max(MIN_SEGMENT_MS, Math.min(now - lastSegmentUptimeMs, settings.get().SCROLL_INTERVAL));
+        Path path = new Path();
+        path.moveTo(lastX, lastY);
+        path.lineTo(pendingX, pendingY);
+        lastX = pendingX;
+        lastY = pendingY;
+        hasPendingTarget = false;
+        currentStroke = currentStroke.continueStroke(path, 0, duration, true);
+        dispatch(currentStroke);
+    }
+
+    private void dispatchEnd() {
+        Path path = new Path();
+        path.moveTo(lastX, lastY);
+        long duration;
+        float speed = (float) Math.hypot(endVelocityX, endVelocityY);
+        if (speed >= settings.get().FLING_MIN_VELOCITY) {
+            float endX = clampX(lastX + endVelocityX * FLING_DURATION_MS / 1000f);
+            float endY = clampY(lastY + endVelocityY * FLING_DURATION_MS / 1000f);
+            path.lineTo(endX, endY);
+            duration = FLING_DURATION_MS;
+            Log.d(TAG, "Fling at " + (int) speed + " px/s");
+        } else {
+            duration = SETTLE_DURATION_MS;
+        }
+        GestureDescription.StrokeDescription last = currentStroke.continueStroke(path, 0, duration, false);
+        isScrolling = false;
+        currentStroke = null;
+        dispatch(last);
+    }
+
+    private void dispatch(GestureDescription.StrokeDescription stroke) {
+        GestureDescription gesture = new GestureDescription.Builder().addStroke(stroke).build();
+        inFlightGesture = gesture;
+        lastSegmentUptimeMs = SystemClock.uptimeMillis();
+        isSegmentInFlight = dispatcher.dispatch(gesture, segmentCallback);
+        if (!isSegmentInFlight) {
+            Log.w(TAG, "Failed to dispatch scroll stroke");
+            finish();
+        }
+    }
+
+    private void finish() {
+        isScrolling = false;
+        isEndRequested = false;
+        hasPendingTarget = false;
+        currentStroke = null;
+        // 不再延续按住的笔画，让排队等待的点击继续分发
+        dispatcher.releaseHeldStroke();
+    }
+
+    private float clampX(float x) {
+        return Math.max(0, Math.min(x, settings.get().SCREEN_WIDTH - 1));
+    }
+
+    private float clampY(float y) {
+        return Math.max(0, Math.min(y, settings.get().SCREEN_HEIGHT - 1));
+    }
+}
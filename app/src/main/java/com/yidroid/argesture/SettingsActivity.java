@@ -1,14 +1,93 @@
 // =================================================================================
 // 文件: app/src/main/java/com/yidroid/argesture/SettingsActivity.java
-// 描述: [新文件] 设置页面的Activity类（占位符）。
+// 描述: 设置页面。列出用户可调的参数，保存时校验并发布新的设置快照，同时写入
+//       SharedPreferences。正在运行的服务从下一帧开始使用新值，无需重启流水线；
+//       标注“重启服务后生效”的相机参数只在相机重新打开时读取。
 // =================================================================================
 package com.yidroid.argesture;
 
+import android.content.Intent;
 import android.os.Bundle;
+import android.text.InputType;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.Spinner;
+import android.widget.Switch;
+import android.widget.TextView;
+import android.widget.Toast;
+
 import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SettingsActivity extends AppCompatActivity {
+
+    /**
+     * 一个可编辑的设置项：从快照读出显示值，把输入写回 Builder。
+     */
+    private interface ValueReader {
+        String read(SettingsSnapshot snapshot);
+    }
+
+    private interface ValueWriter {
+        void write(SettingsSnapshot.Builder builder, String value);
+    }
+
+    private interface FlagReader {
+        boolean read(SettingsSnapshot snapshot);
+    }
+
+    private interface FlagWriter {
+        void write(SettingsSnapshot.Builder builder, boolean value);
+    }
+
+    private interface ChoiceWriter {
+        void write(SettingsSnapshot.Builder builder, int index);
+    }
+
+    private static final class NumberItem {
+        final String label;
+        final ValueWriter writer;
+        final EditText input;
+
+        NumberItem(String label, ValueWriter writer, EditText input) {
+            this.label = label;
+            this.writer = writer;
+            this.input = input;
+        }
+    }
+
+    private static final class FlagItem {
+        final FlagWriter writer;
+        final Switch toggle;
+
+        FlagItem(FlagWriter writer, Switch toggle) {
+            this.writer = writer;
+            this.toggle = toggle;
+        }
+    }
+
+    private static final class ChoiceItem {
+        final ChoiceWriter writer;
+        final Spinner spinner;
+
+        ChoiceItem(ChoiceWriter writer, Spinner spinner) {
+            this.writer = writer;
+            this.spinner = spinner;
+        }
+    }
+
+    private GestureSettings settings;
+    private LinearLayout list;
+    private final List<NumberItem> numberItems = new ArrayList<>();
+    private final List<FlagItem> flagItems = new ArrayList<>();
+    private final List<ChoiceItem> choiceItems = new ArrayList<>();
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -18,6 +97,168 @@ public class SettingsActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.settings_title);
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         }
+
+        settings = GestureSettings.getInstance(this);
+        list = findViewById(R.id.settings_list);
+        buildItems(settings.get());
+
+        Button saveButton = findViewById(R.id.btn_save_settings);
+        saveButton.setOnClickListener(v -> save());
+    }
+
+    private void buildItems(SettingsSnapshot s) {
+        addSection(R.string.settings_section_gesture);
+        addNumber(R.string.settings_pinch_threshold, s, c -> String.valueOf(c.PINCH_THRESHOLD), (b, v) -> b.PINCH_THRESHOLD = Double.parseDouble(v));
+        addNumber(R.string.settings_pinch_release_threshold, s, c -> String.valueOf(c.PINCH_RELEASE_THRESHOLD), (b, v) -> b.PINCH_RELEASE_THRESHOLD = Double.parseDouble(v));
+        addNumber(R.string.settings_fist_threshold, s, c -> String.valueOf(c.FIST_THRESHOLD), (b, v) -> b.FIST_THRESHOLD = Double.parseDouble(v));
+        addNumber(R.string.settings_fist_release_threshold, s, c -> String.valueOf(c.FIST_RELEASE_THRESHOLD), (b, v) -> b.FIST_RELEASE_THRESHOLD = Double.parseDouble(v));
+        addNumber(R.string.settings_pose_vote_required, s, c -> String.valueOf(c.POSE_VOTE_REQUIRED), (b, v) -> b.POSE_VOTE_REQUIRED = Integer.parseInt(v));
+        addNumber(R.string.settings_pose_vote_window, s, c -> String.valueOf(c.POSE_VOTE_WINDOW), (b, v) -> b.POSE_VOTE_WINDOW = Integer.parseInt(v));
+        addFlag(R.string.settings_predictive_click, s, c -> c.PREDICTIVE_CLICK_ENABLED, (b, v) -> b.PREDICTIVE_CLICK_ENABLED = v);
+        addNumber(R.string.settings_predictive_click_horizon, s, c -> String.valueOf(c.PREDICTIVE_CLICK_HORIZON_MS), (b, v) -> b.PREDICTIVE_CLICK_HORIZON_MS = Long.parseLong(v));
+        addNumber(R.string.settings_predictive_click_timeout, s, c -> String.valueOf(c.PREDICTIVE_CLICK_TIMEOUT_MS), (b, v) -> b.PREDICTIVE_CLICK_TIMEOUT_MS = Long.parseLong(v));
+        addNumber(R.string.settings_idle_timeout, s, c -> String.valueOf(c.IDLE_TIMEOUT_MS), (b, v) -> b.IDLE_TIMEOUT_MS = Long.parseLong(v));
+
+        addSection(R.string.settings_section_filter);
+        addNumber(R.string.settings_min_cutoff, s, c -> String.valueOf(c.SKELETON_MIN_CUTOFF_HZ), (b, v) -> b.SKELETON_MIN_CUTOFF_HZ = Float.parseFloat(v));
+        addNumber(R.string.settings_tip_min_cutoff, s, c -> String.valueOf(c.SKELETON_TIP_MIN_CUTOFF_HZ), (b, v) -> b.SKELETON_TIP_MIN_CUTOFF_HZ = Float.parseFloat(v));
+        addNumber(R.string.settings_beta, s, c -> String.valueOf(c.SKELETON_BETA), (b, v) -> b.SKELETON_BETA = Float.parseFloat(v));
+
+        addSection(R.string.settings_section_snap);
+        addFlag(R.string.settings_snap_enabled, s, c -> c.SNAP_ENABLED, (b, v) -> b.SNAP_ENABLED = v);
+        addNumber(R.string.settings_snap_radius, s, c -> String.valueOf(c.SNAP_RADIUS_PX), (b, v) -> b.SNAP_RADIUS_PX = Integer.parseInt(v));
+        addNumber(R.string.settings_snap_stickiness, s, c -> String.valueOf(c.SNAP_STICKINESS_PX), (b, v) -> b.SNAP_STICKINESS_PX = Integer.parseInt(v));
+
+        addSection(R.string.settings_section_relative_cursor);
+        addFlag(R.string.settings_relative_cursor_enabled, s, c -> c.RELATIVE_CURSOR_ENABLED, (b, v) -> b.RELATIVE_CURSOR_ENABLED = v);
+        addNumber(R.string.settings_min_gain, s, c -> String.valueOf(c.BALLISTICS_MIN_GAIN), (b, v) -> b.BALLISTICS_MIN_GAIN = Float.parseFloat(v));
+        addNumber(R.string.settings_max_gain, s, c -> String.valueOf(c.BALLISTICS_MAX_GAIN), (b, v) -> b.BALLISTICS_MAX_GAIN = Float.parseFloat(v));
+        addNumber(R.string.settings_low_speed, s, c -> String.valueOf(c.BALLISTICS_LOW_SPEED), (b, v) -> b.BALLISTICS_LOW_SPEED = Float.parseFloat(v));
+        addNumber(R.string.settings_high_speed, s, c -> String.valueOf(c.BALLISTICS_HIGH_SPEED), (b, v) -> b.BALLISTICS_HIGH_SPEED = Float.parseFloat(v));
+        addFlag(R.string.settings_pointer_trace, s, c -> c.POINTER_TRACE_ENABLED, (b, v) -> b.POINTER_TRACE_ENABLED = v);
+
+        addSection(R.string.settings_section_dispatch);
+        addNumber(R.string.settings_click_debounce, s, c -> String.valueOf(c.CLICK_DEBOUNCE), (b, v) -> b.CLICK_DEBOUNCE = Long.parseLong(v));
+        addNumber(R.string.settings_home_debounce, s, c -> String.valueOf(c.HOME_DEBOUNCE), (b, v) -> b.HOME_DEBOUNCE = Long.parseLong(v));
+        addNumber(R.string.settings_back_debounce, s, c -> String.valueOf(c.BACK_DEBOUNCE), (b, v) -> b.BACK_DEBOUNCE = Long.parseLong(v));
+        addNumber(R.string.settings_tap_duration, s, c -> String.valueOf(c.TAP_DURATION_MS), (b, v) -> b.TAP_DURATION_MS = Long.parseLong(v));
+        addFlag(R.string.settings_node_click, s, c -> c.NODE_CLICK_ENABLED, (b, v) -> b.NODE_CLICK_ENABLED = v);
+        addNumber(R.string.settings_fling_min_velocity, s, c -> String.valueOf(c.FLING_MIN_VELOCITY), (b, v) -> b.FLING_MIN_VELOCITY = Float.parseFloat(v));
+
+        addSection(R.string.settings_section_camera);
+        addNumber(R.string.settings_inference_decimation, s, c -> String.valueOf(c.INFERENCE_DECIMATION), (b, v) -> b.INFERENCE_DECIMATION = Integer.parseInt(v));
+        addNumber(R.string.settings_static_scene_threshold, s, c -> String.valueOf(c.STATIC_SCENE_THRESHOLD), (b, v) -> b.STATIC_SCENE_THRESHOLD = Float.parseFloat(v));
+        addNumber(R.string.settings_preview_alpha, s, c -> String.valueOf(c.PREVIEW_WINDOW_ALPHA), (b, v) -> b.PREVIEW_WINDOW_ALPHA = Float.parseFloat(v));
+        addNumber(R.string.settings_camera_fps, s, c -> String.valueOf(c.DESIRED_CAMERA_FPS), (b, v) -> b.DESIRED_CAMERA_FPS = Integer.parseInt(v));
+        addNumber(R.string.settings_frame_pool_size, s, c -> String.valueOf(c.FRAME_POOL_SIZE), (b, v) -> b.FRAME_POOL_SIZE = Integer.parseInt(v));
+        addChoice(R.string.settings_capture_profile, CaptureProfile.values(), s.CAPTURE_PROFILE, (b, i) -> b.CAPTURE_PROFILE = CaptureProfile.values()[i]);
+        addChoice(R.string.settings_inference_mode, InferenceMode.values(), s.INFERENCE_MODE, (b, i) -> b.INFERENCE_MODE = InferenceMode.values()[i]);
+        addChoice(R.string.settings_frame_pacing, FramePacing.values(), s.FRAME_PACING, (b, i) -> b.FRAME_PACING = FramePacing.values()[i]);
+        addNumber(R.string.settings_video_queue_capacity, s, c -> String.valueOf(c.VIDEO_QUEUE_CAPACITY), (b, v) -> b.VIDEO_QUEUE_CAPACITY = Integer.parseInt(v));
+        addNumber(R.string.settings_video_throttle_fps, s, c -> String.valueOf(c.VIDEO_THROTTLE_FPS), (b, v) -> b.VIDEO_THROTTLE_FPS = Integer.parseInt(v));
+        addFlag(R.string.settings_file_frame_source, s, c -> c.FILE_FRAME_SOURCE_ENABLED, (b, v) -> b.FILE_FRAME_SOURCE_ENABLED = v);
+        addNumber(R.string.settings_file_source_fps, s, c -> String.valueOf(c.FILE_SOURCE_FPS), (b, v) -> b.FILE_SOURCE_FPS = Integer.parseInt(v));
+        addNumber(R.string.settings_file_source_rotation, s, c -> String.valueOf(c.FILE_SOURCE_SENSOR_ROTATION), (b, v) -> b.FILE_SOURCE_SENSOR_ROTATION = Integer.parseInt(v));
+        addChoice(R.string.settings_inference_backend, InferenceBackendType.values(), s.INFERENCE_BACKEND, (b, i) -> b.INFERENCE_BACKEND = InferenceBackendType.values()[i]);
+        addNumber(R.string.settings_stub_latency, s, c -> String.valueOf(c.STUB_LATENCY_MS), (b, v) -> b.STUB_LATENCY_MS = Integer.parseInt(v));
+        addNumber(R.string.settings_stub_latency_jitter, s, c -> String.valueOf(c.STUB_LATENCY_JITTER_MS), (b, v) -> b.STUB_LATENCY_JITTER_MS = Integer.parseInt(v));
+        addNumber(R.string.settings_stub_spike_interval, s, c -> String.valueOf(c.STUB_SPIKE_INTERVAL), (b, v) -> b.STUB_SPIKE_INTERVAL = Integer.parseInt(v));
+        addNumber(R.string.settings_stub_spike_duration, s, c -> String.valueOf(c.STUB_SPIKE_MS), (b, v) -> b.STUB_SPIKE_MS = Integer.parseInt(v));
+        addNumber(R.string.settings_synthetic_noise, s, c -> String.valueOf(c.SYNTHETIC_NOISE), (b, v) -> b.SYNTHETIC_NOISE = Float.parseFloat(v));
+        addNumber(R.string.settings_synthetic_dropout, s, c -> String.valueOf(c.SYNTHETIC_DROPOUT_RATE), (b, v) -> b.SYNTHETIC_DROPOUT_RATE = Float.parseFloat(v));
+        addNumber(R.string.settings_synthetic_handedness_flip, s, c -> String.valueOf(c.SYNTHETIC_HANDEDNESS_FLIP_RATE), (b, v) -> b.SYNTHETIC_HANDEDNESS_FLIP_RATE = Float.parseFloat(v));
+        addFlag(R.string.settings_result_recording, s, c -> c.RESULT_RECORDING_ENABLED, (b, v) -> b.RESULT_RECORDING_ENABLED = v);
+
+        // 交互区域由校准直接发布，不随“保存”写入，避免覆盖刚完成的校准结果
+        addSection(R.string.settings_section_interaction_box);
+        addAction(R.string.settings_calibrate_interaction_box, () -> {
+            Intent intent = new Intent(GestureAccessibilityService.ACTION_CALIBRATE_INTERACTION_BOX);
+            intent.setPackage(getPackageName());
+            sendBroadcast(intent);
+        });
+        addAction(R.string.settings_reset_interaction_box, () -> {
+            settings.updateAndSave(builder -> builder.INTERACTION_BOX_ENABLED = false);
+            Toast.makeText(this, R.string.settings_saved, Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    private void addAction(@StringRes int label, Runnable action) {
+        Button button = new Button(this);
+        button.setText(label);
+        button.setOnClickListener(v -> action.run());
+        list.addView(button);
+    }
+
+    private void addSection(@StringRes int title) {
+        TextView header = new TextView(this);
+        header.setText(title);
+        header.setTextSize(18);
+        header.setPadding(0, 32, 0, 8);
+        list.addView(header);
+    }
+
+    private void addNumber(@StringRes int label, SettingsSnapshot snapshot, ValueReader reader, ValueWriter writer) {
+        TextView title = new TextView(this);
+        title.setText(label);
+        EditText input = new EditText(this);
+        input.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_DECIMAL);
+        input.setSingleLine(true);
+        input.setText(reader.read(snapshot));
+        list.addView(title);
+        list.addView(input);
+        numberItems.add(new NumberItem(getString(label), writer, input));
+    }
+
+    private void addFlag(@StringRes int label, SettingsSnapshot snapshot, FlagReader reader, FlagWriter writer) {
+        Switch toggle = new Switch(this);
+        toggle.setText(label);
+        toggle.setChecked(reader.read(snapshot));
+        toggle.setPadding(0, 16, 0, 16);
+        list.addView(toggle);
+        flagItems.add(new FlagItem(writer, toggle));
+    }
+
+    private void addChoice(@StringRes int label, Enum<?>[] values, Enum<?> current, ChoiceWriter writer) {
+        TextView title = new TextView(this);
+        title.setText(label);
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, names);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        Spinner spinner = new Spinner(this);
+        spinner.setAdapter(adapter);
+        spinner.setSelection(current.ordinal());
+        list.addView(title);
+        list.addView(spinner);
+        choiceItems.add(new ChoiceItem(writer, spinner));
+    }
+
+    /**
+     * 校验全部输入并一次性发布。任何一项无效时都不发布，已运行的服务继续使用原有设置。
+     */
+    private void save() {
+        try {
+            settings.updateAndSave(builder -> {
+                for (NumberItem item : numberItems) {
+                    try {
+                        item.writer.write(builder, item.input.getText().toString().trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(item.label, e);
+                    }
+                }
+                for (FlagItem item : flagItems) {
+                    item.writer.write(builder, item.toggle.isChecked());
+                }
+                for (ChoiceItem item : choiceItems) {
+                    item.writer.write(builder, item.spinner.getSelectedItemPosition());
+                }
+            });
+            Toast.makeText(this, R.string.settings_saved, Toast.LENGTH_SHORT).show();
+        } catch (IllegalArgumentException e) {
+            Toast.makeText(this, getString(R.string.settings_invalid, e.getMessage()), Toast.LENGTH_LONG).show();
+        }
     }
 
     @Override
@@ -0,0 +1,867 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/SettingsSnapshot.java
+// 描述: 一组不可变的设置值。GestureSettings 每次修改都构造一个新的快照并原子地发布，
+//       相机、主线程和推理回调线程读到的永远是同一时刻的一致值，读取无需加锁。
+//       修改通过 Builder 进行；用户可调的值可以写入和读出 SharedPreferences。
+// =================================================================================
+package com.yidroid.argesture;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+
+public final class SettingsSnapshot {
+
+    private static final String TAG = "SettingsSnapshot";
+
+    // --- 系统值 ---
+    /**
+     * 当前屏幕的实际宽度（像素）。
+     * 在设备旋转时会自动更新。
+     */
+    public final int SCREEN_WIDTH;
+    /**
+     * 当前屏幕的实际高度（像素）。
+     * 在设备旋转时会自动更新。
+     */
+    public final int SCREEN_HEIGHT;
+    /**
+     * 当前屏幕的旋转角度。
+     * (Surface.ROTATION_0, Surface.ROTATION_90, etc.)
+     */
+    public final int SCREEN_ROTATION;
+    /**
+     * 屏幕方向版本号，屏幕旋转或尺寸变化时加一。每帧记录捕获时的版本，
+     * 处理时版本不同的帧需要先换算到当前方向。
+     */
+    public final int ROTATION_VERSION;
+    /**
+     * 从系统设置中读取的屏幕自动熄灭超时时间（毫秒）。
+     */
+    public final long SCREEN_OFF_TIMEOUT;
+
+    // --- 摄像头 ---
+    /**
+     * 用于图像分析的摄像头画面宽度。
+     * 较低的分辨率可以提升性能。
+     */
+    public final int CAMERA_WIDTH;
+    /**
+     * 用于图像分析的摄像头画面高度。
+     */
+    public final int CAMERA_HEIGHT;
+    /**
+     * 期望的摄像头帧率(FPS)。
+     * 较低的帧率可以降低功耗和发热。
+     */
+    public final int DESIRED_CAMERA_FPS;
+    /**
+     * 当前正在使用的摄像头朝向。
+     * (CameraCharacteristics.LENS_FACING_FRONT or LENS_FACING_BACK)
+     */
+    public final int ACTIVE_CAMERA_FACING;
+    /**
+     * 相机采集参数配置档。
+     * LOW_LATENCY 会牺牲部分画质以降低ISP延迟和运动模糊。
+     */
+    public final CaptureProfile CAPTURE_PROFILE;
+    /**
+     * 不支持EDOF时，手动对焦的目标距离（米），约为手臂长度。
+     */
+    public final float FOCUS_DISTANCE_METERS;
+    /**
+     * 配置档启用曝光上限时的最大曝光时间（纳秒）。
+     * 越短运动模糊越少，但画面噪点越多。
+     */
+    public final long MAX_EXPOSURE_TIME_NS;
+    /**
+     * 帧缓冲池的大小，即同时处于转换或推理中的最大帧数。
+     * 池耗尽时新到达的帧会被丢弃。
+     */
+    public final int FRAME_POOL_SIZE;
+    /**
+     * 静态场景判定阈值（Y平面网格平均亮度差，0-255）。
+     * 画面变化低于此值时跳过转换和推理并复用上一次的结果；设为0则禁用。
+     */
+    public final float STATIC_SCENE_THRESHOLD;
+    /**
+     * 静态场景下最多连续跳过的帧数，之后强制推理一次。
+     */
+    public final int STATIC_SCENE_MAX_SKIP_FRAMES;
+    /**
+     * 统计复用结果准确度时，食指指尖允许的最大偏差（归一化坐标）。
+     * 超过该偏差的复用被计为一次误判，可据此调整 STATIC_SCENE_THRESHOLD。
+     */
+    public final float STATIC_SCENE_ACCURACY_TOLERANCE;
+    /**
+     * 推理抽帧间隔：每隔多少帧运行一次HandLandmarker，其余帧用光流传播关节点。
+     * 设为1则每帧都推理。
+     */
+    public final int INFERENCE_DECIMATION;
+    /**
+     * 光流传播时成功跟踪的关节点所占的最低比例，低于此值立即回退到完整推理。
+     */
+    public final float FLOW_MIN_CONFIDENCE;
+    /**
+     * 指尖相对手腕的位移（像素距离除以图像长边）超过此值时，认为手势姿态可能变化，立即回退到完整推理。
+     */
+    public final float FLOW_POSE_CHANGE_THRESHOLD;
+    /**
+     * 拇指与食指指尖在画面内的距离（光流跟踪器的单位：像素距离除以图像长边）小于此值时，
+     * 认为即将发生捏合，立即回退到完整推理。
+     */
+    public final float FLOW_PINCH_GUARD;
+    /**
+     * HandLandmarker 的运行方式，切换后在下一帧重建推理器。
+     */
+    public final InferenceMode INFERENCE_MODE;
+    /**
+     * 同步推理模式（VIDEO）下的帧节奏策略。
+     */
+    public final FramePacing FRAME_PACING;
+    /**
+     * 同步推理模式下等待推理的最大帧数。越大帧序列越连续，但排队延迟越高。
+     */
+    public final int VIDEO_QUEUE_CAPACITY;
+    /**
+     * FRAME_PACING 为 THROTTLE 时送去推理的最高帧率。
+     */
+    public final int VIDEO_THROTTLE_FPS;
+
+    // --- 录制帧来源 ---
+    /**
+     * 用外部文件目录下的 frames.nv21 代替摄像头作为帧来源（重启服务后生效）。
+     * 文件为连续存放的NV21帧，尺寸为 CAMERA_WIDTH x CAMERA_HEIGHT，按前置摄像头处理。
+     */
+    public final boolean FILE_FRAME_SOURCE_ENABLED;
+    /**
+     * 录制帧的播放帧率。处理跟不上时按时间跳过源帧，与真实相机一致。
+     */
+    public final int FILE_SOURCE_FPS;
+    /**
+     * 录制帧相对自然方向的传感器角度（0、90、180、270），直接转储的前置摄像头原始帧通常为270。
+     */
+    public final int FILE_SOURCE_SENSOR_ROTATION;
+
+    // --- 推理后端 ---
+    /**
+     * 关节点推理后端（重启服务后生效）。RECORDED 所需的录制文件不存在时退回 MEDIAPIPE。
+     */
+    public final InferenceBackendType INFERENCE_BACKEND;
+    /**
+     * 脚本推理后端（SCRIPTED）模拟的单帧推理耗时（毫秒）。
+     */
+    public final int STUB_LATENCY_MS;
+    /**
+     * 模拟推理耗时的抖动幅度（毫秒），实际耗时在 STUB_LATENCY_MS 上下均匀分布。
+     */
+    public final int STUB_LATENCY_JITTER_MS;
+    /**
+     * 每多少帧注入一次延迟尖峰，0表示不注入。
+     */
+    public final int STUB_SPIKE_INTERVAL;
+    /**
+     * 延迟尖峰帧额外增加的推理耗时（毫秒）。
+     */
+    public final int STUB_SPIKE_MS;
+    /**
+     * 没有 landmark_script.txt 时脚本后端回放合成手部数据，此为关节点坐标噪声的标准差（归一化坐标）。
+     */
+    public final float SYNTHETIC_NOISE;
+    /**
+     * 合成手部数据中每帧整手丢失（遮挡）的概率。
+     */
+    public final float SYNTHETIC_DROPOUT_RATE;
+    /**
+     * 合成手部数据中每帧左右手分类翻转的概率。
+     */
+    public final float SYNTHETIC_HANDEDNESS_FLIP_RATE;
+    /**
+     * 使用MediaPipe时把推理结果和实测耗时录制到外部文件目录下的 results.txt，
+     * 供 RECORDED 后端回放（重启服务后生效）。
+     */
+    public final boolean RESULT_RECORDING_ENABLED;
+
+    // --- 预览窗口 ---
+    /**
+     * 预览悬浮窗的宽度（横屏状态下）。
+     * 在竖屏时，此值会与高度互换。
+     */
+    public final int PREVIEW_WINDOW_WIDTH;
+    /**
+     * 预览悬浮窗的高度（横屏状态下）。
+     */
+    public final int PREVIEW_WINDOW_HEIGHT;
+    /**
+     * 预览悬浮窗的透明度。
+     * 0.0f (完全透明) to 1.0f (完全不透明).
+     */
+    public final float PREVIEW_WINDOW_ALPHA;
+    /**
+     * 用于判断是否启用窗口避让逻辑的最大宽度阈值。
+     */
+    public final int MAX_PREVIEW_WINDOW_WIDTH;
+    /**
+     * 触发避让逻辑时，预览窗口的宽度。
+     */
+    public final int AVOIDANCE_PREVIEW_WIDTH;
+    /**
+     * 触发避让逻辑时，预览窗口的高度。
+     */
+    public final int AVOIDANCE_PREVIEW_HEIGHT;
+
+    // --- 坐标映射 ---
+    /**
+     * 是否使用用户校准的交互区域。关闭时整幅相机画面按比例居中映射到屏幕（信箱模式），
+     * 开启时交互区域映射到整个屏幕，手只需在更小的范围内移动即可到达屏幕的每个角落。
+     */
+    public final boolean INTERACTION_BOX_ENABLED;
+    /**
+     * 交互区域在相机画面中的边界（归一化坐标，已按前置摄像头镜像，与屏幕方向一致）。
+     */
+    public final float INTERACTION_BOX_LEFT;
+    public final float INTERACTION_BOX_TOP;
+    public final float INTERACTION_BOX_RIGHT;
+    public final float INTERACTION_BOX_BOTTOM;
+    /**
+     * 校准交互区域时的屏幕旋转角度。横竖屏与校准时不同时画面坐标轴不再对应，回退到信箱模式。
+     */
+    public final int INTERACTION_BOX_ROTATION;
+
+    // --- 手势识别 ---
+    /**
+     * 判断为“捏合”手势时，指尖之间的最大距离阈值。
+     * 值越小，要求捏得越近。
+     */
+    public final double PINCH_THRESHOLD;
+    /**
+     * 捏合按下后，指尖之间的距离超过此值才算松开（滞回），须大于 PINCH_THRESHOLD。
+     */
+    public final double PINCH_RELEASE_THRESHOLD;
+    /**
+     * 判断为“握拳”手势时，指尖到手腕的最大距离阈值。
+     */
+    public final double FIST_THRESHOLD;
+    /**
+     * 握拳后，指尖到手腕的距离超过此值才算松开（滞回），须大于 FIST_THRESHOLD。
+     */
+    public final double FIST_RELEASE_THRESHOLD;
+    /**
+     * 姿态投票：最近 POSE_VOTE_WINDOW 帧中至少 POSE_VOTE_REQUIRED 帧满足姿态才算成立，
+     * 用于滤除单帧误检。
+     */
+    public final int POSE_VOTE_REQUIRED;
+    public final int POSE_VOTE_WINDOW;
+    /**
+     * 是否根据指尖闭合速度预测捏合，预先取出光标下的点击目标。点击仍等多帧投票和冷却确认。
+     */
+    public final boolean PREDICTIVE_CLICK_ENABLED;
+    /**
+     * 预测在该时间（毫秒）内到达捏合阈值时才选定目标。
+     */
+    public final long PREDICTIVE_CLICK_HORIZON_MS;
+    /**
+     * 选定目标后超过该时间（毫秒）仍未捏合则取消预测。
+     */
+    public final long PREDICTIVE_CLICK_TIMEOUT_MS;
+    /**
+     * 未检测到手时，进入待机模式的超时时间（毫秒）。
+     */
+    public final long IDLE_TIMEOUT_MS;
+    /**
+     * 待机模式下运动检测的频率（每秒帧数）。
+     */
+    public final int STANDBY_ANALYSIS_FPS;
+    /**
+     * 待机模式下判定为运动的画面变化阈值（网格平均亮度差，0-255）。
+     * 值越小越灵敏，但也更容易被光线变化误唤醒。
+     */
+    public final float STANDBY_MOTION_THRESHOLD;
+
+    // --- 骨架滤波 ---
+    /**
+     * 关节点滤波（One Euro）的最小截止频率（Hz）。越低静止时越平滑，但移动开始时延迟越大。
+     */
+    public final float SKELETON_MIN_CUTOFF_HZ;
+    /**
+     * 拇指、中指、无名指、小指指尖的最小截止频率（Hz），略高以减少姿态触发延迟。
+     */
+    public final float SKELETON_TIP_MIN_CUTOFF_HZ;
+    /**
+     * 速度系数：手移动越快截止频率越高，兼顾静止时的稳定和移动时的跟手。
+     */
+    public final float SKELETON_BETA;
+    /**
+     * 滤波器内部速度估计的截止频率（Hz）。
+     */
+    public final float SKELETON_DERIVATIVE_CUTOFF_HZ;
+
+    // --- 光标吸附 ---
+    /**
+     * 是否将光标吸附到附近的可点击控件上，以抵消关节点抖动，便于点中小目标。
+     */
+    public final boolean SNAP_ENABLED;
+    /**
+     * 吸附半径（像素）：光标与控件边界的距离在此范围内时吸附到控件中心。
+     */
+    public final int SNAP_RADIUS_PX;
+    /**
+     * 粘滞距离（像素）：已吸附时，光标需离开控件边界超过此距离才会解除吸附，避免在相邻控件间来回跳动。
+     */
+    public final int SNAP_STICKINESS_PX;
+
+    // --- 相对光标 ---
+    /**
+     * 光标模式：关闭时指尖位置直接映射到屏幕（绝对模式）；开启时指尖的位移按加速曲线放大后移动光标（相对模式），
+     * 类似鼠标：慢速移动时增益低，便于点中小目标；快速移动时增益高，手臂移动很少即可跨越整个屏幕。
+     * 张开手掌（五指伸直）为离合：光标停住，可以把手移回舒适的位置后继续移动。
+     */
+    public final boolean RELATIVE_CURSOR_ENABLED;
+    /**
+     * 指尖移动很慢时的增益。增益1与绝对模式下相同的位移对应相同的光标移动距离。
+     */
+    public final float BALLISTICS_MIN_GAIN;
+    /**
+     * 指尖移动很快时的增益。
+     */
+    public final float BALLISTICS_MAX_GAIN;
+    /**
+     * 指尖速度（归一化坐标/秒）低于此值时使用最小增益，高于 BALLISTICS_HIGH_SPEED 时使用最大增益，
+     * 两者之间平滑过渡。
+     */
+    public final float BALLISTICS_LOW_SPEED;
+    public final float BALLISTICS_HIGH_SPEED;
+    /**
+     * 是否记录指尖轨迹和点击目标，服务停止时写入应用外部文件目录下的 pointer_trace.csv，
+     * 可用 PointerReplay 离线重放，比较不同加速曲线的目标获取吞吐量（Fitts定律）。
+     */
+    public final boolean POINTER_TRACE_ENABLED;
+
+    // --- 防抖 ---
+    /**
+     * 两次“点击”操作之间的最小间隔时间（毫秒）。
+     * 点击必须松开捏合后才能再次触发，防抖只需滤除松开瞬间的抖动，足以支持快速双击。
+     */
+    public final long CLICK_DEBOUNCE;
+    /**
+     * 两次“返回桌面”操作之间的最小间隔时间（毫秒）。
+     */
+    public final long HOME_DEBOUNCE;
+    /**
+     * 两次“返回”操作之间的最小间隔时间（毫秒）。
+     */
+    public final long BACK_DEBOUNCE;
+    // --- 手势分发 ---
+    /**
+     * 点击笔画的按下时长（毫秒）。
+     * 略长于一个显示帧，保证目标视图在抬起前处理到按下状态；更长只会增加点击延迟。
+     */
+    public final long TAP_DURATION_MS;
+    /**
+     * 光标下有可点击控件时，直接对控件执行无障碍点击动作，而不是注入触摸手势。
+     */
+    public final boolean NODE_CLICK_ENABLED;
+    /**
+     * 连续滚动时每段延续笔画的最长时长（毫秒）。
+     * 手部更新间隔更长时按此值截断，避免滚动拖尾。
+     */
+    public final long SCROLL_INTERVAL;
+    /**
+     * 结束滚动时触发惯性滑动所需的最低手速（像素/秒）。
+     */
+    public final float FLING_MIN_VELOCITY;
+
+    private SettingsSnapshot(Builder builder) {
+        this.SCREEN_WIDTH = builder.SCREEN_WIDTH;
+        this.SCREEN_HEIGHT = builder.SCREEN_HEIGHT;
+        this.SCREEN_ROTATION = builder.SCREEN_ROTATION;
+        this.ROTATION_VERSION = builder.ROTATION_VERSION;
+        this.SCREEN_OFF_TIMEOUT = builder.SCREEN_OFF_TIMEOUT;
+        this.CAMERA_WIDTH = builder.CAMERA_WIDTH;
+        this.CAMERA_HEIGHT = builder.CAMERA_HEIGHT;
+        this.DESIRED_CAMERA_FPS = builder.DESIRED_CAMERA_FPS;
+        this.ACTIVE_CAMERA_FACING = builder.ACTIVE_CAMERA_FACING;
+        this.CAPTURE_PROFILE = builder.CAPTURE_PROFILE;
+        this.FOCUS_DISTANCE_METERS = builder.FOCUS_DISTANCE_METERS;
+        this.MAX_EXPOSURE_TIME_NS = builder.MAX_EXPOSURE_TIME_NS;
+        this.FRAME_POOL_SIZE = builder.FRAME_POOL_SIZE;
+        this.STATIC_SCENE_THRESHOLD = builder.STATIC_SCENE_THRESHOLD;
+        this.STATIC_SCENE_MAX_SKIP_FRAMES = builder.STATIC_SCENE_MAX_SKIP_FRAMES;
+        this.STATIC_SCENE_ACCURACY_TOLERANCE = builder.STATIC_SCENE_ACCURACY_TOLERANCE;
+        this.INFERENCE_DECIMATION = builder.INFERENCE_DECIMATION;
+        this.FLOW_MIN_CONFIDENCE = builder.FLOW_MIN_CONFIDENCE;
+        this.FLOW_POSE_CHANGE_THRESHOLD = builder.FLOW_POSE_CHANGE_THRESHOLD;
+        this.FLOW_PINCH_GUARD = builder.FLOW_PINCH_GUARD;
+        this.INFERENCE_MODE = builder.INFERENCE_MODE;
+        this.FRAME_PACING = builder.FRAME_PACING;
+        this.VIDEO_QUEUE_CAPACITY = builder.VIDEO_QUEUE_CAPACITY;
+        this.VIDEO_THROTTLE_FPS = builder.VIDEO_THROTTLE_FPS;
+        this.FILE_FRAME_SOURCE_ENABLED = builder.FILE_FRAME_SOURCE_ENABLED;
+        this.FILE_SOURCE_FPS = builder.FILE_SOURCE_FPS;
+        this.FILE_SOURCE_SENSOR_ROTATION = builder.FILE_SOURCE_SENSOR_ROTATION;
+        this.INFERENCE_BACKEND = builder.INFERENCE_BACKEND;
+        this.STUB_LATENCY_MS = builder.STUB_LATENCY_MS;
+        this.STUB_LATENCY_JITTER_MS = builder.STUB_LATENCY_JITTER_MS;
+        this.STUB_SPIKE_INTERVAL = builder.STUB_SPIKE_INTERVAL;
+        this.STUB_SPIKE_MS = builder.STUB_SPIKE_MS;
+        this.SYNTHETIC_NOISE = builder.SYNTHETIC_NOISE;
+        this.SYNTHETIC_DROPOUT_RATE = builder.SYNTHETIC_DROPOUT_RATE;
+        this.SYNTHETIC_HANDEDNESS_FLIP_RATE = builder.SYNTHETIC_HANDEDNESS_FLIP_RATE;
+        this.RESULT_RECORDING_ENABLED = builder.RESULT_RECORDING_ENABLED;
+        this.PREVIEW_WINDOW_WIDTH = builder.PREVIEW_WINDOW_WIDTH;
+        this.PREVIEW_WINDOW_HEIGHT = builder.PREVIEW_WINDOW_HEIGHT;
+        this.PREVIEW_WINDOW_ALPHA = builder.PREVIEW_WINDOW_ALPHA;
+        this.MAX_PREVIEW_WINDOW_WIDTH = builder.MAX_PREVIEW_WINDOW_WIDTH;
+        this.AVOIDANCE_PREVIEW_WIDTH = builder.AVOIDANCE_PREVIEW_WIDTH;
+        this.AVOIDANCE_PREVIEW_HEIGHT = builder.AVOIDANCE_PREVIEW_HEIGHT;
+        this.PINCH_THRESHOLD = builder.PINCH_THRESHOLD;
+        this.PINCH_RELEASE_THRESHOLD = builder.PINCH_RELEASE_THRESHOLD;
+        this.FIST_THRESHOLD = builder.FIST_THRESHOLD;
+        this.FIST_RELEASE_THRESHOLD = builder.FIST_RELEASE_THRESHOLD;
+        this.POSE_VOTE_REQUIRED = builder.POSE_VOTE_REQUIRED;
+        this.POSE_VOTE_WINDOW = builder.POSE_VOTE_WINDOW;
+        this.PREDICTIVE_CLICK_ENABLED = builder.PREDICTIVE_CLICK_ENABLED;
+        this.PREDICTIVE_CLICK_HORIZON_MS = builder.PREDICTIVE_CLICK_HORIZON_MS;
+        this.PREDICTIVE_CLICK_TIMEOUT_MS = builder.PREDICTIVE_CLICK_TIMEOUT_MS;
+        this.IDLE_TIMEOUT_MS = builder.IDLE_TIMEOUT_MS;
+        this.STANDBY_ANALYSIS_FPS = builder.STANDBY_ANALYSIS_FPS;
+        this.STANDBY_MOTION_THRESHOLD = builder.STANDBY_MOTION_THRESHOLD;
+        this.SKELETON_MIN_CUTOFF_HZ = builder.SKELETON_MIN_CUTOFF_HZ;
+        this.SKELETON_TIP_MIN_CUTOFF_HZ = builder.SKELETON_TIP_MIN_CUTOFF_HZ;
+        this.SKELETON_BETA = builder.SKELETON_BETA;
+        this.SKELETON_DERIVATIVE_CUTOFF_HZ = builder.SKELETON_DERIVATIVE_CUTOFF_HZ;
+        this.SNAP_ENABLED = builder.SNAP_ENABLED;
+        this.SNAP_RADIUS_PX = builder.SNAP_RADIUS_PX;
+        this.SNAP_STICKINESS_PX = builder.SNAP_STICKINESS_PX;
+        this.RELATIVE_CURSOR_ENABLED = builder.RELATIVE_CURSOR_ENABLED;
+        this.BALLISTICS_MIN_GAIN = builder.BALLISTICS_MIN_GAIN;
+        this.BALLISTICS_MAX_GAIN = builder.BALLISTICS_MAX_GAIN;
+        this.BALLISTICS_LOW_SPEED = builder.BALLISTICS_LOW_SPEED;
+        this.BALLISTICS_HIGH_SPEED = builder.BALLISTICS_HIGH_SPEED;
+        this.POINTER_TRACE_ENABLED = builder.POINTER_TRACE_ENABLED;
+        this.INTERACTION_BOX_ENABLED = builder.INTERACTION_BOX_ENABLED;
+        this.INTERACTION_BOX_LEFT = builder.INTERACTION_BOX_LEFT;
+        this.INTERACTION_BOX_TOP = builder.INTERACTION_BOX_TOP;
+        this.INTERACTION_BOX_RIGHT = builder.INTERACTION_BOX_RIGHT;
+        this.INTERACTION_BOX_BOTTOM = builder.INTERACTION_BOX_BOTTOM;
+        this.INTERACTION_BOX_ROTATION = builder.INTERACTION_BOX_ROTATION;
+        this.CLICK_DEBOUNCE = builder.CLICK_DEBOUNCE;
+        this.HOME_DEBOUNCE = builder.HOME_DEBOUNCE;
+        this.BACK_DEBOUNCE = builder.BACK_DEBOUNCE;
+        this.TAP_DURATION_MS = builder.TAP_DURATION_MS;
+        this.NODE_CLICK_ENABLED = builder.NODE_CLICK_ENABLED;
+        this.SCROLL_INTERVAL = builder.SCROLL_INTERVAL;
+        this.FLING_MIN_VELOCITY = builder.FLING_MIN_VELOCITY;
+    }
+
+    /**
+     * @return 以本快照的值为初值的 Builder。
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * 快照的可变副本。字段含义与 {@link SettingsSnapshot} 中的同名字段相同。
+     */
+    public static final class Builder {
+        public int SCREEN_WIDTH;
+        public int SCREEN_HEIGHT;
+        public int SCREEN_ROTATION;
+        public int ROTATION_VERSION;
+        public long SCREEN_OFF_TIMEOUT;
+        public int CAMERA_WIDTH = 640;
+        public int CAMERA_HEIGHT = 480;
+        public int DESIRED_CAMERA_FPS = 24;
+        public int ACTIVE_CAMERA_FACING;
+        public CaptureProfile CAPTURE_PROFILE = CaptureProfile.LOW_LATENCY;
+        public float FOCUS_DISTANCE_METERS = 0.5f;
+        public long MAX_EXPOSURE_TIME_NS = 8_000_000L; // 8ms
+        public int FRAME_POOL_SIZE = 3;
+        public float STATIC_SCENE_THRESHOLD = 1.5f;
+        public int STATIC_SCENE_MAX_SKIP_FRAMES = 6;
+        public float STATIC_SCENE_ACCURACY_TOLERANCE = 0.01f;
+        public int INFERENCE_DECIMATION = 2;
+        public float FLOW_MIN_CONFIDENCE = 0.7f;
+        public float FLOW_POSE_CHANGE_THRESHOLD = 0.03f;
+        public float FLOW_PINCH_GUARD = 0.1f;
+        public InferenceMode INFERENCE_MODE = InferenceMode.LIVE_STREAM;
+        public FramePacing FRAME_PACING = FramePacing.DROP_OLDEST;
+        public int VIDEO_QUEUE_CAPACITY = 1;
+        public int VIDEO_THROTTLE_FPS = 15;
+        public boolean FILE_FRAME_SOURCE_ENABLED = false;
+        public int FILE_SOURCE_FPS = 30;
+        public int FILE_SOURCE_SENSOR_ROTATION = 270;
+        public InferenceBackendType INFERENCE_BACKEND = InferenceBackendType.MEDIAPIPE;
+        public int STUB_LATENCY_MS = 20;
+        public int STUB_LATENCY_JITTER_MS = 5;
+        public int STUB_SPIKE_INTERVAL = 0;
+        public int STUB_SPIKE_MS = 200;
+        public float SYNTHETIC_NOISE = 0.002f;
+        public float SYNTHETIC_DROPOUT_RATE = 0f;
+        public float SYNTHETIC_HANDEDNESS_FLIP_RATE = 0f;
+        public boolean RESULT_RECORDING_ENABLED = false;
+        public int PREVIEW_WINDOW_WIDTH = 1440;
+        public int PREVIEW_WINDOW_HEIGHT = 1080;
+        public float PREVIEW_WINDOW_ALPHA = 0.3f;
+        public int MAX_PREVIEW_WINDOW_WIDTH = 1440;
+        public int AVOIDANCE_PREVIEW_WIDTH = 320;
+        public int AVOIDANCE_PREVIEW_HEIGHT = 240;
+        public double PINCH_THRESHOLD = 0.06; // 稍微放宽三指的阈值
+        public double PINCH_RELEASE_THRESHOLD = 0.08;
+        public double FIST_THRESHOLD = 0.2;
+        public double FIST_RELEASE_THRESHOLD = 0.25;
+        public int POSE_VOTE_REQUIRED = 2;
+        public int POSE_VOTE_WINDOW = 3;
+        public boolean PREDICTIVE_CLICK_ENABLED = true;
+        public long PREDICTIVE_CLICK_HORIZON_MS = 60;
+        public long PREDICTIVE_CLICK_TIMEOUT_MS = 150;
+        public long IDLE_TIMEOUT_MS = 60 * 1000; // 1分钟
+        public int STANDBY_ANALYSIS_FPS = 2;
+        public float STANDBY_MOTION_THRESHOLD = 6f;
+        public float SKELETON_MIN_CUTOFF_HZ = 1.0f;
+        public float SKELETON_TIP_MIN_CUTOFF_HZ = 2.0f;
+        public float SKELETON_BETA = 5.0f;
+        public float SKELETON_DERIVATIVE_CUTOFF_HZ = 1.0f;
+        public boolean SNAP_ENABLED = true;
+        public int SNAP_RADIUS_PX = 48;
+        public int SNAP_STICKINESS_PX = 24;
+        public boolean RELATIVE_CURSOR_ENABLED = false;
+        public float BALLISTICS_MIN_GAIN = 0.6f;
+        public float BALLISTICS_MAX_GAIN = 3.0f;
+        public float BALLISTICS_LOW_SPEED = 0.05f;
+        public float BALLISTICS_HIGH_SPEED = 0.8f;
+        public boolean POINTER_TRACE_ENABLED = false;
+        public boolean INTERACTION_BOX_ENABLED = false;
+        public float INTERACTION_BOX_LEFT = 0f;
+        public float INTERACTION_BOX_TOP = 0f;
+        public float INTERACTION_BOX_RIGHT = 1f;
+        public float INTERACTION_BOX_BOTTOM = 1f;
+        public int INTERACTION_BOX_ROTATION;
+        public long CLICK_DEBOUNCE = 150;
+        public long HOME_DEBOUNCE = 200;
+        public long BACK_DEBOUNCE = 1000;
+        public long TAP_DURATION_MS = 20;
+        public boolean NODE_CLICK_ENABLED = true;
+        public long SCROLL_INTERVAL = 100;
+        public float FLING_MIN_VELOCITY = 1500f;
+
+        public Builder() {
+        }
+
+        private Builder(SettingsSnapshot snapshot) {
+            this.SCREEN_WIDTH = snapshot.SCREEN_WIDTH;
+            this.SCREEN_HEIGHT = snapshot.SCREEN_HEIGHT;
+            this.SCREEN_ROTATION = snapshot.SCREEN_ROTATION;
+            this.ROTATION_VERSION = snapshot.ROTATION_VERSION;
+            this.SCREEN_OFF_TIMEOUT = snapshot.SCREEN_OFF_TIMEOUT;
+            this.CAMERA_WIDTH = snapshot.CAMERA_WIDTH;
+            this.CAMERA_HEIGHT = snapshot.CAMERA_HEIGHT;
+            this.DESIRED_CAMERA_FPS = snapshot.DESIRED_CAMERA_FPS;
+            this.ACTIVE_CAMERA_FACING = snapshot.ACTIVE_CAMERA_FACING;
+            this.CAPTURE_PROFILE = snapshot.CAPTURE_PROFILE;
+            this.FOCUS_DISTANCE_METERS = snapshot.FOCUS_DISTANCE_METERS;
+            this.MAX_EXPOSURE_TIME_NS = snapshot.MAX_EXPOSURE_TIME_NS;
+            this.FRAME_POOL_SIZE = snapshot.FRAME_POOL_SIZE;
+            this.STATIC_SCENE_THRESHOLD = snapshot.STATIC_SCENE_THRESHOLD;
+            this.STATIC_SCENE_MAX_SKIP_FRAMES = snapshot.STATIC_SCENE_MAX_SKIP_FRAMES;
+            this.STATIC_SCENE_ACCURACY_TOLERANCE = snapshot.STATIC_SCENE_ACCURACY_TOLERANCE;
+            this.INFERENCE_DECIMATION = snapshot.INFERENCE_DECIMATION;
+            this.FLOW_MIN_CONFIDENCE = snapshot.FLOW_MIN_CONFIDENCE;
+            this.FLOW_POSE_CHANGE_THRESHOLD = snapshot.FLOW_POSE_CHANGE_THRESHOLD;
+            this.FLOW_PINCH_GUARD = snapshot.FLOW_PINCH_GUARD;
+            this.INFERENCE_MODE = snapshot.INFERENCE_MODE;
+            this.FRAME_PACING = snapshot.FRAME_PACING;
+            this.VIDEO_QUEUE_CAPACITY = snapshot.VIDEO_QUEUE_CAPACITY;
+            this.VIDEO_THROTTLE_FPS = snapshot.VIDEO_THROTTLE_FPS;
+            this.FILE_FRAME_SOURCE_ENABLED = snapshot.FILE_FRAME_SOURCE_ENABLED;
+            this.FILE_SOURCE_FPS = snapshot.FILE_SOURCE_FPS;
+            this.FILE_SOURCE_SENSOR_ROTATION = snapshot.FILE_SOURCE_SENSOR_ROTATION;
+            this.INFERENCE_BACKEND = snapshot.INFERENCE_BACKEND;
+            this.STUB_LATENCY_MS = snapshot.STUB_LATENCY_MS;
+            this.STUB_LATENCY_JITTER_MS = snapshot.STUB_LATENCY_JITTER_MS;
+            this.STUB_SPIKE_INTERVAL = snapshot.STUB_SPIKE_INTERVAL;
+            this.STUB_SPIKE_MS = snapshot.STUB_SPIKE_MS;
+            this.SYNTHETIC_NOISE = snapshot.SYNTHETIC_NOISE;
+            this.SYNTHETIC_DROPOUT_RATE = snapshot.SYNTHETIC_DROPOUT_RATE;
+            this.SYNTHETIC_HANDEDNESS_FLIP_RATE = snapshot.SYNTHETIC_HANDEDNESS_FLIP_RATE;
+            this.RESULT_RECORDING_ENABLED = snapshot.RESULT_RECORDING_ENABLED;
+            this.PREVIEW_WINDOW_WIDTH = snapshot.PREVIEW_WINDOW_WIDTH;
+            this.PREVIEW_WINDOW_HEIGHT = snapshot.PREVIEW_WINDOW_HEIGHT;
+            this.PREVIEW_WINDOW_ALPHA = snapshot.PREVIEW_WINDOW_ALPHA;
+            this.MAX_PREVIEW_WINDOW_WIDTH = snapshot.MAX_PREVIEW_WINDOW_WIDTH;
+            this.AVOIDANCE_PREVIEW_WIDTH = snapshot.AVOIDANCE_PREVIEW_WIDTH;
+            this.AVOIDANCE_PREVIEW_HEIGHT = snapshot.AVOIDANCE_PREVIEW_HEIGHT;
+            this.PINCH_THRESHOLD = snapshot.PINCH_THRESHOLD;
+            this.PINCH_RELEASE_THRESHOLD = snapshot.PINCH_RELEASE_THRESHOLD;
+            this.FIST_THRESHOLD = snapshot.FIST_THRESHOLD;
+            this.FIST_RELEASE_THRESHOLD = snapshot.FIST_RELEASE_THRESHOLD;
+            this.POSE_VOTE_REQUIRED = snapshot.POSE_VOTE_REQUIRED;
+            this.POSE_VOTE_WINDOW = snapshot.POSE_VOTE_WINDOW;
+            this.PREDICTIVE_CLICK_ENABLED = snapshot.PREDICTIVE_CLICK_ENABLED;
+            this.PREDICTIVE_CLICK_HORIZON_MS = snapshot.PREDICTIVE_CLICK_HORIZON_MS;
+            this.PREDICTIVE_CLICK_TIMEOUT_MS = snapshot.PREDICTIVE_CLICK_TIMEOUT_MS;
+            this.IDLE_TIMEOUT_MS = snapshot.IDLE_TIMEOUT_MS;
+            this.STANDBY_ANALYSIS_FPS = snapshot.STANDBY_ANALYSIS_FPS;
+            this.STANDBY_MOTION_THRESHOLD = snapshot.STANDBY_MOTION_THRESHOLD;
+            this.SKELETON_MIN_CUTOFF_HZ = snapshot.SKELETON_MIN_CUTOFF_HZ;
+            this.SKELETON_TIP_MIN_CUTOFF_HZ = snapshot.SKELETON_TIP_MIN_CUTOFF_HZ;
+            this.SKELETON_BETA = snapshot.SKELETON_BETA;
+            this.SKELETON_DERIVATIVE_CUTOFF_HZ = snapshot.SKELETON_DERIVATIVE_CUTOFF_HZ;
+            this.SNAP_ENABLED = snapshot.SNAP_ENABLED;
+            this.SNAP_RADIUS_PX = snapshot.SNAP_RADIUS_PX;
+            this.SNAP_STICKINESS_PX = snapshot.SNAP_STICKINESS_PX;
+            this.RELATIVE_CURSOR_ENABLED = snapshot.RELATIVE_CURSOR_ENABLED;
+            this.BALLISTICS_MIN_GAIN = snapshot.BALLISTICS_MIN_GAIN;
+            this.BALLISTICS_MAX_GAIN = snapshot.BALLISTICS_MAX_GAIN;
+            this.BALLISTICS_LOW_SPEED = snapshot.BALLISTICS_LOW_SPEED;
+            this.BALLISTICS_HIGH_SPEED = snapshot.BALLISTICS_HIGH_SPEED;
+            this.POINTER_TRACE_ENABLED = snapshot.POINTER_TRACE_ENABLED;
+            this.INTERACTION_BOX_ENABLED = snapshot.INTERACTION_BOX_ENABLED;
+            this.INTERACTION_BOX_LEFT = snapshot.INTERACTION_BOX_LEFT;
+            this.INTERACTION_BOX_TOP = snapshot.INTERACTION_BOX_TOP;
+            this.INTERACTION_BOX_RIGHT = snapshot.INTERACTION_BOX_RIGHT;
+            this.INTERACTION_BOX_BOTTOM = snapshot.INTERACTION_BOX_BOTTOM;
+            this.INTERACTION_BOX_ROTATION = snapshot.INTERACTION_BOX_ROTATION;
+            this.CLICK_DEBOUNCE = snapshot.CLICK_DEBOUNCE;
+            this.HOME_DEBOUNCE = snapshot.HOME_DEBOUNCE;
+            this.BACK_DEBOUNCE = snapshot.BACK_DEBOUNCE;
+            this.TAP_DURATION_MS = snapshot.TAP_DURATION_MS;
+            this.NODE_CLICK_ENABLED = snapshot.NODE_CLICK_ENABLED;
+            this.SCROLL_INTERVAL = snapshot.SCROLL_INTERVAL;
+            this.FLING_MIN_VELOCITY = snapshot.FLING_MIN_VELOCITY;
+        }
+
+        /**
+         * 用 SharedPreferences 中保存的值覆盖用户可调的设置，未保存的项保持当前值。
+         * 系统值和运行时状态（屏幕尺寸、当前摄像头等）不会被读取。
+         */
+        public Builder readFrom(SharedPreferences preferences) {
+            CAMERA_WIDTH = preferences.getInt("CAMERA_WIDTH", CAMERA_WIDTH);
+            CAMERA_HEIGHT = preferences.getInt("CAMERA_HEIGHT", CAMERA_HEIGHT);
+            DESIRED_CAMERA_FPS = preferences.getInt("DESIRED_CAMERA_FPS", DESIRED_CAMERA_FPS);
+            CAPTURE_PROFILE = readEnum(preferences, "CAPTURE_PROFILE", CAPTURE_PROFILE);
+            FOCUS_DISTANCE_METERS = preferences.getFloat("FOCUS_DISTANCE_METERS", FOCUS_DISTANCE_METERS);
+            MAX_EXPOSURE_TIME_NS = preferences.getLong("MAX_EXPOSURE_TIME_NS", MAX_EXPOSURE_TIME_NS);
+            FRAME_POOL_SIZE = preferences.getInt("FRAME_POOL_SIZE", FRAME_POOL_SIZE);
+            STATIC_SCENE_THRESHOLD = preferences.getFloat("STATIC_SCENE_THRESHOLD", STATIC_SCENE_THRESHOLD);
+            STATIC_SCENE_MAX_SKIP_FRAMES = preferences.getInt("STATIC_SCENE_MAX_SKIP_FRAMES", STATIC_SCENE_MAX_SKIP_FRAMES);
+            STATIC_SCENE_ACCURACY_TOLERANCE = preferences.getFloat("STATIC_SCENE_ACCURACY_TOLERANCE", STATIC_SCENE_ACCURACY_TOLERANCE);
+            INFERENCE_DECIMATION = preferences.getInt("INFERENCE_DECIMATION", INFERENCE_DECIMATION);
+            FLOW_MIN_CONFIDENCE = preferences.getFloat("FLOW_MIN_CONFIDENCE", FLOW_MIN_CONFIDENCE);
+            FLOW_POSE_CHANGE_THRESHOLD = preferences.getFloat("FLOW_POSE_CHANGE_THRESHOLD", FLOW_POSE_CHANGE_THRESHOLD);
+            FLOW_PINCH_GUARD = preferences.getFloat("FLOW_PINCH_GUARD", FLOW_PINCH_GUARD);
+            INFERENCE_MODE = readEnum(preferences, "INFERENCE_MODE", INFERENCE_MODE);
+            FRAME_PACING = readEnum(preferences, "FRAME_PACING", FRAME_PACING);
+            VIDEO_QUEUE_CAPACITY = preferences.getInt("VIDEO_QUEUE_CAPACITY", VIDEO_QUEUE_CAPACITY);
+            VIDEO_THROTTLE_FPS = preferences.getInt("VIDEO_THROTTLE_FPS", VIDEO_THROTTLE_FPS);
+            FILE_FRAME_SOURCE_ENABLED = preferences.getBoolean("FILE_FRAME_SOURCE_ENABLED", FILE_FRAME_SOURCE_ENABLED);
+            FILE_SOURCE_FPS = preferences.getInt("FILE_SOURCE_FPS", FILE_SOURCE_FPS);
+            FILE_SOURCE_SENSOR_ROTATION = preferences.getInt("FILE_SOURCE_SENSOR_ROTATION", FILE_SOURCE_SENSOR_ROTATION);
+            INFERENCE_BACKEND = readEnum(preferences, "INFERENCE_BACKEND", INFERENCE_BACKEND);
+            STUB_LATENCY_MS = preferences.getInt("STUB_LATENCY_MS", STUB_LATENCY_MS);
+            STUB_LATENCY_JITTER_MS = preferences.getInt("STUB_LATENCY_JITTER_MS", STUB_LATENCY_JITTER_MS);
+            STUB_SPIKE_INTERVAL = preferences.getInt("STUB_SPIKE_INTERVAL", STUB_SPIKE_INTERVAL);
+            STUB_SPIKE_MS = preferences.getInt("STUB_SPIKE_MS", STUB_SPIKE_MS);
+            SYNTHETIC_NOISE = preferences.getFloat("SYNTHETIC_NOISE", SYNTHETIC_NOISE);
+            SYNTHETIC_DROPOUT_RATE = preferences.getFloat("SYNTHETIC_DROPOUT_RATE", SYNTHETIC_DROPOUT_RATE);
+            SYNTHETIC_HANDEDNESS_FLIP_RATE = preferences.getFloat("SYNTHETIC_HANDEDNESS_FLIP_RATE", SYNTHETIC_HANDEDNESS_FLIP_RATE);
+            RESULT_RECORDING_ENABLED = preferences.getBoolean("RESULT_RECORDING_ENABLED", RESULT_RECORDING_ENABLED);
+            PREVIEW_WINDOW_ALPHA = preferences.getFloat("PREVIEW_WINDOW_ALPHA", PREVIEW_WINDOW_ALPHA);
+            MAX_PREVIEW_WINDOW_WIDTH = preferences.getInt("MAX_PREVIEW_WINDOW_WIDTH", MAX_PREVIEW_WINDOW_WIDTH);
+            AVOIDANCE_PREVIEW_WIDTH = preferences.getInt("AVOIDANCE_PREVIEW_WIDTH", AVOIDANCE_PREVIEW_WIDTH);
+            AVOIDANCE_PREVIEW_HEIGHT = preferences.getInt("AVOIDANCE_PREVIEW_HEIGHT", AVOIDANCE_PREVIEW_HEIGHT);
+            PINCH_THRESHOLD = Double.longBitsToDouble(preferences.getLong("PINCH_THRESHOLD", Double.doubleToRawLongBits(PINCH_THRESHOLD)));
+            PINCH_RELEASE_THRESHOLD = Double.longBitsToDouble(preferences.getLong("PINCH_RELEASE_THRESHOLD", Double.doubleToRawLongBits(PINCH_RELEASE_THRESHOLD)));
+            FIST_THRESHOLD = Double.longBitsToDouble(preferences.getLong("FIST_THRESHOLD", Double.doubleToRawLongBits(FIST_THRESHOLD)));
+            FIST_RELEASE_THRESHOLD = Double.longBitsToDouble(preferences.getLong("FIST_RELEASE_THRESHOLD", Double.doubleToRawLongBits(FIST_RELEASE_THRESHOLD)));
+            POSE_VOTE_REQUIRED = preferences.getInt("POSE_VOTE_REQUIRED", POSE_VOTE_REQUIRED);
+            POSE_VOTE_WINDOW = preferences.getInt("POSE_VOTE_WINDOW", POSE_VOTE_WINDOW);
+            PREDICTIVE_CLICK_ENABLED = preferences.getBoolean("PREDICTIVE_CLICK_ENABLED", PREDICTIVE_CLICK_ENABLED);
+            PREDICTIVE_CLICK_HORIZON_MS = preferences.getLong("PREDICTIVE_CLICK_HORIZON_MS", PREDICTIVE_CLICK_HORIZON_MS);
+            PREDICTIVE_CLICK_TIMEOUT_MS = preferences.getLong("PREDICTIVE_CLICK_TIMEOUT_MS", PREDICTIVE_CLICK_TIMEOUT_MS);
+            IDLE_TIMEOUT_MS = preferences.getLong("IDLE_TIMEOUT_MS", IDLE_TIMEOUT_MS);
+            STANDBY_ANALYSIS_FPS = preferences.getInt("STANDBY_ANALYSIS_FPS", STANDBY_ANALYSIS_FPS);
+            STANDBY_MOTION_THRESHOLD = preferences.getFloat("STANDBY_MOTION_THRESHOLD", STANDBY_MOTION_THRESHOLD);
+            SKELETON_MIN_CUTOFF_HZ = preferences.getFloat("SKELETON_MIN_CUTOFF_HZ", SKELETON_MIN_CUTOFF_HZ);
+            SKELETON_TIP_MIN_CUTOFF_HZ = preferences.getFloat("SKELETON_TIP_MIN_CUTOFF_HZ", SKELETON_TIP_MIN_CUTOFF_HZ);
+            SKELETON_BETA = preferences.getFloat("SKELETON_BETA", SKELETON_BETA);
+            SKELETON_DERIVATIVE_CUTOFF_HZ = preferences.getFloat("SKELETON_DERIVATIVE_CUTOFF_HZ", SKELETON_DERIVATIVE_CUTOFF_HZ);
+            SNAP_ENABLED = preferences.getBoolean("SNAP_ENABLED", SNAP_ENABLED);
+            SNAP_RADIUS_PX = preferences.getInt("SNAP_RADIUS_PX", SNAP_RADIUS_PX);
+            SNAP_STICKINESS_PX = preferences.getInt("SNAP_STICKINESS_PX", SNAP_STICKINESS_PX);
+            RELATIVE_CURSOR_ENABLED = preferences.getBoolean("RELATIVE_CURSOR_ENABLED", RELATIVE_CURSOR_ENABLED);
+            BALLISTICS_MIN_GAIN = preferences.getFloat("BALLISTICS_MIN_GAIN", BALLISTICS_MIN_GAIN);
+            BALLISTICS_MAX_GAIN = preferences.getFloat("BALLISTICS_MAX_GAIN", BALLISTICS_MAX_GAIN);
+            BALLISTICS_LOW_SPEED = preferences.getFloat("BALLISTICS_LOW_SPEED", BALLISTICS_LOW_SPEED);
+            BALLISTICS_HIGH_SPEED = preferences.getFloat("BALLISTICS_HIGH_SPEED", BALLISTICS_HIGH_SPEED);
+            POINTER_TRACE_ENABLED = preferences.getBoolean("POINTER_TRACE_ENABLED", POINTER_TRACE_ENABLED);
+            INTERACTION_BOX_ENABLED = preferences.getBoolean("INTERACTION_BOX_ENABLED", INTERACTION_BOX_ENABLED);
+            INTERACTION_BOX_LEFT = preferences.getFloat("INTERACTION_BOX_LEFT", INTERACTION_BOX_LEFT);
+            INTERACTION_BOX_TOP = preferences.getFloat("INTERACTION_BOX_TOP", INTERACTION_BOX_TOP);
+            INTERACTION_BOX_RIGHT = preferences.getFloat("INTERACTION_BOX_RIGHT", INTERACTION_BOX_RIGHT);
+            INTERACTION_BOX_BOTTOM = preferences.getFloat("INTERACTION_BOX_BOTTOM", INTERACTION_BOX_BOTTOM);
+            INTERACTION_BOX_ROTATION = preferences.getInt("INTERACTION_BOX_ROTATION", INTERACTION_BOX_ROTATION);
+            CLICK_DEBOUNCE = preferences.getLong("CLICK_DEBOUNCE", CLICK_DEBOUNCE);
+            HOME_DEBOUNCE = preferences.getLong("HOME_DEBOUNCE", HOME_DEBOUNCE);
+            BACK_DEBOUNCE = preferences.getLong("BACK_DEBOUNCE", BACK_DEBOUNCE);
+            TAP_DURATION_MS = preferences.getLong("TAP_DURATION_MS", TAP_DURATION_MS);
+            NODE_CLICK_ENABLED = preferences.getBoolean("NODE_CLICK_ENABLED", NODE_CLICK_ENABLED);
+            SCROLL_INTERVAL = preferences.getLong("SCROLL_INTERVAL", SCROLL_INTERVAL);
+            FLING_MIN_VELOCITY = preferences.getFloat("FLING_MIN_VELOCITY", FLING_MIN_VELOCITY);
+            return this;
+        }
+
+        /**
+         * 把用户可调的设置写入 editor，由调用者提交。
+         */
+        public void writeTo(SharedPreferences.Editor editor) {
+            editor.putInt("CAMERA_WIDTH", CAMERA_WIDTH);
+            editor.putInt("CAMERA_HEIGHT", CAMERA_HEIGHT);
+            editor.putInt("DESIRED_CAMERA_FPS", DESIRED_CAMERA_FPS);
+            editor.putString("CAPTURE_PROFILE", CAPTURE_PROFILE.name());
+            editor.putFloat("FOCUS_DISTANCE_METERS", FOCUS_DISTANCE_METERS);
+            editor.putLong("MAX_EXPOSURE_TIME_NS", MAX_EXPOSURE_TIME_NS);
+            editor.putInt("FRAME_POOL_SIZE", FRAME_POOL_SIZE);
+            editor.putFloat("STATIC_SCENE_THRESHOLD", STATIC_SCENE_THRESHOLD);
+            editor.putInt("STATIC_SCENE_MAX_SKIP_FRAMES", STATIC_SCENE_MAX_SKIP_FRAMES);
+            editor.putFloat("STATIC_SCENE_ACCURACY_TOLERANCE", STATIC_SCENE_ACCURACY_TOLERANCE);
+            editor.putInt("INFERENCE_DECIMATION", INFERENCE_DECIMATION);
+            editor.putFloat("FLOW_MIN_CONFIDENCE", FLOW_MIN_CONFIDENCE);
+            editor.putFloat("FLOW_POSE_CHANGE_THRESHOLD", FLOW_POSE_CHANGE_THRESHOLD);
+            editor.putFloat("FLOW_PINCH_GUARD", FLOW_PINCH_GUARD);
+            editor.putString("INFERENCE_MODE", INFERENCE_MODE.name());
+            editor.putString("FRAME_PACING", FRAME_PACING.name());
+            editor.putInt("VIDEO_QUEUE_CAPACITY", VIDEO_QUEUE_CAPACITY);
+            editor.putInt("VIDEO_THROTTLE_FPS", VIDEO_THROTTLE_FPS);
+            editor.putBoolean("FILE_FRAME_SOURCE_ENABLED", FILE_FRAME_SOURCE_ENABLED);
+            editor.putInt("FILE_SOURCE_FPS", FILE_SOURCE_FPS);
+            editor.putInt("FILE_SOURCE_SENSOR_ROTATION", FILE_SOURCE_SENSOR_ROTATION);
+            editor.putString("INFERENCE_BACKEND", INFERENCE_BACKEND.name());
+            editor.putInt("STUB_LATENCY_MS", STUB_LATENCY_MS);
+            editor.putInt("STUB_LATENCY_JITTER_MS", STUB_LATENCY_JITTER_MS);
+            editor.putInt("STUB_SPIKE_INTERVAL", STUB_SPIKE_INTERVAL);
+            editor.putInt("STUB_SPIKE_MS", STUB_SPIKE_MS);
+            editor.putFloat("SYNTHETIC_NOISE", SYNTHETIC_NOISE);
+            editor.putFloat("SYNTHETIC_DROPOUT_RATE", SYNTHETIC_DROPOUT_RATE);
+            editor.putFloat("SYNTHETIC_HANDEDNESS_FLIP_RATE", SYNTHETIC_HANDEDNESS_FLIP_RATE);
+            editor.putBoolean("RESULT_RECORDING_ENABLED", RESULT_RECORDING_ENABLED);
+            editor.putFloat("PREVIEW_WINDOW_ALPHA", PREVIEW_WINDOW_ALPHA);
+            editor.putInt("MAX_PREVIEW_WINDOW_WIDTH", MAX_PREVIEW_WINDOW_WIDTH);
+            editor.putInt("AVOIDANCE_PREVIEW_WIDTH", AVOIDANCE_PREVIEW_WIDTH);
+            editor.putInt("AVOIDANCE_PREVIEW_HEIGHT", AVOIDANCE_PREVIEW_HEIGHT);
+            editor.putLong("PINCH_THRESHOLD", Double.doubleToRawLongBits(PINCH_THRESHOLD));
+            editor.putLong("PINCH_RELEASE_THRESHOLD", Double.doubleToRawLongBits(PINCH_RELEASE_THRESHOLD));
+            editor.putLong("FIST_THRESHOLD", Double.doubleToRawLongBits(FIST_THRESHOLD));
+            editor.putLong("FIST_RELEASE_THRESHOLD", Double.doubleToRawLongBits(FIST_RELEASE_THRESHOLD));
+            editor.putInt("POSE_VOTE_REQUIRED", POSE_VOTE_REQUIRED);
+            editor.putInt("POSE_VOTE_WINDOW", POSE_VOTE_WINDOW);
+            editor.putBoolean("PREDICTIVE_CLICK_ENABLED", PREDICTIVE_CLICK_ENABLED);
+            editor.putLong("PREDICTIVE_CLICK_HORIZON_MS", PREDICTIVE_CLICK_HORIZON_MS);
+            editor.putLong("PREDICTIVE_CLICK_TIMEOUT_MS", PREDICTIVE_CLICK_TIMEOUT_MS);
+            editor.putLong("IDLE_TIMEOUT_MS", IDLE_TIMEOUT_MS);
+            editor.putInt("STANDBY_ANALYSIS_FPS", STANDBY_ANALYSIS_FPS);
+            editor.putFloat("STANDBY_MOTION_THRESHOLD", STANDBY_MOTION_THRESHOLD);
+            editor.putFloat("SKELETON_MIN_CUTOFF_HZ", SKELETON_MIN_CUTOFF_HZ);
+            editor.putFloat("SKELETON_TIP_MIN_CUTOFF_HZ", SKELETON_TIP_MIN_CUTOFF_HZ);
+            editor.putFloat("SKELETON_BETA", SKELETON_BETA);
+            editor.putFloat("SKELETON_DERIVATIVE_CUTOFF_HZ", SKELETON_DERIVATIVE_CUTOFF_HZ);
+            editor.putBoolean("SNAP_ENABLED", SNAP_ENABLED);
+            editor.putInt("SNAP_RADIUS_PX", SNAP_RADIUS_PX);
+            editor.putInt("SNAP_STICKINESS_PX", SNAP_STICKINESS_PX);
+            editor.putBoolean("RELATIVE_CURSOR_ENABLED", RELATIVE_CURSOR_ENABLED);
+            editor.putFloat("BALLISTICS_MIN_GAIN", BALLISTICS_MIN_GAIN);
+            editor.putFloat("BALLISTICS_MAX_GAIN", BALLISTICS_MAX_GAIN);
+            editor.putFloat("BALLISTICS_LOW_SPEED", BALLISTICS_LOW_SPEED);
+            editor.putFloat("BALLISTICS_HIGH_SPEED", BALLISTICS_HIGH_SPEED);
+            editor.putBoolean("POINTER_TRACE_ENABLED", POINTER_TRACE_ENABLED);
+            editor.putBoolean("INTERACTION_BOX_ENABLED", INTERACTION_BOX_ENABLED);
+            editor.putFloat("INTERACTION_BOX_LEFT", INTERACTION_BOX_LEFT);
+            editor.putFloat("INTERACTION_BOX_TOP", INTERACTION_BOX_TOP);
+            editor.putFloat("INTERACTION_BOX_RIGHT", INTERACTION_BOX_RIGHT);
+            editor.putFloat("INTERACTION_BOX_BOTTOM", INTERACTION_BOX_BOTTOM);
+            editor.putInt("INTERACTION_BOX_ROTATION", INTERACTION_BOX_ROTATION);
+            editor.putLong("CLICK_DEBOUNCE", CLICK_DEBOUNCE);
+            editor.putLong("HOME_DEBOUNCE", HOME_DEBOUNCE);
+            editor.putLong("BACK_DEBOUNCE", BACK_DEBOUNCE);
+            editor.putLong("TAP_DURATION_MS", TAP_DURATION_MS);
+            editor.putBoolean("NODE_CLICK_ENABLED", NODE_CLICK_ENABLED);
+            editor.putLong("SCROLL_INTERVAL", SCROLL_INTERVAL);
+            editor.putFloat("FLING_MIN_VELOCITY", FLING_MIN_VELOCITY);
+        }
+
+        /**
+         * @throws IllegalArgumentException 设置值之间相互矛盾或超出范围时。
+         */
+        public SettingsSnapshot build() {
+            if (CAMERA_WIDTH <= 0 || CAMERA_HEIGHT <= 0 || DESIRED_CAMERA_FPS <= 0) {
+                throw new IllegalArgumentException("Invalid camera configuration");
+            }
+            if (FRAME_POOL_SIZE < 1 || INFERENCE_DECIMATION < 1) {
+                throw new IllegalArgumentException("Frame pool size and inference decimation must be at least 1");
+            }
+            if (FLOW_MIN_CONFIDENCE < 0f || FLOW_MIN_CONFIDENCE > 1f || FLOW_POSE_CHANGE_THRESHOLD < 0f || FLOW_PINCH_GUARD < 0f) {
+                throw new IllegalArgumentException("Invalid optical flow propagation settings");
+            }
+            if (VIDEO_QUEUE_CAPACITY < 1 || VIDEO_THROTTLE_FPS < 1) {
+                throw new IllegalArgumentException("Video queue capacity and throttle fps must be at least 1");
+            }
+            if (FILE_SOURCE_FPS < 1 || FILE_SOURCE_SENSOR_ROTATION < 0 || FILE_SOURCE_SENSOR_ROTATION >= 360
+                    || FILE_SOURCE_SENSOR_ROTATION % 90 != 0) {
+                throw new IllegalArgumentException("Invalid file frame source configuration");
+            }
+            if (STUB_LATENCY_MS < 0 || STUB_LATENCY_JITTER_MS < 0 || STUB_SPIKE_INTERVAL < 0 || STUB_SPIKE_MS < 0) {
+                throw new IllegalArgumentException("Stub inference latency settings must not be negative");
+            }
+            if (SYNTHETIC_NOISE < 0f || SYNTHETIC_DROPOUT_RATE < 0f || SYNTHETIC_DROPOUT_RATE > 1f
+                    || SYNTHETIC_HANDEDNESS_FLIP_RATE < 0f || SYNTHETIC_HANDEDNESS_FLIP_RATE > 1f) {
+                throw new IllegalArgumentException("Invalid synthetic hand settings");
+            }
+            if (PINCH_RELEASE_THRESHOLD < PINCH_THRESHOLD || FIST_RELEASE_THRESHOLD < FIST_THRESHOLD) {
+                throw new IllegalArgumentException("Release thresholds must not be below trigger thresholds");
+            }
+            if (POSE_VOTE_WINDOW < 1 || POSE_VOTE_WINDOW > Integer.SIZE
+                    || POSE_VOTE_REQUIRED < 1 || POSE_VOTE_REQUIRED > POSE_VOTE_WINDOW) {
+                throw new IllegalArgumentException("Invalid vote " + POSE_VOTE_REQUIRED + " of " + POSE_VOTE_WINDOW);
+            }
+            if (INTERACTION_BOX_LEFT < 0f || INTERACTION_BOX_TOP < 0f || INTERACTION_BOX_RIGHT > 1f || INTERACTION_BOX_BOTTOM > 1f
+                    || INTERACTION_BOX_LEFT >= INTERACTION_BOX_RIGHT || INTERACTION_BOX_TOP >= INTERACTION_BOX_BOTTOM) {
+                throw new IllegalArgumentException("Invalid interaction box");
+            }
+            if (BALLISTICS_MIN_GAIN <= 0f || BALLISTICS_MAX_GAIN < BALLISTICS_MIN_GAIN
+                    || BALLISTICS_LOW_SPEED < 0f || BALLISTICS_HIGH_SPEED <= BALLISTICS_LOW_SPEED) {
+                throw new IllegalArgumentException("Invalid pointer acceleration curve");
+            }
+            if (PREVIEW_WINDOW_ALPHA < 0f || PREVIEW_WINDOW_ALPHA > 1f) {
+                throw new IllegalArgumentException("Preview alpha must be within [0, 1]");
+            }
+            // 截止频率为0时滤波器的平滑系数为0，骨架会停在第一帧不动
+            if (!(SKELETON_MIN_CUTOFF_HZ > 0f) || !(SKELETON_TIP_MIN_CUTOFF_HZ > 0f)
+                    || !(SKELETON_DERIVATIVE_CUTOFF_HZ > 0f) || !(SKELETON_BETA >= 0f)) {
+                throw new IllegalArgumentException("Skeleton filter cutoffs must be positive and beta must not be negative");
+            }
+            if (SNAP_RADIUS_PX < 0 || SNAP_STICKINESS_PX < 0 || !(FLING_MIN_VELOCITY >= 0f)) {
+                throw new IllegalArgumentException("Snap distances and fling velocity must not be negative");
+            }
+            if (TAP_DURATION_MS <= 0) {
+                throw new IllegalArgumentException("Tap duration must be positive");
+            }
+            if (CLICK_DEBOUNCE < 0 || HOME_DEBOUNCE < 0 || BACK_DEBOUNCE < 0 || SCROLL_INTERVAL < 0
+                    || IDLE_TIMEOUT_MS < 0 || PREDICTIVE_CLICK_HORIZON_MS < 0 || PREDICTIVE_CLICK_TIMEOUT_MS < 0
+                    || MAX_EXPOSURE_TIME_NS < 0) {
+                throw new IllegalArgumentException("Durations must not be negative");
+            }
+            return new SettingsSnapshot(this);
+        }
+
+        private static <E extends Enum<E>> E readEnum(SharedPreferences preferences, String key, E fallback) {
+            String name = preferences.getString(key, null);
+            if (name == null) return fallback;
+            try {
+                return Enum.valueOf(fallback.getDeclaringClass(), name);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Unknown " + key + " value " + name + ", falling back to " + fallback);
+                return fallback;
+            }
+        }
+    }
+}
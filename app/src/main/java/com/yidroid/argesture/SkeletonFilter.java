@@ -0,0 +1,102 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/SkeletonFilter.java
+// 描述: 整只手骨架的时域滤波（One Euro 滤波器）。21个关节点的X/Y/Z坐标按结构数组
+//       连续存放在一个 float[] 中，所有通道在同一个无分支的循环里更新，便于JIT向量化。
+//       每个关节点可设置独立的最小截止频率。整个过程不分配内存。
+// =================================================================================
+package com.yidroid.argesture;
+
+public class SkeletonFilter {
+
+    /**
+     * 坐标通道数：21个关节点 × 3个轴。数据布局为 [x0..x20, y0..y20, z0..z20]。
+     */
+    public static final int CHANNELS = HandFeatures.LANDMARK_COUNT * 3;
+
+    private static final float TWO_PI = (float) (2 * Math.PI);
+
+    /**
+     * 每个通道的最小截止频率（Hz）。同一关节点的三个轴取相同的值。
+     */
+    private final float[] minCutoff = new float[CHANNELS];
+    private float beta;
+    private float derivativeCutoff;
+
+    private final float[] filtered = new float[CHANNELS];
+    private final float[] derivative = new float[CHANNELS];
+    private boolean hasPrevious = false;
+    private long lastTimestampMs;
+
+    /**
+     * @param minCutoffHz 所有关节点的默认最小截止频率，越低静止时越平滑。
+     * @param beta 速度系数，越大移动时截止频率升得越快，延迟越小。
+     * @param derivativeCutoffHz 速度估计本身的截止频率。
+     */
+    public SkeletonFilter(float minCutoffHz, float beta, float derivativeCutoffHz) {
+        setParameters(minCutoffHz, beta, derivativeCutoffHz);
+    }
+
+    /**
+     * 重新设置全部参数，已设置的单独关节点截止频率会被覆盖。
+     */
+    public void setParameters(float minCutoffHz, float beta, float derivativeCutoffHz) {
+        for (int i = 0; i < CHANNELS; i++) {
+            minCutoff[i] = minCutoffHz;
+        }
+        this.beta = beta;
+        this.derivativeCutoff = derivativeCutoffHz;
+    }
+
+    /**
+     * 为单个关节点设置最小截止频率。
+     */
+    public void setJointCutoff(int joint, float minCutoffHz) {
+        for (int axis = 0; axis < 3; axis++) {
+            minCutoff[axis * HandFeatures.LANDMARK_COUNT + joint] = minCutoffHz;
+        }
+    }
+
+    /**
+     * 原地滤波一帧坐标。第一帧直接作为初值；时间戳不递增的帧（例如复用的结果）输出上一次的结果。
+     * @param coords 长度为 {@link #CHANNELS} 的坐标数组，滤波结果写回该数组。
+     * @param timestampMs 该帧的时间戳。
+     */
+    public void apply(float[] coords, long timestampMs) {
+        if (!hasPrevious) {
+            System.arraycopy(coords, 0, filtered, 0, CHANNELS);
+            for (int i = 0; i < CHANNELS; i++) {
+                derivative[i] = 0f;
+            }
+            hasPrevious = true;
+            lastTimestampMs = timestampMs;
+            return;
+        }
+        if (timestampMs <= lastTimestampMs) {
+            System.arraycopy(filtered, 0, coords, 0, CHANNELS);
+            return;
+        }
+        float dt = (timestampMs - lastTimestampMs) / 1000f;
+        lastTimestampMs = timestampMs;
+
+        // 平滑系数 alpha = r / (r + 1)，其中 r = 2π·fc·dt，等价于 1 / (1 + τ/dt)
+        float derivativeRate = TWO_PI * derivativeCutoff * dt;
+        float derivativeAlpha = derivativeRate / (derivativeRate + 1f);
+        float invDt = 1f / dt;
+        float twoPiDt = TWO_PI * dt;
+        float[] f = filtered, d = derivative, c = minCutoff;
+        for (int i = 0; i < CHANNELS; i++) {
+            float value = coords[i];
+            float previous = f[i];
+            float dx = d[i] + derivativeAlpha * ((value - previous) * invDt - d[i]);
+            d[i] = dx;
+            float rate = twoPiDt * (c[i] + beta * Math.abs(dx));
+            float result = previous + rate / (rate + 1f) * (value - previous);
+            f[i] = result;
+            coords[i] = result;
+        }
+    }
+
+    public void reset() {
+        hasPrevious = false;
+    }
+}
@@ -0,0 +1,373 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/StrokeRecognizer.java
+// 描述: 增量式轨迹识别器。指尖轨迹存放在定长环形缓冲区中并维护累计路径长度，
+//       识别时按弧长重采样，再以 Protractor 方法与模板（顺/逆时针画圈、四向滑动、
+//       Z字形）比较。每帧的计算量有上限，识别过程不分配内存。
+// =================================================================================
+package com.yidroid.argesture;
+
+public class StrokeRecognizer {
+
+    public enum Stroke {
+        NONE,
+        CIRCLE_CW,
+        CIRCLE_CCW,
+        SWIPE_LEFT,
+        SWIPE_RIGHT,
+        SWIPE_UP,
+        SWIPE_DOWN,
+        ZIGZAG
+    }
+
+    /**
+     * 环形缓冲区容量，约为2秒的轨迹。
+     */
+    private static final int CAPACITY = 48;
+    /**
+     * 重采样点数，也是模板向量的点数。
+     */
+    private static final int RESAMPLE_POINTS = 32;
+    /**
+     * 参与识别所需的最少轨迹点数量。
+     */
+    private static final int MIN_POINTS = 10;
+    /**
+     * 轨迹外接矩形的最小边长（归一化坐标），用于过滤手部抖动产生的小轨迹。
+     */
+    private static final float MIN_STROKE_SIZE = 0.1f;
+    /**
+     * 闭合图形的首尾最大距离（归一化坐标）。
+     */
+    private static final float CLOSURE_DISTANCE = 0.05f;
+    /**
+     * Protractor 余弦相似度阈值，低于该值视为不匹配。
+     */
+    private static final float MATCH_THRESHOLD = 0.85f;
+    /**
+     * 判断指尖停顿所看的最近线段数。开放轨迹（滑动、Z字形）只在停顿后识别，
+     * 避免画圈或Z字形的开头被提前识别为滑动。
+     */
+    private static final int PAUSE_SEGMENTS = 3;
+    /**
+     * 最近几段线段的总长度低于该值视为停顿（归一化坐标）。
+     */
+    private static final float PAUSE_DISTANCE = 0.02f;
+
+    /**
+     * 一个模板：归一化后的向量及允许的最大旋转角度。
+     */
+    private static final class Template {
+        final Stroke stroke;
+        final float[] vector = new float[RESAMPLE_POINTS * 2];
+        final float maxRotation;
+        final boolean closed;
+
+        Template(Stroke stroke, float maxRotation, boolean closed) {
+            this.stroke = stroke;
+            this.maxRotation = maxRotation;
+            this.closed = closed;
+        }
+    }
+
+    // --- 环形缓冲区及累计量 ---
+    private final float[] xs = new float[CAPACITY];
+    private final float[] ys = new float[CAPACITY];
+    /**
+     * 每个点与前一个点之间的线段长度，最旧的点为0。
+     */
+    private final float[] segmentLengths = new float[CAPACITY];
+    private int head = 0;
+    private int count = 0;
+    private float pathLength = 0f;
+
+    // --- 识别时使用的预分配缓冲区 ---
+    private final float[] resampled = new float[RESAMPLE_POINTS * 2];
+    private final Template[] templates;
+    private float lastScore = 0f;
+
+    public StrokeRecognizer() {
+        float quarter = (float) (Math.PI / 4);
+        float full = (float) Math.PI;
+        templates = new Template[] {
+                createTemplate(Stroke.CIRCLE_CW, full, true),
+                createTemplate(Stroke.CIRCLE_CCW, full, true),
+                createTemplate(Stroke.SWIPE_LEFT, quarter, false),
+                createTemplate(Stroke.SWIPE_RIGHT, quarter, false),
+                createTemplate(Stroke.SWIPE_UP, quarter, false),
+                createTemplate(Stroke.SWIPE_DOWN, quarter, false),
+                createTemplate(Stroke.ZIGZAG, full, false)
+        };
+    }
+
+    /**
+     * 追加一个轨迹点。缓冲区已满时覆盖最旧的点，并从累计长度中减去被移出的线段。
+     */
+    public void addPoint(float x, float y) {
+        if (count == CAPACITY) {
+            head = (head + 1) % CAPACITY;
+            count--;
+            pathLength -= segmentLengths[head];
+            segmentLengths[head] = 0f;
+            if (pathLength < 0f) pathLength = 0f;
+        }
+        int index = (head + count) % CAPACITY;
+        if (count > 0) {
+            int previous = (index + CAPACITY - 1) % CAPACITY;
+            float dx = x - xs[previous], dy = y - ys[previous];
+            float length = (float) Math.sqrt(dx * dx + dy * dy);
+            segmentLengths[index] = length;
+            pathLength += length;
+        } else {
+            segmentLengths[index] = 0f;
+        }
+        xs[index] = x;
+        ys[index] = y;
+        count++;
+    }
+
+    /**
+     * 清空当前轨迹。
+     */
+    public void reset() {
+        head = 0;
+        count = 0;
+        pathLength = 0f;
+    }
+
+    /**
+     * 将当前轨迹与模板比较。指尖停顿视为一笔结束，此时用开放模板与整个缓冲区比较；
+     * 移动过程中只用闭合模板与以最新点结尾、首尾相接的最短尾段比较。
+     * @return 相似度最高且超过阈值的轨迹类型，否则返回 {@link Stroke#NONE}。
+     */
+    public Stroke recognize() {
+        lastScore = 0f;
+        if (count < MIN_POINTS || pathLength < MIN_STROKE_SIZE) return Stroke.NONE;
+
+        Stroke best = Stroke.NONE;
+        float bestScore = MATCH_THRESHOLD;
+
+        if (isPaused()) {
+            if (vectorize(0, count - 1, pathLength)) {
+                for (Template template : templates) {
+                    if (template.closed) continue;
+                    float score = match(template);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = template.stroke;
+                    }
+                }
+            }
+            if (best == Stroke.NONE) {
+                // 停顿即笔画结束：没有匹配时丢弃这一笔，从停顿点开始新的一笔
+                restartFromLastPoint();
+                return Stroke.NONE;
+            }
+            lastScore = bestScore;
+            return best;
+        }
+
+        int loopStart = findLoopStart();
+        if (loopStart >= 0 && vectorize(loopStart, count - 1, lengthFrom(loopStart))) {
+            for (Template template : templates) {
+                if (!template.closed) continue;
+                float score = match(template);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = template.stroke;
+                }
+            }
+        }
+
+        if (best != Stroke.NONE) lastScore = bestScore;
+        return best;
+    }
+
+    /**
+     * @return 上一次识别成功时的相似度。
+     */
+    public float getLastScore() {
+        return lastScore;
+    }
+
+    public static boolean isCircle(Stroke stroke) {
+        return stroke == Stroke.CIRCLE_CW || stroke == Stroke.CIRCLE_CCW;
+    }
+
+    private void restartFromLastPoint() {
+        int last = slot(count - 1);
+        float x = xs[last], y = ys[last];
+        reset();
+        addPoint(x, y);
+    }
+
+    private boolean isPaused() {
+        float recent = 0f;
+        for (int offset = count - PAUSE_SEGMENTS; offset < count; offset++) {
+            recent += segmentLengths[slot(offset)];
+        }
+        return recent < PAUSE_DISTANCE;
+    }
+
+    private int slot(int offset) {
+        return (head + offset) % CAPACITY;
+    }
+
+    /**
+     * 从最新点向前查找：累计长度超过最小轨迹尺寸的两倍后，第一个回到最新点附近的点。
+     * @return 该点在缓冲区中的偏移量；没有闭合时返回-1。
+     */
+    private int findLoopStart() {
+        int last = slot(count - 1);
+        float endX = xs[last], endY = ys[last];
+        float closureSq = CLOSURE_DISTANCE * CLOSURE_DISTANCE;
+        float minLoopLength = MIN_STROKE_SIZE * 2f;
+        float accumulated = 0f;
+        for (int offset = count - 2; offset >= 0; offset--) {
+            accumulated += segmentLengths[slot(offset + 1)];
+            if (accumulated < minLoopLength) continue;
+            int index = slot(offset);
+            float dx = xs[index] - endX, dy = ys[index] - endY;
+            if (dx * dx + dy * dy <= closureSq) return offset;
+        }
+        return -1;
+    }
+
+    private float lengthFrom(int startOffset) {
+        float length = 0f;
+        for (int offset = startOffset + 1; offset < count; offset++) {
+            length += segmentLengths[slot(offset)];
+        }
+        return length;
+    }
+
+    /**
+     * 将 [startOffset, endOffset] 区间按弧长重采样到 {@link #resampled}，然后平移到质心并归一化。
+     * @return 轨迹尺寸足够大时返回 true。
+     */
+    private boolean vectorize(int startOffset, int endOffset, float length) {
+        float interval = length / (RESAMPLE_POINTS - 1);
+        if (interval <= 0f) return false;
+
+        int first = slot(startOffset);
+        float ax = xs[first], ay = ys[first];
+        resampled[0] = ax;
+        resampled[1] = ay;
+        int written = 1;
+        float accumulated = 0f;
+        for (int offset = startOffset + 1; offset <= endOffset && written < RESAMPLE_POINTS; offset++) {
+            int index = slot(offset);
+            float bx = xs[index], by = ys[index];
+            float remaining = segmentLengths[index];
+            while (remaining > 0f && accumulated + remaining >= interval && written < RESAMPLE_POINTS) {
+                float t = (interval - accumulated) / remaining;
+                ax += t * (bx - ax);
+                ay += t * (by - ay);
+                resampled[written * 2] = ax;
+                resampled[written * 2 + 1] = ay;
+                written++;
+                remaining -= interval - accumulated;
+                accumulated = 0f;
+            }
+            accumulated += remaining;
+            ax = bx;
+            ay = by;
+        }
+        int last = slot(endOffset);
+        for (; written < RESAMPLE_POINTS; written++) {
+            resampled[written * 2] = xs[last];
+            resampled[written * 2 + 1] = ys[last];
+        }
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < RESAMPLE_POINTS; i++) {
+            float x = resampled[i * 2], y = resampled[i * 2 + 1];
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+        }
+        if (Math.max(maxX - minX, maxY - minY) < MIN_STROKE_SIZE) return false;
+
+        normalize(resampled);
+        return true;
+    }
+
+    /**
+     * Protractor：求使两向量余弦相似度最大的旋转角（受模板允许的旋转范围限制）并返回该相似度。
+     */
+    private float match(Template template) {
+        float[] t = template.vector;
+        float a = 0f, b = 0f;
+        for (int i = 0; i < RESAMPLE_POINTS * 2; i += 2) {
+            a += t[i] * resampled[i] + t[i + 1] * resampled[i + 1];
+            b += t[i] * resampled[i + 1] - t[i + 1] * resampled[i];
+        }
+        float angle = (float) Math.atan2(b, a);
+        if (angle > template.maxRotation) angle = template.maxRotation;
+        else if (angle < -template.maxRotation) angle = -template.maxRotation;
+        return (float) (a * Math.cos(angle) + b * Math.sin(angle));
+    }
+
+    /**
+     * 平移到质心并缩放为单位向量。
+     */
+    private static void normalize(float[] vector) {
+        float cx = 0f, cy = 0f;
+        for (int i = 0; i < RESAMPLE_POINTS * 2; i += 2) {
+            cx += vector[i];
+            cy += vector[i + 1];
+        }
+        cx /= RESAMPLE_POINTS;
+        cy /= RESAMPLE_POINTS;
+        float magnitude = 0f;
+        for (int i = 0; i < RESAMPLE_POINTS * 2; i += 2) {
+            vector[i] -= cx;
+            vector[i + 1] -= cy;
+            magnitude += vector[i] * vector[i] + vector[i + 1] * vector[i + 1];
+        }
+        magnitude = (float) Math.sqrt(magnitude);
+        if (magnitude <= 0f) return;
+        for (int i = 0; i < RESAMPLE_POINTS * 2; i++) {
+            vector[i] /= magnitude;
+        }
+    }
+
+    /**
+     * 按弧长均匀生成模板点（图像坐标系，Y轴向下），然后归一化。
+     */
+    private static Template createTemplate(Stroke stroke, float maxRotation, boolean closed) {
+        Template template = new Template(stroke, maxRotation, closed);
+        float[] v = template.vector;
+        for (int i = 0; i < RESAMPLE_POINTS; i++) {
+            float s = (float) i / (RESAMPLE_POINTS - 1);
+            float x, y;
+            switch (stroke) {
+                case CIRCLE_CW:
+                case CIRCLE_CCW: {
+                    double angle = 2 * Math.PI * s * (stroke == Stroke.CIRCLE_CW ? 1 : -1);
+                    x = (float) Math.cos(angle);
+                    y = (float) Math.sin(angle);
+                    break;
+                }
+                case SWIPE_LEFT: x = -s; y = 0f; break;
+                case SWIPE_RIGHT: x = s; y = 0f; break;
+                case SWIPE_UP: x = 0f; y = -s; break;
+                case SWIPE_DOWN: x = 0f; y = s; break;
+                case ZIGZAG: {
+                    // 四段等长折线：右下、右上、右下、右上
+                    float segment = s * 4f;
+                    int index = Math.min((int) segment, 3);
+                    float local = segment - index;
+                    x = segment;
+                    y = (index % 2 == 0) ? local : 1f - local;
+                    break;
+                }
+                default: x = 0f; y = 0f; break;
+            }
+            v[i * 2] = x;
+            v[i * 2 + 1] = y;
+        }
+        normalize(v);
+        return template;
+    }
+}
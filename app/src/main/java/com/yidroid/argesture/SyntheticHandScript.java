@@ -0,0 +1,301 @@
+// =================================================================================
+// 文件: app/src/main/java/com/yidroid/argesture/SyntheticHandScript.java
+// 描述: 程序化生成的关节点脚本：由若干段“姿态 + 运动轨迹 + 帧数”组成，循环播放。
+//       段与段之间按关节角插值过渡，并按固定种子加入坐标噪声、整手丢失（遮挡）和左右手分类翻转，
+//       相同的种子和段序列总是产生相同的结果序列。可接入 ScriptedInferenceBackend 压测流水线，
+//       也可在桌面JVM上直接驱动 GestureEngine 做属性测试和吞吐测试。
+// =================================================================================
+package com.yidroid.argesture;
+
+import com.google.mediapipe.tasks.components.containers.Category;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SyntheticHandScript implements LandmarkScript {
+
+    private static final float HANDEDNESS_SCORE = 0.97f;
+    private static final float FLIPPED_HANDEDNESS_SCORE = 0.62f;
+
+    private final List<Segment> segments;
+    private final Random random;
+    private final float startX, startY;
+    private final float scale;
+    private final float roll;
+    private final String handedness;
+    private final float amplitude;
+    private final int transitionFrames;
+    private final float noise;
+    private final float dropoutRate;
+    private final float handednessFlipRate;
+
+    private final float[] local = new float[HandPose.LANDMARK_COUNT * 3];
+    private final float[] offset = new float[2];
+    private int segmentIndex = 0;
+    private int frameInSegment = 0;
+    /**
+     * 当前段的起点，即上一段结束时的位置；每个循环开始时回到初始位置。
+     */
+    private float segmentX, segmentY;
+    private HandPose previousPose;
+
+    private SyntheticHandScript(Builder builder) {
+        this.segments = new ArrayList<>(builder.segments);
+        this.random = new Random(builder.seed);
+        this.startX = builder.startX;
+        this.startY = builder.startY;
+        this.scale = builder.scale;
+        this.roll = builder.roll;
+        this.handedness = builder.handedness;
+        this.amplitude = builder.amplitude;
+        this.transitionFrames = builder.transitionFrames;
+        this.noise = builder.noise;
+        this.dropoutRate = builder.dropoutRate;
+        this.handednessFlipRate = builder.handednessFlipRate;
+        this.segmentX = startX;
+        this.segmentY = startY;
+    }
+
+    /**
+     * 依次演示所有内置姿态和轨迹的脚本：张开手掌移动、食指画圈、三指捏合点击、双指滚动、
+     * 勾指返回、握拳回桌面，以及手离开画面。
+     */
+    public static SyntheticHandScript demo(long seed, float noise, float dropoutRate, float handednessFlipRate) {
+        return new Builder(seed)
+                .noise(noise)
+                .dropoutRate(dropoutRate)
+                .handednessFlipRate(handednessFlipRate)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 30)
+                .segment(HandPose.OPEN_PALM, HandMotion.SWIPE_RIGHT, 20)
+                .segment(HandPose.OPEN_PALM, HandMotion.SWIPE_LEFT, 20)
+                .segment(HandPose.INDEX_UP, HandMotion.HOLD, 10)
+                .segment(HandPose.INDEX_UP, HandMotion.CIRCLE_CW, 45)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 20)
+                .segment(HandPose.THREE_FINGER_PINCH, HandMotion.HOLD, 8)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 30)
+                .segment(HandPose.TWO_UP, HandMotion.HOLD, 10)
+                .segment(HandPose.TWO_UP, HandMotion.SWIPE_UP, 20)
+                .segment(HandPose.OPEN_PALM, HandMotion.SWIPE_DOWN, 20)
+                .segment(HandPose.THREE_UP, HandMotion.HOLD, 12)
+                .segment(HandPose.HOOK, HandMotion.HOLD, 10)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 30)
+                .segment(HandPose.FIST, HandMotion.HOLD, 20)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 20)
+                .gap(30)
+                .build();
+    }
+
+    /**
+     * @return 一个循环的总帧数。
+     */
+    public int getFrameCount() {
+        int frames = 0;
+        for (Segment segment : segments) {
+            frames += segment.frames;
+        }
+        return frames;
+    }
+
+    @Override
+    public HandResult next(long timestampMs) {
+        Segment segment = segments.get(segmentIndex);
+        HandResult result = segment.pose == null ? HandResult.empty(timestampMs) : generate(segment, timestampMs);
+        if (++frameInSegment >= segment.frames) {
+            if (segment.pose != null) {
+                segment.motion.offset(1f, amplitude, offset);
+                segmentX += offset[0];
+                segmentY += offset[1];
+            }
+            previousPose = segment.pose;
+            frameInSegment = 0;
+            segmentIndex = (segmentIndex + 1) % segments.size();
+            if (segmentIndex == 0) {
+                segmentX = startX;
+                segmentY = startY;
+            }
+        }
+        return result;
+    }
+
+    private HandResult generate(Segment segment, long timestampMs) {
+        // 随机数每帧按固定顺序取用，结果只取决于种子和帧序号
+        boolean dropped = random.nextFloat() < dropoutRate;
+        boolean flipped = random.nextFloat() < handednessFlipRate;
+
+        HandPose pose = segment.pose;
+        if (previousPose != null && frameInSegment < transitionFrames) {
+            pose = HandPose.interpolate(previousPose, pose, (frameInSegment + 1f) / (transitionFrames + 1f));
+        }
+        pose.solve(local);
+        float t = segment.frames <= 1 ? 1f : (float) frameInSegment / (segment.frames - 1);
+        segment.motion.offset(t, amplitude, offset);
+        float originX = segmentX + offset[0];
+        float originY = segmentY + offset[1];
+
+        // 左手是右手的镜像：拇指在画面+X一侧。分类翻转只改变标签，模拟分类器误判
+        float mirror = "Left".equals(handedness) ? -1f : 1f;
+        float cos = (float) Math.cos(roll), sin = (float) Math.sin(roll);
+        List<NormalizedLandmark> landmarks = new ArrayList<>(HandPose.LANDMARK_COUNT);
+        for (int i = 0; i < HandPose.LANDMARK_COUNT; i++) {
+            float lx = local[i * 3], ly = local[i * 3 + 1], lz = local[i * 3 + 2];
+            float rx = lx * cos - ly * sin;
+            float ry = lx * sin + ly * cos;
+            landmarks.add(NormalizedLandmark.create(
+                    originX + mirror * rx * scale + gaussian(),
+                    originY - ry * scale + gaussian(),
+                    lz * scale + gaussian()));
+        }
+        if (dropped) {
+            return HandResult.empty(timestampMs);
+        }
+
+        String label = flipped ? ("Left".equals(handedness) ? "Right" : "Left") : handedness;
+        List<Category> categories = Collections.singletonList(Category.create(
+                flipped ? FLIPPED_HANDEDNESS_SCORE : HANDEDNESS_SCORE, "Left".equals(label) ? 0 : 1, label, label));
+        return new HandResult(Collections.singletonList(landmarks), Collections.singletonList(categories), timestampMs);
+    }
+
+    private float gaussian() {
+        return noise > 0f ? (float) random.nextGaussian() * noise : 0f;
+    }
+
+    private static final class Segment {
+        /**
+         * 为null时表示画面中没有手。
+         */
+        final HandPose pose;
+        final HandMotion motion;
+        final int frames;
+
+        Segment(HandPose pose, HandMotion motion, int frames) {
+            this.pose = pose;
+            this.motion = motion;
+            this.frames = frames;
+        }
+    }
+
+    public static class Builder {
+        private final long seed;
+        private final List<Segment> segments = new ArrayList<>();
+        private float startX = 0.5f, startY = 0.6f;
+        private float scale = 0.2f;
+        private float roll = 0f;
+        private String handedness = "Right";
+        private float amplitude = 0.15f;
+        private int transitionFrames = 4;
+        private float noise = 0f;
+        private float dropoutRate = 0f;
+        private float handednessFlipRate = 0f;
+
+        public Builder(long seed) {
+            this.seed = seed;
+        }
+
+        /**
+         * 追加一段：保持姿态 pose，沿 motion 运动 frames 帧。段开始的 transitionFrames 帧从上一段的姿态过渡而来。
+         */
+        public Builder segment(HandPose pose, HandMotion motion, int frames) {
+            if (pose == null || motion == null || frames < 1) {
+                throw new IllegalArgumentException("Segment needs a pose, a motion and at least one frame");
+            }
+            segments.add(new Segment(pose, motion, frames));
+            return this;
+        }
+
+        /**
+         * 追加一段画面中没有手的帧。
+         */
+        public Builder gap(int frames) {
+            if (frames < 1) {
+                throw new IllegalArgumentException("Gap needs at least one frame");
+            }
+            segments.add(new Segment(null, HandMotion.HOLD, frames));
+            return this;
+        }
+
+        /**
+         * @param x 手腕的初始位置（归一化画面坐标）。
+         * @param y 手腕的初始位置（归一化画面坐标）。
+         */
+        public Builder start(float x, float y) {
+            this.startX = x;
+            this.startY = y;
+            return this;
+        }
+
+        /**
+         * @param scale 手掌长度（归一化画面坐标），即手与镜头的距离。
+         */
+        public Builder scale(float scale) {
+            this.scale = scale;
+            return this;
+        }
+
+        /**
+         * @param roll 手在画面内的旋转角（弧度），正值为顺时针。
+         */
+        public Builder roll(float roll) {
+            this.roll = roll;
+            return this;
+        }
+
+        /**
+         * @param handedness "Right" 或 "Left"。
+         */
+        public Builder handedness(String handedness) {
+            this.handedness = handedness;
+            return this;
+        }
+
+        /**
+         * @param amplitude 画圈的半径和滑动的距离（归一化画面坐标）。
+         */
+        public Builder amplitude(float amplitude) {
+            this.amplitude = amplitude;
+            return this;
+        }
+
+        public Builder transitionFrames(int transitionFrames) {
+            this.transitionFrames = transitionFrames;
+            return this;
+        }
+
+        /**
+         * @param noise 每个坐标分量上高斯噪声的标准差（归一化画面坐标）。
+         */
+        public Builder noise(float noise) {
+            this.noise = noise;
+            return this;
+        }
+
+        /**
+         * @param dropoutRate 每帧整手丢失（遮挡）的概率。
+         */
+        public Builder dropoutRate(float dropoutRate) {
+            this.dropoutRate = dropoutRate;
+            return this;
+        }
+
+        /**
+         * @param handednessFlipRate 每帧左右手分类结果翻转的概率。
+         */
+        public Builder handednessFlipRate(float handednessFlipRate) {
+            this.handednessFlipRate = handednessFlipRate;
+            return this;
+        }
+
+        public SyntheticHandScript build() {
+            if (segments.isEmpty()) {
+                throw new IllegalStateException("Script has no segments");
+            }
+            if (scale <= 0f || noise < 0f || transitionFrames < 0 || dropoutRate < 0f || dropoutRate > 1f
+                    || handednessFlipRate < 0f || handednessFlipRate > 1f) {
+                throw new IllegalArgumentException("Invalid synthetic hand parameters");
+            }
+            return new SyntheticHandScript(this);
+        }
+    }
+}
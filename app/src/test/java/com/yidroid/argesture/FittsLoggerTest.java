@@ -0,0 +1,112 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/FittsLoggerTest.java
+// 描述: Fitts定律统计：名义吞吐量、命中率、有效吞吐量的计算，以及不构成试验的点击。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FittsLoggerTest {
+
+    private static final double EPSILON = 1e-6;
+
+    private FittsLogger logger;
+
+    @Before
+    public void setUp() {
+        logger = new FittsLogger();
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    /**
+     * 点击以 (centerX, centerY) 为中心、宽高为20的目标。
+     */
+    private boolean click(float x, float y, long timestampMs, int centerX, int centerY) {
+        return logger.onClick(x, y, timestampMs, centerX - 10, centerY - 10, centerX + 10, centerY + 10);
+    }
+
+    @Test
+    public void firstClickOnlySetsStart() {
+        assertFalse(click(100, 0, 0, 100, 0));
+        assertEquals(0, logger.getTrialCount());
+        assertEquals(0, logger.getNominalThroughput(), EPSILON);
+    }
+
+    @Test
+    public void nominalThroughputAndHitRate() {
+        logger.onClick(0, 0, 0, 0, 0, 0, 0);
+        assertTrue(click(100, 0, 500, 100, 0));
+        assertEquals(1, logger.getTrialCount());
+        assertEquals(1f, logger.getHitRate(), 1e-6f);
+        // ID = log2(100 / 20 + 1)，MT = 0.5s
+        assertEquals(log2(6) / 0.5, logger.getNominalThroughput(), EPSILON);
+
+        // 从 (100, 0) 向下100像素，落在目标外
+        assertTrue(click(100, 115, 1000, 100, 100));
+        assertEquals(2, logger.getTrialCount());
+        assertEquals(0.5f, logger.getHitRate(), 1e-6f);
+    }
+
+    @Test
+    public void effectiveThroughputUsesEndpointSpread() {
+        logger.onClick(0, 0, 0, 0, 0, 0, 0);
+        assertEquals(0, logger.getEffectiveThroughput(), EPSILON);
+        // 第一次越过目标中心2像素，第二次差2像素
+        assertTrue(click(102, 0, 500, 100, 0));
+        assertEquals(0, logger.getEffectiveThroughput(), EPSILON);
+        assertTrue(click(200, 0, 1000, 202, 0));
+
+        double effectiveWidth = 4.133 * Math.sqrt(8);
+        double effectiveDistance = (102 + 98) / 2.0;
+        assertEquals(log2(effectiveDistance / effectiveWidth + 1) / 0.5, logger.getEffectiveThroughput(), 1e-4);
+    }
+
+    @Test
+    public void identicalEndpointsGiveNoEffectiveThroughput() {
+        logger.onClick(0, 0, 0, 0, 0, 0, 0);
+        click(100, 0, 500, 100, 0);
+        click(200, 0, 1000, 200, 0);
+        assertEquals(2, logger.getTrialCount());
+        assertEquals(0, logger.getEffectiveThroughput(), EPSILON);
+    }
+
+    @Test
+    public void clickWithoutTargetOnlyMovesStart() {
+        logger.onClick(0, 0, 0, 0, 0, 0, 0);
+        assertFalse(logger.onClick(50, 0, 300, 0, 0, 0, 0));
+        assertTrue(click(150, 0, 800, 150, 0));
+        // 起点是没有目标的那次点击
+        assertEquals(log2(6) / 0.5, logger.getNominalThroughput(), EPSILON);
+    }
+
+    @Test
+    public void rejectsSlowAndTooShortMovements() {
+        logger.onClick(0, 0, 0, 0, 0, 0, 0);
+        assertFalse(click(100, 0, 6000, 100, 0));
+        // 距离小于目标半宽，不算一次目标获取
+        assertFalse(click(105, 0, 6500, 100, 0));
+        // 时间没有前进
+        assertFalse(click(300, 0, 6500, 300, 0));
+        assertEquals(0, logger.getTrialCount());
+    }
+
+    @Test
+    public void breakSequenceAndReset() {
+        logger.onClick(0, 0, 0, 0, 0, 0, 0);
+        logger.breakSequence();
+        assertFalse(click(100, 0, 500, 100, 0));
+        assertTrue(click(200, 0, 1000, 200, 0));
+        assertEquals(1, logger.getTrialCount());
+
+        logger.reset();
+        assertEquals(0, logger.getTrialCount());
+        assertEquals(0f, logger.getHitRate(), 1e-6f);
+        assertFalse(click(300, 0, 1500, 300, 0));
+    }
+}
@@ -0,0 +1,191 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/HandFeaturesBenchmarkTest.java
+// 描述: 手部特征提取的前后对比基准。“之前”是改用 HandFeatures 前 GestureProcessor 中的检测器：
+//       每个检测器各自从关节点列表读取坐标，用 Math.pow 和 sqrt 计算距离；“之后”是每帧一次
+//       HandFeatures.compute，检测器读取掩码并按需计算距离平方，另外单独计时坐标已为骨架滤波载入时
+//       只计算派生特征的部分（GestureProcessor 实际走的路径）。几种实现对同一批合成帧给出相同的判定，
+//       在桌面JVM上交替计时，输出每帧耗时。数值只用于比较实现，不代表设备上的绝对耗时。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Test;
+
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class HandFeaturesBenchmarkTest {
+
+    private static final long FRAME_MS = 33;
+    private static final int ROUNDS = 15;
+    private static final int LOOPS_PER_ROUND = 200;
+
+    private static final SettingsSnapshot DEFAULTS = new SettingsSnapshot.Builder().build();
+    private static final int ALL_FINGERS = HandFeatures.THUMB_BIT | HandFeatures.INDEX_BIT | HandFeatures.MIDDLE_BIT
+            | HandFeatures.RING_BIT | HandFeatures.PINKY_BIT;
+    private static final int HOOK_FINGERS = HandFeatures.INDEX_BIT | HandFeatures.MIDDLE_BIT | HandFeatures.RING_BIT;
+
+    /**
+     * 改用 HandFeatures 之前的检测器，逻辑与当时的 GestureProcessor 相同。
+     * 返回值按位记录各检测器的结果：1 捏合，2 握拳，4 食指伸出，8 勾指准备，16 勾指。
+     */
+    private static int legacyDetect(List<NormalizedLandmark> landmarks) {
+        int result = 0;
+        double distThumbIndex = getDistance(landmarks.get(4), landmarks.get(8));
+        double distThumbMiddle = getDistance(landmarks.get(4), landmarks.get(12));
+        double distIndexMiddle = getDistance(landmarks.get(8), landmarks.get(12));
+        if (distThumbIndex < DEFAULTS.PINCH_THRESHOLD && distThumbMiddle < DEFAULTS.PINCH_THRESHOLD
+                && distIndexMiddle < DEFAULTS.PINCH_THRESHOLD) {
+            result |= 1;
+        }
+
+        NormalizedLandmark wrist = landmarks.get(0);
+        if (getDistance(landmarks.get(8), wrist) < DEFAULTS.FIST_THRESHOLD
+                && getDistance(landmarks.get(12), wrist) < DEFAULTS.FIST_THRESHOLD
+                && getDistance(landmarks.get(16), wrist) < DEFAULTS.FIST_THRESHOLD
+                && getDistance(landmarks.get(20), wrist) < DEFAULTS.FIST_THRESHOLD) {
+            result |= 2;
+        }
+
+        boolean indexStraight = landmarks.get(8).y() < landmarks.get(6).y();
+        boolean middleBent = landmarks.get(12).y() > landmarks.get(10).y();
+        boolean ringBent = landmarks.get(16).y() > landmarks.get(14).y();
+        boolean pinkyBent = landmarks.get(20).y() > landmarks.get(18).y();
+        boolean thumbBent = landmarks.get(4).x() > landmarks.get(3).x();
+        if (indexStraight && middleBent && ringBent && pinkyBent && thumbBent) {
+            result |= 4;
+        }
+
+        boolean middleStraight = landmarks.get(12).y() < landmarks.get(10).y();
+        boolean ringStraight = landmarks.get(16).y() < landmarks.get(14).y();
+        if (indexStraight && middleStraight && ringStraight && pinkyBent && thumbBent) {
+            result |= 8;
+        }
+        boolean indexHooked = landmarks.get(8).y() > landmarks.get(5).y();
+        boolean middleHooked = landmarks.get(12).y() > landmarks.get(9).y();
+        boolean ringHooked = landmarks.get(16).y() > landmarks.get(13).y();
+        if (indexHooked && middleHooked && ringHooked) {
+            result |= 16;
+        }
+        return result;
+    }
+
+    private static double getDistance(NormalizedLandmark p1, NormalizedLandmark p2) {
+        return Math.sqrt(Math.pow(p1.x() - p2.x(), 2) + Math.pow(p1.y() - p2.y(), 2) + Math.pow(p1.z() - p2.z(), 2));
+    }
+
+    /**
+     * 现在的检测方式，返回值的各位与 {@link #legacyDetect} 相同。
+     */
+    private static int featureDetect(HandFeatures features, List<NormalizedLandmark> landmarks) {
+        features.compute(landmarks);
+        return detectDerived(features);
+    }
+
+    /**
+     * 只计算派生特征并判定。GestureProcessor 为骨架滤波已经把坐标载入 coords，检测只额外付出这一部分。
+     */
+    private static int detectDerived(HandFeatures features) {
+        features.computeDerived();
+        int result = 0;
+        if (features.isPinchedWithin(DEFAULTS.PINCH_THRESHOLD)) result |= 1;
+        if (features.isFistWithin(DEFAULTS.FIST_THRESHOLD)) result |= 2;
+        if (features.matchesExtension(HandFeatures.INDEX_BIT, ALL_FINGERS)) result |= 4;
+        if (features.matchesExtension(HOOK_FINGERS, ALL_FINGERS)) result |= 8;
+        if ((features.hookedMask & HOOK_FINGERS) == HOOK_FINGERS) result |= 16;
+        return result;
+    }
+
+    private static List<List<NormalizedLandmark>> demoFrames() {
+        SyntheticHandScript script = SyntheticHandScript.demo(5, 0.002f, 0f, 0f);
+        List<List<NormalizedLandmark>> frames = new ArrayList<>();
+        for (int i = 0; i < script.getFrameCount(); i++) {
+            HandResult result = script.next((i + 1) * FRAME_MS);
+            if (!result.landmarks().isEmpty()) frames.add(result.landmarks().get(0));
+        }
+        return frames;
+    }
+
+    @Test
+    public void featureDetectionMatchesLegacyDetectors() {
+        HandFeatures features = new HandFeatures();
+        int[] counts = new int[5];
+        for (List<NormalizedLandmark> landmarks : demoFrames()) {
+            int legacy = legacyDetect(landmarks);
+            assertEquals(legacy, featureDetect(features, landmarks));
+            for (int bit = 0; bit < counts.length; bit++) {
+                if ((legacy & (1 << bit)) != 0) counts[bit]++;
+            }
+        }
+        // 演示脚本包含捏合、握拳、食指伸出和勾指，每个检测器都应被覆盖到
+        for (int count : counts) {
+            assertTrue(count > 0);
+        }
+    }
+
+    @Test
+    public void beforeAfterBenchmark() {
+        List<List<NormalizedLandmark>> frames = demoFrames();
+        int count = frames.size();
+        HandFeatures features = new HandFeatures();
+        // 每帧一个已载入坐标的实例，对应 GestureProcessor 中骨架滤波后原地留在 coords 里的坐标
+        HandFeatures[] loaded = new HandFeatures[count];
+        for (int i = 0; i < count; i++) {
+            loaded[i] = new HandFeatures();
+            loaded[i].load(frames.get(i));
+        }
+        double bestLegacy = Double.MAX_VALUE, bestCompute = Double.MAX_VALUE, bestDerived = Double.MAX_VALUE;
+        long sink = 0;
+        // 几种实现交替计时，各取最快的一轮，减少JIT和调度的干扰；第一轮只作预热
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int loop = 0; loop < LOOPS_PER_ROUND; loop++) {
+                for (int i = 0; i < count; i++) {
+                    sink += legacyDetect(frames.get(i));
+                }
+            }
+            double legacyNanos = (double) (System.nanoTime() - start) / (LOOPS_PER_ROUND * count);
+
+            start = System.nanoTime();
+            for (int loop = 0; loop < LOOPS_PER_ROUND; loop++) {
+                for (int i = 0; i < count; i++) {
+                    sink -= featureDetect(features, frames.get(i));
+                }
+            }
+            double computeNanos = (double) (System.nanoTime() - start) / (LOOPS_PER_ROUND * count);
+
+            start = System.nanoTime();
+            for (int loop = 0; loop < LOOPS_PER_ROUND; loop++) {
+                for (int i = 0; i < count; i++) {
+                    sink += detectDerived(loaded[i]);
+                }
+            }
+            double derivedNanos = (double) (System.nanoTime() - start) / (LOOPS_PER_ROUND * count);
+
+            start = System.nanoTime();
+            for (int loop = 0; loop < LOOPS_PER_ROUND; loop++) {
+                for (int i = 0; i < count; i++) {
+                    sink -= legacyDetect(frames.get(i));
+                }
+            }
+            legacyNanos = Math.min(legacyNanos, (double) (System.nanoTime() - start) / (LOOPS_PER_ROUND * count));
+            if (round > 0) {
+                bestLegacy = Math.min(bestLegacy, legacyNanos);
+                bestCompute = Math.min(bestCompute, computeNanos);
+                bestDerived = Math.min(bestDerived, derivedNanos);
+            }
+        }
+        System.out.println(String.format(Locale.US,
+                "Gesture detection per frame (%d frames x %d loops, best of %d rounds): before %.3f us, "
+                        + "after compute() %.3f us, after computeDerived() on loaded coords %.3f us",
+                count, LOOPS_PER_ROUND, ROUNDS, bestLegacy / 1e3, bestCompute / 1e3, bestDerived / 1e3));
+        // 几种实现的判定相同，累加后抵消
+        assertEquals(0, sink);
+        // 坐标已载入时，检测不应比改用 HandFeatures 之前更慢
+        assertTrue("derived " + bestDerived + " ns vs legacy " + bestLegacy + " ns", bestDerived <= bestLegacy);
+    }
+}
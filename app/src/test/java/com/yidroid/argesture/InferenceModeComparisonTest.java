@@ -0,0 +1,182 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/InferenceModeComparisonTest.java
+// 描述: 在虚拟时间上对比 LIVE_STREAM 与 VIDEO 两种推理方式的丢帧和延迟，结果可复现。
+//       帧池和帧队列使用真实实现，推理耗时由固定种子的 LatencyModel 给出：
+//       LIVE_STREAM 按 MediaPipe 的行为建模（推理中最多再排队一帧，其余新帧被丢弃，与 ScriptedInferenceBackend 相同）；
+//       VIDEO 由单个推理线程从 FrameQueue 取帧，节奏策略分别取 DROP_OLDEST 和 SKIP_NEWEST。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class InferenceModeComparisonTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final long DURATION_MS = 20_000;
+    private static final int LIVE_STREAM_MAX_IN_FLIGHT = 2;
+
+    /**
+     * 一次模拟的统计结果。
+     */
+    private static final class Report {
+        final String name;
+        long frames;
+        long results;
+        long inferenceDrops;
+        long poolDrops;
+        long[] latenciesNs = new long[64];
+
+        Report(String name) {
+            this.name = name;
+        }
+
+        void addLatency(long latencyNs) {
+            if (results == latenciesNs.length) {
+                latenciesNs = Arrays.copyOf(latenciesNs, latenciesNs.length * 2);
+            }
+            latenciesNs[(int) results++] = latencyNs;
+        }
+
+        double meanMs() {
+            long sum = 0;
+            for (int i = 0; i < results; i++) sum += latenciesNs[i];
+            return results > 0 ? sum / (double) results / NANOS_PER_MS : 0;
+        }
+
+        double percentileMs(double p) {
+            long[] sorted = Arrays.copyOf(latenciesNs, (int) results);
+            Arrays.sort(sorted);
+            return sorted.length > 0 ? sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))] / (double) NANOS_PER_MS : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-20s frames=%d results=%d inference drops=%d pool drops=%d "
+                            + "latency mean=%.1fms p95=%.1fms max=%.1fms",
+                    name, frames, results, inferenceDrops, poolDrops, meanMs(), percentileMs(0.95), percentileMs(1.0));
+        }
+    }
+
+    @Test
+    public void videoDropOldestKeepsLatencyBoundedUnderSpikes() {
+        SettingsSnapshot config = new SettingsSnapshot.Builder().build();
+        for (int fps : new int[]{30, 60, 120}) {
+            // 基础 25ms ± 8ms，每 30 帧一次 +120ms 的尖峰
+            Report live = simulateLiveStream(fps, config, LatencyModel.synthetic(25, 8, 30, 120, 7));
+            Report dropOldest = simulateVideo(fps, config, FramePacing.DROP_OLDEST, LatencyModel.synthetic(25, 8, 30, 120, 7));
+            Report skipNewest = simulateVideo(fps, config, FramePacing.SKIP_NEWEST, LatencyModel.synthetic(25, 8, 30, 120, 7));
+            System.out.println(fps + " fps:\n  " + live + "\n  " + dropOldest + "\n  " + skipNewest);
+
+            for (Report report : new Report[]{live, dropOldest, skipNewest}) {
+                assertEquals(report.name + " accounts for every frame",
+                        report.frames, report.results + report.inferenceDrops + report.poolDrops);
+            }
+            // VIDEO + DROP_OLDEST 总是推理最新的帧：最坏延迟不超过一次推理加一次尖峰
+            assertTrue(dropOldest.percentileMs(1.0) <= live.percentileMs(1.0));
+            assertTrue(dropOldest.meanMs() <= live.meanMs());
+            assertTrue(dropOldest.percentileMs(1.0) < 25 + 8 + 120 + 1000.0 / fps);
+        }
+    }
+
+    /**
+     * LIVE_STREAM：提交不阻塞，推理器串行工作，推理中最多再排队一帧，超出时丢弃新帧。
+     */
+    private static Report simulateLiveStream(int fps, SettingsSnapshot config, LatencyModel latencyModel) {
+        Report report = new Report("LIVE_STREAM");
+        FramePool pool = new FramePool(config.FRAME_POOL_SIZE);
+        long periodNs = 1_000_000_000L / fps;
+        FramePool.Frame[] inFlight = new FramePool.Frame[LIVE_STREAM_MAX_IN_FLIGHT];
+        long[] doneNs = new long[LIVE_STREAM_MAX_IN_FLIGHT];
+        int inFlightCount = 0;
+        long busyUntilNs = 0;
+        for (long arrivalNs = 0; arrivalNs < DURATION_MS * NANOS_PER_MS; arrivalNs += periodNs) {
+            // 先交付在本帧到达前完成的结果
+            while (inFlightCount > 0 && doneNs[0] <= arrivalNs) {
+                report.addLatency(doneNs[0] - inFlight[0].submitNanos);
+                pool.release(inFlight[0]);
+                inFlight[0] = inFlight[1];
+                doneNs[0] = doneNs[1];
+                inFlightCount--;
+            }
+            report.frames++;
+            FramePool.Frame frame = pool.acquire(640, 480);
+            if (frame == null) continue;
+            frame.submitNanos = arrivalNs;
+            if (inFlightCount >= LIVE_STREAM_MAX_IN_FLIGHT) {
+                report.inferenceDrops++;
+                pool.release(frame);
+                continue;
+            }
+            busyUntilNs = Math.max(arrivalNs, busyUntilNs) + latencyModel.nextLatencyMs() * NANOS_PER_MS;
+            inFlight[inFlightCount] = frame;
+            doneNs[inFlightCount] = busyUntilNs;
+            inFlightCount++;
+        }
+        for (int i = 0; i < inFlightCount; i++) {
+            report.addLatency(doneNs[i] - inFlight[i].submitNanos);
+            pool.release(inFlight[i]);
+        }
+        assertEquals(0, pool.getLeasedCount());
+        report.poolDrops = pool.getDroppedCount();
+        return report;
+    }
+
+    /**
+     * VIDEO：相机线程向 FrameQueue 提交，单个推理线程空闲时取出一帧同步推理，完成后归还该帧。
+     */
+    private static Report simulateVideo(int fps, SettingsSnapshot config, FramePacing pacing, LatencyModel latencyModel) {
+        Report report = new Report("VIDEO/" + pacing);
+        FramePool pool = new FramePool(config.FRAME_POOL_SIZE);
+        FrameQueue queue = new FrameQueue(pool, config.VIDEO_QUEUE_CAPACITY, pacing.create(config));
+        long periodNs = 1_000_000_000L / fps;
+        long taken = 0;
+        FramePool.Frame running = null;
+        long runningDoneNs = 0;
+        long endNs = DURATION_MS * NANOS_PER_MS;
+        long arrivalNs = 0;
+        while (arrivalNs < endNs || running != null) {
+            if (running != null && (runningDoneNs <= arrivalNs || arrivalNs >= endNs)) {
+                long nowNs = runningDoneNs;
+                report.addLatency(nowNs - running.submitNanos);
+                pool.release(running);
+                running = null;
+                if (queue.getOfferedCount() - queue.getDroppedCount() - taken > 0) {
+                    running = take(queue);
+                    taken++;
+                    runningDoneNs = nowNs + latencyModel.nextLatencyMs() * NANOS_PER_MS;
+                }
+                continue;
+            }
+            report.frames++;
+            FramePool.Frame frame = pool.acquire(640, 480);
+            if (frame != null) {
+                frame.submitNanos = arrivalNs;
+                queue.offer(frame);
+                if (running == null) {
+                    running = take(queue);
+                    taken++;
+                    runningDoneNs = arrivalNs + latencyModel.nextLatencyMs() * NANOS_PER_MS;
+                }
+            }
+            arrivalNs += periodNs;
+        }
+        queue.close();
+        assertEquals(0, pool.getLeasedCount());
+        report.inferenceDrops = queue.getDroppedCount();
+        report.poolDrops = pool.getDroppedCount();
+        return report;
+    }
+
+    private static FramePool.Frame take(FrameQueue queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
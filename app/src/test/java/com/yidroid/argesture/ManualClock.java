@@ -0,0 +1,30 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/ManualClock.java
+// 描述: 手动推进的时钟，供测试按帧间隔推进时间。
+// =================================================================================
+package com.yidroid.argesture;
+
+public class ManualClock implements Clock {
+
+    private volatile long nowMs;
+
+    public ManualClock(long startMs) {
+        this.nowMs = startMs;
+    }
+
+    @Override
+    public long nowMs() {
+        return nowMs;
+    }
+
+    public void set(long nowMs) {
+        this.nowMs = nowMs;
+    }
+
+    /**
+     * 推进时间，只应在驱动测试的单个线程上调用。
+     */
+    public void advance(long deltaMs) {
+        this.nowMs += deltaMs;
+    }
+}
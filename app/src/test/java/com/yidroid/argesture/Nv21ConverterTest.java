@@ -0,0 +1,193 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/Nv21ConverterTest.java
+// 描述: NV21到ARGB的转换：已知像素的颜色，以及0、90、180、270度旋转后每个像素的位置。
+//       另有一个吞吐量测试，用帧文件读取器和转换器回放一段合成文件，输出每帧耗时。
+//       数值只用于比较实现和发现数量级的退化，不代表设备上的绝对耗时。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class Nv21ConverterTest {
+
+    private static final int WIDTH = 4;
+    private static final int HEIGHT = 2;
+
+    private File file;
+
+    @After
+    public void deleteFile() {
+        if (file != null) file.delete();
+    }
+
+    /**
+     * 4x2 的灰度画面（色度为128），8个像素的亮度各不相同：
+     * <pre>
+     * a b c d
+     * e f g h
+     * </pre>
+     */
+    private static ByteBuffer grayFrame() {
+        byte[] nv21 = new byte[WIDTH * HEIGHT * 3 / 2];
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            nv21[i] = (byte) luma(i);
+        }
+        for (int i = WIDTH * HEIGHT; i < nv21.length; i++) {
+            nv21[i] = (byte) 128;
+        }
+        return ByteBuffer.wrap(nv21);
+    }
+
+    private static int luma(int pixel) {
+        return 16 + 25 * pixel;
+    }
+
+    /**
+     * 色度为128时 R、G、B 都等于 1.164 * (Y - 16)（定点运算）。
+     */
+    private static int gray(int pixel) {
+        int level = (1192 * (luma(pixel) - 16)) >> 10;
+        return 0xFF000000 | (level << 16) | (level << 8) | level;
+    }
+
+    private static int[] convert(ByteBuffer nv21, int rotationDegrees) {
+        int[] out = new int[WIDTH * HEIGHT];
+        Nv21Converter.toArgb(nv21, WIDTH, HEIGHT, rotationDegrees, out);
+        return out;
+    }
+
+    /**
+     * @param layout 旋转后按行排列的源像素编号（a=0 … h=7）。
+     */
+    private static void assertLayout(int[] out, int... layout) {
+        for (int i = 0; i < layout.length; i++) {
+            assertEquals("output pixel " + i, Integer.toHexString(gray(layout[i])), Integer.toHexString(out[i]));
+        }
+    }
+
+    @Test
+    public void convertsKnownColors() {
+        // 每列交替 Y=16 和 Y=235；左侧 2x2 块 V=240（偏红），右侧 2x2 块 U=240（偏蓝）。
+        // NV21 的色度平面按 V、U 交错
+        byte[] nv21 = {16, (byte) 235, 16, (byte) 235, 16, (byte) 235, 16, (byte) 235,
+                (byte) 240, (byte) 128, (byte) 128, (byte) 240};
+        int[] out = new int[WIDTH * HEIGHT];
+        Nv21Converter.toArgb(ByteBuffer.wrap(nv21), WIDTH, HEIGHT, 0, out);
+        int[] expected = {0xFFB20000, 0xFFFFA3FE, 0xFF0000E1, 0xFFFED3FF};
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int column = 0; column < WIDTH; column++) {
+                assertEquals("pixel " + column + "," + row, Integer.toHexString(expected[column]),
+                        Integer.toHexString(out[row * WIDTH + column]));
+            }
+        }
+    }
+
+    @Test
+    public void grayLevelsMatchBt601LimitedRange() {
+        byte[] nv21 = new byte[WIDTH * HEIGHT * 3 / 2];
+        byte[] levels = {16, (byte) 235, (byte) 126, 0, (byte) 255, 16, 16, 16};
+        System.arraycopy(levels, 0, nv21, 0, levels.length);
+        for (int i = WIDTH * HEIGHT; i < nv21.length; i++) nv21[i] = (byte) 128;
+        int[] out = new int[WIDTH * HEIGHT];
+        Nv21Converter.toArgb(ByteBuffer.wrap(nv21), WIDTH, HEIGHT, 0, out);
+        assertEquals(0xFF000000, out[0]);
+        assertEquals(0xFFFEFEFE, out[1]);
+        assertEquals(0xFF808080, out[2]);
+        // 低于16的亮度按黑处理，高于235的截断为白
+        assertEquals(0xFF000000, out[3]);
+        assertEquals(0xFFFFFFFF, out[4]);
+    }
+
+    @Test
+    public void rotation0KeepsLayout() {
+        assertLayout(convert(grayFrame(), 0),
+                0, 1, 2, 3,
+                4, 5, 6, 7);
+    }
+
+    @Test
+    public void rotation90TurnsClockwise() {
+        // 输出为 2x4
+        assertLayout(convert(grayFrame(), 90),
+                4, 0,
+                5, 1,
+                6, 2,
+                7, 3);
+    }
+
+    @Test
+    public void rotation180FlipsBothAxes() {
+        assertLayout(convert(grayFrame(), 180),
+                7, 6, 5, 4,
+                3, 2, 1, 0);
+    }
+
+    @Test
+    public void rotation270TurnsCounterClockwise() {
+        assertLayout(convert(grayFrame(), 270),
+                3, 7,
+                2, 6,
+                1, 5,
+                0, 4);
+    }
+
+    @Test
+    public void readsFromBufferPositionWithoutMovingIt() {
+        ByteBuffer frame = grayFrame();
+        ByteBuffer padded = ByteBuffer.allocate(frame.capacity() + 5);
+        padded.position(5);
+        padded.put(frame.array());
+        padded.position(5);
+        assertLayout(convert(padded, 0),
+                0, 1, 2, 3,
+                4, 5, 6, 7);
+        assertEquals(5, padded.position());
+    }
+
+    @Test
+    public void fileReplayThroughput() throws IOException {
+        int width = 640, height = 480, frames = 30;
+        int frameSize = width * height * 3 / 2;
+        file = File.createTempFile("nv21", ".yuv");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            byte[] frame = new byte[frameSize];
+            for (int i = 0; i < frames; i++) {
+                for (int j = 0; j < frameSize; j++) {
+                    frame[j] = (byte) (i * 7 + j);
+                }
+                out.write(frame);
+            }
+        }
+        int[] argb = new int[width * height];
+        long sink = 0;
+        double bestNanos = Double.MAX_VALUE;
+        try (Nv21FileReader reader = new Nv21FileReader(file, width, height)) {
+            assertEquals(frames, reader.getFrameCount());
+            // 第一轮只作预热，之后各轮取最快的一轮
+            for (int round = 0; round <= 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < frames; i++) {
+                    Nv21Converter.toArgb(reader.frame(i), width, height, 90, argb);
+                    sink += argb[i];
+                }
+                double nanos = (double) (System.nanoTime() - start) / frames;
+                if (round > 0) bestNanos = Math.min(bestNanos, nanos);
+            }
+        }
+        System.out.println(String.format(Locale.US,
+                "NV21 file replay %dx%d, rotated 90: %.2f ms per frame, %.0f frames/s",
+                width, height, bestNanos / 1e6, 1e9 / bestNanos));
+        assertTrue(sink != 0);
+        // 文件回放至少要跟得上30fps的相机；只用于发现数量级的性能退化
+        assertTrue(bestNanos < 33_000_000);
+    }
+}
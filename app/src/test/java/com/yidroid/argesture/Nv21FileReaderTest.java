@@ -0,0 +1,117 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/Nv21FileReaderTest.java
+// 描述: NV21帧文件读取：按帧切片、大文件分段映射、不足一帧的文件和奇数尺寸被拒绝。
+//       每帧的每个字节都写入帧号，切片的内容可以直接核对。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class Nv21FileReaderTest {
+
+    private static final int WIDTH = 4;
+    private static final int HEIGHT = 2;
+    private static final int FRAME_SIZE = WIDTH * HEIGHT * 3 / 2;
+
+    private File file;
+
+    @After
+    public void deleteFile() {
+        if (file != null) file.delete();
+    }
+
+    /**
+     * 写入 frames 帧，第 i 帧的每个字节都是 i，末尾再追加 extraBytes 个字节。
+     */
+    private File writeFrames(int frames, int extraBytes) throws IOException {
+        file = File.createTempFile("nv21", ".yuv");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            byte[] frame = new byte[FRAME_SIZE];
+            for (int i = 0; i < frames; i++) {
+                Arrays.fill(frame, (byte) i);
+                out.write(frame);
+            }
+            out.write(new byte[extraBytes]);
+        }
+        return file;
+    }
+
+    private static void assertFrame(ByteBuffer frame, int index) {
+        assertEquals(0, frame.position());
+        assertEquals(FRAME_SIZE, frame.remaining());
+        for (int i = 0; i < FRAME_SIZE; i++) {
+            assertEquals("frame " + index + " byte " + i, (byte) index, frame.get(i));
+        }
+    }
+
+    @Test
+    public void slicesEachFrame() throws IOException {
+        try (Nv21FileReader reader = new Nv21FileReader(writeFrames(5, 0), WIDTH, HEIGHT)) {
+            assertEquals(WIDTH, reader.getWidth());
+            assertEquals(HEIGHT, reader.getHeight());
+            assertEquals(5, reader.getFrameCount());
+            for (int i = 0; i < 5; i++) {
+                assertFrame(reader.frame(i), i);
+            }
+            // 切片互相独立，读取一帧不影响之前返回的切片
+            ByteBuffer first = reader.frame(0);
+            reader.frame(4);
+            assertFrame(first, 0);
+        }
+    }
+
+    @Test
+    public void ignoresTrailingPartialFrame() throws IOException {
+        try (Nv21FileReader reader = new Nv21FileReader(writeFrames(3, FRAME_SIZE - 1), WIDTH, HEIGHT)) {
+            assertEquals(3, reader.getFrameCount());
+            assertFrame(reader.frame(2), 2);
+        }
+    }
+
+    @Test
+    public void splitsIntoWholeFrameChunks() throws IOException {
+        // 每段最多放下两帧半，按整数帧分为 2 + 2 + 1 三段
+        try (Nv21FileReader reader = new Nv21FileReader(writeFrames(5, 0), WIDTH, HEIGHT,
+                FRAME_SIZE * 5 / 2)) {
+            assertEquals(5, reader.getFrameCount());
+            for (int i = 0; i < 5; i++) {
+                assertFrame(reader.frame(i), i);
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsFrameIndexOutOfRange() throws IOException {
+        try (Nv21FileReader reader = new Nv21FileReader(writeFrames(2, 0), WIDTH, HEIGHT)) {
+            reader.frame(2);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFileShorterThanOneFrame() throws IOException {
+        new Nv21FileReader(writeFrames(0, FRAME_SIZE - 1), WIDTH, HEIGHT).close();
+    }
+
+    @Test
+    public void rejectsOddOrEmptyFrameSize() throws IOException {
+        File path = writeFrames(2, 0);
+        int[][] sizes = {{3, 2}, {4, 3}, {0, 2}, {4, -2}};
+        for (int[] size : sizes) {
+            try {
+                new Nv21FileReader(path, size[0], size[1]).close();
+                fail("Expected " + size[0] + "x" + size[1] + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+                // 预期的校验失败
+            }
+        }
+    }
+}
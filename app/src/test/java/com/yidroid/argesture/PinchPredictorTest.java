@@ -0,0 +1,162 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/PinchPredictorTest.java
+// 描述: 用合成手部脚本离线回放捏合预测，统计预测命中率、落空的预取和相对多帧投票确认的提前量。
+//       多帧投票按默认设置模拟：最近 POSE_VOTE_WINDOW 帧中有 POSE_VOTE_REQUIRED 帧捏合才确认点击。
+//       点击只由投票产生，预测只决定确认时能否使用预先取出的目标。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PinchPredictorTest {
+
+    private static final long FRAME_MS = 33;
+    private static final SettingsSnapshot DEFAULTS = new SettingsSnapshot.Builder().build();
+
+    /**
+     * 一次回放的统计结果。
+     */
+    private static final class Stats {
+        int trials;
+        /**
+         * 投票确认的点击次数。
+         */
+        int clicks;
+        /**
+         * 投票确认时已有预测按下、可以使用预先取出的目标的次数。
+         */
+        int hits;
+        /**
+         * 预测按下后投票始终没有确认、预取被丢弃的次数。
+         */
+        int wastedPresses;
+        /**
+         * 投票确认了，但预测没有按下（确认时再查找目标）的次数。
+         */
+        int misses;
+        long leadFramesSum;
+
+        float hitRate() {
+            return (float) hits / trials;
+        }
+
+        @Override
+        public String toString() {
+            return "trials=" + trials + ", clicks=" + clicks + ", hits=" + hits + ", misses=" + misses
+                    + ", wasted presses=" + wastedPresses
+                    + ", mean lead=" + (hits > 0 ? (float) leadFramesSum / hits : 0f) + " frames";
+        }
+    }
+
+    @Test
+    public void completedPinchesArePredictedBeforeVoteConfirmation() {
+        Stats stats = new Stats();
+        for (int seed = 0; seed < 200; seed++) {
+            int transition = 4 + seed % 7;
+            int hold = 2 + seed % 5;
+            replay(new SyntheticHandScript.Builder(seed)
+                    .noise(0.003f)
+                    .transitionFrames(transition)
+                    .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 15)
+                    .segment(HandPose.THREE_FINGER_PINCH, HandMotion.HOLD, transition + hold)
+                    .segment(HandPose.OPEN_PALM, HandMotion.HOLD, transition + 15)
+                    .build(), stats);
+        }
+        System.out.println("Completed pinches: " + stats);
+        assertEquals(stats.trials, stats.clicks);
+        assertEquals(0, stats.wastedPresses);
+        assertTrue("hit rate " + stats.hitRate(), stats.hitRate() >= 0.9f);
+        assertTrue("predicted presses should lead the vote", stats.leadFramesSum >= stats.hits);
+    }
+
+    @Test
+    public void nearMissesDoNotClick() {
+        Stats stats = new Stats();
+        for (int seed = 0; seed < 200; seed++) {
+            // 指尖停在捏合阈值之外（约 0.07 到 0.1）后张开
+            float depth = 0.55f + 0.13f * (seed % 11) / 10f;
+            int transition = 4 + seed % 7;
+            replay(new SyntheticHandScript.Builder(seed)
+                    .noise(0.003f)
+                    .transitionFrames(transition)
+                    .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 15)
+                    .segment(HandPose.interpolate(HandPose.OPEN_PALM, HandPose.THREE_FINGER_PINCH, depth), HandMotion.HOLD,
+                            transition + 6)
+                    .segment(HandPose.OPEN_PALM, HandMotion.HOLD, transition + 15)
+                    .build(), stats);
+        }
+        System.out.println("Near misses: " + stats);
+        assertEquals(0, stats.clicks);
+        assertEquals(0, stats.hits);
+        // 接近阈值的快速闭合大多会被预测按下；落空只丢弃预取的目标，不注入触摸
+    }
+
+    @Test
+    public void momentaryContactDoesNotClick() {
+        // 指尖只在一帧内越过阈值：预测会按下，但投票不会确认，预取必须被丢弃且不产生点击
+        Stats stats = new Stats();
+        replay(new SyntheticHandScript.Builder(1)
+                .transitionFrames(0)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 10)
+                .segment(HandPose.interpolate(HandPose.OPEN_PALM, HandPose.THREE_FINGER_PINCH, 0.6f), HandMotion.HOLD, 1)
+                .segment(HandPose.interpolate(HandPose.OPEN_PALM, HandPose.THREE_FINGER_PINCH, 0.67f), HandMotion.HOLD, 1)
+                .segment(HandPose.interpolate(HandPose.OPEN_PALM, HandPose.THREE_FINGER_PINCH, 0.72f), HandMotion.HOLD, 1)
+                .segment(HandPose.interpolate(HandPose.OPEN_PALM, HandPose.THREE_FINGER_PINCH, 0.76f), HandMotion.HOLD, 1)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 10)
+                .build(), stats);
+        assertEquals(0, stats.clicks);
+        assertEquals(0, stats.hits);
+        assertEquals(1, stats.wastedPresses);
+    }
+
+    /**
+     * 回放脚本的一个循环，按 GestureProcessor 的方式驱动预测器并模拟多帧投票：
+     * 预测器回到空闲时丢弃未确认的按下，投票确认时才点击。
+     */
+    private static void replay(SyntheticHandScript script, Stats stats) {
+        PinchPredictor predictor = new PinchPredictor();
+        HandFeatures features = new HandFeatures();
+        float threshold = (float) DEFAULTS.PINCH_THRESHOLD;
+        int window = DEFAULTS.POSE_VOTE_WINDOW;
+        int votes = 0;
+        boolean confirmed = false;
+        boolean pressPending = false;
+        int pressFrame = -1;
+        int frames = script.getFrameCount();
+        for (int frame = 0; frame < frames; frame++) {
+            long timestampMs = frame * FRAME_MS;
+            HandResult result = script.next(timestampMs);
+            if (result.landmarks().isEmpty()) continue;
+            features.compute(result.landmarks().get(0));
+            float maxDistanceSq = Math.max(features.tipDistanceSq(HandFeatures.THUMB, HandFeatures.INDEX),
+                    Math.max(features.tipDistanceSq(HandFeatures.THUMB, HandFeatures.MIDDLE),
+                            features.tipDistanceSq(HandFeatures.INDEX, HandFeatures.MIDDLE)));
+            float distance = (float) Math.sqrt(maxDistanceSq);
+            int action = predictor.update(distance, timestampMs, threshold, (float) DEFAULTS.PINCH_RELEASE_THRESHOLD,
+                    DEFAULTS.PREDICTIVE_CLICK_HORIZON_MS, DEFAULTS.PREDICTIVE_CLICK_TIMEOUT_MS);
+            if (action == PinchPredictor.ACTION_PRESS) {
+                pressPending = true;
+                pressFrame = frame;
+            } else if (pressPending && !predictor.isPressed() && !predictor.isCommitted()) {
+                pressPending = false;
+                stats.wastedPresses++;
+            }
+            votes = ((votes << 1) | (distance < threshold ? 1 : 0)) & ((1 << window) - 1);
+            if (!confirmed && Integer.bitCount(votes) >= DEFAULTS.POSE_VOTE_REQUIRED) {
+                confirmed = true;
+                stats.clicks++;
+                if (pressPending) {
+                    pressPending = false;
+                    stats.hits++;
+                    stats.leadFramesSum += frame - pressFrame;
+                } else {
+                    stats.misses++;
+                }
+            }
+        }
+        if (pressPending) stats.wastedPresses++;
+        stats.trials++;
+    }
+}
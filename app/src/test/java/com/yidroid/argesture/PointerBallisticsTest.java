@@ -0,0 +1,126 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/PointerBallisticsTest.java
+// 描述: 相对光标加速曲线：增益随速度平滑过渡，离合、采样间隔过长和乱序时间戳都不移动光标，
+//       光标限制在屏幕范围内。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PointerBallisticsTest {
+
+    private static final float MIN_GAIN = 0.6f, MAX_GAIN = 3f;
+    private static final float LOW_SPEED = 0.05f, HIGH_SPEED = 0.8f;
+    /**
+     * 增益为1时每个归一化单位对应的像素数。
+     */
+    private static final float UNIT_SCALE = 1000f;
+    private static final float MAX_X = 1079f, MAX_Y = 2399f;
+    private static final float EPSILON = 1e-3f;
+
+    private PointerBallistics ballistics;
+
+    @Before
+    public void setUp() {
+        ballistics = new PointerBallistics();
+        ballistics.configure(MIN_GAIN, MAX_GAIN, LOW_SPEED, HIGH_SPEED);
+        ballistics.setPosition(500f, 500f);
+    }
+
+    private void update(float x, float y, long timestampMs, boolean clutched) {
+        ballistics.update(x, y, timestampMs, clutched, UNIT_SCALE, UNIT_SCALE, MAX_X, MAX_Y);
+    }
+
+    @Test
+    public void gainFollowsSmoothstepBetweenThresholds() {
+        assertEquals(MIN_GAIN, ballistics.gainFor(0f), EPSILON);
+        assertEquals(MIN_GAIN, ballistics.gainFor(LOW_SPEED), EPSILON);
+        assertEquals(MAX_GAIN, ballistics.gainFor(HIGH_SPEED), EPSILON);
+        assertEquals(MAX_GAIN, ballistics.gainFor(10f), EPSILON);
+        assertEquals((MIN_GAIN + MAX_GAIN) / 2f, ballistics.gainFor((LOW_SPEED + HIGH_SPEED) / 2f), EPSILON);
+
+        float previous = ballistics.gainFor(0f);
+        for (float speed = 0f; speed <= 1f; speed += 0.01f) {
+            float gain = ballistics.gainFor(speed);
+            assertTrue("Gain must not decrease with speed", gain >= previous - EPSILON);
+            previous = gain;
+        }
+    }
+
+    @Test
+    public void firstSampleOnlySetsReference() {
+        update(0.2f, 0.8f, 1000, false);
+        assertEquals(500f, ballistics.getX(), EPSILON);
+        assertEquals(500f, ballistics.getY(), EPSILON);
+    }
+
+    @Test
+    public void slowMovementUsesMinimumGain() {
+        update(0.5f, 0.5f, 1000, false);
+        // 0.002 / 0.1s = 0.02/s，低于低速阈值
+        update(0.502f, 0.5f, 1100, false);
+        assertEquals(0.02f, ballistics.getLastSpeed(), EPSILON);
+        assertEquals(MIN_GAIN, ballistics.getLastGain(), EPSILON);
+        assertEquals(500f + 0.002f * MIN_GAIN * UNIT_SCALE, ballistics.getX(), 0.01f);
+        assertEquals(500f, ballistics.getY(), EPSILON);
+    }
+
+    @Test
+    public void fastMovementUsesMaximumGain() {
+        update(0.5f, 0.5f, 1000, false);
+        // 0.1 / 0.033s ≈ 3/s，高于高速阈值
+        update(0.5f, 0.4f, 1033, false);
+        assertEquals(MAX_GAIN, ballistics.getLastGain(), EPSILON);
+        assertEquals(500f - 0.1f * MAX_GAIN * UNIT_SCALE, ballistics.getY(), 0.1f);
+    }
+
+    @Test
+    public void clutchHoldsCursorAndReleaseDoesNotJump() {
+        update(0.5f, 0.5f, 1000, false);
+        update(0.3f, 0.3f, 1033, true);
+        update(0.1f, 0.1f, 1066, true);
+        assertEquals(500f, ballistics.getX(), EPSILON);
+        assertEquals(500f, ballistics.getY(), EPSILON);
+
+        // 松开离合后从手的新位置继续，只按之后的位移移动
+        update(0.1f, 0.1f, 1099, false);
+        assertEquals(500f, ballistics.getX(), EPSILON);
+        update(0.101f, 0.1f, 1199, false);
+        assertEquals(500f + 0.001f * MIN_GAIN * UNIT_SCALE, ballistics.getX(), 0.01f);
+    }
+
+    @Test
+    public void longGapResetsReferenceWithoutMoving() {
+        update(0.5f, 0.5f, 1000, false);
+        update(0.9f, 0.9f, 1500, false);
+        assertEquals(500f, ballistics.getX(), EPSILON);
+        assertEquals(0f, ballistics.getLastSpeed(), EPSILON);
+    }
+
+    @Test
+    public void staleTimestampIsIgnored() {
+        update(0.5f, 0.5f, 1000, false);
+        update(0.6f, 0.5f, 1000, false);
+        update(0.6f, 0.5f, 990, false);
+        assertEquals(500f, ballistics.getX(), EPSILON);
+    }
+
+    @Test
+    public void cursorIsClampedToScreen() {
+        update(0.5f, 0.5f, 1000, false);
+        update(0.9f, 0.0f, 1033, false);
+        assertEquals(MAX_X, ballistics.getX(), EPSILON);
+        assertEquals(0f, ballistics.getY(), EPSILON);
+    }
+
+    @Test
+    public void resetDropsReference() {
+        update(0.5f, 0.5f, 1000, false);
+        ballistics.reset();
+        update(0.6f, 0.5f, 1033, false);
+        assertEquals(500f, ballistics.getX(), EPSILON);
+    }
+}
@@ -0,0 +1,88 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/PointerReplay.java
+// 描述: 离线重放指尖轨迹，比较绝对模式和不同加速曲线下的目标获取吞吐量。
+//       同一段手部动作在不同增益下落点不同，命中率和有效吞吐量（落点分散程度）随之变化；
+//       动作本身是在录制时的模式下做出的，因此结果适合比较录制模式附近的参数调整，
+//       不能替代真人在新参数下适应后的测量。
+//       只属于测试源码，不打包进应用。编译单元测试后在桌面JVM上运行：
+//       java -cp <debugUnitTest classes> com.yidroid.argesture.PointerReplay pointer_trace.csv
+// =================================================================================
+package com.yidroid.argesture;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+public class PointerReplay {
+
+    private static final int MAX_SAMPLES = 200_000;
+
+    /**
+     * 以绝对模式重放：光标 = 录制时的映射（偏移 + 坐标 × 缩放）。
+     */
+    public static FittsLogger replayAbsolute(PointerTrace trace) {
+        FittsLogger logger = new FittsLogger();
+        float maxX = trace.getScreenWidth() - 1, maxY = trace.getScreenHeight() - 1;
+        for (int i = 0; i < trace.size(); i++) {
+            if ((trace.getFlags(i) & PointerTrace.FLAG_CLICK) == 0) continue;
+            float x = clamp(trace.getOffsetX() + trace.getX(i) * trace.getScaleX(), maxX);
+            float y = clamp(trace.getOffsetY() + trace.getY(i) * trace.getScaleY(), maxY);
+            click(logger, trace, i, x, y);
+        }
+        return logger;
+    }
+
+    /**
+     * 以相对模式和给定的加速曲线重放。光标从第一帧的绝对位置开始。
+     */
+    public static FittsLogger replayRelative(PointerTrace trace, float minGain, float maxGain,
+                                             float lowSpeed, float highSpeed) {
+        FittsLogger logger = new FittsLogger();
+        if (trace.size() == 0) return logger;
+        PointerBallistics ballistics = new PointerBallistics();
+        ballistics.configure(minGain, maxGain, lowSpeed, highSpeed);
+        float maxX = trace.getScreenWidth() - 1, maxY = trace.getScreenHeight() - 1;
+        ballistics.setPosition(clamp(trace.getOffsetX() + trace.getX(0) * trace.getScaleX(), maxX),
+                clamp(trace.getOffsetY() + trace.getY(0) * trace.getScaleY(), maxY));
+        for (int i = 0; i < trace.size(); i++) {
+            int flags = trace.getFlags(i);
+            ballistics.update(trace.getX(i), trace.getY(i), trace.getTimestamp(i), (flags & PointerTrace.FLAG_CLUTCH) != 0,
+                    trace.getScaleX(), trace.getScaleY(), maxX, maxY);
+            if ((flags & PointerTrace.FLAG_CLICK) != 0) {
+                click(logger, trace, i, ballistics.getX(), ballistics.getY());
+            }
+        }
+        return logger;
+    }
+
+    private static void click(FittsLogger logger, PointerTrace trace, int i, float x, float y) {
+        logger.onClick(x, y, trace.getTimestamp(i), trace.getTarget(i, 0), trace.getTarget(i, 1),
+                trace.getTarget(i, 2), trace.getTarget(i, 3));
+    }
+
+    private static float clamp(float value, float max) {
+        return value < 0f ? 0f : (value > max ? max : value);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 4) {
+            System.err.println("Usage: PointerReplay <pointer_trace.csv> [minGain lowSpeed highSpeed]");
+            return;
+        }
+        PointerTrace trace;
+        try (Reader reader = new FileReader(args[0])) {
+            trace = PointerTrace.read(reader, MAX_SAMPLES);
+        }
+        // 默认与 SettingsSnapshot 中 BALLISTICS_* 的默认值相同
+        float minGain = args.length == 4 ? Float.parseFloat(args[1]) : 0.6f;
+        float lowSpeed = args.length == 4 ? Float.parseFloat(args[2]) : 0.05f;
+        float highSpeed = args.length == 4 ? Float.parseFloat(args[3]) : 0.8f;
+        System.out.println("Samples: " + trace.size());
+        System.out.println("absolute            " + replayAbsolute(trace).summary());
+        float[] maxGains = {1.5f, 2f, 3f, 4f};
+        for (float maxGain : maxGains) {
+            FittsLogger logger = replayRelative(trace, minGain, maxGain, lowSpeed, highSpeed);
+            System.out.println("relative max " + maxGain + "x   " + logger.summary());
+        }
+    }
+}
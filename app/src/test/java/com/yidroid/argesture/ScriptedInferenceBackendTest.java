@@ -0,0 +1,123 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/ScriptedInferenceBackendTest.java
+// 描述: 桩推理后端的压测：以 120fps 以上的真实时间节奏提交帧，推理耗时带周期性尖峰，
+//       检查丢帧数、结果数和端到端延迟上限，以及关闭时不会归还仍在回调中使用的帧。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+public class ScriptedInferenceBackendTest {
+
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * 记录结果数、最大延迟，以及回调时帧是否仍被租用。
+     */
+    private static final class RecordingListener implements InferenceBackend.Listener {
+        final FramePool pool;
+        final AtomicInteger results = new AtomicInteger();
+        final AtomicInteger reclaimedWhileInUse = new AtomicInteger();
+        final AtomicLong maxLatencyNanos = new AtomicLong();
+        volatile long holdMs = 0;
+
+        RecordingListener(FramePool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void onResults(HandResult result, FramePool.Frame frame) {
+            long latency = System.nanoTime() - frame.submitNanos;
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            if (holdMs > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(holdMs));
+            }
+            // 回调期间帧必须仍被租用，否则相机线程可能已在覆盖它
+            if (pool.findLeased(frame.timestampMs) != frame) {
+                reclaimedWhileInUse.incrementAndGet();
+            }
+            results.incrementAndGet();
+        }
+
+        @Override
+        public void onError(String error) {
+            fail(error);
+        }
+    }
+
+    @Test
+    public void dropsFramesButBoundsLatencyAt120FpsWithSpikes() throws InterruptedException {
+        FramePool pool = new FramePool(POOL_SIZE);
+        RecordingListener listener = new RecordingListener(pool);
+        // 基础 20ms ± 5ms，每 20 帧一次 +100ms 的尖峰；推理器最多每秒完成约 40 帧
+        ScriptedInferenceBackend backend = new ScriptedInferenceBackend(SyntheticHandScript.demo(1, 0.002f, 0f, 0f),
+                LatencyModel.synthetic(20, 5, 20, 100, 3), pool, listener);
+
+        int submitted = 0;
+        int poolDrops = 0;
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / 125;
+        long start = System.nanoTime();
+        for (int i = 0; i < 250; i++) {
+            LockSupport.parkNanos(start + i * periodNanos - System.nanoTime());
+            FramePool.Frame frame = pool.acquire(64, 48);
+            if (frame == null) {
+                poolDrops++;
+                continue;
+            }
+            submitted++;
+            backend.submit(frame);
+        }
+        awaitReleased(pool);
+        backend.close();
+
+        int results = listener.results.get();
+        int drops = submitted - results;
+        System.out.println("submitted=" + submitted + ", pool drops=" + poolDrops + ", results=" + results
+                + ", backend drops=" + drops + ", max latency=" + TimeUnit.NANOSECONDS.toMillis(listener.maxLatencyNanos.get()) + "ms");
+
+        assertEquals(0, poolDrops);
+        // 2 秒内推理器最多完成约 80 帧，其余必须被丢弃而不是无限排队
+        assertTrue("results " + results, results >= 40 && results <= 100);
+        assertTrue("drops " + drops, drops >= 150);
+        // 最多排在一帧之后：两次最长推理（25ms + 100ms 尖峰）加调度余量
+        assertTrue(listener.maxLatencyNanos.get() < TimeUnit.MILLISECONDS.toNanos(2 * 125 + 100));
+        assertEquals(0, listener.reclaimedWhileInUse.get());
+        assertEquals(0, pool.getLeasedCount());
+    }
+
+    @Test
+    public void closeDoesNotReclaimFrameBeingDelivered() throws InterruptedException {
+        FramePool pool = new FramePool(POOL_SIZE);
+        RecordingListener listener = new RecordingListener(pool);
+        listener.holdMs = 200;
+        ScriptedInferenceBackend backend = new ScriptedInferenceBackend(SyntheticHandScript.demo(1, 0f, 0f, 0f),
+                LatencyModel.synthetic(10, 0, 0, 0, 0), pool, listener);
+
+        // 第一帧进入回调后阻塞，第二帧排队等待
+        backend.submit(pool.acquire(64, 48));
+        backend.submit(pool.acquire(64, 48));
+        Thread.sleep(50);
+        backend.close();
+        // 排队的帧被取消并立即归还，回调中的帧仍被租用
+        assertEquals(1, pool.getLeasedCount());
+
+        awaitReleased(pool);
+        assertEquals(1, listener.results.get());
+        assertEquals(0, listener.reclaimedWhileInUse.get());
+    }
+
+    private static void awaitReleased(FramePool pool) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getLeasedCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, pool.getLeasedCount());
+    }
+}
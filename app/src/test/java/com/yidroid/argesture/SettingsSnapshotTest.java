@@ -0,0 +1,73 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/SettingsSnapshotTest.java
+// 描述: 设置快照的校验：默认值可以通过，越界的时长、滤波参数和吸附距离在 build() 时被拒绝。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SettingsSnapshotTest {
+
+    private interface Mutation {
+        void apply(SettingsSnapshot.Builder builder);
+    }
+
+    private static void assertRejected(Mutation mutation) {
+        SettingsSnapshot.Builder builder = new SettingsSnapshot.Builder();
+        mutation.apply(builder);
+        try {
+            builder.build();
+            fail("Expected build() to reject the settings");
+        } catch (IllegalArgumentException expected) {
+            // 预期的校验失败
+        }
+    }
+
+    @Test
+    public void defaultsAreValid() {
+        SettingsSnapshot snapshot = new SettingsSnapshot.Builder().build();
+        assertTrue(snapshot.TAP_DURATION_MS > 0);
+    }
+
+    @Test
+    public void rejectsNonPositiveTapDuration() {
+        assertRejected(b -> b.TAP_DURATION_MS = 0);
+        assertRejected(b -> b.TAP_DURATION_MS = -20);
+    }
+
+    @Test
+    public void rejectsNegativeDurations() {
+        assertRejected(b -> b.CLICK_DEBOUNCE = -1);
+        assertRejected(b -> b.HOME_DEBOUNCE = -1);
+        assertRejected(b -> b.BACK_DEBOUNCE = -1);
+        assertRejected(b -> b.SCROLL_INTERVAL = -1);
+        assertRejected(b -> b.IDLE_TIMEOUT_MS = -1);
+        assertRejected(b -> b.PREDICTIVE_CLICK_HORIZON_MS = -1);
+        assertRejected(b -> b.PREDICTIVE_CLICK_TIMEOUT_MS = -1);
+    }
+
+    @Test
+    public void rejectsInvalidFilterParameters() {
+        assertRejected(b -> b.SKELETON_MIN_CUTOFF_HZ = -1f);
+        assertRejected(b -> b.SKELETON_MIN_CUTOFF_HZ = 0f);
+        assertRejected(b -> b.SKELETON_TIP_MIN_CUTOFF_HZ = -0.5f);
+        assertRejected(b -> b.SKELETON_DERIVATIVE_CUTOFF_HZ = Float.NaN);
+        assertRejected(b -> b.SKELETON_BETA = -1f);
+    }
+
+    @Test
+    public void rejectsNegativeSnapDistances() {
+        assertRejected(b -> b.SNAP_RADIUS_PX = -1);
+        assertRejected(b -> b.SNAP_STICKINESS_PX = -1);
+    }
+
+    @Test
+    public void acceptsZeroSnapRadiusAndDebounce() {
+        SettingsSnapshot.Builder builder = new SettingsSnapshot.Builder();
+        builder.SNAP_RADIUS_PX = 0;
+        builder.CLICK_DEBOUNCE = 0;
+        assertEquals(0, builder.build().SNAP_RADIUS_PX);
+    }
+}
@@ -0,0 +1,152 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/SkeletonFilterBenchmarkTest.java
+// 描述: 骨架滤波的耗时基准。对合成演示脚本的每一帧，用默认设置（指尖单独的截止频率）滤波全部
+//       21×3个坐标，在桌面JVM上计时，并与被替换的食指指尖中值滤波（7帧窗口，每帧复制并排序列表）
+//       对比。数值只用于比较实现和发现数量级的退化，不代表设备上的绝对耗时。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Test;
+
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class SkeletonFilterBenchmarkTest {
+
+    private static final long FRAME_MS = 33;
+    private static final int ROUNDS = 15;
+    private static final int LOOPS_PER_ROUND = 200;
+    private static final int MEDIAN_WINDOW = 7;
+
+    /**
+     * 改用 SkeletonFilter 之前 GestureProcessor 对食指指尖做的中值滤波。
+     */
+    private static final class LegacyMedianFilter {
+        final List<Float> xHistory = new ArrayList<>();
+        final List<Float> yHistory = new ArrayList<>();
+        float x, y;
+
+        void apply(float newX, float newY) {
+            xHistory.add(newX);
+            yHistory.add(newY);
+            if (xHistory.size() > MEDIAN_WINDOW) {
+                xHistory.remove(0);
+                yHistory.remove(0);
+            }
+            List<Float> sortedX = new ArrayList<>(xHistory);
+            List<Float> sortedY = new ArrayList<>(yHistory);
+            Collections.sort(sortedX);
+            Collections.sort(sortedY);
+            x = sortedX.get(sortedX.size() / 2);
+            y = sortedY.get(sortedY.size() / 2);
+        }
+    }
+
+    private static SkeletonFilter newFilter(SettingsSnapshot config) {
+        SkeletonFilter filter = new SkeletonFilter(config.SKELETON_MIN_CUTOFF_HZ, config.SKELETON_BETA,
+                config.SKELETON_DERIVATIVE_CUTOFF_HZ);
+        for (int tip = 4; tip <= 20; tip += 4) {
+            if (tip != 8) filter.setJointCutoff(tip, config.SKELETON_TIP_MIN_CUTOFF_HZ);
+        }
+        return filter;
+    }
+
+    /**
+     * @return 演示脚本中有手的每一帧，按 HandFeatures.coords 的布局存放。
+     */
+    private static float[][] demoCoords() {
+        SyntheticHandScript script = SyntheticHandScript.demo(3, 0.003f, 0f, 0f);
+        HandFeatures features = new HandFeatures();
+        List<float[]> frames = new ArrayList<>();
+        for (int i = 0; i < script.getFrameCount(); i++) {
+            HandResult result = script.next((i + 1) * FRAME_MS);
+            List<List<NormalizedLandmark>> hands = result.landmarks();
+            if (hands.isEmpty()) continue;
+            features.load(hands.get(0));
+            frames.add(features.coords.clone());
+        }
+        return frames.toArray(new float[0][]);
+    }
+
+    @Test
+    public void filterReducesJitterOfStaticHand() {
+        SettingsSnapshot config = new SettingsSnapshot.Builder().build();
+        SkeletonFilter filter = newFilter(config);
+        SyntheticHandScript script = new SyntheticHandScript.Builder(1)
+                .noise(0.004f)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 300)
+                .build();
+        HandFeatures features = new HandFeatures();
+        double rawVariance = 0, filteredVariance = 0;
+        float previousRaw = 0f, previousFiltered = 0f;
+        int samples = 0;
+        for (int i = 0; i < 300; i++) {
+            features.load(script.next((i + 1) * FRAME_MS).landmarks().get(0));
+            float raw = features.x(8);
+            filter.apply(features.coords, (i + 1) * FRAME_MS);
+            float filtered = features.x(8);
+            // 跳过滤波器起步的帧，比较相邻帧之间的抖动
+            if (i > 30) {
+                rawVariance += (raw - previousRaw) * (raw - previousRaw);
+                filteredVariance += (filtered - previousFiltered) * (filtered - previousFiltered);
+                samples++;
+            }
+            previousRaw = raw;
+            previousFiltered = filtered;
+        }
+        assertTrue(samples > 0);
+        assertTrue("Filtered jitter should be well below raw jitter", filteredVariance < rawVariance / 4);
+    }
+
+    @Test
+    public void filterBenchmark() {
+        SettingsSnapshot config = new SettingsSnapshot.Builder().build();
+        float[][] frames = demoCoords();
+        int count = frames.length;
+        float[] coords = new float[SkeletonFilter.CHANNELS];
+        SkeletonFilter filter = newFilter(config);
+        LegacyMedianFilter median = new LegacyMedianFilter();
+        long timestampMs = 0;
+        double bestFilter = Double.MAX_VALUE, bestMedian = Double.MAX_VALUE;
+        float sink = 0f;
+        // 两种实现交替计时，各取最快的一轮；第一轮只作预热。时间戳持续递增，每帧都真正滤波
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int loop = 0; loop < LOOPS_PER_ROUND; loop++) {
+                for (float[] frame : frames) {
+                    System.arraycopy(frame, 0, coords, 0, coords.length);
+                    timestampMs += FRAME_MS;
+                    filter.apply(coords, timestampMs);
+                    sink += coords[HandFeatures.X + 8];
+                }
+            }
+            double filterNanos = (double) (System.nanoTime() - start) / (LOOPS_PER_ROUND * count);
+
+            start = System.nanoTime();
+            for (int loop = 0; loop < LOOPS_PER_ROUND; loop++) {
+                for (float[] frame : frames) {
+                    median.apply(frame[HandFeatures.X + 8], frame[HandFeatures.Y + 8]);
+                    sink += median.x;
+                }
+            }
+            double medianNanos = (double) (System.nanoTime() - start) / (LOOPS_PER_ROUND * count);
+            if (round > 0) {
+                bestFilter = Math.min(bestFilter, filterNanos);
+                bestMedian = Math.min(bestMedian, medianNanos);
+            }
+        }
+        System.out.println(String.format(Locale.US,
+                "Per frame (%d frames x %d loops, best of %d rounds): SkeletonFilter 63 channels %.3f us, "
+                        + "legacy index-tip median %.3f us",
+                count, LOOPS_PER_ROUND, ROUNDS, bestFilter / 1e3, bestMedian / 1e3));
+        assertFalse(Float.isNaN(sink));
+        // 远低于一帧的时间；只用于发现数量级的性能退化
+        assertTrue(bestFilter < 50_000);
+    }
+}
@@ -0,0 +1,228 @@
+// =================================================================================
+// 文件: app/src/test/java/com/yidroid/argesture/SyntheticGestureTest.java
+// 描述: 用合成手部脚本驱动 HandFeatures、SkeletonFilter 和 GestureEngine 的属性测试与吞吐测试。
+//       时间由 ManualClock 按帧推进，结果只取决于脚本和种子。三指点击和握拳回桌面的声明与
+//       GestureProcessor 相同（姿态谓词、松开阈值、冷却时间和多帧投票都取默认设置）；
+//       未检测到手时与 GestureProcessor 一样重置手势引擎和骨架滤波器。
+//       另直接驱动手势引擎，检查冷却期间开始的姿态不会在冷却结束后补发。
+// =================================================================================
+package com.yidroid.argesture;
+
+import org.junit.Test;
+
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SyntheticGestureTest {
+
+    private static final long FRAME_MS = 33;
+    private static final int TRANSITION_FRAMES = 4;
+
+    /**
+     * 与 GestureProcessor 处理单帧的顺序相同：选主控手、滤波、计算派生特征、评估手势。
+     */
+    private static final class Pipeline {
+        final SettingsSnapshot config = new SettingsSnapshot.Builder().build();
+        final ManualClock clock = new ManualClock(0);
+        final HandFeatures features = new HandFeatures();
+        final SkeletonFilter filter = new SkeletonFilter(config.SKELETON_MIN_CUTOFF_HZ, config.SKELETON_BETA,
+                config.SKELETON_DERIVATIVE_CUTOFF_HZ);
+        final GestureEngine engine = new GestureEngine();
+        final String activeHand = "Right";
+        int clicks;
+        int homes;
+
+        Pipeline() {
+            for (int tip = 4; tip <= 20; tip += 4) {
+                if (tip != 8) filter.setJointCutoff(tip, config.SKELETON_TIP_MIN_CUTOFF_HZ);
+            }
+            GestureEngine.Gesture pinchClick = new GestureEngine.Builder("pinch_click")
+                    .triggeredBy(f -> f.isPinchedWithin(config.PINCH_THRESHOLD))
+                    .heldWhile(f -> f.isPinchedWithin(config.PINCH_RELEASE_THRESHOLD))
+                    .cooldown(() -> config.CLICK_DEBOUNCE)
+                    .onEvent(nowMs -> clicks++)
+                    .build();
+            GestureEngine.Gesture fistHome = new GestureEngine.Builder("fist_home")
+                    .triggeredBy(f -> f.isFistWithin(config.FIST_THRESHOLD))
+                    .heldWhile(f -> f.isFistWithin(config.FIST_RELEASE_THRESHOLD))
+                    .cooldown(() -> config.HOME_DEBOUNCE)
+                    .onEvent(nowMs -> homes++)
+                    .build();
+            pinchClick.setVote(config.POSE_VOTE_REQUIRED, config.POSE_VOTE_WINDOW);
+            fistHome.setVote(config.POSE_VOTE_REQUIRED, config.POSE_VOTE_WINDOW);
+            engine.add(pinchClick).add(fistHome);
+        }
+
+        void process(HandResult result) {
+            clock.set(result.timestampMs());
+            List<List<NormalizedLandmark>> hands = result.landmarks();
+            if (hands.isEmpty()) {
+                engine.reset(clock.nowMs());
+                filter.reset();
+                return;
+            }
+            // 与 GestureProcessor.getActiveHandIndex 相同：按主控手的标签选择，找不到时取第一只手
+            int index = 0;
+            for (int i = 0; i < hands.size(); i++) {
+                if (activeHand.equals(result.handedness().get(i).get(0).categoryName())) {
+                    index = i;
+                    break;
+                }
+            }
+            features.load(hands.get(index));
+            filter.apply(features.coords, result.timestampMs());
+            features.computeDerived();
+            engine.evaluate(features, clock.nowMs());
+        }
+
+        /**
+         * 播放脚本的一个完整循环。
+         */
+        void play(SyntheticHandScript script) {
+            int frames = script.getFrameCount();
+            for (int frame = 0; frame < frames; frame++) {
+                process(script.next(clock.nowMs() + FRAME_MS));
+            }
+        }
+    }
+
+    /**
+     * 张开 - 捏合保持 heldFrames 帧 - 张开。捏合段开头另有 TRANSITION_FRAMES 帧从张开过渡到捏合。
+     */
+    private static SyntheticHandScript.Builder pinchScript(long seed, int heldFrames) {
+        return new SyntheticHandScript.Builder(seed)
+                .transitionFrames(TRANSITION_FRAMES)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 20)
+                .segment(HandPose.THREE_FINGER_PINCH, HandMotion.HOLD, TRANSITION_FRAMES + heldFrames)
+                .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 20);
+    }
+
+    @Test
+    public void pinchHeldForAnyDurationClicksExactlyOnce() {
+        for (int heldFrames : new int[]{2, 3, 5, 8, 30, 90}) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.play(pinchScript(heldFrames, heldFrames).build());
+            assertEquals("pinch held " + heldFrames + " frames", 1, pipeline.clicks);
+            assertEquals(0, pipeline.homes);
+        }
+    }
+
+    @Test
+    public void pinchLongerThanCooldownIsNotRepeated() {
+        // 保持时间远超 CLICK_DEBOUNCE，锁存期间不会因冷却结束而再次触发
+        Pipeline pipeline = new Pipeline();
+        pipeline.play(pinchScript(5, 300).noise(0.002f).build());
+        assertEquals(1, pipeline.clicks);
+    }
+
+    @Test
+    public void repeatedPinchesClickOncePerPinch() {
+        Pipeline pipeline = new Pipeline();
+        SyntheticHandScript.Builder builder = new SyntheticHandScript.Builder(3).noise(0.002f);
+        for (int i = 0; i < 10; i++) {
+            builder.segment(HandPose.OPEN_PALM, HandMotion.HOLD, 10)
+                    .segment(HandPose.THREE_FINGER_PINCH, HandMotion.HOLD, 6 + i);
+        }
+        pipeline.play(builder.segment(HandPose.OPEN_PALM, HandMotion.HOLD, 10).build());
+        assertEquals(10, pipeline.clicks);
+    }
+
+    @Test
+    public void poseHeldThroughCooldownNeedsFreshPose() {
+        // 直接驱动手势引擎：姿态在冷却期间重新出现并一直保持，冷却结束后也不补发，
+        // 中间丢失手部跟踪也一样；松开后重新做出姿态才再次触发
+        final boolean[] pose = {false};
+        final int[] fired = {0};
+        GestureEngine engine = new GestureEngine().add(new GestureEngine.Builder("pose")
+                .triggeredBy(f -> pose[0])
+                .cooldown(() -> 150)
+                .onEvent(nowMs -> fired[0]++)
+                .build());
+        HandFeatures features = new HandFeatures();
+        boolean[] frames = {true, false, true, true, true, true, true, true, true, true, true, true};
+        long nowMs = 1000;
+        for (boolean active : frames) {
+            pose[0] = active;
+            engine.evaluate(features, nowMs);
+            nowMs += FRAME_MS;
+        }
+        assertEquals(1, fired[0]);
+        engine.reset(nowMs);
+        nowMs += FRAME_MS;
+        engine.evaluate(features, nowMs);
+        assertEquals("dropout must not release the blocked pose", 1, fired[0]);
+        pose[0] = false;
+        engine.evaluate(features, nowMs += FRAME_MS);
+        pose[0] = true;
+        engine.evaluate(features, nowMs += FRAME_MS);
+        assertEquals(2, fired[0]);
+    }
+
+    @Test
+    public void fistDoesNotTriggerPinch() {
+        for (long seed = 0; seed < 20; seed++) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.play(new SyntheticHandScript.Builder(seed)
+                    .noise(0.002f)
+                    .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 20)
+                    .segment(HandPose.FIST, HandMotion.HOLD, 30)
+                    .segment(HandPose.OPEN_PALM, HandMotion.HOLD, 20)
+                    .build());
+            assertEquals("seed " + seed, 0, pipeline.clicks);
+            assertEquals("seed " + seed, 1, pipeline.homes);
+        }
+    }
+
+    @Test
+    public void dropoutsAndHandednessFlipsDoNotDoubleFire() {
+        for (long seed = 0; seed < 50; seed++) {
+            Pipeline pipeline = new Pipeline();
+            pipeline.play(pinchScript(seed, 30)
+                    .noise(0.002f)
+                    .dropoutRate(0.1f)
+                    .handednessFlipRate(0.2f)
+                    .build());
+            assertEquals("seed " + seed, 1, pipeline.clicks);
+            assertEquals("seed " + seed, 0, pipeline.homes);
+        }
+    }
+
+    @Test
+    public void pipelineThroughput() {
+        SyntheticHandScript script = SyntheticHandScript.demo(11, 0.002f, 0.02f, 0.02f);
+        HandResult[] results = new HandResult[script.getFrameCount()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = script.next((i + 1) * FRAME_MS);
+        }
+        Pipeline pipeline = new Pipeline();
+        // 预热后计时；时间戳按循环继续递增
+        int frames = 0;
+        long start = 0;
+        for (int loop = 0; loop < 400; loop++) {
+            if (loop == 100) {
+                start = System.nanoTime();
+                frames = 0;
+            }
+            for (HandResult result : results) {
+                pipeline.process(result.withTimestamp(pipeline.clock.nowMs() + FRAME_MS));
+                frames++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        double framesPerSecond = frames * 1e9 / elapsedNanos;
+        System.out.println(String.format(Locale.US, "%d frames in %d ms: %.0f frames/s, %.2f us/frame, clicks=%d, homes=%d",
+                frames, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), framesPerSecond, elapsedNanos / 1e3 / frames,
+                pipeline.clicks, pipeline.homes));
+        // 远高于任何相机帧率；只用于发现数量级的性能退化
+        assertTrue(framesPerSecond > 10_000);
+        // 演示脚本每个循环捏合一次，带丢失和左右手翻转也不会重复触发。勾指姿态同样满足握拳谓词，
+        // GestureProcessor 中由优先级更高的独占手势 back_hook 接管，这里没有声明，因此每个循环回桌面两次
+        assertEquals(400, pipeline.clicks);
+        assertEquals(800, pipeline.homes);
+    }
+}